@@ -0,0 +1,73 @@
+package gov.pnnl.aperture.benchmarks;
+
+import com.atlassian.jira.issue.MutableIssue;
+import com.atlassian.jira.issue.issuetype.IssueType;
+import com.atlassian.jira.util.ErrorCollection;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProjectServiceHandler;
+import gov.pnnl.aperture.project.PnnlAperture;
+import gov.pnnl.aperture.project.PnnlApertureMetrics;
+import gov.pnnl.aperture.project.ProjectMembershipCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the orchestration overhead of {@link PnnlAperture#createProject(MutableIssue, Map)}.
+ * <p>
+ * All project services are replaced by {@link StubProjectServiceHandler} instances without latency so the numbers
+ * reflect only the work Aperture does around the handlers, including the error and rollback path when a handler fails.
+ *
+ * @author Developer Central @ PNNL
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateProjectBenchmark {
+
+    /**
+     * Probability that each stub handler fails its <code>createService</code> call.
+     */
+    @Param({"0.0", "0.2"})
+    public double failureRate;
+
+    private PnnlAperture aperture;
+    private MutableIssue issue;
+    private Map<String, Serializable> environment;
+
+    @Setup
+    public void setUp() {
+
+        final List<ProjectServiceHandler> handlers = new ArrayList<>();
+        for (final ApertureSettings.ProjectService service : ApertureSettings.ProjectService.values()) {
+            handlers.add(new StubProjectServiceHandler(service, 0, failureRate));
+        }
+        final ApertureSettings settings = Stubs.stub(ApertureSettings.class);
+        final ProjectMembershipCache membershipCache = new ProjectMembershipCache(Stubs.eventPublisher());
+        aperture = new PnnlAperture(Stubs.pluginSettingsFactory(), settings, membershipCache, new PnnlApertureMetrics()) {
+
+            @Override
+            protected List<ProjectServiceHandler> getProjectServices(final IssueType type) {
+
+                return handlers;
+            }
+        };
+        issue = Stubs.stub(MutableIssue.class);
+        environment = new HashMap<>();
+        environment.put("issue-key", "APR-1");
+    }
+
+    @Benchmark
+    public ErrorCollection createProject() {
+
+        return aperture.createProject(issue, environment);
+    }
+}
@@ -0,0 +1,258 @@
+package gov.pnnl.aperture.benchmarks;
+
+import com.atlassian.applinks.api.ApplicationLinkRequest;
+import com.atlassian.applinks.api.ApplicationLinkRequestFactory;
+import com.atlassian.applinks.api.ApplicationLinkResponseHandler;
+import com.atlassian.sal.api.net.Request;
+import com.atlassian.sal.api.net.Response;
+import com.atlassian.sal.api.net.ResponseException;
+import com.atlassian.sal.api.net.ResponseHandler;
+import com.atlassian.sal.api.net.ReturningResponseHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Application link request factory test double that sends requests over plain HTTP with {@link HttpURLConnection}.
+ * <p>
+ * Requests are resolved against the RPC URL of the link the factory was created for, which lets the real project
+ * service handlers be pointed at the local stub servers without a running JIRA or any application link authentication.
+ *
+ * @author Developer Central @ PNNL
+ */
+public final class HttpApplicationLinkRequestFactory {
+
+    /**
+     * Timeout in milliseconds used for both connecting and reading unless the caller sets its own.
+     */
+    private static final int DEFAULT_TIMEOUT = 30000;
+
+    /**
+     * Default utility class constructor.
+     */
+    private HttpApplicationLinkRequestFactory() {
+
+    }
+
+    /**
+     * Creates a request factory for an application link.
+     * <p>
+     *
+     * @param rpcUrl base URL relative request URLs are resolved against; e.g. <code>http://127.0.0.1:8990/bitbucket</code>.
+     * @return request factory whose requests are sent over plain HTTP.
+     */
+    public static ApplicationLinkRequestFactory create(final URI rpcUrl) {
+
+        final Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("createRequest", args -> createRequest((Request.MethodType) args[0], resolve(rpcUrl, (String) args[1])));
+        answers.put("getAuthorisationURI", args -> rpcUrl);
+        return Stubs.stub(ApplicationLinkRequestFactory.class, answers);
+    }
+
+    /**
+     * Creates a single request for an absolute URL.
+     * <p>
+     *
+     * @param methodType HTTP method of the request.
+     * @param url        absolute URL of the request.
+     * @return application link request that is sent when one of its <code>execute</code> methods is called.
+     */
+    public static ApplicationLinkRequest createRequest(final Request.MethodType methodType, final String url) {
+
+        final HttpRequest request = new HttpRequest(methodType, url);
+        return ApplicationLinkRequest.class.cast(Proxy.newProxyInstance(HttpApplicationLinkRequestFactory.class.getClassLoader(), new Class<?>[]{ApplicationLinkRequest.class}, request));
+    }
+
+    private static String resolve(final URI rpcUrl, final String url) {
+
+        final String target = url.startsWith("http://") || url.startsWith("https://") ? url : String.format("%s%s", rpcUrl, url);
+        return target.replace(" ", "%20");
+    }
+
+    /**
+     * Invocation handler holding the state of a single request.
+     */
+    private static final class HttpRequest implements InvocationHandler {
+
+        private final Request.MethodType methodType;
+        private final Map<String, List<String>> headers = new LinkedHashMap<>();
+        private final List<String> parameters = new ArrayList<>();
+        private String url;
+        private String body;
+        private String contentType;
+        private int connectionTimeout = DEFAULT_TIMEOUT;
+        private int soTimeout = DEFAULT_TIMEOUT;
+        private boolean followRedirects = true;
+
+        HttpRequest(final Request.MethodType methodType, final String url) {
+
+            this.methodType = methodType;
+            this.url = url;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+
+            final Object[] arguments = args == null ? new Object[0] : args;
+            switch (method.getName()) {
+                case "addHeader":
+                    headers.computeIfAbsent((String) arguments[0], name -> new ArrayList<>()).add((String) arguments[1]);
+                    break;
+                case "setHeader":
+                    headers.put((String) arguments[0], new ArrayList<>(Collections.singletonList((String) arguments[1])));
+                    break;
+                case "setRequestBody":
+                    body = (String) arguments[0];
+                    if (arguments.length > 1) {
+                        contentType = (String) arguments[1];
+                    }
+                    break;
+                case "setEntity":
+                    body = String.valueOf(arguments[0]);
+                    break;
+                case "addRequestParameters":
+                    parameters.addAll(Arrays.asList((String[]) arguments[0]));
+                    break;
+                case "setUrl":
+                    url = (String) arguments[0];
+                    break;
+                case "setConnectionTimeout":
+                    connectionTimeout = (Integer) arguments[0];
+                    break;
+                case "setSoTimeout":
+                    soTimeout = (Integer) arguments[0];
+                    break;
+                case "setFollowRedirects":
+                    followRedirects = (Boolean) arguments[0];
+                    break;
+                case "getHeaders":
+                    return headers;
+                case "execute":
+                    if (arguments.length == 0) {
+                        final Response response = perform();
+                        if (!response.isSuccessful()) {
+                            throw new ResponseException(String.format("%s %s returned status %d", methodType, url, response.getStatusCode()));
+                        }
+                        return response.getResponseBodyAsString();
+                    } else if (arguments[0] instanceof ApplicationLinkResponseHandler) {
+                        final ApplicationLinkResponseHandler<Object> handler = (ApplicationLinkResponseHandler<Object>) arguments[0];
+                        final Response response = perform();
+                        return response.getStatusCode() == HttpURLConnection.HTTP_UNAUTHORIZED ? handler.credentialsRequired(response) : handler.handle(response);
+                    }
+                    ((ResponseHandler<Response>) arguments[0]).handle(perform());
+                    return null;
+                case "executeAndReturn":
+                    return ((ReturningResponseHandler<Response, Object>) arguments[0]).handle(perform());
+                case "equals":
+                    return proxy == arguments[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return String.format("%s %s", methodType, url);
+                default:
+                    break;
+            }
+            return method.getReturnType().isInstance(proxy) ? proxy : null;
+        }
+
+        private Response perform() throws ResponseException {
+
+            try {
+                String target = url;
+                String content = body;
+                String type = contentType;
+                if (!parameters.isEmpty()) {
+                    final String query = encode(parameters);
+                    if (content == null && (methodType == Request.MethodType.POST || methodType == Request.MethodType.PUT)) {
+                        content = query;
+                        type = "application/x-www-form-urlencoded";
+                    } else {
+                        target = String.format("%s%s%s", target, target.contains("?") ? "&" : "?", query);
+                    }
+                }
+
+                final HttpURLConnection connection = (HttpURLConnection) new URL(target).openConnection();
+                connection.setRequestMethod(methodType.name());
+                connection.setConnectTimeout(connectionTimeout);
+                connection.setReadTimeout(soTimeout);
+                connection.setInstanceFollowRedirects(followRedirects);
+                for (final Map.Entry<String, List<String>> header : headers.entrySet()) {
+                    for (final String value : header.getValue()) {
+                        connection.addRequestProperty(header.getKey(), value);
+                    }
+                }
+                if (type != null) {
+                    connection.setRequestProperty("Content-Type", type);
+                }
+                if (content != null && (methodType == Request.MethodType.POST || methodType == Request.MethodType.PUT)) {
+                    final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+                    connection.setDoOutput(true);
+                    connection.setFixedLengthStreamingMode(bytes.length);
+                    try (final OutputStream os = connection.getOutputStream()) {
+                        os.write(bytes);
+                    }
+                }
+
+                final int statusCode = connection.getResponseCode();
+                final InputStream is = statusCode >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream();
+                final String responseBody = read(is);
+                // header names are matched case insensitively by the handlers; e.g. Content-Length //
+                final Map<String, String> responseHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                for (final Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+                    if (header.getKey() != null) {
+                        responseHeaders.put(header.getKey(), String.join(", ", header.getValue()));
+                    }
+                }
+                return Stubs.response(statusCode, responseBody, responseHeaders);
+            } catch (IOException ex) {
+                throw new ResponseException(String.format("%s %s failed", methodType, url), ex);
+            }
+        }
+
+        private static String encode(final List<String> nameValuePairs) throws UnsupportedEncodingException {
+
+            final StringBuilder query = new StringBuilder();
+            for (int i = 0; i + 1 < nameValuePairs.size(); i += 2) {
+                if (query.length() > 0) {
+                    query.append('&');
+                }
+                query.append(URLEncoder.encode(nameValuePairs.get(i), "UTF-8"));
+                query.append('=');
+                query.append(URLEncoder.encode(nameValuePairs.get(i + 1), "UTF-8"));
+            }
+            return query.toString();
+        }
+
+        private static String read(final InputStream is) throws IOException {
+
+            if (is == null) {
+                return "";
+            }
+            try (final InputStream in = is) {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                }
+                return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
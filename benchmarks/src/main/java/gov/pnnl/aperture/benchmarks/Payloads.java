@@ -0,0 +1,245 @@
+package gov.pnnl.aperture.benchmarks;
+
+/**
+ * Generators for representative response bodies from the services Aperture talks to.
+ * <p>
+ * The shapes follow the responses of the Confluence, Bitbucket, FECRU and Jenkins APIs that the project service
+ * handlers parse; sizes are parameterized so that benchmarks can show how parsing scales with the payload.
+ *
+ * @author Developer Central @ PNNL
+ */
+public final class Payloads {
+
+    /**
+     * Default utility class constructor.
+     */
+    private Payloads() {
+
+    }
+
+    /**
+     * Confluence <code>getSpace</code> style XML-RPC response holding a single struct.
+     * <p>
+     *
+     * @param spaceKey key of the space described by the response.
+     * @return XML-RPC method response.
+     */
+    public static String confluenceSpace(final String spaceKey) {
+
+        final StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\"?><methodResponse><params><param><value><struct>");
+        member(xml, "key", "string", spaceKey);
+        member(xml, "name", "string", String.format("%s Project Space", spaceKey));
+        member(xml, "url", "string", String.format("https://confluence.example.com/display/%s", spaceKey));
+        member(xml, "homePage", "string", "65538");
+        member(xml, "description", "string", "Space created by Aperture for benchmarking.");
+        member(xml, "type", "string", "global");
+        xml.append("</struct></value></param></params></methodResponse>");
+        return xml.toString();
+    }
+
+    /**
+     * Confluence <code>getSpacePermissionSets</code> style XML-RPC response; an array of permission structs.
+     * <p>
+     *
+     * @param entries number of permission entries in the array.
+     * @return XML-RPC method response.
+     */
+    public static String confluencePermissionSets(final int entries) {
+
+        final StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\"?><methodResponse><params><param><value><array><data>");
+        for (int i = 0; i < entries; i++) {
+            xml.append("<value><struct>");
+            member(xml, "type", "string", i % 2 == 0 ? "VIEWSPACE" : "EDITSPACE");
+            member(xml, "userName", "string", String.format("user%05d", i));
+            member(xml, "groupName", "string", String.format("group-%03d", i % 100));
+            member(xml, "inherited", "boolean", i % 3 == 0 ? "1" : "0");
+            member(xml, "order", "int", Integer.toString(i));
+            xml.append("</struct></value>");
+        }
+        xml.append("</data></array></value></param></params></methodResponse>");
+        return xml.toString();
+    }
+
+    /**
+     * Confluence XML-RPC fault response.
+     * <p>
+     *
+     * @return XML-RPC method response holding a fault struct.
+     */
+    public static String confluenceFault() {
+
+        final StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\"?><methodResponse><fault><value><struct>");
+        member(xml, "faultCode", "int", "0");
+        member(xml, "faultString", "string", "com.atlassian.confluence.rpc.NotPermittedException: You're not allowed to view that space.");
+        xml.append("</struct></value></fault></methodResponse>");
+        return xml.toString();
+    }
+
+    /**
+     * One page of the Bitbucket <code>/rest/api/1.0/projects/{key}/repos</code> resource.
+     * <p>
+     *
+     * @param projectKey key of the project the repositories belong to.
+     * @param start      index of the first repository in the page.
+     * @param limit      number of repositories in the page.
+     * @param lastPage   whether this is the last page of results.
+     * @return JSON paged response.
+     */
+    public static String bitbucketRepositories(final String projectKey, final int start, final int limit, final boolean lastPage) {
+
+        final StringBuilder json = new StringBuilder();
+        json.append(String.format("{\"size\":%d,\"limit\":%d,\"isLastPage\":%s,\"start\":%d,", limit, limit, lastPage, start));
+        if (!lastPage) {
+            json.append(String.format("\"nextPageStart\":%d,", start + limit));
+        }
+        json.append("\"values\":[");
+        for (int i = start; i < start + limit; i++) {
+            if (i > start) {
+                json.append(',');
+            }
+            json.append(bitbucketRepository(projectKey, String.format("%s-repo-%d", projectKey.toLowerCase(), i), i));
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    /**
+     * A single repository from the Bitbucket <code>/rest/api/1.0/projects/{key}/repos</code> resource.
+     * <p>
+     *
+     * @param projectKey key of the project the repository belongs to.
+     * @param slug       slug of the repository.
+     * @param id         numeric id of the repository.
+     * @return JSON repository entity.
+     */
+    public static String bitbucketRepository(final String projectKey, final String slug, final int id) {
+
+        final StringBuilder json = new StringBuilder();
+        json.append(String.format("{\"slug\":\"%s\",\"id\":%d,\"name\":\"%s\",\"scmId\":\"git\",\"state\":\"AVAILABLE\",", slug, id, slug));
+        json.append("\"statusMessage\":\"Available\",\"forkable\":true,\"public\":false,");
+        json.append(String.format("\"project\":%s,", bitbucketProject(projectKey)));
+        json.append("\"links\":{\"clone\":[");
+        json.append(String.format("{\"href\":\"https://bitbucket.example.com/scm/%s/%s.git\",\"name\":\"http\"},", projectKey.toLowerCase(), slug));
+        json.append(String.format("{\"href\":\"ssh://git@bitbucket.example.com:7999/%s/%s.git\",\"name\":\"ssh\"}],", projectKey.toLowerCase(), slug));
+        json.append(String.format("\"self\":[{\"href\":\"https://bitbucket.example.com/projects/%s/repos/%s/browse\"}]}}", projectKey, slug));
+        return json.toString();
+    }
+
+    /**
+     * The Bitbucket <code>/rest/api/1.0/projects/{key}</code> resource.
+     * <p>
+     *
+     * @param projectKey key of the project.
+     * @return JSON project entity.
+     */
+    public static String bitbucketProject(final String projectKey) {
+
+        return String.format("{\"key\":\"%s\",\"id\":1,\"name\":\"%s\",\"public\":false,\"type\":\"NORMAL\",\"links\":{\"self\":[{\"href\":\"https://bitbucket.example.com/projects/%s\"}]}}", projectKey, projectKey, projectKey);
+    }
+
+    /**
+     * The Confluence <code>/rest/api/space/{key}</code> resource.
+     * <p>
+     *
+     * @param spaceKey key of the space.
+     * @return JSON space entity with the links the Confluence handler reads.
+     */
+    public static String confluenceSpaceEntity(final String spaceKey) {
+
+        final StringBuilder json = new StringBuilder();
+        json.append(String.format("{\"id\":65537,\"key\":\"%s\",\"name\":\"%s Project Space\",\"type\":\"global\",", spaceKey, spaceKey));
+        json.append("\"homepage\":{\"id\":\"65538\",\"type\":\"page\",\"_links\":{\"tinyui\":\"/x/AgAB\"}},");
+        json.append(String.format("\"_links\":{\"base\":\"https://confluence.example.com\",\"webui\":\"/display/%s\"}}", spaceKey));
+        return json.toString();
+    }
+
+    /**
+     * XML-RPC response holding a single scalar value; e.g. the session token from <code>login</code>.
+     * <p>
+     *
+     * @param type  XML-RPC type of the value; e.g. <code>string</code> or <code>boolean</code>.
+     * @param value the value.
+     * @return XML-RPC method response.
+     */
+    public static String xmlRpcValue(final String type, final String value) {
+
+        return String.format("<?xml version=\"1.0\"?><methodResponse><params><param><value><%s>%s</%s></value></param></params></methodResponse>", type, value, type);
+    }
+
+    /**
+     * The FECRU <code>/rest-service-fecru/admin/projects/{key}</code> resource.
+     * <p>
+     *
+     * @param projectKey key of the Crucible project.
+     * @return JSON project entity.
+     */
+    public static String crucibleProject(final String projectKey) {
+
+        return String.format("{\"id\":1,\"key\":\"%s\",\"name\":\"%s\",\"defaultRepositoryName\":\"%s-default\",\"permissionSchemeName\":\"agile\",\"moderatorEnabled\":false,\"allowReviewersToJoin\":true}", projectKey, projectKey, projectKey);
+    }
+
+    /**
+     * The FECRU <code>/rest/applinks/1.0/applicationlink.json</code> resource listing a single Bitbucket link.
+     * <p>
+     *
+     * @param stashId application id of the Bitbucket link.
+     * @return JSON application link listing.
+     */
+    public static String crucibleApplicationLinks(final String stashId) {
+
+        return String.format("{\"applicationLinks\":[{\"id\":\"%s\",\"typeId\":\"stash\",\"name\":\"Bitbucket\",\"rpcUrl\":\"https://bitbucket.example.com\",\"isPrimary\":true}]}", stashId);
+    }
+
+    /**
+     * The Jenkins <code>/job/{name}/api/json</code> resource for a folder.
+     * <p>
+     *
+     * @param folderName name of the folder.
+     * @param jobs       number of jobs in the folder.
+     * @return JSON folder entity.
+     */
+    public static String jenkinsFolder(final String folderName, final int jobs) {
+
+        final StringBuilder json = new StringBuilder();
+        json.append("{\"_class\":\"com.cloudbees.hudson.plugins.folder.Folder\",");
+        json.append(String.format("\"name\":\"%s\",\"url\":\"https://jenkins.example.com/job/%s/\",\"jobs\":[", folderName, folderName));
+        for (int i = 0; i < jobs; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format("{\"name\":\"job-%d\",\"url\":\"https://jenkins.example.com/job/%s/job/job-%d/\",\"color\":\"blue\"}", i, folderName, i));
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    /**
+     * The Jenkins <code>/job/{name}/groups/{group}/api/json</code> resource of the folder authorization plug-in.
+     * <p>
+     *
+     * @param groupName name of the group.
+     * @param members   number of members in the group.
+     * @return JSON group entity.
+     */
+    public static String jenkinsGroup(final String groupName, final int members) {
+
+        final StringBuilder json = new StringBuilder();
+        json.append(String.format("{\"name\":\"%s\",\"members\":[", groupName));
+        for (int i = 0; i < members; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format("\"user%05d\"", i));
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    private static void member(final StringBuilder xml, final String name, final String type, final String value) {
+
+        xml.append(String.format("<member><name>%s</name><value><%s>%s</%s></value></member>", name, type, value, type));
+    }
+}
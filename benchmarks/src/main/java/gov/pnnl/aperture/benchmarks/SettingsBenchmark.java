@@ -0,0 +1,72 @@
+package gov.pnnl.aperture.benchmarks;
+
+import com.atlassian.applinks.api.ApplicationLink;
+import com.atlassian.jira.mock.component.MockComponentWorker;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.JiraUtils;
+import gov.pnnl.aperture.project.PnnlApertureSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for settings look-ups through {@link PnnlApertureSettings} and the project links built from them.
+ * <p>
+ * Plug-in settings are held in memory and application links are stubbed, so these numbers measure Aperture's own
+ * overhead on top of SAL rather than the cost of the database behind it.
+ *
+ * @author Developer Central @ PNNL
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettingsBenchmark {
+
+    private PnnlApertureSettings settings;
+
+    @Setup
+    public void setUp() {
+
+        settings = new PnnlApertureSettings(Stubs.pluginSettingsFactory(), Stubs.applicationLinkService("http://localhost:8990"));
+        for (final ApertureSettings.ProjectService service : ApertureSettings.ProjectService.values()) {
+            settings.putPluginSetting(service.name(), Stubs.applicationId(service));
+        }
+        settings.setDeleteDuration("2w");
+        new MockComponentWorker().addMock(ApertureSettings.class, settings).init();
+    }
+
+    @Benchmark
+    public String pluginSetting() {
+
+        return settings.getPluginSetting(ApertureSettings.ProjectService.CONFLUENCE.name());
+    }
+
+    @Benchmark
+    public String deleteDuration() {
+
+        return settings.getDeleteDuration();
+    }
+
+    @Benchmark
+    public ApplicationLink applicationLink() {
+
+        return settings.getApplicationLink(ApertureSettings.ProjectService.BITBUCKET);
+    }
+
+    @Benchmark
+    public Map<String, Object> serviceConfiguration() {
+
+        return settings.getServiceConfiguration(ApertureSettings.ProjectService.JIRA, "software");
+    }
+
+    @Benchmark
+    public Map<ApertureSettings.ProjectService, String> projectLinks() {
+
+        return JiraUtils.getProjectLinks(new HashMap<>(), "APR");
+    }
+}
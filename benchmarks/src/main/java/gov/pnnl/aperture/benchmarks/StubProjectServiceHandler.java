@@ -0,0 +1,109 @@
+package gov.pnnl.aperture.benchmarks;
+
+import com.atlassian.crowd.embedded.api.Group;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.util.ErrorCollection;
+import com.atlassian.jira.util.SimpleErrorCollection;
+import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProjectServiceHandler;
+import gov.pnnl.aperture.ProvisioningRequest;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Project service handler that does no remote work; used to measure the orchestration overhead around the handlers.
+ * <p>
+ * Each call optionally parks for a fixed latency and fails with a {@link RuntimeException} at a configured rate so
+ * that the error and rollback paths of the orchestration can be measured as well.
+ *
+ * @author Developer Central @ PNNL
+ */
+public class StubProjectServiceHandler implements ProjectServiceHandler {
+
+    private final ApertureSettings.ProjectService serviceType;
+    private final long latencyNanos;
+    private final double failureRate;
+
+    /**
+     * Creates a stub handler for a project service.
+     * <p>
+     *
+     * @param serviceType   the project service this handler stands in for.
+     * @param latencyMicros time each call spends before returning, in microseconds.
+     * @param failureRate   probability between 0 and 1 that a call throws a {@link RuntimeException}.
+     */
+    public StubProjectServiceHandler(final ApertureSettings.ProjectService serviceType, final long latencyMicros, final double failureRate) {
+
+        this.serviceType = serviceType;
+        this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public ApertureSettings.ProjectService getServiceType() {
+
+        return serviceType;
+    }
+
+    @Override
+    public ErrorCollection createService(final ProvisioningRequest projectRequest, final Map<String, Serializable> environment) {
+
+        return call("createService");
+    }
+
+    @Override
+    public ErrorCollection modifyUsers(final String projectKey, final Aperture.PermissionMode mode, final Aperture.Role role, final Collection<ApplicationUser> userList) {
+
+        return call("modifyUsers");
+    }
+
+    @Override
+    public ErrorCollection modifyGroups(final String projectKey, final Aperture.PermissionMode mode, final Aperture.Role role, final Collection<Group> groupList) {
+
+        return call("modifyGroups");
+    }
+
+    @Override
+    public ErrorCollection destroyService(final String projectKey, final Map<String, Serializable> environment) {
+
+        return call("destroyService");
+    }
+
+    @Override
+    public boolean isServiceAvailable(final String projectKey) {
+
+        call("isServiceAvailable");
+        return true;
+    }
+
+    @Override
+    public boolean isIdle(final String projectKey) {
+
+        call("isIdle");
+        return false;
+    }
+
+    @Override
+    public void collectProjectKeys(final Consumer<String> projectKeys) {
+
+        call("collectProjectKeys");
+    }
+
+    private ErrorCollection call(final String operation) {
+
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException(String.format("Simulated %s failure for service:%s", operation, serviceType));
+        }
+        return new SimpleErrorCollection();
+    }
+}
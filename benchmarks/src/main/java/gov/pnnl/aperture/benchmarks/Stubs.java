@@ -0,0 +1,235 @@
+package gov.pnnl.aperture.benchmarks;
+
+import com.atlassian.applinks.api.ApplicationId;
+import com.atlassian.applinks.api.ApplicationLink;
+import com.atlassian.applinks.api.ApplicationLinkRequestFactory;
+import com.atlassian.applinks.api.ApplicationLinkService;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.sal.api.net.Response;
+import com.atlassian.sal.api.pluginsettings.PluginSettings;
+import com.atlassian.sal.api.pluginsettings.PluginSettingsFactory;
+import gov.pnnl.aperture.ApertureSettings;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Light-weight stand-ins for the JIRA, SAL and application link services Aperture depends on.
+ * <p>
+ * Interfaces are stubbed with dynamic proxies so that the benchmarks only depend on the handful of methods Aperture
+ * actually calls; every other method returns the default value for its return type.
+ *
+ * @author Developer Central @ PNNL
+ */
+public final class Stubs {
+
+    /**
+     * Default utility class constructor.
+     */
+    private Stubs() {
+
+    }
+
+    /**
+     * Creates a proxy for an interface that answers every call with the default value for the return type.
+     * <p>
+     *
+     * @param type    the interface to stub.
+     * @param answers method name to answer mapping for the methods that need a specific result.
+     * @param <T>     type of the interface to stub.
+     * @return a proxy instance implementing the interface.
+     */
+    public static <T> T stub(final Class<T> type, final Map<String, Answer> answers) {
+
+        final InvocationHandler handler = (proxy, method, args) -> {
+            final Answer answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.answer(args == null ? new Object[0] : args);
+            }
+            return defaultValue(proxy, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Creates a proxy for an interface that answers every call with the default value for the return type.
+     * <p>
+     *
+     * @param type the interface to stub.
+     * @param <T>  type of the interface to stub.
+     * @return a proxy instance implementing the interface.
+     */
+    public static <T> T stub(final Class<T> type) {
+
+        return stub(type, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a plug-in settings factory backed by a single in-memory settings map.
+     * <p>
+     *
+     * @return plug-in settings factory where global and keyed settings share the same storage.
+     */
+    public static PluginSettingsFactory pluginSettingsFactory() {
+
+        final PluginSettings settings = new InMemoryPluginSettings();
+        final Map<String, Answer> answers = new HashMap<>();
+        answers.put("createGlobalSettings", args -> settings);
+        answers.put("createSettingsForKey", args -> settings);
+        return stub(PluginSettingsFactory.class, answers);
+    }
+
+    /**
+     * Creates an event publisher that discards all registrations and events.
+     * <p>
+     *
+     * @return no-op event publisher.
+     */
+    public static EventPublisher eventPublisher() {
+
+        return stub(EventPublisher.class);
+    }
+
+    /**
+     * Creates an application link service that serves one application link per Aperture project service.
+     * <p>
+     * The application id of each link is given by {@link #applicationId(ApertureSettings.ProjectService)}, so the link
+     * for a service can be configured by storing that id against the service in the Aperture plug-in settings. Requests
+     * made through a link are sent over plain HTTP by {@link HttpApplicationLinkRequestFactory} to the link's RPC URL.
+     *
+     * @param baseUrl base URL the RPC URL of each link is derived from; e.g. <code>http://localhost:8080</code>.
+     * @return application link service stub.
+     */
+    public static ApplicationLinkService applicationLinkService(final String baseUrl) {
+
+        final Map<String, ApplicationLink> links = new ConcurrentHashMap<>();
+        for (final ApertureSettings.ProjectService service : ApertureSettings.ProjectService.values()) {
+            final URI rpcUrl = URI.create(String.format("%s/%s", baseUrl, service.name().toLowerCase()));
+            final ApplicationLinkRequestFactory requestFactory = HttpApplicationLinkRequestFactory.create(rpcUrl);
+            final Map<String, Answer> answers = new HashMap<>();
+            answers.put("getRpcUrl", args -> rpcUrl);
+            answers.put("getDisplayUrl", args -> rpcUrl);
+            answers.put("getName", args -> service.name());
+            answers.put("getId", args -> new ApplicationId(applicationId(service)));
+            answers.put("createAuthenticatedRequestFactory", args -> requestFactory);
+            answers.put("createImpersonatingAuthenticatedRequestFactory", args -> requestFactory);
+            answers.put("createNonImpersonatingAuthenticatedRequestFactory", args -> requestFactory);
+            links.put(applicationId(service), stub(ApplicationLink.class, answers));
+        }
+        final Map<String, Answer> answers = new HashMap<>();
+        answers.put("getApplicationLink", args -> links.get(((ApplicationId) args[0]).get()));
+        answers.put("getApplicationLinks", args -> new ArrayList<>(links.values()));
+        return stub(ApplicationLinkService.class, answers);
+    }
+
+    /**
+     * Gets the stable application link id used for a project service by {@link #applicationLinkService(String)}.
+     * <p>
+     *
+     * @param service the project service to get the application link id for.
+     * @return UUID formatted application link id.
+     */
+    public static String applicationId(final ApertureSettings.ProjectService service) {
+
+        return UUID.nameUUIDFromBytes(service.name().getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Creates a SAL response with a fixed status, body and headers.
+     * <p>
+     *
+     * @param statusCode HTTP status code of the response.
+     * @param body       body of the response.
+     * @param headers    headers of the response.
+     * @return response stub; each call to <code>getResponseBodyAsStream</code> returns a fresh stream.
+     */
+    public static Response response(final int statusCode, final String body, final Map<String, String> headers) {
+
+        final byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        final Map<String, Answer> answers = new HashMap<>();
+        answers.put("getStatusCode", args -> statusCode);
+        answers.put("getStatusText", args -> String.valueOf(statusCode));
+        answers.put("isSuccessful", args -> statusCode >= 200 && statusCode < 300);
+        answers.put("getResponseBodyAsString", args -> body);
+        answers.put("getResponseBodyAsStream", args -> new ByteArrayInputStream(content));
+        answers.put("getHeaders", args -> headers);
+        answers.put("getHeader", args -> headers.get(String.valueOf(args[0])));
+        return stub(Response.class, answers);
+    }
+
+    private static Object defaultValue(final Object proxy, final Method method, final Object[] args) {
+
+        final Class<?> returnType = method.getReturnType();
+        if ("equals".equals(method.getName()) && args != null && args.length == 1) {
+            return proxy == args[0];
+        } else if ("hashCode".equals(method.getName())) {
+            return System.identityHashCode(proxy);
+        } else if ("toString".equals(method.getName())) {
+            return String.format("Stub(%s)", proxy.getClass().getInterfaces()[0].getSimpleName());
+        } else if (returnType == boolean.class) {
+            return Boolean.FALSE;
+        } else if (returnType == int.class) {
+            return 0;
+        } else if (returnType == long.class) {
+            return 0L;
+        } else if (returnType == short.class) {
+            return (short) 0;
+        } else if (returnType == byte.class) {
+            return (byte) 0;
+        } else if (returnType == double.class) {
+            return 0D;
+        } else if (returnType == float.class) {
+            return 0F;
+        } else if (returnType == char.class) {
+            return '\0';
+        } else if (List.class.isAssignableFrom(returnType) || returnType == Collection.class || returnType == Iterable.class) {
+            return Collections.emptyList();
+        } else if (Set.class.isAssignableFrom(returnType)) {
+            return Collections.emptySet();
+        } else if (Map.class.isAssignableFrom(returnType)) {
+            return Collections.emptyMap();
+        }
+        return null;
+    }
+
+    /**
+     * Functional answer for a stubbed method.
+     */
+    @FunctionalInterface
+    public interface Answer {
+
+        Object answer(final Object[] args) throws Exception;
+    }
+
+    /**
+     * Plug-in settings held in a concurrent map.
+     */
+    private static final class InMemoryPluginSettings implements PluginSettings {
+
+        private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+        @Override
+        public Object get(final String key) {
+
+            return values.get(key);
+        }
+
+        @Override
+        public Object put(final String key, final Object value) {
+
+            return value == null ? values.remove(key) : values.put(key, value);
+        }
+
+        @Override
+        public Object remove(final String key) {
+
+            return values.remove(key);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package gov.pnnl.aperture.benchmarks.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class for the HTTP stubs of the services Aperture provisions projects in.
+ * <p>
+ * Every request is delayed and possibly failed according to the current {@link StubBehaviour} before it is routed to
+ * {@link #respond(String, String, Map, String, StubBehaviour)} with the path relative to the context the stub is
+ * mounted at. Stubs only remember which top level resources (projects, spaces and folders) have been created, so that
+ * the existence checks handlers make before creating a resource answer like the real service; any other well formed
+ * request for a known resource succeeds.
+ *
+ * @author Developer Central @ PNNL
+ */
+public abstract class AbstractServiceStub implements HttpHandler {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final Set<String> resources = ConcurrentHashMap.newKeySet();
+    private volatile StubBehaviour behaviour = StubBehaviour.DEFAULT;
+
+    public StubBehaviour getBehaviour() {
+
+        return behaviour;
+    }
+
+    public void setBehaviour(final StubBehaviour behaviour) {
+
+        this.behaviour = Objects.requireNonNull(behaviour, "Stub behaviour cannot be null.");
+    }
+
+    /**
+     * Gets the number of requests this stub has received.
+     * <p>
+     *
+     * @return total number of requests, including failed ones.
+     */
+    public long getRequestCount() {
+
+        return requests.get();
+    }
+
+    /**
+     * Gets the number of requests this stub has deliberately failed.
+     * <p>
+     *
+     * @return number of requests answered by {@link #failure(String, String)}.
+     */
+    public long getFailureCount() {
+
+        return failures.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handle(final HttpExchange exchange) throws IOException {
+
+        requests.incrementAndGet();
+        final StubBehaviour current = behaviour;
+        try {
+            current.pause();
+            final String method = exchange.getRequestMethod();
+            final String path = exchange.getRequestURI().getPath().substring(exchange.getHttpContext().getPath().length());
+            final String body = read(exchange.getRequestBody());
+            final StubResponse response;
+            if (current.isFailure()) {
+                failures.incrementAndGet();
+                response = failure(method, path);
+            } else {
+                response = respond(method, path, parameters(exchange.getRequestURI()), body, current);
+            }
+            write(exchange, response);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            write(exchange, StubResponse.json(503, "{\"errors\":[{\"message\":\"Stub server is shutting down.\"}]}"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers a request that was not selected for failure.
+     * <p>
+     *
+     * @param method     HTTP method of the request.
+     * @param path       request path relative to the context of this stub; e.g. <code>/rest/api/space</code>.
+     * @param parameters decoded query string parameters of the request.
+     * @param body       request body; empty if the request did not have one.
+     * @param behaviour  behaviour in effect for this request, for page sizes.
+     * @return the response to send.
+     */
+    protected abstract StubResponse respond(final String method, final String path, final Map<String, String> parameters, final String body, final StubBehaviour behaviour);
+
+    /**
+     * Answers a request that was selected for failure by the error rate.
+     * <p>
+     *
+     * @param method HTTP method of the request.
+     * @param path   request path relative to the context of this stub.
+     * @return server error response in the style of the service.
+     */
+    protected StubResponse failure(final String method, final String path) {
+
+        return StubResponse.json(503, "{\"errors\":[{\"message\":\"Injected failure from stub service.\"}]}");
+    }
+
+    /**
+     * Records a top level resource as created.
+     * <p>
+     *
+     * @param key key of the resource; e.g. a project key.
+     */
+    protected void created(final String key) {
+
+        resources.add(key.toUpperCase());
+    }
+
+    /**
+     * Records a top level resource as removed.
+     * <p>
+     *
+     * @param key key of the resource.
+     */
+    protected void removed(final String key) {
+
+        resources.remove(key.toUpperCase());
+    }
+
+    /**
+     * Checks whether a top level resource has been created and not removed since.
+     * <p>
+     *
+     * @param key key of the resource.
+     * @return <code>true</code> if the resource exists.
+     */
+    protected boolean exists(final String key) {
+
+        return resources.contains(key.toUpperCase());
+    }
+
+    /**
+     * Answers a request for a resource the stub does not know about.
+     * <p>
+     *
+     * @param method HTTP method of the request.
+     * @param path   request path relative to the context of this stub.
+     * @return not found response in the style of the service.
+     */
+    protected StubResponse notFound(final String method, final String path) {
+
+        return StubResponse.json(404, String.format("{\"errors\":[{\"message\":\"No stub resource for %s %s\"}]}", method, path));
+    }
+
+    /**
+     * Reads a top level text field from a JSON request body.
+     * <p>
+     *
+     * @param json         the JSON request body.
+     * @param fieldName    name of the field to read.
+     * @param defaultValue value returned if the body cannot be parsed or does not have the field.
+     * @return value of the field.
+     */
+    protected static String field(final String json, final String fieldName, final String defaultValue) {
+
+        try {
+            final JsonNode node = MAPPER.readTree(json);
+            if (node != null && node.has(fieldName)) {
+                return node.get(fieldName).asText();
+            }
+        } catch (IOException ex) {
+            return defaultValue;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Reads an integer query string parameter.
+     * <p>
+     *
+     * @param parameters   decoded query string parameters.
+     * @param name         name of the parameter.
+     * @param defaultValue value returned if the parameter is missing or not a number.
+     * @return value of the parameter.
+     */
+    protected static int intParameter(final Map<String, String> parameters, final String name, final int defaultValue) {
+
+        try {
+            return parameters.containsKey(name) ? Integer.parseInt(parameters.get(name)) : defaultValue;
+        } catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    private static Map<String, String> parameters(final URI requestURI) throws IOException {
+
+        final Map<String, String> parameters = new HashMap<>();
+        final String query = requestURI.getRawQuery();
+        if (query != null) {
+            for (final String pair : query.split("&")) {
+                final int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, separator), "UTF-8"), URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+                } else if (!pair.isEmpty()) {
+                    parameters.put(URLDecoder.decode(pair, "UTF-8"), "");
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static String read(final InputStream is) throws IOException {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void write(final HttpExchange exchange, final StubResponse response) throws IOException {
+
+        final byte[] content = response.getBody().getBytes(StandardCharsets.UTF_8);
+        if (response.getContentType() != null) {
+            exchange.getResponseHeaders().set("Content-Type", response.getContentType());
+        }
+        exchange.sendResponseHeaders(response.getStatusCode(), content.length == 0 ? -1 : content.length);
+        if (content.length > 0) {
+            try (final OutputStream os = exchange.getResponseBody()) {
+                os.write(content);
+            }
+        }
+    }
+
+    /**
+     * Status code, content type and body of a stub response.
+     */
+    public static final class StubResponse {
+
+        private final int statusCode;
+        private final String contentType;
+        private final String body;
+
+        private StubResponse(final int statusCode, final String contentType, final String body) {
+
+            this.statusCode = statusCode;
+            this.contentType = contentType;
+            this.body = body == null ? "" : body;
+        }
+
+        public static StubResponse json(final int statusCode, final String body) {
+
+            return new StubResponse(statusCode, "application/json;charset=UTF-8", body);
+        }
+
+        public static StubResponse xml(final int statusCode, final String body) {
+
+            return new StubResponse(statusCode, "text/xml;charset=UTF-8", body);
+        }
+
+        public static StubResponse empty(final int statusCode) {
+
+            return new StubResponse(statusCode, null, "");
+        }
+
+        public int getStatusCode() {
+
+            return statusCode;
+        }
+
+        public String getContentType() {
+
+            return contentType;
+        }
+
+        public String getBody() {
+
+            return body;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package gov.pnnl.aperture.benchmarks.load;
+
+import gov.pnnl.aperture.benchmarks.Payloads;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stub of the Bitbucket Server <code>/rest/api/1.0</code> resources used by the Bitbucket project service handler.
+ * <p>
+ * Repository listings are paged with the <code>start</code> and <code>limit</code> parameters; the limit is capped by
+ * the configured page size and the total number of repositories is the configured collection size.
+ *
+ * @author Developer Central @ PNNL
+ */
+public class BitbucketServiceStub extends AbstractServiceStub {
+
+    private static final String PROJECTS = "/rest/api/1.0/projects";
+    private static final Pattern PROJECT = Pattern.compile("/rest/api/1\\.0/projects/([^/]+)");
+    private static final Pattern REPOSITORIES = Pattern.compile("/rest/api/1\\.0/projects/([^/]+)/repos");
+    private static final Pattern REPOSITORY = Pattern.compile("/rest/api/1\\.0/projects/([^/]+)/repos/([^/]+)");
+    private static final Pattern PERMISSIONS = Pattern.compile("/rest/api/1\\.0/projects/([^/]+)/permissions/(users|groups)");
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected StubResponse respond(final String method, final String path, final Map<String, String> parameters, final String body, final StubBehaviour behaviour) {
+
+        if (PROJECTS.equals(path) && "POST".equals(method)) {
+            final String projectKey = field(body, "key", "STUB");
+            created(projectKey);
+            return StubResponse.json(201, Payloads.bitbucketProject(projectKey));
+        }
+        Matcher matcher = PROJECT.matcher(path);
+        if (matcher.matches()) {
+            switch (method) {
+                case "GET":
+                    return exists(matcher.group(1)) ? StubResponse.json(200, Payloads.bitbucketProject(matcher.group(1))) : notFound(method, path);
+                case "DELETE":
+                    removed(matcher.group(1));
+                    return StubResponse.empty(204);
+                default:
+                    return notFound(method, path);
+            }
+        }
+        matcher = REPOSITORIES.matcher(path);
+        if (matcher.matches()) {
+            final String projectKey = matcher.group(1);
+            switch (method) {
+                case "GET":
+                    final int start = Math.max(0, intParameter(parameters, "start", 0));
+                    final int limit = Math.min(intParameter(parameters, "limit", behaviour.getPageSize()), behaviour.getPageSize());
+                    final int size = Math.max(0, Math.min(limit, behaviour.getCollectionSize() - start));
+                    final boolean lastPage = start + size >= behaviour.getCollectionSize();
+                    return StubResponse.json(200, Payloads.bitbucketRepositories(projectKey, start, size, lastPage));
+                case "POST":
+                    final String slug = field(body, "name", "default").toLowerCase();
+                    return StubResponse.json(201, Payloads.bitbucketRepository(projectKey, slug, 1));
+                default:
+                    return notFound(method, path);
+            }
+        }
+        matcher = REPOSITORY.matcher(path);
+        if (matcher.matches()) {
+            switch (method) {
+                case "GET":
+                    return StubResponse.json(200, Payloads.bitbucketRepository(matcher.group(1), matcher.group(2), 1));
+                case "DELETE":
+                    return StubResponse.json(202, "{\"context\":null,\"message\":\"Repository scheduled for deletion.\",\"exceptionName\":null}");
+                default:
+                    return notFound(method, path);
+            }
+        }
+        if (PERMISSIONS.matcher(path).matches() && ("PUT".equals(method) || "DELETE".equals(method))) {
+            return StubResponse.empty(204);
+        }
+        return notFound(method, path);
+    }
+}
@@ -0,0 +1,80 @@
+package gov.pnnl.aperture.benchmarks.load;
+
+import gov.pnnl.aperture.benchmarks.Payloads;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stub of the Confluence <code>/rest/api/space</code> resources and the <code>/rpc/xmlrpc</code> endpoint used by the
+ * Confluence project service handler.
+ * <p>
+ * XML-RPC calls are answered by method name; <code>login</code> returns a session token, permission listings return
+ * one page of permission sets and every other call returns <code>true</code>. Injected failures on the XML-RPC
+ * endpoint are returned as XML-RPC faults, the way Confluence reports them.
+ *
+ * @author Developer Central @ PNNL
+ */
+public class ConfluenceServiceStub extends AbstractServiceStub {
+
+    private static final String SPACES = "/rest/api/space";
+    private static final String XML_RPC = "/rpc/xmlrpc";
+    private static final Pattern SPACE = Pattern.compile("/rest/api/space/([^/]+)");
+    private static final Pattern METHOD_NAME = Pattern.compile("<methodName>\\s*([^<\\s]+)\\s*</methodName>");
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected StubResponse respond(final String method, final String path, final Map<String, String> parameters, final String body, final StubBehaviour behaviour) {
+
+        if (XML_RPC.equals(path) && "POST".equals(method)) {
+            return xmlRpc(body, behaviour);
+        }
+        if (SPACES.equals(path) && "POST".equals(method)) {
+            final String spaceKey = field(body, "key", "STUB");
+            created(spaceKey);
+            return StubResponse.json(200, Payloads.confluenceSpaceEntity(spaceKey));
+        }
+        final Matcher matcher = SPACE.matcher(path);
+        if (matcher.matches()) {
+            switch (method) {
+                case "GET":
+                    return exists(matcher.group(1)) ? StubResponse.json(200, Payloads.confluenceSpaceEntity(matcher.group(1))) : notFound(method, path);
+                case "DELETE":
+                    removed(matcher.group(1));
+                    return StubResponse.json(202, String.format("{\"id\":\"%s\",\"status\":\"ENQUEUED\"}", matcher.group(1)));
+                default:
+                    return notFound(method, path);
+            }
+        }
+        return notFound(method, path);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected StubResponse failure(final String method, final String path) {
+
+        if (XML_RPC.equals(path)) {
+            return StubResponse.xml(200, Payloads.confluenceFault());
+        }
+        return super.failure(method, path);
+    }
+
+    private static StubResponse xmlRpc(final String body, final StubBehaviour behaviour) {
+
+        final Matcher matcher = METHOD_NAME.matcher(body);
+        final String methodName = matcher.find() ? matcher.group(1) : "";
+        if (methodName.endsWith("login")) {
+            return StubResponse.xml(200, Payloads.xmlRpcValue("string", "stub-session-token"));
+        } else if (methodName.contains("getSpacePermissionSet") || methodName.contains("getPermissions")) {
+            return StubResponse.xml(200, Payloads.confluencePermissionSets(behaviour.getPageSize()));
+        } else if (methodName.endsWith("getSpace")) {
+            return StubResponse.xml(200, Payloads.confluenceSpace("STUB"));
+        }
+        return StubResponse.xml(200, Payloads.xmlRpcValue("boolean", "1"));
+    }
+}
@@ -0,0 +1,64 @@
+package gov.pnnl.aperture.benchmarks.load;
+
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.benchmarks.Payloads;
+import gov.pnnl.aperture.benchmarks.Stubs;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stub of the FishEye / Crucible <code>/rest-service-fecru</code> resources used by the Crucible project service
+ * handler, along with the application link and Stash integration resources it calls while creating a project.
+ * <p>
+ *
+ * @author Developer Central @ PNNL
+ */
+public class CrucibleServiceStub extends AbstractServiceStub {
+
+    private static final String APPLICATION_LINKS = "/rest/applinks/1.0/applicationlink.json";
+    private static final String PROJECTS = "/rest-service-fecru/admin/projects";
+    private static final Pattern STASH_REPOSITORY = Pattern.compile("/rest/stash-integration-plugin/1\\.0/([^/]+)/repo");
+    private static final Pattern PROJECT = Pattern.compile("/rest-service-fecru/admin/projects/([^/]+)");
+    private static final Pattern REVIEWERS = Pattern.compile("/rest-service-fecru/admin/projects/([^/]+)/allowed-reviewer-(users|groups)");
+    private static final Pattern REPOSITORY = Pattern.compile("/rest-service-fecru/admin/repositories/([^/]+)(/stop)?");
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected StubResponse respond(final String method, final String path, final Map<String, String> parameters, final String body, final StubBehaviour behaviour) {
+
+        if (APPLICATION_LINKS.equals(path) && "GET".equals(method)) {
+            return StubResponse.json(200, Payloads.crucibleApplicationLinks(Stubs.applicationId(ApertureSettings.ProjectService.BITBUCKET)));
+        }
+        if (STASH_REPOSITORY.matcher(path).matches() && "PUT".equals(method)) {
+            return StubResponse.json(200, String.format("{\"name\":\"%s\",\"enabled\":true}", field(body, "fecruRepoName", "default")));
+        }
+        if (PROJECTS.equals(path) && "POST".equals(method)) {
+            final String projectKey = field(body, "key", "STUB");
+            created(projectKey);
+            return StubResponse.json(201, Payloads.crucibleProject(projectKey));
+        }
+        if (REVIEWERS.matcher(path).matches()) {
+            return StubResponse.empty(204);
+        }
+        final Matcher matcher = PROJECT.matcher(path);
+        if (matcher.matches()) {
+            switch (method) {
+                case "GET":
+                    return exists(matcher.group(1)) ? StubResponse.json(200, Payloads.crucibleProject(matcher.group(1))) : notFound(method, path);
+                case "DELETE":
+                    removed(matcher.group(1));
+                    return StubResponse.empty(204);
+                default:
+                    return notFound(method, path);
+            }
+        }
+        if (REPOSITORY.matcher(path).matches() && ("PUT".equals(method) || "DELETE".equals(method))) {
+            return StubResponse.empty(204);
+        }
+        return notFound(method, path);
+    }
+}
@@ -0,0 +1,57 @@
+package gov.pnnl.aperture.benchmarks.load;
+
+import gov.pnnl.aperture.benchmarks.Payloads;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stub of the Jenkins <code>/createItem</code> and <code>/job/*</code> resources used by the Jenkins project service
+ * handler; folders list one page of jobs and folder groups list one page of members.
+ * <p>
+ *
+ * @author Developer Central @ PNNL
+ */
+public class JenkinsServiceStub extends AbstractServiceStub {
+
+    private static final String CREATE_ITEM = "/createItem";
+    private static final Pattern FOLDER = Pattern.compile("/job/([^/]+)/api/json");
+    private static final Pattern GROUP = Pattern.compile("/job/([^/]+)/groups/([^/]+)/api/json");
+    private static final Pattern MEMBERSHIP = Pattern.compile("/job/([^/]+)/groups/([^/]+)/(addMember|removeMember)");
+    private static final Pattern DELETE = Pattern.compile("/job/([^/]+)/doDelete");
+    private static final Pattern CONFIG = Pattern.compile("/job/([^/]+)/config\\.xml");
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected StubResponse respond(final String method, final String path, final Map<String, String> parameters, final String body, final StubBehaviour behaviour) {
+
+        if ("GET".equals(method)) {
+            Matcher matcher = FOLDER.matcher(path);
+            if (matcher.matches()) {
+                // Jenkins answers a missing folder with an HTML page rather than JSON //
+                return exists(matcher.group(1)) ? StubResponse.json(200, Payloads.jenkinsFolder(matcher.group(1), behaviour.getPageSize())) : StubResponse.empty(404);
+            }
+            matcher = GROUP.matcher(path);
+            if (matcher.matches()) {
+                return StubResponse.json(200, Payloads.jenkinsGroup(matcher.group(2), behaviour.getPageSize()));
+            }
+        } else if ("POST".equals(method)) {
+            if (CREATE_ITEM.equals(path)) {
+                created(parameters.getOrDefault("name", "STUB"));
+                return StubResponse.empty(200);
+            }
+            final Matcher matcher = DELETE.matcher(path);
+            if (matcher.matches()) {
+                removed(matcher.group(1));
+                return StubResponse.empty(200);
+            }
+            if (MEMBERSHIP.matcher(path).matches() || CONFIG.matcher(path).matches()) {
+                return StubResponse.empty(200);
+            }
+        }
+        return notFound(method, path);
+    }
+}
@@ -0,0 +1,97 @@
+package gov.pnnl.aperture.benchmarks.load;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread safe recorder of call latencies for a single operation, with percentile summaries.
+ * <p>
+ *
+ * @author Developer Central @ PNNL
+ */
+public class LatencyRecorder {
+
+    private final String operation;
+    private long[] samples;
+    private int count;
+    private int errors;
+
+    /**
+     * Creates a recorder for an operation.
+     * <p>
+     *
+     * @param operation       name of the operation reported in summaries.
+     * @param expectedSamples initial capacity of the sample buffer.
+     */
+    public LatencyRecorder(final String operation, final int expectedSamples) {
+
+        this.operation = operation;
+        this.samples = new long[Math.max(16, expectedSamples)];
+    }
+
+    /**
+     * Records the outcome of a single call.
+     * <p>
+     *
+     * @param elapsedNanos time the call took, in nanoseconds.
+     * @param failed       whether the call returned errors or threw.
+     */
+    public synchronized void record(final long elapsedNanos, final boolean failed) {
+
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = elapsedNanos;
+        if (failed) {
+            errors++;
+        }
+    }
+
+    public synchronized int getCount() {
+
+        return count;
+    }
+
+    public synchronized int getErrorCount() {
+
+        return errors;
+    }
+
+    /**
+     * Gets a latency percentile using the nearest rank method.
+     * <p>
+     *
+     * @param percentile the percentile between 0 and 100; e.g. <code>99</code>.
+     * @return latency at the percentile in nanoseconds; <code>0</code> if nothing was recorded.
+     */
+    public synchronized long getPercentile(final double percentile) {
+
+        if (count == 0) {
+            return 0L;
+        }
+        final long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        final int rank = (int) Math.ceil(percentile / 100D * count);
+        return sorted[Math.min(count, Math.max(1, rank)) - 1];
+    }
+
+    /**
+     * Summarizes the recorded calls on a single line.
+     * <p>
+     *
+     * @param elapsedNanos wall clock time of the whole run, for throughput.
+     * @return calls, errors, p50, p99, maximum latency and throughput.
+     */
+    public synchronized String summarize(final long elapsedNanos) {
+
+        final double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        return String.format("%-30s calls:%6d errors:%5d p50:%9.2fms p99:%9.2fms max:%9.2fms throughput:%8.1f/s",
+                operation, count, errors, millis(getPercentile(50)), millis(getPercentile(99)), millis(getPercentile(100)),
+                seconds > 0 ? count / seconds : 0D);
+    }
+
+    private static double millis(final long nanos) {
+
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
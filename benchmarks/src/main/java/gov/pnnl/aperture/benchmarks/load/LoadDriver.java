@@ -0,0 +1,315 @@
+package gov.pnnl.aperture.benchmarks.load;
+
+import com.atlassian.applinks.api.ApplicationId;
+import com.atlassian.applinks.api.ApplicationLinkService;
+import com.atlassian.jira.config.properties.APKeys;
+import com.atlassian.jira.config.properties.ApplicationProperties;
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.MutableIssue;
+import com.atlassian.jira.issue.issuetype.IssueType;
+import com.atlassian.jira.mock.component.MockComponentWorker;
+import com.atlassian.jira.project.ProjectManager;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.user.util.UserManager;
+import com.atlassian.jira.util.ErrorCollection;
+import com.atlassian.jira.util.SimpleErrorCollection;
+import com.atlassian.velocity.VelocityManager;
+import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProjectServiceHandler;
+import gov.pnnl.aperture.benchmarks.StubProjectServiceHandler;
+import gov.pnnl.aperture.benchmarks.Stubs;
+import gov.pnnl.aperture.project.PnnlAperture;
+import gov.pnnl.aperture.project.PnnlApertureMetrics;
+import gov.pnnl.aperture.project.ProjectMembershipCache;
+import gov.pnnl.aperture.project.services.BitbucketProjectServiceHandler;
+import gov.pnnl.aperture.project.services.ConfluenceProjectServiceHandler;
+import gov.pnnl.aperture.project.services.CrucibleProjectServiceHandler;
+import gov.pnnl.aperture.project.services.JenkinsProjectServiceHandler;
+import gov.pnnl.aperture.project.services.MeteredProjectServiceHandler;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test driver that runs concurrent <code>createProject</code> and <code>modifyProjectUserPermissions</code>
+ * calls through the real REST project service handlers against the local {@link StubServiceServer}.
+ * <p>
+ * The JIRA side of provisioning (issue links, components and the JIRA project itself) is stubbed out so that the
+ * reported latencies are those of Aperture's orchestration and remote calls. Options are given as
+ * <code>--name value</code> pairs:
+ * <ul>
+ * <li><code>--threads</code> number of concurrent callers (default 8)</li>
+ * <li><code>--calls</code> number of projects to create and modify (default 200)</li>
+ * <li><code>--members</code> number of users added to each project (default 5)</li>
+ * <li><code>--latency</code> stub latency per request in milliseconds (default 20)</li>
+ * <li><code>--error-rate</code> probability of a stub server error per request (default 0)</li>
+ * <li><code>--page-size</code> stub page size (default 25)</li>
+ * <li><code>--entries</code> total entries in paged stub resources (default 100)</li>
+ * <li><code>--port</code> stub server port (default 0, any free port)</li>
+ * <li><code>--server-threads</code> stub server threads (default 64)</li>
+ * <li><code>--metrics</code> <code>true</code> to print the Aperture metrics snapshot after the run (default false)</li>
+ * </ul>
+ *
+ * @author Developer Central @ PNNL
+ */
+public class LoadDriver {
+
+    private final ApertureSettings settings;
+    private final PnnlApertureMetrics metrics = new PnnlApertureMetrics();
+    private final PnnlAperture aperture;
+    private final Map<ApertureSettings.ProjectService, ProjectServiceHandler> handlers = new EnumMap<>(ApertureSettings.ProjectService.class);
+    private final Collection<ApplicationUser> members = new ArrayList<>();
+
+    /**
+     * Creates a driver whose project service handlers talk to a stub server.
+     * <p>
+     *
+     * @param server      the running stub server.
+     * @param memberCount number of users added to each project by <code>modifyProjectUserPermissions</code>.
+     */
+    public LoadDriver(final StubServiceServer server, final int memberCount) {
+
+        final ApplicationLinkService linkService = Stubs.applicationLinkService(server.getBaseUrl());
+        final Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("getApplicationLink", args -> linkService.getApplicationLink(new ApplicationId(Stubs.applicationId((ApertureSettings.ProjectService) args[0]))));
+        answers.put("getProjectKeyFor", args -> projectKeyFor(((Issue) args[0]).getId()));
+        settings = Stubs.stub(ApertureSettings.class, answers);
+
+        for (int i = 0; i < memberCount; i++) {
+            members.add(user(String.format("load-user-%d", i)));
+        }
+        final ApplicationUser reporter = user("load-reporter");
+        final Map<String, Stubs.Answer> userAnswers = new HashMap<>();
+        userAnswers.put("getUserByName", args -> reporter);
+        userAnswers.put("getUserByKey", args -> reporter);
+        final Map<String, Stubs.Answer> propertyAnswers = new HashMap<>();
+        propertyAnswers.put("getString", args -> APKeys.JIRA_WEBWORK_ENCODING.equals(args[0]) ? "UTF-8" : server.getBaseUrl());
+        propertyAnswers.put("getEncoding", args -> "UTF-8");
+        final Map<String, Stubs.Answer> velocityAnswers = new HashMap<>();
+        velocityAnswers.put("getEncodedBody", args -> xmlRpcCall((String) args[1]));
+        velocityAnswers.put("getBody", args -> xmlRpcCall((String) args[1]));
+        new MockComponentWorker()
+                .addMock(UserManager.class, Stubs.stub(UserManager.class, userAnswers))
+                .addMock(ApplicationProperties.class, Stubs.stub(ApplicationProperties.class, propertyAnswers))
+                .addMock(VelocityManager.class, Stubs.stub(VelocityManager.class, velocityAnswers))
+                .addMock(ProjectManager.class, Stubs.stub(ProjectManager.class))
+                .init();
+
+        aperture = new PnnlAperture(Stubs.pluginSettingsFactory(), settings, new ProjectMembershipCache(Stubs.eventPublisher()), metrics) {
+
+            @Override
+            public ProjectServiceHandler getServiceHandler(final ApertureSettings.ProjectService projectService) {
+
+                return new MeteredProjectServiceHandler(handlers.get(projectService), metrics);
+            }
+
+            @Override
+            protected List<ProjectServiceHandler> getProjectServices(final IssueType type) {
+
+                final List<ProjectServiceHandler> services = new ArrayList<>();
+                for (final ProjectServiceHandler handler : handlers.values()) {
+                    services.add(new MeteredProjectServiceHandler(handler, metrics));
+                }
+                return services;
+            }
+        };
+        handlers.put(ApertureSettings.ProjectService.JIRA, new StubProjectServiceHandler(ApertureSettings.ProjectService.JIRA, 0, 0D));
+        handlers.put(ApertureSettings.ProjectService.CONFLUENCE, new ConfluenceProjectServiceHandler(aperture, settings) {
+
+            @Override
+            protected ErrorCollection addServiceLinkTo(final MutableIssue issue, final String linkText, final String url) {
+
+                return new SimpleErrorCollection();
+            }
+
+            @Override
+            protected void addComponentTo(final MutableIssue issue) {
+
+            }
+        });
+        handlers.put(ApertureSettings.ProjectService.BITBUCKET, new BitbucketProjectServiceHandler(aperture, settings) {
+
+            @Override
+            protected ErrorCollection addServiceLinkTo(final MutableIssue issue, final String linkText, final String url) {
+
+                return new SimpleErrorCollection();
+            }
+
+            @Override
+            protected void addComponentTo(final MutableIssue issue) {
+
+            }
+        });
+        handlers.put(ApertureSettings.ProjectService.CRUCIBLE, new CrucibleProjectServiceHandler(aperture, settings) {
+
+            @Override
+            protected ErrorCollection addServiceLinkTo(final MutableIssue issue, final String linkText, final String url) {
+
+                return new SimpleErrorCollection();
+            }
+
+            @Override
+            protected void addComponentTo(final MutableIssue issue) {
+
+            }
+        });
+        handlers.put(ApertureSettings.ProjectService.JENKINS, new JenkinsProjectServiceHandler(aperture, settings) {
+
+            @Override
+            protected ErrorCollection addServiceLinkTo(final MutableIssue issue, final String linkText, final String url) {
+
+                return new SimpleErrorCollection();
+            }
+
+            @Override
+            protected void addComponentTo(final MutableIssue issue) {
+
+            }
+        });
+    }
+
+    public static void main(final String[] args) throws Exception {
+
+        final Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        final int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        final int calls = Integer.parseInt(options.getOrDefault("calls", "200"));
+        final int memberCount = Integer.parseInt(options.getOrDefault("members", "5"));
+        final StubBehaviour behaviour = new StubBehaviour(
+                Long.parseLong(options.getOrDefault("latency", "20")),
+                Double.parseDouble(options.getOrDefault("error-rate", "0")),
+                Integer.parseInt(options.getOrDefault("page-size", "25")),
+                Integer.parseInt(options.getOrDefault("entries", "100")));
+        final int port = Integer.parseInt(options.getOrDefault("port", "0"));
+        final int serverThreads = Integer.parseInt(options.getOrDefault("server-threads", "64"));
+
+        try (final StubServiceServer server = new StubServiceServer(port, serverThreads).start()) {
+            server.setBehaviour(behaviour);
+            System.out.println(String.format("Stub services at %s with %s", server.getBaseUrl(), behaviour));
+            System.out.println(String.format("Running %d call(s) on %d thread(s) with %d member(s) per project", calls, threads, memberCount));
+            new LoadDriver(server, memberCount).run(threads, calls, server, Boolean.parseBoolean(options.getOrDefault("metrics", "false")));
+        }
+    }
+
+    /**
+     * Creates <code>calls</code> projects and adds the members to each from <code>threads</code> concurrent callers,
+     * then prints the latency summary for each operation and the request counts of each stub.
+     * <p>
+     *
+     * @param threads number of concurrent callers.
+     * @param calls   number of projects to create and modify.
+     * @param server  the stub server, for request counts.
+     * @param verbose <code>true</code> to also print the Aperture metrics snapshot as JSON.
+     * @throws InterruptedException if interrupted while waiting for the callers.
+     */
+    public void run(final int threads, final int calls, final StubServiceServer server, final boolean verbose) throws InterruptedException {
+
+        final LatencyRecorder createRecorder = new LatencyRecorder("createProject", calls);
+        final LatencyRecorder modifyRecorder = new LatencyRecorder("modifyProjectUserPermissions", calls);
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        for (int i = 1; i <= calls; i++) {
+            final long issueId = i;
+            pool.submit(() -> {
+                startSignal.await();
+                final MutableIssue issue = issueFor(issueId);
+                final Map<String, Serializable> environment = new HashMap<>();
+                environment.put("issue-key", issue.getKey());
+                time(createRecorder, () -> aperture.createProject(issue, environment));
+                time(modifyRecorder, () -> aperture.modifyProjectUserPermissions(projectKeyFor(issueId), Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER, members));
+                return null;
+            });
+        }
+        final long started = System.nanoTime();
+        startSignal.countDown();
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        final long elapsed = System.nanoTime() - started;
+
+        System.out.println(createRecorder.summarize(elapsed));
+        System.out.println(modifyRecorder.summarize(elapsed));
+        for (final Map.Entry<ApertureSettings.ProjectService, AbstractServiceStub> entry : server.getStubs().entrySet()) {
+            final AbstractServiceStub stub = entry.getValue();
+            System.out.println(String.format("%-30s requests:%7d injected-failures:%6d", entry.getKey(), stub.getRequestCount(), stub.getFailureCount()));
+        }
+        if (verbose) {
+            try {
+                System.out.println(new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(metrics.getSnapshot()));
+            } catch (IOException ex) {
+                System.out.println(String.format("Failed to render metrics snapshot: %s", ex));
+            }
+        }
+    }
+
+    private static void time(final LatencyRecorder recorder, final Operation operation) {
+
+        final long started = System.nanoTime();
+        boolean failed;
+        try {
+            failed = operation.call().hasAnyErrors();
+        } catch (RuntimeException ex) {
+            failed = true;
+        }
+        recorder.record(System.nanoTime() - started, failed);
+    }
+
+    private static String projectKeyFor(final Long issueId) {
+
+        // project keys consist of letters only; spell the issue id in base 26 (0=A .. 25=Z) //
+        final StringBuilder key = new StringBuilder();
+        long remaining = issueId;
+        do {
+            key.append((char) ('A' + remaining % 26));
+            remaining /= 26;
+        } while (remaining > 0);
+        return key.append("LD").reverse().toString();
+    }
+
+    private static MutableIssue issueFor(final long issueId) {
+
+        final Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("getId", args -> issueId);
+        answers.put("getKey", args -> String.format("APR-%d", issueId));
+        answers.put("getSummary", args -> String.format("Load test project %d", issueId));
+        answers.put("getDescription", args -> "Project created by the Aperture load test driver.");
+        answers.put("getReporterId", args -> "load-reporter");
+        answers.put("getReporter", args -> user("load-reporter"));
+        return Stubs.stub(MutableIssue.class, answers);
+    }
+
+    private static ApplicationUser user(final String name) {
+
+        final Map<String, Stubs.Answer> answers = new HashMap<>();
+        answers.put("getName", args -> name);
+        answers.put("getUsername", args -> name);
+        answers.put("getKey", args -> name);
+        answers.put("getDisplayName", args -> name);
+        answers.put("getEmailAddress", args -> String.format("%s@example.com", name));
+        answers.put("isActive", args -> Boolean.TRUE);
+        return Stubs.stub(ApplicationUser.class, answers);
+    }
+
+    private static String xmlRpcCall(final String templateName) {
+
+        final String methodName = templateName.replaceFirst("\\.vml?\\.xml$", "");
+        return String.format("<?xml version=\"1.0\"?><methodCall><methodName>confluence2.%s</methodName><params/></methodCall>", methodName);
+    }
+
+    /**
+     * A single timed Aperture call.
+     */
+    @FunctionalInterface
+    private interface Operation {
+
+        ErrorCollection call();
+    }
+}
@@ -0,0 +1,102 @@
+package gov.pnnl.aperture.benchmarks.load;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable description of how a stub service responds; latency, injected error rate and paging.
+ * <p>
+ *
+ * @author Developer Central @ PNNL
+ */
+public final class StubBehaviour {
+
+    /**
+     * Behaviour without latency or errors that pages 25 entries out of 100.
+     */
+    public static final StubBehaviour DEFAULT = new StubBehaviour(0, 0D, 25, 100);
+
+    private final long latencyMillis;
+    private final double errorRate;
+    private final int pageSize;
+    private final int collectionSize;
+
+    /**
+     * Creates a new stub behaviour.
+     * <p>
+     *
+     * @param latencyMillis  time every request spends in the stub before it is answered, in milliseconds.
+     * @param errorRate      probability between 0 and 1 that a request is answered with a server error.
+     * @param pageSize       maximum number of entries in a single page of a paged or listing resource.
+     * @param collectionSize total number of entries available across all pages of a paged resource.
+     * @throws IllegalArgumentException if any of the arguments are out of range.
+     */
+    public StubBehaviour(final long latencyMillis, final double errorRate, final int pageSize, final int collectionSize) {
+
+        if (latencyMillis < 0) {
+            throw new IllegalArgumentException("Stub latency cannot be negative.");
+        }
+        if (errorRate < 0D || errorRate > 1D) {
+            throw new IllegalArgumentException("Stub error rate must be between 0 and 1.");
+        }
+        if (pageSize < 1 || collectionSize < 0) {
+            throw new IllegalArgumentException("Stub page size must be positive and collection size cannot be negative.");
+        }
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.pageSize = pageSize;
+        this.collectionSize = collectionSize;
+    }
+
+    public long getLatencyMillis() {
+
+        return latencyMillis;
+    }
+
+    public double getErrorRate() {
+
+        return errorRate;
+    }
+
+    public int getPageSize() {
+
+        return pageSize;
+    }
+
+    public int getCollectionSize() {
+
+        return collectionSize;
+    }
+
+    /**
+     * Blocks the calling thread for the configured latency.
+     * <p>
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    void pause() throws InterruptedException {
+
+        if (latencyMillis > 0) {
+            Thread.sleep(latencyMillis);
+        }
+    }
+
+    /**
+     * Decides whether the current request should fail.
+     * <p>
+     *
+     * @return <code>true</code> with the probability given by the error rate.
+     */
+    boolean isFailure() {
+
+        return errorRate > 0D && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+
+        return String.format("latency:%dms error-rate:%.2f page-size:%d entries:%d", latencyMillis, errorRate, pageSize, collectionSize);
+    }
+}
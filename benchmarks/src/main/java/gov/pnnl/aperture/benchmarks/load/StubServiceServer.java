@@ -0,0 +1,119 @@
+package gov.pnnl.aperture.benchmarks.load;
+
+import com.sun.net.httpserver.HttpServer;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.benchmarks.Stubs;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP server hosting stubs of the Bitbucket, Confluence, Crucible and Jenkins services on the loop-back
+ * interface.
+ * <p>
+ * Each stub is mounted at the lower case name of its project service, which matches the RPC URLs of the application
+ * links created by {@link Stubs#applicationLinkService(String)} when it is given {@link #getBaseUrl()}.
+ *
+ * @author Developer Central @ PNNL
+ */
+public class StubServiceServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<ApertureSettings.ProjectService, AbstractServiceStub> stubs = new EnumMap<>(ApertureSettings.ProjectService.class);
+
+    /**
+     * Creates a stub server; the server does not accept requests until it is started.
+     * <p>
+     *
+     * @param port    port to listen on; <code>0</code> picks a free port.
+     * @param threads number of threads serving requests; bounds how many requests can be delayed by latency at once.
+     * @throws IOException if the server socket cannot be bound.
+     */
+    public StubServiceServer(final int port, final int threads) throws IOException {
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 256);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        register(ApertureSettings.ProjectService.BITBUCKET, new BitbucketServiceStub());
+        register(ApertureSettings.ProjectService.CONFLUENCE, new ConfluenceServiceStub());
+        register(ApertureSettings.ProjectService.CRUCIBLE, new CrucibleServiceStub());
+        register(ApertureSettings.ProjectService.JENKINS, new JenkinsServiceStub());
+    }
+
+    /**
+     * Starts accepting requests.
+     * <p>
+     *
+     * @return this server, for use in try-with-resources.
+     */
+    public StubServiceServer start() {
+
+        server.start();
+        return this;
+    }
+
+    /**
+     * Gets the base URL the stubs are mounted under.
+     * <p>
+     *
+     * @return base URL; e.g. <code>http://127.0.0.1:41234</code>.
+     */
+    public String getBaseUrl() {
+
+        final InetSocketAddress address = server.getAddress();
+        return String.format("http://%s:%d", address.getAddress().getHostAddress(), address.getPort());
+    }
+
+    /**
+     * Gets the stub for a project service.
+     * <p>
+     *
+     * @param service the project service.
+     * @return the stub; <code>null</code> for services without a remote stub such as JIRA.
+     */
+    public AbstractServiceStub getStub(final ApertureSettings.ProjectService service) {
+
+        return stubs.get(service);
+    }
+
+    public Map<ApertureSettings.ProjectService, AbstractServiceStub> getStubs() {
+
+        return Collections.unmodifiableMap(stubs);
+    }
+
+    /**
+     * Applies the same behaviour to every stub.
+     * <p>
+     *
+     * @param behaviour the behaviour to apply.
+     */
+    public void setBehaviour(final StubBehaviour behaviour) {
+
+        for (final AbstractServiceStub stub : stubs.values()) {
+            stub.setBehaviour(behaviour);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void register(final ApertureSettings.ProjectService service, final AbstractServiceStub stub) {
+
+        stubs.put(service, stub);
+        server.createContext(String.format("/%s", service.name().toLowerCase()), stub);
+    }
+}
@@ -0,0 +1,86 @@
+package gov.pnnl.aperture.project.services;
+
+import com.atlassian.sal.api.net.Response;
+import com.atlassian.sal.api.net.ResponseException;
+import gov.pnnl.aperture.benchmarks.Payloads;
+import gov.pnnl.aperture.benchmarks.Stubs;
+import org.codehaus.jackson.JsonNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for parsing service responses with the application link response handlers.
+ * <p>
+ * Lives in the same package as {@link AbstractRestfulProjectServiceHandler} so that the package visible responders can
+ * be benchmarked directly.
+ *
+ * @author Developer Central @ PNNL
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseHandlerBenchmark {
+
+    /**
+     * Number of entries in the array and paged payloads.
+     */
+    @Param({"10", "100", "1000"})
+    public int entries;
+
+    private Response confluenceSpace;
+    private Response confluencePermissions;
+    private Response confluenceFault;
+    private Response bitbucketRepositories;
+    private AbstractRestfulProjectServiceHandler.XmlRpcJsonResponder xmlRpcResponder;
+    private AbstractRestfulProjectServiceHandler.JSONApplicationLinkResponder jsonResponder;
+
+    @Setup
+    public void setUp() {
+
+        confluenceSpace = xmlResponse(Payloads.confluenceSpace("APR"));
+        confluencePermissions = xmlResponse(Payloads.confluencePermissionSets(entries));
+        confluenceFault = xmlResponse(Payloads.confluenceFault());
+        bitbucketRepositories = Stubs.response(200, Payloads.bitbucketRepositories("APR", 0, entries, false), new HashMap<>());
+        xmlRpcResponder = new AbstractRestfulProjectServiceHandler.XmlRpcJsonResponder();
+        jsonResponder = new AbstractRestfulProjectServiceHandler.JSONApplicationLinkResponder();
+    }
+
+    @Benchmark
+    public JsonNode xmlRpcStruct() throws ResponseException {
+
+        return xmlRpcResponder.handle(confluenceSpace);
+    }
+
+    @Benchmark
+    public JsonNode xmlRpcArrayOfStructs() throws ResponseException {
+
+        return xmlRpcResponder.handle(confluencePermissions);
+    }
+
+    @Benchmark
+    public JsonNode xmlRpcFault() throws ResponseException {
+
+        return xmlRpcResponder.handle(confluenceFault);
+    }
+
+    @Benchmark
+    public JsonNode jsonBitbucketPage() throws ResponseException {
+
+        return jsonResponder.handle(bitbucketRepositories);
+    }
+
+    private static Response xmlResponse(final String body) {
+
+        final Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "text/xml");
+        headers.put("Content-Length", Integer.toString(body.getBytes(StandardCharsets.UTF_8).length));
+        return Stubs.response(200, body, headers);
+    }
+}
@@ -0,0 +1,195 @@
+package gov.pnnl.aperture;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Change to the access control of a project across every service, applied in the background.
+ * <p>
+ * Changes are submitted with {@link ApertureScheduler#scheduleAclChange(String, Aperture.PermissionMode, Aperture.Role,
+ * Collection, Collection)} and tracked by their operation id until some time after they complete; see
+ * {@link ApertureScheduler#getAclChange(String)}. Changes to the same project are applied one after the other by a
+ * single job, and adjacent changes made by the same user with the same mode and role are applied together.
+ *
+ * @author Developer Central @ PNNL
+ */
+public final class AclChange {
+
+    private final String id;
+    private final String projectKey;
+    private final String username;
+    private final Aperture.PermissionMode mode;
+    private final Aperture.Role role;
+    private final Set<String> userNames;
+    private final Set<String> groupNames;
+    private final long submittedAt;
+    private volatile Status status = Status.QUEUED;
+    private volatile long completedAt = 0L;
+    private volatile List<String> errors = Collections.emptyList();
+
+    public AclChange(final String id, final String projectKey, final String username, final Aperture.PermissionMode mode, final Aperture.Role role, final Collection<String> userNames, final Collection<String> groupNames) {
+
+        this.id = id;
+        this.projectKey = projectKey;
+        this.username = username;
+        this.mode = mode;
+        this.role = role;
+        this.userNames = Collections.unmodifiableSet(new LinkedHashSet<>(userNames));
+        this.groupNames = Collections.unmodifiableSet(new LinkedHashSet<>(groupNames));
+        this.submittedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the operation id the change is tracked by.
+     * <p>
+     *
+     * @return unique operation id of the change.
+     */
+    public String getId() {
+
+        return id;
+    }
+
+    public String getProjectKey() {
+
+        return projectKey;
+    }
+
+    /**
+     * Gets the name of the user that submitted the change; the change is applied on behalf of that user.
+     * <p>
+     *
+     * @return the user name of the submitter.
+     */
+    public String getUsername() {
+
+        return username;
+    }
+
+    public Aperture.PermissionMode getMode() {
+
+        return mode;
+    }
+
+    public Aperture.Role getRole() {
+
+        return role;
+    }
+
+    public Set<String> getUserNames() {
+
+        return userNames;
+    }
+
+    public Set<String> getGroupNames() {
+
+        return groupNames;
+    }
+
+    public long getSubmittedAt() {
+
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+
+        return status;
+    }
+
+    /**
+     * Gets the time the change completed.
+     * <p>
+     *
+     * @return milliseconds since the epoch; or <code>0</code> if the change has not completed.
+     */
+    public long getCompletedAt() {
+
+        return completedAt;
+    }
+
+    public boolean isComplete() {
+
+        return status == Status.DONE || status == Status.FAILED;
+    }
+
+    /**
+     * Gets the error messages reported by the services while the change was applied.
+     * <p>
+     *
+     * @return unmodifiable list of error messages; empty if none were reported.
+     */
+    public List<String> getErrors() {
+
+        return errors;
+    }
+
+    /**
+     * Marks the change as being applied.
+     */
+    public void started() {
+
+        status = Status.RUNNING;
+    }
+
+    /**
+     * Marks the change as complete.
+     * <p>
+     *
+     * @param errorMessages the error messages reported while applying the change; the change failed if there are any.
+     */
+    public void completed(final Collection<String> errorMessages) {
+
+        errors = Collections.unmodifiableList(new ArrayList<>(errorMessages));
+        completedAt = System.currentTimeMillis();
+        status = errorMessages.isEmpty() ? Status.DONE : Status.FAILED;
+    }
+
+    /**
+     * Gets whether another change can be applied together with this one.
+     * <p>
+     *
+     * @param other the change following this one.
+     * @return <code>true</code> if both changes were made by the same user with the same mode and role.
+     */
+    public boolean isMergeableWith(final AclChange other) {
+
+        return mode == other.mode && role == other.role && Objects.equals(username, other.username);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+
+        return String.format("AclChange[%s:%s %s %s users=%s groups=%s %s]", id, projectKey, mode, role, userNames, groupNames, status);
+    }
+
+    /**
+     * Progress of a change.
+     */
+    public enum Status {
+
+        /**
+         * Waiting for the job of its project to pick it up.
+         */
+        QUEUED,
+        /**
+         * Being applied to the services.
+         */
+        RUNNING,
+        /**
+         * Applied to every service without errors.
+         */
+        DONE,
+        /**
+         * Applied, but at least one service reported an error; or the change could not be applied at all.
+         */
+        FAILED
+    }
+}
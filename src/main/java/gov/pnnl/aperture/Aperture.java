@@ -34,12 +34,46 @@ public interface Aperture extends StateAware, LifecycleAware {
 
     Collection<ApplicationUser> getProjectMembers(final String projectKey, final boolean excludeProjectLead);
 
+    /**
+     * Gets the members of several projects at once.
+     * <p>
+     * Role membership is served from a per-project snapshot that is invalidated by project role changes; users are
+     * resolved once across all of the requested projects. Unknown project keys are omitted from the result.
+     *
+     * @param projectKeys        unique keys of the projects to get the members for.
+     * @param excludeProjectLead <code>true</code> to leave the project lead out unless they are in a project role.
+     * @return mapping of project key to the distinct members of that project.
+     */
+    Map<String, Collection<ApplicationUser>> getProjectMembers(final Collection<String> projectKeys, final boolean excludeProjectLead);
+
     ProjectServiceHandler getServiceHandler(final ApertureSettings.ProjectService projectService);
 
+    /**
+     * Gets the registry the project service handlers record their timings and application link responses in.
+     * <p>
+     *
+     * @return non-null metrics registry.
+     */
+    ApertureMetrics getMetrics();
+
     ErrorCollection createProject(final MutableIssue issue, final Map<String, Serializable> environment);
 
     ErrorCollection removeProject(final String projectKey, final Map<String, Serializable> environment);
 
+    /**
+     * Removes a number of projects together, tearing down one service at a time for all of the projects.
+     * <p>
+     * Services are removed in the same order as {@link #removeProject(String, Map)}; the projects of a service linked
+     * through an application link are removed in parallel by up to <code>aperture.removal.parallelism</code> threads
+     * (default 4) that share the application link request factories and remote sessions of a
+     * {@link ProvisioningBatch}.
+     *
+     * @param projectKeys keys of the projects to remove.
+     * @param environment removal environment copied for each project.
+     * @return the errors of each project keyed by project key, in the order given.
+     */
+    Map<String, ErrorCollection> removeProjects(final Collection<String> projectKeys, final Map<String, Serializable> environment);
+
     ErrorCollection modifyProjectUserPermissions(final String projectKey, final PermissionMode mode, final Role role, final Collection<ApplicationUser> users);
 
     ErrorCollection modifyProjectGroupPermissions(final String projectKey, final PermissionMode mode, final Role role, final Collection<Group> users);
@@ -0,0 +1,80 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.annotations.PublicApi;
+
+import java.util.Collection;
+
+/**
+ * Persistent store of {@link ProvisioningCheckpoint provisioning checkpoints}.
+ * <p>
+ * A checkpoint is kept from the first step of a provisioning run until the project is fully provisioned; in addition
+ * the store tracks which runs are <em>in flight</em>. A run that is still in flight when JIRA starts was interrupted
+ * and is resumed from its checkpoint by re-scheduling its project creator job.
+ *
+ * @author Developer Central @ PNNL
+ * @see gov.pnnl.aperture.project.tasks.ApertureProjectCreatorTask
+ */
+@PublicApi
+public interface ApertureCheckpointStore {
+
+    /**
+     * Loads the checkpoint of a request issue.
+     * <p>
+     *
+     * @param issueKey key of the request issue.
+     * @return the stored checkpoint; or a new empty checkpoint if none is stored.
+     * @throws IllegalArgumentException if the issueKey is an <em>empty</em> value.
+     */
+    ProvisioningCheckpoint load(final String issueKey);
+
+    /**
+     * Stores a checkpoint and marks its run as in flight.
+     * <p>
+     *
+     * @param checkpoint the checkpoint to store.
+     * @throws IllegalArgumentException if the checkpoint is <code>null</code>.
+     */
+    void save(final ProvisioningCheckpoint checkpoint);
+
+    /**
+     * Marks the run of a request issue as no longer in flight; its checkpoint is kept so a later run can resume, until
+     * it is {@link #prune() pruned}.
+     * <p>
+     *
+     * @param issueKey key of the request issue.
+     */
+    void release(final String issueKey);
+
+    /**
+     * Removes the checkpoint of a request issue once it has been fully provisioned.
+     * <p>
+     *
+     * @param issueKey key of the request issue.
+     */
+    void remove(final String issueKey);
+
+    /**
+     * Gets the keys of the request issues whose runs are in flight.
+     * <p>
+     *
+     * @return keys of the request issues being provisioned, or interrupted while being provisioned.
+     */
+    Collection<String> getInFlightIssueKeys();
+
+    /**
+     * Gets the keys of the request issues whose checkpoint records failed project services.
+     * <p>
+     *
+     * @return keys of the request issues with services to retry.
+     */
+    Collection<String> getFailedIssueKeys();
+
+    /**
+     * Removes the checkpoints of released runs that have recorded no step or failure for longer than the retention
+     * period.
+     * <p>
+     *
+     * @return the number of checkpoints removed.
+     */
+    int prune();
+}
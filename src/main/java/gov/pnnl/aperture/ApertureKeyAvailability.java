@@ -0,0 +1,96 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.annotations.PublicApi;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Answers whether a project key is already in use by one of the remote services linked to Aperture.
+ * <p>
+ * Lookups against Confluence, Bitbucket, Crucible and Jenkins run concurrently and are bounded by a single deadline;
+ * keys found in use are remembered for a long time and keys found available only briefly, so repeated checks of the
+ * same key, e.g. while a request is being corrected, are answered without any remote round-trip.
+ * <p>
+ * In addition a periodic job reads every key of JIRA and the linked services into a sorted in-memory index with
+ * {@link #refreshIndex()}; while the index of a service is fresh, keys are checked against it in logarithmic time
+ * without asking the service at all, and the index backs the key suggestions offered on the request create screen.
+ *
+ * @author Developer Central @ PNNL
+ * @see gov.pnnl.aperture.workflow.validator.ProjectKeyValidator
+ */
+@PublicApi
+public interface ApertureKeyAvailability {
+
+    /**
+     * Gets the remote services that already use a project key.
+     * <p>
+     * Services that do not answer before the lookup deadline, or fail to answer, are not reported; their lookups keep
+     * running in the background so a later check of the same key can use the answer.
+     *
+     * @param projectKey the project key to look up.
+     * @return the linked services in which the key is known to be in use; empty if none is known to use it.
+     * @throws IllegalArgumentException if the projectKey is an <em>empty</em> value.
+     */
+    Collection<ApertureSettings.ProjectService> getServicesUsing(final String projectKey);
+
+    /**
+     * Gets the remote services that already use a project key, except for services the key was already checked in.
+     * <p>
+     *
+     * @param projectKey the project key to look up.
+     * @param checked    the services not to look the key up in; e.g. those a bulk import already checked.
+     * @return the other linked services in which the key is known to be in use; empty if none is known to use it.
+     * @throws IllegalArgumentException if the projectKey is an <em>empty</em> value.
+     * @see #getServicesUsing(String)
+     */
+    Collection<ApertureSettings.ProjectService> getServicesUsing(final String projectKey, final Collection<ApertureSettings.ProjectService> checked);
+
+    /**
+     * Discards every remembered answer for a project key.
+     * <p>
+     *
+     * @param projectKey the project key whose remote resources were created or removed.
+     */
+    void invalidate(final String projectKey);
+
+    /**
+     * Re-reads every project key of JIRA and the linked services into the index.
+     * <p>
+     * The index of a service that cannot be read is left as it was.
+     */
+    void refreshIndex();
+
+    /**
+     * Gets the indexed keys, of any service, that start with a prefix.
+     * <p>
+     *
+     * @param prefix the case insensitive prefix to look up.
+     * @param limit  maximum number of keys to return.
+     * @return the upper case keys in use starting with the prefix, in order.
+     */
+    List<String> getKeysStartingWith(final String prefix, final int limit);
+
+    /**
+     * Gets the indexed services that use a project key, without asking any service.
+     * <p>
+     * The answer is only as recent as the last {@link #refreshIndex() refresh} of each index, except that JIRA projects
+     * deleted since are not reported.
+     *
+     * @param projectKey the project key to look up.
+     * @return the services whose index holds the key; empty if no index holds it.
+     */
+    Collection<ApertureSettings.ProjectService> getIndexedServicesUsing(final String projectKey);
+
+    /**
+     * Suggests project keys that are not in use, derived from a wanted key and the name of the project.
+     * <p>
+     * Candidates are only checked against JIRA and the index; they are validated again when the request is made.
+     *
+     * @param projectKey  the wanted project key; may be empty.
+     * @param projectName the name of the project; may be empty.
+     * @param limit       maximum number of keys to suggest.
+     * @return upper case keys that are not in use, best candidates first.
+     */
+    List<String> suggestKeys(final String projectKey, final String projectName, final int limit);
+}
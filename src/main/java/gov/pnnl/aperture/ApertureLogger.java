@@ -0,0 +1,251 @@
+package gov.pnnl.aperture;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.codehaus.jackson.JsonNode;
+import org.dom4j.Node;
+
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Logging facade over log4j that only formats a message when its level is enabled.
+ * <p>
+ * Messages are {@link String#format(String, Object...)} patterns whose arguments are formatted lazily; the fixed-arity
+ * overloads avoid allocating an argument array when the level is disabled, and {@link #debug(Supplier)} defers building
+ * a message altogether. Remote payloads given as arguments ({@link JsonNode} and dom4j {@link Node} responses, or any
+ * character sequence longer than the payload limit) are truncated to <code>aperture.log.payload.limit</code>
+ * characters (default 2048), and unless TRACE is enabled only one in every <code>aperture.log.payload.sample</code>
+ * messages (default 10) carrying a payload includes it.
+ *
+ * @author Developer Central @ PNNL
+ */
+public final class ApertureLogger {
+
+    /**
+     * Maximum number of characters of a payload that is logged.
+     */
+    private static final int PAYLOAD_LIMIT = Math.max(64, Integer.getInteger("aperture.log.payload.limit", 2048));
+    /**
+     * One in how many DEBUG messages carrying a payload include it.
+     */
+    private static final int PAYLOAD_SAMPLE = Math.max(1, Integer.getInteger("aperture.log.payload.sample", 10));
+
+    private final Logger logger;
+    private final AtomicLong payloads = new AtomicLong();
+
+    private ApertureLogger(final Logger logger) {
+
+        this.logger = logger;
+    }
+
+    /**
+     * Gets the logger for a class.
+     * <p>
+     *
+     * @param type the class to log for.
+     * @return a logger writing to the log4j logger of the class.
+     */
+    public static ApertureLogger getLogger(final Class<?> type) {
+
+        return new ApertureLogger(Logger.getLogger(type));
+    }
+
+    public boolean isDebugEnabled() {
+
+        return logger.isDebugEnabled();
+    }
+
+    public boolean isTraceEnabled() {
+
+        return logger.isTraceEnabled();
+    }
+
+    public void debug(final String message) {
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(message);
+        }
+    }
+
+    public void debug(final String message, final Throwable error) {
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(message, error);
+        }
+    }
+
+    public void debug(final String format, final Object arg) {
+
+        if (logger.isDebugEnabled()) {
+            log(Level.DEBUG, null, format, new Object[]{arg});
+        }
+    }
+
+    public void debug(final String format, final Object arg1, final Object arg2) {
+
+        if (logger.isDebugEnabled()) {
+            log(Level.DEBUG, null, format, new Object[]{arg1, arg2});
+        }
+    }
+
+    public void debug(final String format, final Object arg1, final Object arg2, final Object arg3) {
+
+        if (logger.isDebugEnabled()) {
+            log(Level.DEBUG, null, format, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    public void debug(final String format, final Object... args) {
+
+        if (logger.isDebugEnabled()) {
+            log(Level.DEBUG, null, format, args);
+        }
+    }
+
+    public void debug(final Throwable error, final String format, final Object... args) {
+
+        if (logger.isDebugEnabled()) {
+            log(Level.DEBUG, error, format, args);
+        }
+    }
+
+    /**
+     * Logs a DEBUG message that is only built if DEBUG is enabled.
+     * <p>
+     *
+     * @param message supplier of the message.
+     */
+    public void debug(final Supplier<String> message) {
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(message.get());
+        }
+    }
+
+    public void info(final String message) {
+
+        if (logger.isInfoEnabled()) {
+            logger.info(message);
+        }
+    }
+
+    public void info(final String format, final Object arg) {
+
+        if (logger.isInfoEnabled()) {
+            log(Level.INFO, null, format, new Object[]{arg});
+        }
+    }
+
+    public void info(final String format, final Object arg1, final Object arg2) {
+
+        if (logger.isInfoEnabled()) {
+            log(Level.INFO, null, format, new Object[]{arg1, arg2});
+        }
+    }
+
+    public void info(final String format, final Object... args) {
+
+        if (logger.isInfoEnabled()) {
+            log(Level.INFO, null, format, args);
+        }
+    }
+
+    public void warn(final String message) {
+
+        logger.warn(message);
+    }
+
+    public void warn(final String message, final Throwable error) {
+
+        logger.warn(message, error);
+    }
+
+    public void warn(final String format, final Object... args) {
+
+        if (logger.isEnabledFor(Level.WARN)) {
+            log(Level.WARN, null, format, args);
+        }
+    }
+
+    public void warn(final Throwable error, final String format, final Object... args) {
+
+        if (logger.isEnabledFor(Level.WARN)) {
+            log(Level.WARN, error, format, args);
+        }
+    }
+
+    public void error(final String message) {
+
+        logger.error(message);
+    }
+
+    public void error(final String message, final Throwable error) {
+
+        logger.error(message, error);
+    }
+
+    public void error(final String format, final Object... args) {
+
+        if (logger.isEnabledFor(Level.ERROR)) {
+            log(Level.ERROR, null, format, args);
+        }
+    }
+
+    public void error(final Throwable error, final String format, final Object... args) {
+
+        if (logger.isEnabledFor(Level.ERROR)) {
+            log(Level.ERROR, error, format, args);
+        }
+    }
+
+    public void fatal(final String message, final Throwable error) {
+
+        logger.fatal(message, error);
+    }
+
+    public void fatal(final Throwable error, final String format, final Object... args) {
+
+        if (logger.isEnabledFor(Level.FATAL)) {
+            log(Level.FATAL, error, format, args);
+        }
+    }
+
+    private void log(final Level level, final Throwable error, final String format, final Object[] args) {
+
+        boolean sampled = false;
+        boolean include = true;
+        for (int i = 0; args != null && i < args.length; i++) {
+            if (isPayload(args[i])) {
+                if (!sampled) {
+                    sampled = true;
+                    include = logger.isTraceEnabled() || payloads.getAndIncrement() % PAYLOAD_SAMPLE == 0;
+                }
+                args[i] = include ? truncate(args[i]) : String.format("<payload omitted; sampled 1 in %d>", PAYLOAD_SAMPLE);
+            }
+        }
+        String message;
+        try {
+            message = String.format(format, args);
+        } catch (IllegalFormatException ex) {
+            message = String.format("%s %s", format, Arrays.toString(args));
+        }
+        logger.log(level, message, error);
+    }
+
+    private static boolean isPayload(final Object arg) {
+
+        return arg instanceof JsonNode || arg instanceof Node || (arg instanceof CharSequence && ((CharSequence) arg).length() > PAYLOAD_LIMIT);
+    }
+
+    private static String truncate(final Object payload) {
+
+        final String text = payload instanceof Node ? ((Node) payload).asXML() : String.valueOf(payload);
+        if (text.length() <= PAYLOAD_LIMIT) {
+            return text;
+        }
+        return String.format("%s...(%d more characters)", text.substring(0, PAYLOAD_LIMIT), text.length() - PAYLOAD_LIMIT);
+    }
+}
@@ -0,0 +1,107 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.annotations.PublicApi;
+
+import java.util.Map;
+
+/**
+ * Registry of timers and counters for the work Aperture does against each project service.
+ * <p>
+ * Every {@link ProjectServiceHandler} call is timed per project service and {@link Operation}, and every response
+ * received over an application link is counted by HTTP status class along with the number of bytes received. Counters
+ * are striped so that recording from many provisioning threads at once does not contend on a single memory location.
+ *
+ * @author Developer Central @ PNNL
+ */
+@PublicApi
+public interface ApertureMetrics {
+
+    /**
+     * Records the outcome of a single project service handler call.
+     * <p>
+     *
+     * @param service      the project service the call was made against.
+     * @param operation    the handler operation that was called.
+     * @param elapsedNanos time the call took, in nanoseconds.
+     * @param failed       <code>true</code> if the call threw or returned errors.
+     */
+    void recordOperation(final ApertureSettings.ProjectService service, final Operation operation, final long elapsedNanos, final boolean failed);
+
+    /**
+     * Records a single response received over the application link of a project service.
+     * <p>
+     *
+     * @param service    the project service whose application link received the response.
+     * @param statusCode HTTP status code of the response; zero or negative if no response was received at all.
+     * @param bytes      size of the response body in bytes; negative if it is not known.
+     */
+    void recordResponse(final ApertureSettings.ProjectService service, final int statusCode, final long bytes);
+
+    /**
+     * Gets a point in time copy of every metric.
+     * <p>
+     * The snapshot is a tree of maps suitable for rendering as JSON; the <code>services</code> entry holds one entry per
+     * project service with its <code>operations</code> timers and application link <code>http</code> counters.
+     *
+     * @return snapshot of the current metrics.
+     */
+    Map<String, Object> getSnapshot();
+
+    /**
+     * Resets every timer and counter to zero.
+     */
+    void reset();
+
+    /**
+     * Enumeration of the timed project service handler operations.
+     */
+    enum Operation {
+
+        /**
+         * {@link ProjectServiceHandler#createService(ProvisioningRequest, Map)}
+         */
+        CREATE("create"),
+        /**
+         * {@link ProjectServiceHandler#destroyService(String, Map)}
+         */
+        DESTROY("destroy"),
+        /**
+         * {@link ProjectServiceHandler#modifyUsers(String, Aperture.PermissionMode, Aperture.Role, java.util.Collection)}
+         */
+        MODIFY_USERS("modifyUsers"),
+        /**
+         * {@link ProjectServiceHandler#modifyGroups(String, Aperture.PermissionMode, Aperture.Role, java.util.Collection)}
+         */
+        MODIFY_GROUPS("modifyGroups"),
+        /**
+         * {@link ProjectServiceHandler#isServiceAvailable(String)}
+         */
+        IS_SERVICE_AVAILABLE("isServiceAvailable"),
+        /**
+         * {@link ProjectServiceHandler#isIdle(String)}
+         */
+        IS_IDLE("isIdle"),
+        /**
+         * {@link ProjectServiceHandler#collectProjectKeys(java.util.function.Consumer)}
+         */
+        COLLECT_PROJECT_KEYS("collectProjectKeys");
+
+        private final String metricName;
+
+        Operation(final String metricName) {
+
+            this.metricName = metricName;
+        }
+
+        /**
+         * Gets the name this operation is reported under.
+         * <p>
+         *
+         * @return the metric name; e.g. <code>modifyUsers</code>.
+         */
+        public String getMetricName() {
+
+            return metricName;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.annotations.PublicApi;
+import com.atlassian.applinks.api.ApplicationLink;
+
+import java.util.Map;
+
+/**
+ * Links to the resources of a project in each of the services linked to Aperture.
+ * <p>
+ * The application link of each service is resolved once and the links of each project are rendered once; both are
+ * kept until an application link or a project key changes, so project panels, configure pages and notification
+ * emails do not resolve application links at all.
+ *
+ * @author Developer Central @ PNNL
+ * @see JiraUtils#getProjectLinks(Map, String)
+ */
+@PublicApi
+public interface ApertureProjectLinks {
+
+    /**
+     * Gets the links to the resources of a project.
+     * <p>
+     * The application link of each linked service is put into the parameters as <code>SERVICE_lnk</code>, e.g.
+     * <code>JENKINS_lnk</code>, for the templates rendering the links.
+     *
+     * @param params     template parameters to put the application links into; may be <code>null</code>.
+     * @param projectKey unique project key as it exists in other atlassian services.
+     * @return unmodifiable mapping of service types to their respective URL location.
+     */
+    Map<ApertureSettings.ProjectService, String> getProjectLinks(final Map<String, Object> params, final String projectKey);
+
+    /**
+     * Gets the application link of every linked service.
+     * <p>
+     *
+     * @return unmodifiable mapping of service types to their application link.
+     */
+    Map<ApertureSettings.ProjectService, ApplicationLink> getApplicationLinks();
+
+    /**
+     * Discards the resolved application links and every rendered project link; e.g. when the application link of a
+     * service is changed.
+     */
+    void invalidate();
+}
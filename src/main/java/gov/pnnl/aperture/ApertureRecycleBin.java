@@ -0,0 +1,103 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.annotations.PublicApi;
+
+import java.util.Comparator;
+
+/**
+ * Read-only view over the projects that are pending removal via Aperture.
+ * <p>
+ * The recycle bin is built from a single pass over the scheduled removal jobs; projects, project types and the users
+ * that initiated each removal are resolved once per distinct value rather than once per row so that listing hundreds
+ * of pending removals does not multiply look-ups against JIRA.
+ *
+ * @author Developer Central @ PNNL
+ * @see ApertureScheduler#scheduleProjectRemoval(com.atlassian.jira.project.Project)
+ */
+@PublicApi
+public interface ApertureRecycleBin {
+
+    /**
+     * Default number of entries returned in a single page of the recycle bin.
+     */
+    int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Gets a sorted page of projects that are currently pending removal.
+     * <p>
+     * Sorting is applied over all pending removals before the page is cut, so the ordering is stable across pages.
+     *
+     * @param sortField  the column to sort the pending removals by; defaults to {@link SortField#PURGE_DATE}.
+     * @param ascending  <code>true</code> to sort in ascending order; <code>false</code> for descending.
+     * @param startIndex zero-based offset of the first entry to return; clamped to the available entries.
+     * @param maxResults maximum number of entries to return; non-positive values use {@link #DEFAULT_PAGE_SIZE}.
+     * @return the requested page of pending removals; never <code>null</code>.
+     */
+    RecycleBinPage getPendingRemovals(final SortField sortField, final boolean ascending, final int startIndex, final int maxResults);
+
+    /**
+     * Enumeration of the columns the recycle bin can be sorted by.
+     */
+    enum SortField {
+
+        /**
+         * Sort by the display name of the project.
+         */
+        PROJECT_NAME(Comparator.comparing(RecycleBinEntry::getProjectName, String.CASE_INSENSITIVE_ORDER)),
+        /**
+         * Sort by the unique project key.
+         */
+        PROJECT_KEY(Comparator.comparing(RecycleBinEntry::getProjectKey)),
+        /**
+         * Sort by the user name of who initiated the removal.
+         */
+        INITIATED_BY(Comparator.comparing(RecycleBinEntry::getInitiatedByName, String.CASE_INSENSITIVE_ORDER)),
+        /**
+         * Sort by when the removal was initiated.
+         */
+        INITIATED_ON(Comparator.comparing(RecycleBinEntry::getInitiatedOnTime)),
+        /**
+         * Sort by when the project is scheduled to be purged.
+         */
+        PURGE_DATE(Comparator.comparing(RecycleBinEntry::getPurgeTime));
+
+        private final Comparator<RecycleBinEntry> comparator;
+
+        SortField(final Comparator<RecycleBinEntry> comparator) {
+
+            this.comparator = comparator.thenComparing(RecycleBinEntry::getProjectKey);
+        }
+
+        /**
+         * Gets the ascending comparator for entries sorted by this field.
+         * <p>
+         * Ties are broken by project key so that paging over equal values is deterministic.
+         *
+         * @return comparator ordering recycle bin entries by this field.
+         */
+        public Comparator<RecycleBinEntry> getComparator() {
+
+            return comparator;
+        }
+
+        /**
+         * Lenient lookup of a sort field from a request parameter.
+         * <p>
+         *
+         * @param value  the raw value to look up; case insensitive.
+         * @param orElse the sort field to use when the value is empty or unknown.
+         * @return the matching sort field or <code>orElse</code>.
+         */
+        public static SortField fromString(final String value, final SortField orElse) {
+
+            if (value != null) {
+                for (final SortField field : values()) {
+                    if (field.name().equalsIgnoreCase(value.trim())) {
+                        return field;
+                    }
+                }
+            }
+            return orElse;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.atlassian.scheduler.status.JobDetails;
 
 import javax.validation.constraints.NotNull;
 import java.util.Collection;
+import java.util.Date;
 
 /**
  * Service provider for having high-level functionality to JIRA's {@link com.atlassian.scheduler.SchedulerService}.
@@ -32,19 +33,52 @@ public interface ApertureScheduler extends StateAware, LifecycleAware {
      * Base key name for tracking {@link gov.pnnl.aperture.project.tasks.IdleProjectDetectorTask} jobs.
      */
     String PROJECT_IDLE_DETECTION_JOB_RUNNER_KEY = "aperture:gov.pnnl.project.idle-detection.task";
+    /**
+     * Base key name for tracking {@link gov.pnnl.aperture.project.tasks.KeyIndexTask} jobs.
+     */
+    String KEY_INDEX_JOB_RUNNER_KEY = "aperture:gov.pnnl.project.key-index.task";
+    /**
+     * Base key name for tracking {@link gov.pnnl.aperture.project.tasks.ProjectAclTask} jobs.
+     */
+    String PROJECT_ACL_JOB_RUNNER_KEY = "aperture:gov.pnnl.project.acl.task";
 
     /**
      * Initiates a new job to create a new project based on a given issue request.
      * <p>
      * This method will schedule a new job instance of the
      * {@link gov.pnnl.aperture.project.tasks.ApertureProjectCreatorTask} to create the new project and available
-     * connected services.
+     * connected services. While a {@link ProvisioningBatch} is bound to the current thread the issue is added to the
+     * batch instead; see {@link #scheduleProjectBatch(ProvisioningBatch)}.
      *
      * @param issue a valid JIRA issue containing project creations parameters
      * @throws IllegalArgumentException if the issue provided is <em>null</em>.
      */
     void scheduleNewProject(@NotNull final Issue issue);
 
+    /**
+     * Schedules the project creation job of an issue request to run again at a later time.
+     * <p>
+     * The job resumes from the request's {@link ProvisioningCheckpoint}, so only the steps that have not completed,
+     * such as failed project services, are attempted again.
+     *
+     * @param issue   a valid JIRA issue containing project creations parameters
+     * @param runTime when the job should run.
+     * @throws IllegalArgumentException if either issue or runTime provided are <em>null</em>.
+     */
+    void scheduleProjectRetry(@NotNull final Issue issue, @NotNull final Date runTime);
+
+    /**
+     * Initiates a single job that creates the projects of every issue request collected by a batch, in order.
+     * <p>
+     * The projects are created by one {@link gov.pnnl.aperture.project.tasks.ApertureProjectCreatorTask} run that
+     * shares application link request factories, remote sessions and group expansions between the requests. Each
+     * request keeps its own {@link ProvisioningCheckpoint}, so requests interrupted by a restart are resumed one by one.
+     *
+     * @param batch the batch whose collected issue requests should be provisioned.
+     * @throws IllegalArgumentException if the batch provided is <em>null</em>.
+     */
+    void scheduleProjectBatch(@NotNull final ProvisioningBatch batch);
+
     /**
      * Initiates a new job to remove a project based on an existing JIRA project.
      * <p>
@@ -63,6 +97,20 @@ public interface ApertureScheduler extends StateAware, LifecycleAware {
      */
     void scheduleProjectRemoval(@NotNull final Project project);
 
+    /**
+     * Initiates the removal of a number of projects that are torn down together.
+     * <p>
+     * Each project gets its own removal job, so it is listed in the recycle bin and can be cancelled as usual; the jobs
+     * share a batch identifier and run time, and the first of them to run removes every project of the batch that has
+     * not been cancelled with {@link Aperture#removeProjects(Collection, java.util.Map)} and sends one digest email per
+     * recipient.
+     *
+     * @param projects valid JIRA projects that are to be removed from this JIRA instance and connected services.
+     * @throws IllegalArgumentException if no projects are provided.
+     * @see #scheduleProjectRemoval(Project)
+     */
+    void scheduleProjectRemovals(@NotNull final Collection<Project> projects);
+
     /**
      * Removes a project deletion job from the scheduler thus canceling the project removal.
      * <p>
@@ -72,6 +120,34 @@ public interface ApertureScheduler extends StateAware, LifecycleAware {
      */
     void cancelProjectDeletion(@NotNull final String projectKey);
 
+    /**
+     * Submits a change to the access control of a project across every service, to be applied in the background.
+     * <p>
+     * The change is applied by a {@link gov.pnnl.aperture.project.tasks.ProjectAclTask} job on behalf of the logged in
+     * user. A project has at most one such job at a time; a change submitted while the job of its project is scheduled
+     * or running is applied by that job, after the changes submitted before it.
+     *
+     * @param projectKey unique key of the project whose access control is changed.
+     * @param mode       whether the users and groups are added or removed.
+     * @param role       the project role the users and groups are added to or removed from.
+     * @param userNames  names of the users to add or remove.
+     * @param groupNames names of the groups to add or remove.
+     * @return the queued change, holding the operation id to follow its progress with.
+     * @throws IllegalArgumentException if the projectKey is an <em>empty</em> value or mode or role are <em>null</em>.
+     * @see #getAclChange(String)
+     */
+    AclChange scheduleAclChange(@NotNull final String projectKey, @NotNull final Aperture.PermissionMode mode, @NotNull final Aperture.Role role, final Collection<String> userNames, final Collection<String> groupNames);
+
+    /**
+     * Gets a change submitted with {@link #scheduleAclChange(String, Aperture.PermissionMode, Aperture.Role,
+     * Collection, Collection)} by its operation id.
+     * <p>
+     *
+     * @param operationId the operation id of the change.
+     * @return the change with its progress; or <code>null</code> if it is unknown or completed too long ago.
+     */
+    AclChange getAclChange(final String operationId);
+
     /**
      * Gets job scheduler details based on the operation and project key provided.
      * <p>
@@ -0,0 +1,111 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.annotations.PublicApi;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Catalogue of the JIRA schemes, workflows and custom fields offered on the Aperture administration pages.
+ * <p>
+ * Each list is read from its JIRA manager once and kept as lightweight {@link Entry} values holding only an id and a
+ * name; lists are re-read in the background when JIRA reports a change to them or when they grow older than their
+ * maximum age, so rendering a configuration page never enumerates schemes or custom fields itself.
+ *
+ * @author Developer Central @ PNNL
+ * @see gov.pnnl.aperture.webwork.action.ApertureConfigure
+ * @see gov.pnnl.aperture.webwork.action.ApertureProjectDefaults
+ */
+@PublicApi
+public interface ApertureSchemeCatalogue {
+
+    /**
+     * Lists held by the catalogue.
+     */
+    enum Kind {
+        PERMISSION_SCHEME,
+        NOTIFICATION_SCHEME,
+        SCREEN_SCHEME,
+        WORKFLOW,
+        ACTIVE_WORKFLOW,
+        WORKFLOW_SCHEME,
+        ISSUE_TYPE_SCHEME,
+        FIELD_LAYOUT_SCHEME,
+        CUSTOM_FIELD
+    }
+
+    /**
+     * Gets the entries of a list.
+     * <p>
+     * A list is only read on the calling thread the first time it is needed; afterwards the last list read is returned
+     * while a stale list is re-read in the background.
+     *
+     * @param kind the list to get.
+     * @return unmodifiable list of entries, in the order JIRA returns them.
+     * @throws IllegalArgumentException if the kind is <code>null</code>.
+     */
+    List<Entry> getEntries(final Kind kind);
+
+    /**
+     * Re-reads a list in the background; requests to re-read a list that is already waiting to be read are ignored.
+     * <p>
+     *
+     * @param kind the list to re-read.
+     */
+    void refresh(final Kind kind);
+
+    /**
+     * Id and name of a single scheme, workflow or custom field.
+     * <p>
+     *
+     * @author Developer Central @ PNNL
+     */
+    final class Entry implements Serializable {
+
+        /**
+         * Generated Serial Version UID.
+         */
+        private static final long serialVersionUID = 4216907823117645311L;
+
+        private final Long id;
+        private final String name;
+        private final String displayName;
+
+        public Entry(final Long id, final String name, final String displayName) {
+
+            this.id = id;
+            this.name = name;
+            this.displayName = displayName == null ? name : displayName;
+        }
+
+        /**
+         * Gets the id of the entry; <code>null</code> for workflows, which are known by name only.
+         * <p>
+         *
+         * @return the JIRA id of the entry.
+         */
+        public Long getId() {
+
+            return id;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+
+        public String getDisplayName() {
+
+            return displayName;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+
+            return String.format("%s[%s]", name, id);
+        }
+    }
+}
@@ -67,6 +67,9 @@ public interface ApertureSettings extends StateAware, LifecycleAware {
      * This collection of users will not contain any duplicate users. If the issue type is not a valid Aperture project
      * creation issue type or the issue for whatever reason does not have the {@link #getCustomField(CustomField)} for
      * users or groups this method will simply return an empty collection.
+     * <p>
+     * Groups are expanded through the {@link MembershipResolver#current() current} membership resolver; so within a job
+     * that has opened a resolver each group is only expanded once.
      *
      * @param issue the project creation request issue.
      * @return collection of users that are reference in the provided issue.
@@ -359,6 +362,27 @@ public interface ApertureSettings extends StateAware, LifecycleAware {
      */
     void setProjectIdleInterval(final String intervalDuration);
 
+    /**
+     * Checks whether project creation keeps the services that were provisioned successfully when others fail.
+     * <p>
+     * When enabled a failing project service is neither removed nor does it triage the request straight away; the
+     * outcome of every service is recorded on the provisioning checkpoint and only the failed services are retried in
+     * the background with an increasing delay. The request is triaged once the retries are exhausted. When disabled
+     * (the default) a failing service is removed and the request triaged immediately.
+     *
+     * @return <code>true</code> if successful services are kept and failed services retried.
+     */
+    boolean isKeepSuccessfulServices();
+
+    /**
+     * Sets whether project creation keeps the services that were provisioned successfully when others fail.
+     * <p>
+     *
+     * @param keepSuccessfulServices <code>true</code> to keep successful services and retry failed services.
+     * @see #isKeepSuccessfulServices()
+     */
+    void setKeepSuccessfulServices(final boolean keepSuccessfulServices);
+
     /**
      * Gets a properly namespaced plug-in setting based on a given key.
      * <p>
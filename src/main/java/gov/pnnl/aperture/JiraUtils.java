@@ -1,6 +1,5 @@
 package gov.pnnl.aperture;
 
-import com.atlassian.applinks.api.ApplicationLink;
 import com.atlassian.extras.common.org.springframework.util.StringUtils;
 import com.atlassian.jira.bc.issue.IssueService;
 import com.atlassian.jira.bc.project.component.ProjectComponent;
@@ -30,10 +29,10 @@ import org.apache.log4j.Logger;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.EnumMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Usual collection of high-level functions that are mildly re-usable throughout Aperture.
@@ -47,6 +46,14 @@ public class JiraUtils {
      * Logger reference for this class.
      */
     private static final transient Logger LOG = Logger.getLogger(JiraUtils.class);
+    /**
+     * Reply-to address used for all emails sent by Aperture.
+     */
+    static final String REPLY_TO_ADDRESS = "Developer Central Aperture <do-not-reply@pnnl.gov>";
+    /**
+     * Cache of email template content keyed by classpath reference; templates are immutable within a plug-in version.
+     */
+    private static final Map<String, String> TEMPLATE_CACHE = new ConcurrentHashMap<>();
 
     /**
      * Default utility class constructor.
@@ -82,34 +89,46 @@ public class JiraUtils {
 
         email.setMimeType(MimeTypes.Text.HTML);
         email.setEncoding(webworkEncoding);
-        email.setReplyTo("Developer Central Aperture <do-not-reply@pnnl.gov>");
+        email.setReplyTo(REPLY_TO_ADDRESS);
         builder.addParameters(parameters);
-        if (StringUtils.hasText(body) && body.startsWith("/")) {
-            final InputStream is = ClassLoaderUtils.getResourceAsStream(body, AbstractAperturePluginJob.class);
-            try {
-                builder.withBody(IOUtils.toString(is));
-
-            } finally {
-                IOUtils.closeQuietly(is);
-            }
-        } else {
-            builder.withBody(body);
-        }
-        if (StringUtils.hasText(subject) && subject.startsWith("/")) {
-            final InputStream is = ClassLoaderUtils.getResourceAsStream(subject, AbstractAperturePluginJob.class);
-            try {
-                builder.withSubject(IOUtils.toString(is));
-            } finally {
-                IOUtils.closeQuietly(is);
-            }
-        } else {
-            builder.withSubject(subject);
-        }
+        builder.withBody(getTemplate(body));
+        builder.withSubject(getTemplate(subject));
         final MailQueueItem queueItem = builder.renderLater();
         emailQueue.addItem(queueItem);
         return true;
     }
 
+    /**
+     * Resolves the content of an email body or subject.
+     * <p>
+     * If the <code>content</code> starts with '/' it will be presumed to be a Java classpath resource reference; the
+     * resource is read once and cached for subsequent calls. Any other value is returned as-is.
+     *
+     * @param content literal content or a classpath reference to it.
+     * @return the resolved content; can be <code>null</code> if <code>content</code> is <code>null</code>.
+     * @throws IOException if the classpath resource could not be read.
+     */
+    public static String getTemplate(final String content) throws IOException {
+
+        if (!StringUtils.hasText(content) || !content.startsWith("/")) {
+            return content;
+        }
+        final String cached = TEMPLATE_CACHE.get(content);
+        if (cached != null) {
+            return cached;
+        }
+        final InputStream is = ClassLoaderUtils.getResourceAsStream(content, AbstractAperturePluginJob.class);
+        if (is == null) {
+            throw new IOException(String.format("Email template not found:%s", content));
+        }
+        try {
+            final String template = IOUtils.toString(is);
+            TEMPLATE_CACHE.put(content, template);
+            return template;
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
 
     /**
      * Adds an error collection as a comment that is viewable only to 'jira-administrators'.
@@ -252,39 +271,11 @@ public class JiraUtils {
      * @param params     collection of properties; this method will inject a series of new values into the map.
      * @param projectKey unique project key as it exists in other atlassian services.
      * @return mapping of service types to their respective URL location.
-     * @see #getProjectLinks(Map, String)
+     * @see ApertureProjectLinks#getProjectLinks(Map, String)
      */
     public static Map<ApertureSettings.ProjectService, String> getProjectLinks(final Map<String, Object> params, final String projectKey) {
 
-        final Map<ApertureSettings.ProjectService, String> linkList = new EnumMap<>(ApertureSettings.ProjectService.class);
-        final ApertureSettings apertureSettings = ComponentAccessor.getOSGiComponentInstanceOfType(ApertureSettings.class);
-        for (ApertureSettings.ProjectService service : ApertureSettings.ProjectService.values()) {
-            final ApplicationLink applicationLink = apertureSettings.getApplicationLink(service);
-            if (applicationLink != null) {
-                // TODO not entirely sure why this is being done and might to be work around something but this is some
-                // pseudo-voodoo going on here.
-                params.put(String.format("%s_lnk", service.name()), applicationLink);
-                switch (service) {
-                    case CONFLUENCE:
-                        linkList.put(service, String.format("%s/display/%s", applicationLink.getRpcUrl(), projectKey));
-                        break;
-                    case CRUCIBLE:
-                        linkList.put(service, String.format("%s/project/%s", applicationLink.getRpcUrl(), projectKey));
-                        break;
-                    case JENKINS:
-                        linkList.put(service, String.format("%s/job/%s", applicationLink.getRpcUrl(), projectKey));
-                        break;
-                    case JIRA:
-                        linkList.put(service, String.format("%s/browse/%s", applicationLink.getRpcUrl(), projectKey));
-                        break;
-                    case BITBUCKET:
-                        linkList.put(service, String.format("%s/projects/%s", applicationLink.getRpcUrl(), projectKey));
-                        break;
-                    default:
-                        break;
-                }
-            }
-        }
-        return linkList;
+        final ApertureProjectLinks projectLinks = ComponentAccessor.getOSGiComponentInstanceOfType(ApertureProjectLinks.class);
+        return projectLinks.getProjectLinks(params, projectKey);
     }
 }
@@ -0,0 +1,221 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.crowd.embedded.api.Group;
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.security.groups.GroupManager;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.util.Page;
+import com.atlassian.jira.util.PageRequests;
+import org.apache.log4j.Logger;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Resolves the users that make up a project membership from individual users and groups.
+ * <p>
+ * Group members are read from the {@link GroupManager} a page of <code>aperture.membership.page-size</code> users
+ * (default 500) at a time, including members of nested groups, without re-resolving each user by name; members are
+ * de-duplicated by user key. Once the {@link #getMaxMembers() maximum} number of members is reached no further pages
+ * are read, so a capped resolver never loads the whole of a huge group. The complete expansion of each group is cached
+ * for the lifetime of the resolver so that a job that asks for the same membership several times only expands each
+ * group once.
+ * <p>
+ * A resolver can be bound to the current thread for the duration of a job with {@link #open(int)}; callers that do not
+ * have a resolver threaded through to them can then pick it up with {@link #current()}. A resolver opened while another
+ * is bound replaces it until it is closed, after which the other is bound again.
+ *
+ * @author Developer Central @ PNNL
+ */
+public class MembershipResolver implements AutoCloseable {
+
+    /**
+     * Value for {@link #getMaxMembers()} that places no limit on the number of members resolved.
+     */
+    public static final int UNLIMITED = 0;
+    /**
+     * Number of group members read from the group manager at a time.
+     */
+    private static final int PAGE_SIZE = Math.max(1, Integer.getInteger("aperture.membership.page-size", 500));
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(MembershipResolver.class);
+    /**
+     * The resolver bound to the current thread, if any.
+     */
+    private static final ThreadLocal<MembershipResolver> CURRENT = new ThreadLocal<>();
+    /**
+     * Cached group expansions keyed by group name.
+     */
+    private final Map<String, Collection<ApplicationUser>> groupMembers = new HashMap<>();
+    /**
+     * Maximum number of members returned by {@link #resolve(Collection, Collection)}.
+     */
+    private final int maxMembers;
+    /**
+     * The resolver that was bound to the thread this resolver was opened on; bound again when this resolver is closed.
+     */
+    private MembershipResolver previous = null;
+
+    /**
+     * Creates a new resolver with no limit on the number of members resolved.
+     */
+    public MembershipResolver() {
+
+        this(UNLIMITED);
+    }
+
+    /**
+     * Creates a new resolver with a limit on the number of members resolved.
+     * <p>
+     *
+     * @param maxMembers maximum number of members to resolve; {@link #UNLIMITED} for no limit.
+     */
+    public MembershipResolver(final int maxMembers) {
+
+        this.maxMembers = Math.max(UNLIMITED, maxMembers);
+    }
+
+    /**
+     * Creates a new resolver and binds it to the current thread until it is closed.
+     * <p>
+     *
+     * @param maxMembers maximum number of members to resolve; {@link #UNLIMITED} for no limit.
+     * @return the resolver bound to the current thread.
+     */
+    public static MembershipResolver open(final int maxMembers) {
+
+        final MembershipResolver resolver = new MembershipResolver(maxMembers);
+        resolver.previous = CURRENT.get();
+        CURRENT.set(resolver);
+        return resolver;
+    }
+
+    /**
+     * Gets the resolver bound to the current thread.
+     * <p>
+     *
+     * @return the resolver bound by {@link #open(int)}; or a new unbound resolver if none is bound.
+     */
+    public static MembershipResolver current() {
+
+        final MembershipResolver resolver = CURRENT.get();
+        return resolver == null ? new MembershipResolver() : resolver;
+    }
+
+    public int getMaxMembers() {
+
+        return maxMembers;
+    }
+
+    /**
+     * Gets the members of a group; the expansion is cached for the lifetime of this resolver.
+     * <p>
+     *
+     * @param group the group to expand.
+     * @return all users in the group, including members of nested groups.
+     */
+    public Collection<ApplicationUser> getMembers(final Group group) {
+
+        expand(group, user -> true);
+        return groupMembers.get(group.getName());
+    }
+
+    /**
+     * Hands the members of a group to a consumer one at a time, reading them a page at a time unless already cached.
+     * <p>
+     * The expansion is only cached once every member has been read.
+     *
+     * @param group  the group to expand.
+     * @param member takes each member of the group; returns <code>false</code> to stop the expansion.
+     * @return <code>true</code> if every member was taken; <code>false</code> if the consumer stopped the expansion.
+     */
+    private boolean expand(final Group group, final Predicate<ApplicationUser> member) {
+
+        final Collection<ApplicationUser> cached = groupMembers.get(group.getName());
+        if (cached != null) {
+            for (final ApplicationUser user : cached) {
+                if (!member.test(user)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        final GroupManager groupManager = ComponentAccessor.getGroupManager();
+        final List<ApplicationUser> users = new ArrayList<>();
+        long start = 0;
+        Page<ApplicationUser> page;
+        do {
+            page = groupManager.getUsersInGroup(group.getName(), Boolean.TRUE, PageRequests.request(start, PAGE_SIZE));
+            for (final ApplicationUser user : page.getValues()) {
+                users.add(user);
+                if (!member.test(user)) {
+                    return false;
+                }
+            }
+            start += page.getSize();
+        } while (!page.isLast() && page.getSize() > 0);
+        groupMembers.put(group.getName(), Collections.unmodifiableList(users));
+        LOG.debug(String.format("Expanded group:'%s' to %d user(s)", group.getName(), users.size()));
+        return true;
+    }
+
+    /**
+     * Resolves the distinct users from a collection of users and groups.
+     * <p>
+     * Users are added in order; first the given users and then the members of each group. Once the
+     * {@link #getMaxMembers() maximum} number of members is reached no further members are added, and no further pages
+     * of group members are read.
+     *
+     * @param users  individual users that are members; <code>null</code> entries are ignored.
+     * @param groups groups whose members are members.
+     * @return the distinct members in the order they were first found.
+     */
+    public Collection<ApplicationUser> resolve(final Collection<ApplicationUser> users, final Collection<Group> groups) {
+
+        final Set<String> userKeys = new HashSet<>();
+        final List<ApplicationUser> members = new ArrayList<>();
+        for (final ApplicationUser user : users) {
+            if (!add(user, userKeys, members)) {
+                return members;
+            }
+        }
+        for (final Group group : groups) {
+            if (!expand(group, user -> add(user, userKeys, members))) {
+                return members;
+            }
+        }
+        return members;
+    }
+
+    private boolean add(final ApplicationUser user, final Set<String> userKeys, final List<ApplicationUser> members) {
+
+        if (maxMembers != UNLIMITED && members.size() >= maxMembers) {
+            LOG.warn(String.format("Membership capped at %d user(s); remaining users were not resolved", maxMembers));
+            return false;
+        }
+        if (user != null && userKeys.add(user.getKey())) {
+            members.add(user);
+        }
+        return true;
+    }
+
+    /**
+     * Unbinds this resolver from the current thread, binding the resolver it replaced again, and releases its cached
+     * group expansions.
+     */
+    @Override
+    public void close() {
+
+        if (CURRENT.get() == this) {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+        previous = null;
+        groupMembers.clear();
+    }
+}
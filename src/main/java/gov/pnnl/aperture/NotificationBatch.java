@@ -0,0 +1,187 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.extras.common.org.springframework.util.StringUtils;
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.config.properties.APKeys;
+import com.atlassian.jira.mail.Email;
+import com.atlassian.jira.mail.builder.EmailBuilder;
+import com.atlassian.jira.mail.util.MimeTypes;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.util.I18nHelper;
+import com.atlassian.mail.queue.MailQueue;
+import com.atlassian.mail.queue.MailQueueItem;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Collects the recipients of a single notification and enqueues them to the JIRA {@link MailQueue} as one batch.
+ * <p>
+ * The template body and subject are read once for the whole batch (and cached across batches by
+ * {@link JiraUtils#getTemplate(String)}); recipients are grouped by locale so that each {@link I18nHelper} variant is
+ * resolved once per batch rather than once per recipient. Rendering of each message is deferred to the mail queue via
+ * {@link EmailBuilder#renderLater()} so that the calling thread only pays for building the queue items.
+ * <p>
+ * Parameters added with {@link #addParameter(String, Object)} are shared by every message in the batch; the
+ * <code>recipient</code> and <code>i18n</code> parameters are set per recipient.
+ *
+ * @author Developer Central @ PNNL
+ */
+public class NotificationBatch {
+
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(NotificationBatch.class);
+    /**
+     * Classpath reference or literal content of the email body.
+     */
+    private final String body;
+    /**
+     * Classpath reference or literal content of the email subject.
+     */
+    private final String subject;
+    /**
+     * Parameters shared across every message in this batch.
+     */
+    private final Map<String, Object> parameters = new HashMap<>();
+    /**
+     * Recipients of this batch grouped by their preferred locale; insertion order is preserved within a locale.
+     */
+    private final Map<Locale, Map<String, ApplicationUser>> recipients = new LinkedHashMap<>();
+
+    /**
+     * Creates a new notification batch for a given body and subject.
+     * <p>
+     *
+     * @param body    the content body of the email message or a '/' prefixed classpath reference to it.
+     * @param subject the subject of the email message or a '/' prefixed classpath reference to it.
+     */
+    public NotificationBatch(final String body, final String subject) {
+
+        this.body = body;
+        this.subject = subject;
+    }
+
+    /**
+     * Adds a parameter shared by every message in this batch.
+     * <p>
+     *
+     * @param key   name of the parameter as referenced by the velocity templates.
+     * @param value value of the parameter.
+     * @return this batch for chaining.
+     */
+    public NotificationBatch addParameter(final String key, final Object value) {
+
+        parameters.put(key, value);
+        return this;
+    }
+
+    /**
+     * Adds a collection of parameters shared by every message in this batch.
+     * <p>
+     *
+     * @param values key-value substitutions for the email body and subject.
+     * @return this batch for chaining.
+     */
+    public NotificationBatch addParameters(final Map<String, Object> values) {
+
+        parameters.putAll(values);
+        return this;
+    }
+
+    /**
+     * Adds a recipient to this batch.
+     * <p>
+     * Recipients without an email address are skipped and the same user is only ever notified once per batch.
+     *
+     * @param recipient the user to receive a message from this batch.
+     * @return this batch for chaining.
+     */
+    public NotificationBatch addRecipient(final ApplicationUser recipient) {
+
+        if (recipient == null || !StringUtils.hasText(recipient.getEmailAddress())) {
+            LOG.debug(String.format("Skipping notification recipient without an email address:%s", recipient));
+            return this;
+        }
+        final Locale locale = ComponentAccessor.getLocaleManager().getLocaleFor(recipient);
+        recipients.computeIfAbsent(locale, key -> new LinkedHashMap<>()).putIfAbsent(recipient.getKey(), recipient);
+        return this;
+    }
+
+    /**
+     * Adds a collection of recipients to this batch.
+     * <p>
+     *
+     * @param users the users to receive a message from this batch.
+     * @return this batch for chaining.
+     * @see #addRecipient(ApplicationUser)
+     */
+    public NotificationBatch addRecipients(final Collection<ApplicationUser> users) {
+
+        for (final ApplicationUser user : users) {
+            addRecipient(user);
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of distinct recipients currently in this batch.
+     * <p>
+     *
+     * @return number of messages that {@link #deliver()} will enqueue.
+     */
+    public int size() {
+
+        int size = 0;
+        for (final Map<String, ApplicationUser> users : recipients.values()) {
+            size += users.size();
+        }
+        return size;
+    }
+
+    /**
+     * Builds a message for every recipient in this batch and enqueues them to the JIRA {@link MailQueue}.
+     * <p>
+     *
+     * @return the number of messages enqueued.
+     * @throws IOException if there is an issue reading the body or subject classpath resources.
+     */
+    public int deliver() throws IOException {
+
+        final String bodyContent = JiraUtils.getTemplate(body);
+        final String subjectContent = JiraUtils.getTemplate(subject);
+        final String webworkEncoding = ComponentAccessor.getApplicationProperties().getString(APKeys.JIRA_WEBWORK_ENCODING);
+        final I18nHelper.BeanFactory i18nFactory = ComponentAccessor.getI18nHelperFactory();
+
+        final List<MailQueueItem> queueItems = new ArrayList<>(size());
+        for (final Map.Entry<Locale, Map<String, ApplicationUser>> localeGroup : recipients.entrySet()) {
+            final Locale locale = localeGroup.getKey();
+            final I18nHelper i18n = i18nFactory.getInstance(locale);
+            for (final ApplicationUser recipient : localeGroup.getValue().values()) {
+                final Email email = new Email(recipient.getEmailAddress());
+                email.setMimeType(MimeTypes.Text.HTML);
+                email.setEncoding(webworkEncoding);
+                email.setReplyTo(JiraUtils.REPLY_TO_ADDRESS);
+
+                final Map<String, Object> messageParameters = new HashMap<>(parameters);
+                messageParameters.put("i18n", i18n);
+                messageParameters.put("recipient", recipient);
+
+                final EmailBuilder builder = new EmailBuilder(email, MimeTypes.Text.HTML, locale);
+                builder.addParameters(messageParameters);
+                builder.withBody(bodyContent);
+                builder.withSubject(subjectContent);
+                queueItems.add(builder.renderLater());
+            }
+        }
+
+        final MailQueue emailQueue = ComponentAccessor.getMailQueue();
+        for (final MailQueueItem queueItem : queueItems) {
+            emailQueue.addItem(queueItem);
+        }
+        LOG.debug(String.format("Enqueued %d notification(s) in %d locale(s) for body:'%s'", queueItems.size(), recipients.size(), body));
+        return queueItems.size();
+    }
+}
@@ -0,0 +1,132 @@
+package gov.pnnl.aperture;
+
+import java.io.Serializable;
+
+/**
+ * Validated, upper case project key shared by every Developer Central service.
+ * <p>
+ * A project key consists of letters only (A-Z, a-z) and is always held in upper case. Validation and normalization
+ * are a single pass over the characters with no regular expression and no intermediate strings; a key that is already
+ * upper case is kept as the very string it was created from. During a provisioning run the key of the request is
+ * created once and kept on the {@link ProvisioningCheckpoint} of the run, so later look ups of the key do not read the
+ * custom field of the issue again; see {@link ApertureSettings#getProjectKeyFor(com.atlassian.jira.issue.Issue)}.
+ *
+ * @author Developer Central @ PNNL
+ */
+public final class ProjectKey implements Comparable<ProjectKey>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String value;
+
+    private ProjectKey(final String value) {
+
+        this.value = value;
+    }
+
+    /**
+     * Creates a project key from a raw value.
+     * <p>
+     *
+     * @param value the raw project key; e.g. the value of the project key custom field.
+     * @return the validated, upper case project key.
+     * @throws IllegalArgumentException if the value is empty or contains anything but letters.
+     */
+    public static ProjectKey of(final String value) {
+
+        if (!isValid(value)) {
+            throw new IllegalArgumentException(String.format("The project key '%s' is not valid and must consist of letters only (A-Z, a-z)", value));
+        }
+        return new ProjectKey(normalize(value));
+    }
+
+    /**
+     * Checks whether a raw value is a valid project key.
+     * <p>
+     *
+     * @param value the raw project key.
+     * @return <code>true</code> if the value is not empty and consists of letters only.
+     */
+    public static boolean isValid(final CharSequence value) {
+
+        if (value == null || value.length() == 0) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if ((c < 'A' || c > 'Z') && (c < 'a' || c > 'z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts the ASCII letters of a raw value to upper case.
+     * <p>
+     * Unlike {@link String#toUpperCase()} this does not depend on the default locale, and returns the value itself when
+     * it has no lower case letters.
+     *
+     * @param value the raw project key.
+     * @return the value with its lower case ASCII letters converted; <code>null</code> if the value is <code>null</code>.
+     */
+    public static String normalize(final String value) {
+
+        if (value == null) {
+            return null;
+        }
+        int i = 0;
+        while (i < value.length() && (value.charAt(i) < 'a' || value.charAt(i) > 'z')) {
+            i++;
+        }
+        if (i == value.length()) {
+            return value;
+        }
+        final char[] chars = value.toCharArray();
+        for (; i < chars.length; i++) {
+            if (chars[i] >= 'a' && chars[i] <= 'z') {
+                chars[i] = (char) (chars[i] - ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compareTo(final ProjectKey other) {
+
+        return value.compareTo(other.value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object other) {
+
+        return this == other || other instanceof ProjectKey && value.equals(((ProjectKey) other).value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+
+        return value.hashCode();
+    }
+
+    /**
+     * Gets the upper case project key.
+     * <p>
+     *
+     * @return the project key as used by every service; e.g. <code>DEVCTR</code>.
+     */
+    @Override
+    public String toString() {
+
+        return value;
+    }
+}
@@ -0,0 +1,272 @@
+package gov.pnnl.aperture;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Manifest of projects to be provisioned in bulk.
+ * <p>
+ * A manifest is either CSV or JSON. CSV manifests have one project per line with the columns <code>key, name, lead,
+ * groups, users, category</code>; an optional header line naming the columns allows them in any order, and the groups
+ * and users columns list names separated by semicolons. JSON manifests are an array (or an object with a
+ * <code>projects</code> array) of objects with the same fields, where groups and users are arrays of names.
+ *
+ * @author Developer Central @ PNNL
+ */
+public final class ProjectManifest {
+
+    /**
+     * Column names of a CSV manifest in their default order.
+     */
+    private static final List<String> COLUMNS = Collections.unmodifiableList(Arrays.asList("key", "name", "lead", "groups", "users", "category"));
+
+    private final List<Entry> entries;
+
+    private ProjectManifest(final List<Entry> entries) {
+
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Parses a CSV or JSON manifest; JSON is detected by a leading <code>[</code> or <code>{</code>.
+     * <p>
+     *
+     * @param manifest the text of the manifest.
+     * @return the parsed manifest.
+     * @throws IllegalArgumentException if the manifest is empty or malformed.
+     */
+    public static ProjectManifest parse(final String manifest) {
+
+        if (!StringUtils.hasText(manifest)) {
+            throw new IllegalArgumentException("The project manifest is empty.");
+        }
+        final String text = manifest.trim();
+        final ProjectManifest parsed = text.startsWith("[") || text.startsWith("{") ? parseJson(text) : parseCsv(text);
+        if (parsed.entries.isEmpty()) {
+            throw new IllegalArgumentException("The project manifest does not list any projects.");
+        }
+        return parsed;
+    }
+
+    public List<Entry> getEntries() {
+
+        return entries;
+    }
+
+    /**
+     * Gets the project keys of every entry in manifest order.
+     * <p>
+     *
+     * @return the upper case project keys of the manifest.
+     */
+    public List<String> getProjectKeys() {
+
+        final List<String> keys = new ArrayList<>(entries.size());
+        for (final Entry entry : entries) {
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    private static ProjectManifest parseJson(final String text) {
+
+        final JsonNode root;
+        try {
+            root = new ObjectMapper().readTree(text);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(String.format("The project manifest is not valid JSON; %s", ex.getMessage()), ex);
+        }
+        final JsonNode projects = root.isArray() ? root : root.path("projects");
+        if (!projects.isArray()) {
+            throw new IllegalArgumentException("A JSON project manifest must be an array of projects.");
+        }
+        final List<Entry> entries = new ArrayList<>();
+        int line = 0;
+        for (final JsonNode project : projects) {
+            line++;
+            entries.add(new Entry(line, project.path("key").asText(), project.path("name").asText(), project.path("lead").asText(),
+                getNames(project.path("groups")), getNames(project.path("users")), project.path("category").asText()));
+        }
+        return new ProjectManifest(entries);
+    }
+
+    private static List<String> getNames(final JsonNode node) {
+
+        if (!node.isArray()) {
+            return split(node.asText());
+        }
+        final List<String> names = new ArrayList<>();
+        for (final JsonNode name : node) {
+            if (StringUtils.hasText(name.asText())) {
+                names.add(name.asText().trim());
+            }
+        }
+        return names;
+    }
+
+    private static ProjectManifest parseCsv(final String text) {
+
+        final List<Entry> entries = new ArrayList<>();
+        final Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            columns.put(COLUMNS.get(i), i);
+        }
+        final String[] lines = text.split("\\r?\\n");
+        final int header = firstLine(lines);
+        for (int i = 0; i < lines.length; i++) {
+            if (!StringUtils.hasText(lines[i]) || lines[i].trim().startsWith("#")) {
+                continue;
+            }
+            final List<String> cells = splitCsvLine(lines[i]);
+            if (i == header && "key".equalsIgnoreCase(cells.get(0))) {
+                columns.clear();
+                for (int c = 0; c < cells.size(); c++) {
+                    columns.put(cells.get(c).toLowerCase(Locale.ENGLISH), c);
+                }
+                if (!columns.containsKey("key")) {
+                    throw new IllegalArgumentException("The project manifest header has no key column.");
+                }
+                continue;
+            }
+            entries.add(new Entry(i + 1, cell(cells, columns, "key"), cell(cells, columns, "name"), cell(cells, columns, "lead"),
+                split(cell(cells, columns, "groups")), split(cell(cells, columns, "users")), cell(cells, columns, "category")));
+        }
+        return new ProjectManifest(entries);
+    }
+
+    private static int firstLine(final String[] lines) {
+
+        for (int i = 0; i < lines.length; i++) {
+            if (StringUtils.hasText(lines[i]) && !lines[i].trim().startsWith("#")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String cell(final List<String> cells, final Map<String, Integer> columns, final String column) {
+
+        final Integer index = columns.get(column);
+        return index == null || index >= cells.size() ? "" : cells.get(index);
+    }
+
+    private static List<String> splitCsvLine(final String line) {
+
+        final List<String> cells = new ArrayList<>();
+        final StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                cells.add(cell.toString().trim());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException(String.format("Unterminated quoted value in project manifest line: %s", line));
+        }
+        cells.add(cell.toString().trim());
+        return cells;
+    }
+
+    private static List<String> split(final String names) {
+
+        final List<String> values = new ArrayList<>();
+        if (StringUtils.hasText(names)) {
+            for (final String name : names.split(";")) {
+                if (StringUtils.hasText(name)) {
+                    values.add(name.trim());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Single project listed in a manifest.
+     * <p>
+     *
+     * @author Developer Central @ PNNL
+     */
+    public static final class Entry {
+
+        private final int line;
+        private final String key;
+        private final String name;
+        private final String lead;
+        private final List<String> groups;
+        private final List<String> users;
+        private final String category;
+
+        Entry(final int line, final String key, final String name, final String lead, final List<String> groups, final List<String> users, final String category) {
+
+            this.line = line;
+            this.key = key == null ? "" : key.trim().toUpperCase(Locale.ENGLISH);
+            this.name = StringUtils.hasText(name) ? name.trim() : this.key;
+            this.lead = lead == null ? "" : lead.trim();
+            this.groups = Collections.unmodifiableList(groups);
+            this.users = Collections.unmodifiableList(users);
+            this.category = category == null ? "" : category.trim();
+        }
+
+        /**
+         * Gets the line (or array index for JSON manifests) of this entry, starting at 1.
+         * <p>
+         *
+         * @return position of this entry in its manifest.
+         */
+        public int getLine() {
+
+            return line;
+        }
+
+        public String getKey() {
+
+            return key;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+
+        public String getLead() {
+
+            return lead;
+        }
+
+        public List<String> getGroups() {
+
+            return groups;
+        }
+
+        public List<String> getUsers() {
+
+            return users;
+        }
+
+        public String getCategory() {
+
+            return category;
+        }
+    }
+}
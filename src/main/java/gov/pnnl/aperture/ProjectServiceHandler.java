@@ -2,7 +2,6 @@ package gov.pnnl.aperture;
 
 import com.atlassian.annotations.PublicSpi;
 import com.atlassian.crowd.embedded.api.Group;
-import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.util.ErrorCollection;
 import org.springframework.stereotype.Component;
@@ -11,6 +10,7 @@ import javax.validation.constraints.NotNull;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Protocol for providing a layer of abstraction for Aperture and the various software services for projects it can
@@ -33,17 +33,18 @@ public interface ProjectServiceHandler {
     ApertureSettings.ProjectService getServiceType();
 
     /**
-     * Creates the software service using properties of the JIRA issue and current operating environment.
+     * Creates the software service using properties of the project request and current operating environment.
      * <p>
-     * The issue passed into this method provides all the user provided inputs to create the project as requested by
-     * the end-user. Implementations should only create the initial project structure and reasonable defaults.
+     * The request passed into this method provides all the user provided inputs to create the project as requested by
+     * the end-user; the request issue it holds is only meant for links, components and comments added to it.
+     * Implementations should only create the initial project structure and reasonable defaults.
      *
-     * @param issue       the JIRA issue for the service request.
-     * @param environment the current runtime environment.
+     * @param projectRequest snapshot of the JIRA issue for the service request.
+     * @param environment    the current runtime environment.
      * @return an error collection of any issues that arose while creating this service.
-     * @throws IllegalArgumentException if the <code>issue</code> provided is <code>null</code>
+     * @throws IllegalArgumentException if the <code>projectRequest</code> provided is <code>null</code>
      */
-    ErrorCollection createService(final @NotNull MutableIssue issue, final Map<String, Serializable> environment);
+    ErrorCollection createService(final @NotNull ProvisioningRequest projectRequest, final Map<String, Serializable> environment);
 
     /**
      * Modifies the access control list of users for a given project.
@@ -110,4 +111,15 @@ public interface ProjectServiceHandler {
      */
     boolean isIdle(final @NotNull String projectKey);
 
+    /**
+     * Lists the key of every project, or equivalent resource, that exists in the external service.
+     * <p>
+     * Keys are handed to the consumer as each page of the listing is read so that large services are never held in
+     * memory at once. Like {@link #isServiceAvailable(String)}, implementations throw an {@link IllegalStateException}
+     * when the remote service is not accessible.
+     *
+     * @param projectKeys consumer receiving every project key of the service.
+     */
+    void collectProjectKeys(final @NotNull Consumer<String> projectKeys);
+
 }
@@ -0,0 +1,217 @@
+package gov.pnnl.aperture;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Batch of projects that are provisioned, or removed, together by a single job.
+ * <p>
+ * A batch is bound to the current thread with {@link #open(String, Collection, Collection)}; a batch opened while
+ * another is bound replaces it until it is closed, after which the other is bound again. While the request issues of a
+ * bulk import are created, {@link ApertureScheduler#scheduleNewProject(com.atlassian.jira.issue.Issue)} collects them
+ * into the batch instead of scheduling a job per request, and the project keys the import already validated in bulk are
+ * not checked again against the remote services they were validated against. While a batch job runs, resources that
+ * are expensive to set up, such as application link request factories and remote sessions, are shared between the
+ * requests with {@link #shared(String, Supplier)}; worker threads of a batch share them through {@link #wrap(Callable)}.
+ *
+ * @author Developer Central @ PNNL
+ */
+public final class ProvisioningBatch implements AutoCloseable {
+
+    /**
+     * The batch bound to the current thread, if any.
+     */
+    private static final ThreadLocal<ProvisioningBatch> CURRENT = new ThreadLocal<>();
+
+    private final String id;
+    private final Set<String> verifiedKeys = new HashSet<>();
+    private final Set<ApertureSettings.ProjectService> verifiedServices = EnumSet.noneOf(ApertureSettings.ProjectService.class);
+    private final List<String> issueKeys = new ArrayList<>();
+    private final Map<String, Object> resources = new ConcurrentHashMap<>();
+    /**
+     * The batch that was bound to the thread this batch was opened on; bound again when this batch is closed.
+     */
+    private ProvisioningBatch previous = null;
+
+    private ProvisioningBatch(final String id, final Collection<String> verifiedKeys, final Collection<ApertureSettings.ProjectService> verifiedServices) {
+
+        this.id = id;
+        for (final String projectKey : verifiedKeys) {
+            this.verifiedKeys.add(ProjectKey.normalize(projectKey));
+        }
+        this.verifiedServices.addAll(verifiedServices);
+    }
+
+    /**
+     * Creates a new batch without any validated project keys and binds it to the current thread until it is closed.
+     * <p>
+     *
+     * @param id identifier of the batch.
+     * @return the batch bound to the current thread.
+     */
+    public static ProvisioningBatch open(final String id) {
+
+        return open(id, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Creates a new batch and binds it to the current thread until it is closed.
+     * <p>
+     *
+     * @param id               identifier of the batch.
+     * @param verifiedKeys     project keys that have already been validated against some of the remote services.
+     * @param verifiedServices the remote services the keys have been validated against.
+     * @return the batch bound to the current thread.
+     */
+    public static ProvisioningBatch open(final String id, final Collection<String> verifiedKeys, final Collection<ApertureSettings.ProjectService> verifiedServices) {
+
+        final ProvisioningBatch batch = new ProvisioningBatch(id, verifiedKeys, verifiedServices);
+        batch.previous = CURRENT.get();
+        CURRENT.set(batch);
+        return batch;
+    }
+
+    /**
+     * Gets the batch bound to the current thread.
+     * <p>
+     *
+     * @return the batch bound by {@link #open(String, Collection)}; or <code>null</code> if none is bound.
+     */
+    public static ProvisioningBatch current() {
+
+        return CURRENT.get();
+    }
+
+    /**
+     * Gets a resource shared by the requests of the batch bound to the current thread.
+     * <p>
+     *
+     * @param name    name of the resource.
+     * @param factory creates the resource if the batch does not hold it yet, or if no batch is bound.
+     * @param <T>     type of the resource.
+     * @return the shared resource; or a new resource if no batch is bound.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T shared(final String name, final Supplier<T> factory) {
+
+        final ProvisioningBatch batch = CURRENT.get();
+        return batch == null ? factory.get() : (T) batch.resources.computeIfAbsent(name, key -> factory.get());
+    }
+
+    public String getId() {
+
+        return id;
+    }
+
+    /**
+     * Gets the remote services a project key was validated against when the batch was imported.
+     * <p>
+     *
+     * @param projectKey the project key to check.
+     * @return the services the key does not need to be checked against again; empty if the key was not validated.
+     */
+    public Set<ApertureSettings.ProjectService> getVerifiedServices(final String projectKey) {
+
+        if (projectKey == null || !verifiedKeys.contains(ProjectKey.normalize(projectKey))) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(verifiedServices);
+    }
+
+    /**
+     * Adds a request issue to be provisioned by the batch job.
+     * <p>
+     *
+     * @param issueKey key of the request issue.
+     */
+    public void addIssueKey(final String issueKey) {
+
+        if (!issueKeys.contains(issueKey)) {
+            issueKeys.add(issueKey);
+        }
+    }
+
+    public List<String> getIssueKeys() {
+
+        return Collections.unmodifiableList(issueKeys);
+    }
+
+    /**
+     * Gets a resource previously stored with {@link #putResource(String, Object)}.
+     * <p>
+     *
+     * @param name name of the resource.
+     * @param <T>  type of the resource.
+     * @return the resource; or <code>null</code> if the batch does not hold it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getResource(final String name) {
+
+        return (T) resources.get(name);
+    }
+
+    /**
+     * Stores a resource to be shared by the remaining requests of the batch.
+     * <p>
+     *
+     * @param name     name of the resource.
+     * @param resource the resource to share.
+     */
+    public void putResource(final String name, final Object resource) {
+
+        if (resource != null) {
+            resources.put(name, resource);
+        }
+    }
+
+    /**
+     * Wraps a task so that this batch is bound to the thread that runs it for the duration of the task.
+     * <p>
+     *
+     * @param task the task to run within this batch.
+     * @param <T>  result type of the task.
+     * @return task that runs with this batch bound to its thread.
+     */
+    public <T> Callable<T> wrap(final Callable<T> task) {
+
+        return () -> {
+            final ProvisioningBatch previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Unbinds this batch from the current thread, binding the batch it replaced again, and releases its shared resources.
+     */
+    @Override
+    public void close() {
+
+        if (CURRENT.get() == this) {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+        previous = null;
+        resources.clear();
+    }
+}
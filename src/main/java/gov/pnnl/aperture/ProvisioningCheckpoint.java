@@ -0,0 +1,607 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.jira.util.json.JSONArray;
+import com.atlassian.jira.util.json.JSONException;
+import com.atlassian.jira.util.json.JSONObject;
+import org.springframework.util.Assert;
+
+import java.util.*;
+
+/**
+ * Record of the provisioning steps completed for a request issue, so that an interrupted run can be resumed from the
+ * last completed step instead of being torn down and started over.
+ * <p>
+ * Each step is recorded per project service where it applies (e.g. {@link #CREATE}) together with the identifiers of
+ * the remote resources it created. A checkpoint is bound to the current thread with
+ * {@link #open(ApertureCheckpointStore, String)} for the duration of a run; every completed step is persisted to the
+ * store straight away, and code taking part in the run picks the checkpoint up with {@link #current(String)}.
+ * <p>
+ * Failed attempts are recorded per project service as well, so that only the failed services are retried; a checkpoint
+ * with a {@link #getRetryAt() retry} pending stays in flight when it is closed so a restart does not lose the retry.
+ * <p>
+ * The project key the services were created for is recorded with the checkpoint; a run for a request whose key has
+ * since changed {@link #reset() discards} the recorded steps instead of skipping services created under the old key.
+ *
+ * @author Developer Central @ PNNL
+ * @see ApertureCheckpointStore
+ */
+public class ProvisioningCheckpoint implements AutoCloseable {
+
+    /**
+     * Step of the start transition of the request issue.
+     */
+    public static final String START = "start";
+    /**
+     * Step of creating the remote resource of a project service.
+     */
+    public static final String CREATE = "create";
+    /**
+     * Step of adding the project members to every project service.
+     */
+    public static final String USERS = "users";
+    /**
+     * Step of adding the project groups to every project service.
+     */
+    public static final String GROUPS = "groups";
+    /**
+     * The checkpoint bound to the current thread, if any.
+     */
+    private static final ThreadLocal<ProvisioningCheckpoint> CURRENT = new ThreadLocal<>();
+    /**
+     * Maximum number of characters of a failure reason that is kept.
+     */
+    private static final int MAX_REASON_LENGTH = 255;
+
+    private final String issueKey;
+    private final List<Step> steps = new ArrayList<>();
+    private final Map<ApertureSettings.ProjectService, Map<String, String>> pendingRemoteIds = new EnumMap<>(ApertureSettings.ProjectService.class);
+    private final Map<ApertureSettings.ProjectService, Failure> failures = new EnumMap<>(ApertureSettings.ProjectService.class);
+    private long retryAt = 0L;
+    private String recordedKey = null;
+    private ApertureCheckpointStore store = null;
+    private ProjectKey projectKey = null;
+    private ProvisioningRequest request = null;
+
+    /**
+     * Creates a new empty checkpoint.
+     * <p>
+     *
+     * @param issueKey key of the request issue.
+     * @throws IllegalArgumentException if the issueKey is an <em>empty</em> value.
+     */
+    public ProvisioningCheckpoint(final String issueKey) {
+
+        Assert.hasText(issueKey, "Cannot create a provisioning checkpoint for an empty issue key.");
+        this.issueKey = issueKey;
+    }
+
+    /**
+     * Loads the checkpoint of a request issue, marks its run as in flight and binds it to the current thread until it
+     * is closed.
+     * <p>
+     *
+     * @param store    the store the checkpoint is loaded from and persisted to.
+     * @param issueKey key of the request issue.
+     * @return the checkpoint bound to the current thread.
+     */
+    public static ProvisioningCheckpoint open(final ApertureCheckpointStore store, final String issueKey) {
+
+        final ProvisioningCheckpoint checkpoint = store.load(issueKey);
+        checkpoint.store = store;
+        checkpoint.retryAt = 0L;
+        store.save(checkpoint);
+        CURRENT.set(checkpoint);
+        return checkpoint;
+    }
+
+    /**
+     * Gets the checkpoint bound to the current thread for a request issue.
+     * <p>
+     *
+     * @param issueKey key of the request issue.
+     * @return the checkpoint bound by {@link #open(ApertureCheckpointStore, String)}; or <code>null</code> if none is
+     * bound or the bound checkpoint is for another issue.
+     */
+    public static ProvisioningCheckpoint current(final String issueKey) {
+
+        final ProvisioningCheckpoint checkpoint = CURRENT.get();
+        return checkpoint != null && checkpoint.issueKey.equalsIgnoreCase(issueKey) ? checkpoint : null;
+    }
+
+    /**
+     * Records the identifier of a remote resource created by a project service; the identifier is stored with the
+     * next step completed for that service.
+     * <p>
+     *
+     * @param service the project service that created the resource.
+     * @param name    name of the identifier; e.g. <code>projectId</code>.
+     * @param value   value of the identifier; ignored if <code>null</code>.
+     */
+    public static void putRemoteId(final ApertureSettings.ProjectService service, final String name, final String value) {
+
+        final ProvisioningCheckpoint checkpoint = CURRENT.get();
+        if (checkpoint != null && service != null && value != null) {
+            checkpoint.pendingRemoteIds.computeIfAbsent(service, s -> new TreeMap<>()).put(name, value);
+        }
+    }
+
+    public String getIssueKey() {
+
+        return issueKey;
+    }
+
+    /**
+     * Gets the project key of the request, as read once during the current run.
+     * <p>
+     * The key is not persisted with the checkpoint; every run reads it from the request issue again.
+     *
+     * @return the project key of the request; or <code>null</code> if it has not been read during this run.
+     */
+    public ProjectKey getProjectKey() {
+
+        return projectKey;
+    }
+
+    public void setProjectKey(final ProjectKey projectKey) {
+
+        this.projectKey = projectKey;
+    }
+
+    /**
+     * Gets the snapshot of the request taken during the current run.
+     * <p>
+     * Like the project key, the snapshot is not persisted with the checkpoint.
+     *
+     * @return the request snapshot; or <code>null</code> if it has not been taken during this run.
+     */
+    public ProvisioningRequest getRequest() {
+
+        return request;
+    }
+
+    public void setRequest(final ProvisioningRequest request) {
+
+        this.request = request;
+    }
+
+    /**
+     * Gets the project key the recorded steps were completed for.
+     * <p>
+     * Unlike {@link #getProjectKey()} the recorded key is persisted with the checkpoint.
+     *
+     * @return the upper case project key of the run that recorded the steps; or <code>null</code> if none was recorded.
+     */
+    public String getRecordedProjectKey() {
+
+        return recordedKey;
+    }
+
+    /**
+     * Records the project key of the current run, discarding the recorded steps if they were completed for another key.
+     * <p>
+     *
+     * @param projectKey the project key of the request.
+     * @return <code>true</code> if steps recorded for another project key were discarded.
+     */
+    public boolean recordProjectKey(final String projectKey) {
+
+        final String key = ProjectKey.normalize(projectKey);
+        if (Objects.equals(recordedKey, key)) {
+            return false;
+        }
+        final boolean discarded = recordedKey != null && !steps.isEmpty();
+        if (discarded) {
+            reset();
+        }
+        recordedKey = key;
+        if (store != null) {
+            store.save(this);
+        }
+        return discarded;
+    }
+
+    /**
+     * Discards every recorded step, failure and pending retry so the next run starts the request over, and persists the
+     * checkpoint.
+     */
+    public void reset() {
+
+        steps.clear();
+        pendingRemoteIds.clear();
+        failures.clear();
+        retryAt = 0L;
+        projectKey = null;
+        if (store != null) {
+            store.save(this);
+        }
+    }
+
+    public List<Step> getSteps() {
+
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Checks whether a step that applies to the whole request has been completed.
+     * <p>
+     *
+     * @param step name of the step; e.g. {@link #START}.
+     * @return <code>true</code> if the step has been completed.
+     */
+    public boolean isComplete(final String step) {
+
+        return isComplete(null, step);
+    }
+
+    /**
+     * Checks whether a step has been completed for a project service.
+     * <p>
+     *
+     * @param service the project service; <code>null</code> for a step that applies to the whole request.
+     * @param step    name of the step; e.g. {@link #CREATE}.
+     * @return <code>true</code> if the step has been completed.
+     */
+    public boolean isComplete(final ApertureSettings.ProjectService service, final String step) {
+
+        for (final Step completed : steps) {
+            if (completed.service == service && completed.name.equals(step)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records a step that applies to the whole request as completed.
+     * <p>
+     *
+     * @param step name of the step.
+     */
+    public void complete(final String step) {
+
+        complete(null, step);
+    }
+
+    /**
+     * Records a step as completed for a project service, with the remote identifiers recorded for the service since its
+     * last completed step, and persists the checkpoint.
+     * <p>
+     *
+     * @param service the project service; <code>null</code> for a step that applies to the whole request.
+     * @param step    name of the step.
+     */
+    public void complete(final ApertureSettings.ProjectService service, final String step) {
+
+        if (isComplete(service, step)) {
+            return;
+        }
+        final Map<String, String> remoteIds = service == null ? null : pendingRemoteIds.remove(service);
+        if (service != null) {
+            failures.remove(service);
+        }
+        steps.add(new Step(service, step, System.currentTimeMillis(), remoteIds == null ? Collections.emptyMap() : remoteIds));
+        if (store != null) {
+            store.save(this);
+        }
+    }
+
+    /**
+     * Removes a step that applies to the whole request so that the next run performs it again, and persists the
+     * checkpoint.
+     * <p>
+     *
+     * @param step name of the step.
+     */
+    public void revert(final String step) {
+
+        revert(null, step);
+    }
+
+    /**
+     * Removes a step completed for a project service so that the next attempt performs it again, and persists the
+     * checkpoint.
+     * <p>
+     *
+     * @param service the project service; <code>null</code> for a step that applies to the whole request.
+     * @param step    name of the step.
+     */
+    public void revert(final ApertureSettings.ProjectService service, final String step) {
+
+        if (steps.removeIf(completed -> completed.service == service && completed.name.equals(step)) && store != null) {
+            store.save(this);
+        }
+    }
+
+    /**
+     * Records a failed attempt at provisioning a project service, and persists the checkpoint.
+     * <p>
+     *
+     * @param service the project service that failed.
+     * @param reason  description of the failure; only its first line is kept.
+     */
+    public void fail(final ApertureSettings.ProjectService service, final String reason) {
+
+        Assert.notNull(service, "Cannot record a failure for a null project service.");
+        final Failure previous = failures.get(service);
+        failures.put(service, new Failure(service, previous == null ? 1 : previous.attempts + 1, System.currentTimeMillis(), summarize(reason)));
+        if (store != null) {
+            store.save(this);
+        }
+    }
+
+    /**
+     * Gets the project services whose last attempt failed.
+     * <p>
+     *
+     * @return mapping of project service to its last failure; empty if no service has failed.
+     */
+    public Map<ApertureSettings.ProjectService, Failure> getFailures() {
+
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Gets the number of attempts made at the failed project services.
+     * <p>
+     *
+     * @return the highest number of failed attempts of any project service; <code>0</code> if none failed.
+     */
+    public int getAttempts() {
+
+        int attempts = 0;
+        for (final Failure failure : failures.values()) {
+            attempts = Math.max(attempts, failure.attempts);
+        }
+        return attempts;
+    }
+
+    /**
+     * Forgets the failed attempts and any pending retry so that the failed services are given a fresh set of retries.
+     */
+    public void clearFailures() {
+
+        failures.clear();
+        retryAt = 0L;
+    }
+
+    /**
+     * Gets when the failed project services are retried.
+     * <p>
+     *
+     * @return time of the pending retry; or <code>null</code> if no retry is pending.
+     */
+    public Date getRetryAt() {
+
+        return retryAt == 0L ? null : new Date(retryAt);
+    }
+
+    /**
+     * Records when the failed project services are retried, and persists the checkpoint; the run stays in flight until
+     * the retry opens the checkpoint again.
+     * <p>
+     *
+     * @param time time of the retry.
+     */
+    public void retryAt(final Date time) {
+
+        Assert.notNull(time, "Cannot schedule a retry at a null time.");
+        retryAt = time.getTime();
+        if (store != null) {
+            store.save(this);
+        }
+    }
+
+    /**
+     * Gets when a step was last completed or a service last failed.
+     * <p>
+     *
+     * @return time of the last recorded step or failure; or <code>null</code> if nothing has been recorded.
+     */
+    public Date getUpdatedAt() {
+
+        long updatedAt = 0L;
+        for (final Step step : steps) {
+            updatedAt = Math.max(updatedAt, step.completedAt);
+        }
+        for (final Failure failure : failures.values()) {
+            updatedAt = Math.max(updatedAt, failure.failedAt);
+        }
+        return updatedAt == 0L ? null : new Date(updatedAt);
+    }
+
+    /**
+     * Gets the remote identifiers recorded for a project service over all of its completed steps.
+     * <p>
+     *
+     * @param service the project service.
+     * @return mapping of identifier name to value; empty if none were recorded.
+     */
+    public Map<String, String> getRemoteIds(final ApertureSettings.ProjectService service) {
+
+        final Map<String, String> remoteIds = new TreeMap<>();
+        for (final Step completed : steps) {
+            if (completed.service == service) {
+                remoteIds.putAll(completed.remoteIds);
+            }
+        }
+        return remoteIds;
+    }
+
+    /**
+     * Unbinds this checkpoint from the current thread and, unless a retry is pending, marks its run as no longer in
+     * flight.
+     */
+    @Override
+    public void close() {
+
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        if (store != null && retryAt == 0L) {
+            store.release(issueKey);
+        }
+    }
+
+    /**
+     * Encodes this checkpoint compactly; each step is an array of service, step, completion time and remote identifiers,
+     * and each failure an array of service, attempts, failure time and reason.
+     * <p>
+     *
+     * @return the JSON encoding of this checkpoint.
+     */
+    public String toJson() {
+
+        try {
+            final JSONArray encoded = new JSONArray();
+            for (final Step step : steps) {
+                final JSONArray entry = new JSONArray();
+                entry.put(step.service == null ? "" : step.service.name());
+                entry.put(step.name);
+                entry.put(step.completedAt);
+                entry.put(new JSONObject(step.remoteIds));
+                encoded.put(entry);
+            }
+            final JSONObject json = new JSONObject().put("issue", issueKey).put("steps", encoded);
+            if (!failures.isEmpty()) {
+                final JSONArray failed = new JSONArray();
+                for (final Failure failure : failures.values()) {
+                    failed.put(new JSONArray().put(failure.service.name()).put(failure.attempts).put(failure.failedAt).put(failure.reason));
+                }
+                json.put("failed", failed);
+            }
+            if (retryAt != 0L) {
+                json.put("retry", retryAt);
+            }
+            if (recordedKey != null) {
+                json.put("key", recordedKey);
+            }
+            return json.toString();
+        } catch (JSONException ex) {
+            throw new IllegalStateException(String.format("Failed to encode provisioning checkpoint of %s", issueKey), ex);
+        }
+    }
+
+    /**
+     * Decodes a checkpoint encoded by {@link #toJson()}.
+     * <p>
+     *
+     * @param json the JSON encoding of a checkpoint.
+     * @return the decoded checkpoint.
+     * @throws JSONException if the value is not a valid checkpoint encoding.
+     */
+    public static ProvisioningCheckpoint fromJson(final String json) throws JSONException {
+
+        final JSONObject decoded = new JSONObject(json);
+        final ProvisioningCheckpoint checkpoint = new ProvisioningCheckpoint(decoded.getString("issue"));
+        final JSONArray encoded = decoded.optJSONArray("steps");
+        for (int i = 0; encoded != null && i < encoded.length(); i++) {
+            final JSONArray entry = encoded.getJSONArray(i);
+            final String service = entry.getString(0);
+            final JSONObject ids = entry.optJSONObject(3);
+            final Map<String, String> remoteIds = new TreeMap<>();
+            final Iterator<String> names = ids == null ? Collections.emptyIterator() : ids.keys();
+            while (names.hasNext()) {
+                final String name = names.next();
+                remoteIds.put(name, ids.getString(name));
+            }
+            checkpoint.steps.add(new Step(service.isEmpty() ? null : ApertureSettings.ProjectService.valueOf(service), entry.getString(1), entry.getLong(2), remoteIds));
+        }
+        final JSONArray failed = decoded.optJSONArray("failed");
+        for (int i = 0; failed != null && i < failed.length(); i++) {
+            final JSONArray entry = failed.getJSONArray(i);
+            final ApertureSettings.ProjectService service = ApertureSettings.ProjectService.valueOf(entry.getString(0));
+            checkpoint.failures.put(service, new Failure(service, entry.getInt(1), entry.getLong(2), entry.optString(3, "")));
+        }
+        checkpoint.retryAt = decoded.optLong("retry", 0L);
+        checkpoint.recordedKey = decoded.optString("key", null);
+        return checkpoint;
+    }
+
+    private static String summarize(final String reason) {
+
+        if (reason == null) {
+            return "";
+        }
+        final int newLine = reason.indexOf('\n');
+        final String firstLine = newLine < 0 ? reason : reason.substring(0, newLine);
+        return firstLine.length() > MAX_REASON_LENGTH ? firstLine.substring(0, MAX_REASON_LENGTH) : firstLine;
+    }
+
+    /**
+     * A completed provisioning step.
+     */
+    public static final class Step {
+
+        private final ApertureSettings.ProjectService service;
+        private final String name;
+        private final long completedAt;
+        private final Map<String, String> remoteIds;
+
+        private Step(final ApertureSettings.ProjectService service, final String name, final long completedAt, final Map<String, String> remoteIds) {
+
+            this.service = service;
+            this.name = name;
+            this.completedAt = completedAt;
+            this.remoteIds = Collections.unmodifiableMap(remoteIds);
+        }
+
+        public ApertureSettings.ProjectService getService() {
+
+            return service;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+
+        public Date getCompletedAt() {
+
+            return new Date(completedAt);
+        }
+
+        public Map<String, String> getRemoteIds() {
+
+            return remoteIds;
+        }
+    }
+
+    /**
+     * The last failed attempt at provisioning a project service.
+     */
+    public static final class Failure {
+
+        private final ApertureSettings.ProjectService service;
+        private final int attempts;
+        private final long failedAt;
+        private final String reason;
+
+        private Failure(final ApertureSettings.ProjectService service, final int attempts, final long failedAt, final String reason) {
+
+            this.service = service;
+            this.attempts = attempts;
+            this.failedAt = failedAt;
+            this.reason = reason;
+        }
+
+        public ApertureSettings.ProjectService getService() {
+
+            return service;
+        }
+
+        public int getAttempts() {
+
+            return attempts;
+        }
+
+        public Date getFailedAt() {
+
+            return new Date(failedAt);
+        }
+
+        public String getReason() {
+
+            return reason;
+        }
+    }
+}
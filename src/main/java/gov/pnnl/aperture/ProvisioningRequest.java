@@ -0,0 +1,181 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.crowd.embedded.api.Group;
+import com.atlassian.jira.issue.MutableIssue;
+import com.atlassian.jira.issue.issuetype.IssueType;
+import com.atlassian.jira.user.ApplicationUser;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of everything a project request issue asks for.
+ * <p>
+ * The custom fields of the request (project key, category, users and groups) are resolved through
+ * {@link ApertureSettings} once when the snapshot is taken, and the snapshot is handed to every
+ * {@link ProjectServiceHandler#createService(ProvisioningRequest, java.util.Map)} of a provisioning run. While a
+ * {@link ProvisioningCheckpoint} is bound for the issue the snapshot is kept on it, so the run takes it only once. The
+ * issue itself is kept for the write-backs a handler makes to it, such as remote links, components and comments.
+ *
+ * @author Developer Central @ PNNL
+ */
+public final class ProvisioningRequest {
+
+    private final MutableIssue issue;
+    private final String issueKey;
+    private final IssueType issueType;
+    private final ProjectKey projectKey;
+    private final String name;
+    private final String description;
+    private final String category;
+    private final ApplicationUser reporter;
+    private final List<ApplicationUser> users;
+    private final List<Group> groups;
+
+    /**
+     * Creates a new request snapshot.
+     * <p>
+     *
+     * @param issue      the JIRA issue for the project request.
+     * @param projectKey the validated project key of the request.
+     * @param category   the project category of the request; may be <code>null</code>.
+     * @param users      the users to be given access to the project; may be <code>null</code>.
+     * @param groups     the user groups to be given access to the project; may be <code>null</code>.
+     * @throws IllegalArgumentException if the issue is <code>null</code>.
+     */
+    public ProvisioningRequest(final MutableIssue issue, final ProjectKey projectKey, final String category, final Collection<ApplicationUser> users, final Collection<Group> groups) {
+
+        Assert.notNull(issue, "Cannot create a provisioning request for a null issue.");
+        this.issue = issue;
+        this.issueKey = issue.getKey();
+        this.issueType = issue.getIssueType();
+        this.projectKey = projectKey;
+        this.name = issue.getSummary();
+        this.description = issue.getDescription();
+        this.category = category;
+        this.reporter = issue.getReporter();
+        this.users = users == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(users));
+        this.groups = groups == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(groups));
+    }
+
+    /**
+     * Gets the snapshot of a request issue.
+     * <p>
+     * If a checkpoint is bound for the issue the snapshot it holds is returned, or taken and kept on it; otherwise a new
+     * snapshot is taken.
+     *
+     * @param issue    the JIRA issue for the project request.
+     * @param settings the settings the custom fields of the request are resolved with.
+     * @return the snapshot of the request.
+     * @throws IllegalArgumentException if the issue is <code>null</code>, or its project key is missing or not valid.
+     */
+    public static ProvisioningRequest of(final MutableIssue issue, final ApertureSettings settings) {
+
+        Assert.notNull(issue, "Cannot create a provisioning request for a null issue.");
+        final ProvisioningCheckpoint checkpoint = ProvisioningCheckpoint.current(issue.getKey());
+        if (checkpoint != null && checkpoint.getRequest() != null) {
+            return checkpoint.getRequest();
+        }
+        final ProvisioningRequest request = new ProvisioningRequest(issue, ProjectKey.of(settings.getProjectKeyFor(issue)), settings.getCategoryFor(issue), settings.getUsersFor(issue), settings.getGroupsFor(issue));
+        if (checkpoint != null) {
+            checkpoint.setRequest(request);
+        }
+        return request;
+    }
+
+    /**
+     * Gets the request issue, for the changes a handler makes to it.
+     * <p>
+     *
+     * @return the JIRA issue for the project request.
+     */
+    public MutableIssue getIssue() {
+
+        return issue;
+    }
+
+    public String getIssueKey() {
+
+        return issueKey;
+    }
+
+    public IssueType getIssueType() {
+
+        return issueType;
+    }
+
+    public ProjectKey getProjectKey() {
+
+        return projectKey;
+    }
+
+    /**
+     * Gets the name of the project; the summary of the request issue.
+     * <p>
+     *
+     * @return the name of the project.
+     */
+    public String getName() {
+
+        return name;
+    }
+
+    public String getDescription() {
+
+        return description;
+    }
+
+    public String getCategory() {
+
+        return category;
+    }
+
+    /**
+     * Gets the reporter of the request issue, who becomes the lead of the project.
+     * <p>
+     *
+     * @return the project lead.
+     */
+    public ApplicationUser getReporter() {
+
+        return reporter;
+    }
+
+    public List<ApplicationUser> getUsers() {
+
+        return users;
+    }
+
+    public List<Group> getGroups() {
+
+        return groups;
+    }
+
+    /**
+     * Gets the distinct members of the project; the reporter, the users and the members of the groups.
+     * <p>
+     * Groups are expanded with the {@link MembershipResolver#current() current} resolver, which caches each expansion
+     * for the job it is bound to.
+     *
+     * @return the distinct members of the project.
+     */
+    public Collection<ApplicationUser> getProjectMembers() {
+
+        final List<ApplicationUser> members = new ArrayList<>(users.size() + 1);
+        members.add(reporter);
+        members.addAll(users);
+        return MembershipResolver.current().resolve(members, groups);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+
+        return String.format("ProvisioningRequest[%s:%s]", issueKey, projectKey);
+    }
+}
@@ -0,0 +1,522 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.entity.property.EntityProperty;
+import com.atlassian.jira.entity.property.EntityPropertyType;
+import com.atlassian.jira.entity.property.JsonEntityPropertyManager;
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.util.json.JSONArray;
+import com.atlassian.jira.util.json.JSONException;
+import com.atlassian.jira.util.json.JSONObject;
+import org.apache.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Structured timeline of a single provisioning run; the phases of the run, each project service handler call and each
+ * remote call the handlers make, with their start offsets, durations, HTTP status and retries.
+ * <p>
+ * A trace is bound to the current thread with {@link #open(String)} for the duration of a run; code that takes part in
+ * the run records a span with {@link #start(String, String)} without having the trace threaded through to it. When no
+ * trace is bound a single shared span that records nothing is returned, and a span name given as a {@link Supplier}
+ * is never built. A span counts as a retry when it repeats the category and name of
+ * the failed span immediately before it at the same depth.
+ * <p>
+ * Finished traces are stored compactly as JSON in the {@link #PROPERTY_KEY} entity property of the request issue; the
+ * last {@link #MAX_RUNS} runs are kept and can be read back with {@link #load(Issue)}.
+ *
+ * @author Developer Central @ PNNL
+ */
+public class ProvisioningTrace implements AutoCloseable {
+
+    /**
+     * Key of the issue entity property the traces of a request issue are stored in.
+     */
+    public static final String PROPERTY_KEY = "aperture.provisioning.trace";
+    /**
+     * Span category of a step of the provisioning run itself; e.g. a workflow transition.
+     */
+    public static final String PHASE = "phase";
+    /**
+     * Span category of a call to a project service handler.
+     */
+    public static final String HANDLER = "handler";
+    /**
+     * Span category of a remote call over an application link.
+     */
+    public static final String REMOTE = "remote";
+    /**
+     * Number of runs kept in the entity property of an issue.
+     */
+    public static final int MAX_RUNS = 5;
+    /**
+     * Number of spans recorded for a single run; later spans are counted but not recorded.
+     */
+    public static final int MAX_SPANS = 400;
+    /**
+     * Longest value JIRA accepts for an entity property.
+     */
+    private static final int MAX_PROPERTY_LENGTH = 32768;
+    /**
+     * Longest span name recorded; remote call names include the request path.
+     */
+    private static final int MAX_NAME_LENGTH = 120;
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(ProvisioningTrace.class);
+    /**
+     * The trace bound to the current thread, if any.
+     */
+    private static final ThreadLocal<ProvisioningTrace> CURRENT = new ThreadLocal<>();
+    /**
+     * Span returned when no trace is bound to the current thread.
+     */
+    private static final Span NONE = new Span(null, 0, null, null, 0);
+
+    private final String kind;
+    private final long startedMillis = System.currentTimeMillis();
+    private final long startedNanos = System.nanoTime();
+    private final List<Span> spans = new ArrayList<>();
+    private final Deque<Span> openSpans = new ArrayDeque<>();
+    private long elapsedNanos = -1;
+    private boolean failed = false;
+    private int dropped = 0;
+
+    private ProvisioningTrace(final String kind) {
+
+        this.kind = kind;
+    }
+
+    /**
+     * Creates a new trace and binds it to the current thread until it is closed.
+     * <p>
+     *
+     * @param kind short description of the run; e.g. <code>create</code>.
+     * @return the trace bound to the current thread.
+     */
+    public static ProvisioningTrace open(final String kind) {
+
+        final ProvisioningTrace trace = new ProvisioningTrace(kind);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Starts a span in the trace bound to the current thread.
+     * <p>
+     * The span is nested under the innermost span that is still open and ends when it is closed.
+     *
+     * @param category category of the span; one of {@link #PHASE}, {@link #HANDLER} or {@link #REMOTE}.
+     * @param name     name of the span; e.g. the service and operation or the request method and path.
+     * @return the started span; a shared span that records nothing if no trace is bound to the current thread.
+     */
+    public static Span start(final String category, final String name) {
+
+        final ProvisioningTrace trace = CURRENT.get();
+        if (trace == null) {
+            return NONE;
+        }
+        return trace.startSpan(category, name);
+    }
+
+    /**
+     * Starts a span in the trace bound to the current thread, building its name only if a trace is bound.
+     * <p>
+     *
+     * @param category category of the span; one of {@link #PHASE}, {@link #HANDLER} or {@link #REMOTE}.
+     * @param name     supplies the name of the span; not called if no trace is bound to the current thread.
+     * @return the started span; a shared span that records nothing if no trace is bound to the current thread.
+     * @see #start(String, String)
+     */
+    public static Span start(final String category, final Supplier<String> name) {
+
+        final ProvisioningTrace trace = CURRENT.get();
+        if (trace == null) {
+            return NONE;
+        }
+        return trace.startSpan(category, name.get());
+    }
+
+    private Span startSpan(final String category, final String name) {
+
+        final int depth = openSpans.size();
+        final String spanName = name != null && name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+        int retries = 0;
+        for (int i = spans.size() - 1; i >= 0; i--) {
+            final Span previous = spans.get(i);
+            if (previous.depth < depth) {
+                break;
+            }
+            if (previous.depth == depth) {
+                if (previous.failed && previous.category.equals(category) && Objects.equals(previous.name, spanName)) {
+                    retries = previous.retries + 1;
+                }
+                break;
+            }
+        }
+        final Span span = new Span(this, depth, category, spanName, retries);
+        if (spans.size() < MAX_SPANS) {
+            spans.add(span);
+        } else {
+            dropped++;
+        }
+        openSpans.push(span);
+        return span;
+    }
+
+    /**
+     * Marks the run as failed.
+     */
+    public void failed() {
+
+        this.failed = true;
+    }
+
+    /**
+     * Ends any spans still open, ends the run and unbinds this trace from the current thread.
+     */
+    @Override
+    public void close() {
+
+        while (!openSpans.isEmpty()) {
+            openSpans.peek().close();
+        }
+        if (elapsedNanos < 0) {
+            elapsedNanos = System.nanoTime() - startedNanos;
+        }
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Closes this trace and stores it in the entity property of an issue, keeping the last {@link #MAX_RUNS} runs.
+     * <p>
+     * Failures to store the trace are logged rather than thrown so that tracing never fails a provisioning run.
+     *
+     * @param issue the request issue the run was for.
+     */
+    public void store(final Issue issue) {
+
+        close();
+        if (issue == null) {
+            return;
+        }
+        final JsonEntityPropertyManager propertyManager = ComponentAccessor.getComponent(JsonEntityPropertyManager.class);
+        final String entityName = EntityPropertyType.ISSUE_PROPERTY.getDbEntityName();
+        try {
+            final JSONArray runs = readRuns(propertyManager.get(entityName, issue.getId(), PROPERTY_KEY));
+            int attempt = 1;
+            if (runs.length() > 0) {
+                attempt = runs.getJSONObject(runs.length() - 1).optInt("attempt", runs.length()) + 1;
+            }
+            final List<Object> kept = new ArrayList<>();
+            for (int i = Math.max(0, runs.length() - MAX_RUNS + 1); i < runs.length(); i++) {
+                kept.add(runs.get(i));
+            }
+            kept.add(toJson(attempt));
+            String json = new JSONObject().put("runs", new JSONArray(kept)).toString();
+            while (json.length() > MAX_PROPERTY_LENGTH && kept.size() > 1) {
+                kept.remove(0);
+                json = new JSONObject().put("runs", new JSONArray(kept)).toString();
+            }
+            if (json.length() > MAX_PROPERTY_LENGTH) {
+                LOG.warn(String.format("Provisioning trace of %s is too large to store; %d span(s)", issue.getKey(), spans.size()));
+                return;
+            }
+            propertyManager.put(entityName, issue.getId(), PROPERTY_KEY, json);
+        } catch (JSONException | RuntimeException ex) {
+            LOG.warn(String.format("Failed to store provisioning trace of %s", issue.getKey()), ex);
+        }
+    }
+
+    private JSONObject toJson(final int attempt) throws JSONException {
+
+        final JSONArray encoded = new JSONArray();
+        for (final Span span : spans) {
+            final JSONArray entry = new JSONArray();
+            entry.put(span.depth);
+            entry.put(span.category);
+            entry.put(span.name);
+            entry.put(TimeUnit.NANOSECONDS.toMillis(span.startNanos - startedNanos));
+            entry.put(TimeUnit.NANOSECONDS.toMillis(span.getElapsedNanos()));
+            entry.put(span.status == null ? "" : span.status);
+            entry.put(span.retries);
+            entry.put(span.failed ? 1 : 0);
+            encoded.put(entry);
+        }
+        final JSONObject run = new JSONObject();
+        run.put("attempt", attempt);
+        run.put("kind", kind);
+        run.put("started", startedMillis);
+        run.put("elapsed", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        run.put("failed", failed);
+        run.put("dropped", dropped);
+        run.put("spans", encoded);
+        return run;
+    }
+
+    private static JSONArray readRuns(final EntityProperty property) throws JSONException {
+
+        if (property == null || property.getValue() == null) {
+            return new JSONArray();
+        }
+        final JSONArray runs = new JSONObject(property.getValue()).optJSONArray("runs");
+        return runs == null ? new JSONArray() : runs;
+    }
+
+    /**
+     * Reads the stored provisioning runs of an issue.
+     * <p>
+     *
+     * @param issue the request issue to read the runs of.
+     * @return the stored runs, most recent first; empty if none are stored or they cannot be read.
+     */
+    public static List<Run> load(final Issue issue) {
+
+        final List<Run> runs = new ArrayList<>();
+        if (issue == null) {
+            return runs;
+        }
+        final JsonEntityPropertyManager propertyManager = ComponentAccessor.getComponent(JsonEntityPropertyManager.class);
+        try {
+            final JSONArray stored = readRuns(propertyManager.get(EntityPropertyType.ISSUE_PROPERTY.getDbEntityName(), issue.getId(), PROPERTY_KEY));
+            for (int i = stored.length() - 1; i >= 0; i--) {
+                runs.add(new Run(stored.getJSONObject(i)));
+            }
+        } catch (JSONException | RuntimeException ex) {
+            LOG.warn(String.format("Failed to read provisioning trace of %s", issue.getKey()), ex);
+        }
+        return runs;
+    }
+
+    /**
+     * A timed step of a provisioning run; closing the span ends it.
+     */
+    public static final class Span implements AutoCloseable {
+
+        private final ProvisioningTrace trace;
+        private final int depth;
+        private final String category;
+        private final String name;
+        private final int retries;
+        private final long startNanos = System.nanoTime();
+        private long endNanos = -1;
+        private String status = null;
+        private boolean failed = false;
+
+        private Span(final ProvisioningTrace trace, final int depth, final String category, final String name, final int retries) {
+
+            this.trace = trace;
+            this.depth = depth;
+            this.category = category;
+            this.name = name;
+            this.retries = retries;
+        }
+
+        /**
+         * Sets the outcome of this span; e.g. the HTTP status code of a remote call.
+         * <p>
+         *
+         * @param status short outcome of the span.
+         */
+        public void setStatus(final String status) {
+
+            if (trace != null) {
+                this.status = status;
+            }
+        }
+
+        /**
+         * Marks this span as failed.
+         */
+        public void failed() {
+
+            if (trace != null) {
+                this.failed = true;
+            }
+        }
+
+        private long getElapsedNanos() {
+
+            return (endNanos < 0 ? System.nanoTime() : endNanos) - startNanos;
+        }
+
+        /**
+         * Ends this span, and any spans nested under it that are still open.
+         */
+        @Override
+        public void close() {
+
+            if (trace == null || endNanos >= 0) {
+                return;
+            }
+            endNanos = System.nanoTime();
+            while (!trace.openSpans.isEmpty()) {
+                final Span span = trace.openSpans.pop();
+                if (span == this) {
+                    break;
+                }
+                span.endNanos = endNanos;
+            }
+        }
+    }
+
+    /**
+     * A stored provisioning run, as read back by {@link #load(Issue)}.
+     */
+    public static final class Run {
+
+        private final int attempt;
+        private final String kind;
+        private final Date started;
+        private final long elapsedMillis;
+        private final boolean failed;
+        private final int dropped;
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Run(final JSONObject run) throws JSONException {
+
+            this.attempt = run.optInt("attempt", 1);
+            this.kind = run.optString("kind");
+            this.started = new Date(run.optLong("started"));
+            this.elapsedMillis = run.optLong("elapsed");
+            this.failed = run.optBoolean("failed");
+            this.dropped = run.optInt("dropped");
+            final JSONArray spans = run.optJSONArray("spans");
+            for (int i = 0; spans != null && i < spans.length(); i++) {
+                entries.add(new Entry(spans.getJSONArray(i), elapsedMillis));
+            }
+        }
+
+        public int getAttempt() {
+
+            return attempt;
+        }
+
+        public String getKind() {
+
+            return kind;
+        }
+
+        public Date getStarted() {
+
+            return started;
+        }
+
+        public long getElapsedMillis() {
+
+            return elapsedMillis;
+        }
+
+        public boolean isFailed() {
+
+            return failed;
+        }
+
+        public int getDropped() {
+
+            return dropped;
+        }
+
+        public List<Entry> getEntries() {
+
+            return entries;
+        }
+    }
+
+    /**
+     * A stored span of a provisioning run, with its position on the waterfall of the run.
+     */
+    public static final class Entry {
+
+        private final int depth;
+        private final String category;
+        private final String name;
+        private final long offsetMillis;
+        private final long durationMillis;
+        private final String status;
+        private final int retries;
+        private final boolean failed;
+        private final long runMillis;
+
+        private Entry(final JSONArray span, final long runMillis) throws JSONException {
+
+            this.depth = span.getInt(0);
+            this.category = span.getString(1);
+            this.name = span.getString(2);
+            this.offsetMillis = span.getLong(3);
+            this.durationMillis = span.getLong(4);
+            this.status = span.getString(5);
+            this.retries = span.getInt(6);
+            this.failed = span.getInt(7) != 0;
+            this.runMillis = runMillis;
+        }
+
+        public int getDepth() {
+
+            return depth;
+        }
+
+        public String getCategory() {
+
+            return category;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+
+        public long getOffsetMillis() {
+
+            return offsetMillis;
+        }
+
+        public long getDurationMillis() {
+
+            return durationMillis;
+        }
+
+        public String getStatus() {
+
+            return status;
+        }
+
+        public int getRetries() {
+
+            return retries;
+        }
+
+        public boolean isFailed() {
+
+            return failed;
+        }
+
+        /**
+         * Gets the start of this span as a percentage of the run.
+         * <p>
+         *
+         * @return the left edge of the waterfall bar, from 0 to 100.
+         */
+        public String getLeftPercent() {
+
+            return runMillis <= 0 ? "0" : String.format(Locale.ROOT, "%.2f", Math.min(100D, 100D * offsetMillis / runMillis));
+        }
+
+        /**
+         * Gets the duration of this span as a percentage of the run; never narrower than half a percent.
+         * <p>
+         *
+         * @return the width of the waterfall bar, from 0.5 to 100.
+         */
+        public String getWidthPercent() {
+
+            final double width = runMillis <= 0 ? 100D : 100D * durationMillis / runMillis;
+            return String.format(Locale.ROOT, "%.2f", Math.max(0.5D, Math.min(100D, width)));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.annotations.PublicApi;
+import com.atlassian.jira.project.Project;
+import com.atlassian.jira.project.type.ProjectType;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.scheduler.status.JobDetails;
+
+import java.util.Date;
+
+/**
+ * A single row of the Aperture project recycle bin.
+ * <p>
+ * Instances are immutable snapshots resolved by {@link ApertureRecycleBin}; every value a view needs to render the row
+ * is resolved up-front so templates do not have to call back into JIRA per row.
+ *
+ * @author Developer Central @ PNNL
+ * @see ApertureRecycleBin#getPendingRemovals(ApertureRecycleBin.SortField, boolean, int, int)
+ */
+@PublicApi
+public final class RecycleBinEntry {
+
+    /**
+     * JIRA project that is pending removal.
+     */
+    private final Project project;
+    /**
+     * Type of the JIRA project pending removal; can be <code>null</code> if the type is not accessible.
+     */
+    private final ProjectType projectType;
+    /**
+     * Scheduler job details for the pending removal.
+     */
+    private final JobDetails jobDetails;
+    /**
+     * The user that initiated the removal; can be <code>null</code> if the user no longer exists.
+     */
+    private final ApplicationUser initiatedBy;
+    /**
+     * The user name recorded by the removal job for who initiated the removal.
+     */
+    private final String initiatedByName;
+    /**
+     * When the removal was initiated; can be <code>null</code> for jobs that did not record it.
+     */
+    private final Date initiatedOn;
+
+    public RecycleBinEntry(final Project project, final ProjectType projectType, final JobDetails jobDetails, final ApplicationUser initiatedBy, final String initiatedByName, final Date initiatedOn) {
+
+        this.project = project;
+        this.projectType = projectType;
+        this.jobDetails = jobDetails;
+        this.initiatedBy = initiatedBy;
+        this.initiatedByName = initiatedByName == null ? "" : initiatedByName;
+        this.initiatedOn = initiatedOn;
+    }
+
+    public Project getProject() {
+
+        return project;
+    }
+
+    public String getProjectKey() {
+
+        return project.getKey();
+    }
+
+    public String getProjectName() {
+
+        return project.getName();
+    }
+
+    public ProjectType getProjectType() {
+
+        return projectType;
+    }
+
+    public JobDetails getJobDetails() {
+
+        return jobDetails;
+    }
+
+    public ApplicationUser getInitiatedBy() {
+
+        return initiatedBy;
+    }
+
+    public String getInitiatedByName() {
+
+        return initiatedByName;
+    }
+
+    public Date getInitiatedOn() {
+
+        return initiatedOn;
+    }
+
+    /**
+     * Gets the date and time this project is scheduled to be purged.
+     * <p>
+     *
+     * @return the next run time of the removal job; can be <code>null</code> if the scheduler has none.
+     */
+    public Date getPurgeDate() {
+
+        return jobDetails.getNextRunTime();
+    }
+
+    long getInitiatedOnTime() {
+
+        return initiatedOn == null ? 0L : initiatedOn.getTime();
+    }
+
+    long getPurgeTime() {
+
+        final Date purgeDate = getPurgeDate();
+        return purgeDate == null ? Long.MAX_VALUE : purgeDate.getTime();
+    }
+}
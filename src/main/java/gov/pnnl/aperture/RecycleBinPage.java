@@ -0,0 +1,95 @@
+package gov.pnnl.aperture;
+
+import com.atlassian.annotations.PublicApi;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sorted page of {@link RecycleBinEntry} values along with enough context to render paging controls.
+ * <p>
+ *
+ * @author Developer Central @ PNNL
+ * @see ApertureRecycleBin#getPendingRemovals(ApertureRecycleBin.SortField, boolean, int, int)
+ */
+@PublicApi
+public final class RecycleBinPage {
+
+    private final List<RecycleBinEntry> entries;
+    private final ApertureRecycleBin.SortField sortField;
+    private final boolean ascending;
+    private final int startIndex;
+    private final int maxResults;
+    private final int total;
+
+    public RecycleBinPage(final List<RecycleBinEntry> entries, final ApertureRecycleBin.SortField sortField, final boolean ascending, final int startIndex, final int maxResults, final int total) {
+
+        this.entries = Collections.unmodifiableList(entries);
+        this.sortField = sortField;
+        this.ascending = ascending;
+        this.startIndex = startIndex;
+        this.maxResults = maxResults;
+        this.total = total;
+    }
+
+    public List<RecycleBinEntry> getEntries() {
+
+        return entries;
+    }
+
+    public ApertureRecycleBin.SortField getSortField() {
+
+        return sortField;
+    }
+
+    public boolean isAscending() {
+
+        return ascending;
+    }
+
+    public int getStartIndex() {
+
+        return startIndex;
+    }
+
+    public int getMaxResults() {
+
+        return maxResults;
+    }
+
+    /**
+     * Gets the total number of pending removals across all pages.
+     * <p>
+     *
+     * @return total number of pending removals.
+     */
+    public int getTotal() {
+
+        return total;
+    }
+
+    public boolean isEmpty() {
+
+        return entries.isEmpty();
+    }
+
+    public boolean hasPrevious() {
+
+        return startIndex > 0;
+    }
+
+    public boolean hasNext() {
+
+        return startIndex + entries.size() < total;
+    }
+
+    public int getPreviousIndex() {
+
+        return Math.max(0, startIndex - maxResults);
+    }
+
+    public int getNextIndex() {
+
+        return startIndex + maxResults;
+    }
+}
@@ -0,0 +1,35 @@
+package gov.pnnl.aperture.project;
+
+import java.util.Map;
+
+/**
+ * JMX management interface for the Aperture metrics registry.
+ * <p>
+ * Registered under {@link PnnlApertureMetrics#OBJECT_NAME} while the plug-in is running.
+ *
+ * @author Developer Central @ PNNL
+ */
+public interface ApertureMetricsMXBean {
+
+    /**
+     * Gets every counter as a flat mapping; e.g. <code>BITBUCKET.create.count</code> or <code>CONFLUENCE.http.5xx</code>.
+     * <p>
+     * Timer totals and maximums are reported in milliseconds.
+     *
+     * @return mapping of counter name to its current value.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Gets the time the metrics were last reset.
+     * <p>
+     *
+     * @return epoch milliseconds of the last reset, or of plug-in start if never reset.
+     */
+    long getSince();
+
+    /**
+     * Resets every timer and counter to zero.
+     */
+    void reset();
+}
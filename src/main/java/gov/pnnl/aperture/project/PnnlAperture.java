@@ -31,6 +31,7 @@ import com.atlassian.jira.security.roles.ProjectRole;
 import com.atlassian.jira.security.roles.ProjectRoleActors;
 import com.atlassian.jira.security.roles.ProjectRoleManager;
 import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.user.util.UserManager;
 import com.atlassian.jira.util.ErrorCollection;
 import com.atlassian.jira.util.I18nHelper;
 import com.atlassian.jira.util.SimpleErrorCollection;
@@ -57,6 +58,14 @@ import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -71,11 +80,28 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
      * Default logger for this class.
      */
     private static final transient Logger LOG = Logger.getLogger(PnnlAperture.class);
+    /**
+     * Maximum number of projects whose application linked services are removed at the same time.
+     */
+    private static final int REMOVAL_PARALLELISM = Math.max(1, Integer.getInteger("aperture.removal.parallelism", 4));
 
     /**
      * Reference to the current ApertureSettings implementation in the current application context.
      */
     private final ApertureSettings settings;
+    /**
+     * Reference to the cache of project role membership snapshots.
+     */
+    private final ProjectMembershipCache membershipCache;
+    /**
+     * Reference to the registry project service handler calls are timed in.
+     */
+    private final ApertureMetrics metrics;
+    /**
+     * Worker threads the application linked services of a batch of projects are removed on; a task the pool cannot
+     * queue runs on the calling thread.
+     */
+    private final ThreadPoolExecutor removalExecutor;
 
     /**
      * Default constructor for this class.
@@ -83,13 +109,44 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
      *
      * @param pluginSettingsFactory pluginSettingsFactory to the current plug-in settings factory.
      * @param settings              current aperture settings implementation for this instance.
+     * @param membershipCache       cache of project role membership snapshots.
+     * @param metrics               registry project service handler calls are timed in.
      * @throws IllegalArgumentException if either settings parameters provided are <code>null</code>.
      */
     @Inject
-    public PnnlAperture(@ComponentImport final PluginSettingsFactory pluginSettingsFactory, final ApertureSettings settings) {
+    public PnnlAperture(@ComponentImport final PluginSettingsFactory pluginSettingsFactory, final ApertureSettings settings, final ProjectMembershipCache membershipCache, final ApertureMetrics metrics) {
 
         super(pluginSettingsFactory);
+        Assert.notNull(membershipCache, "ProjectMembershipCache reference cannot be null.");
+        Assert.notNull(metrics, "ApertureMetrics reference cannot be null.");
         this.settings = settings;
+        this.membershipCache = membershipCache;
+        this.metrics = metrics;
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.removalExecutor = new ThreadPoolExecutor(REMOVAL_PARALLELISM, REMOVAL_PARALLELISM, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(REMOVAL_PARALLELISM * 64), runnable -> {
+            final Thread thread = new Thread(runnable, String.format("aperture-project-removal-%d", threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }, (runnable, executor) -> runnable.run());
+        this.removalExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStop() {
+
+        removalExecutor.shutdownNow();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ApertureMetrics getMetrics() {
+
+        return metrics;
     }
 
     /**
@@ -101,15 +158,15 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
         Assert.notNull(projectService, "Cannot get a service handle with a null service type.");
         switch (projectService) {
             case CONFLUENCE:
-                return new ConfluenceProjectServiceHandler(this, settings);
+                return metered(new ConfluenceProjectServiceHandler(this, settings));
             case CRUCIBLE:
-                return new CrucibleProjectServiceHandler(this, settings);
+                return metered(new CrucibleProjectServiceHandler(this, settings));
             case JENKINS:
-                return new JenkinsProjectServiceHandler(this, settings);
+                return metered(new JenkinsProjectServiceHandler(this, settings));
             case JIRA:
-                return new JiraProjectServiceHandler(this, settings);
+                return metered(new JiraProjectServiceHandler(this, settings));
             case BITBUCKET:
-                return new BitbucketProjectServiceHandler(this, settings);
+                return metered(new BitbucketProjectServiceHandler(this, settings));
             default:
                 return null;
         }
@@ -121,19 +178,40 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
     @Override
     public Collection<ApplicationUser> getProjectMembers(final String projectKey, final boolean excludeProjectLead) {
 
-        final ProjectManager projectManager = ComponentAccessor.getProjectManager();
-        final ProjectRoleManager manager = ComponentAccessor.getComponentOfType(ProjectRoleManager.class);
-        final Project project = projectManager.getProjectObjByKey(projectKey);
-        final Collection<ApplicationUser> projectMembers = new HashSet<>();
+        final Map<String, Collection<ApplicationUser>> projectMembers = getProjectMembers(Collections.singleton(projectKey), excludeProjectLead);
+        return projectMembers.getOrDefault(projectKey, new HashSet<>());
+    }
 
-        for (final ProjectRole projectRole : manager.getProjectRoles()) {
-            final ProjectRoleActors actors = manager.getProjectRoleActors(projectRole, project);
-            projectMembers.addAll(actors.getApplicationUsers());
-        }
-        if (!excludeProjectLead) {
-            projectMembers.add(project.getProjectLead());
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Collection<ApplicationUser>> getProjectMembers(final Collection<String> projectKeys, final boolean excludeProjectLead) {
+
+        final ProjectManager projectManager = ComponentAccessor.getProjectManager();
+        final UserManager userManager = ComponentAccessor.getUserManager();
+        final Map<String, ApplicationUser> users = new HashMap<>();
+        final Map<String, Collection<ApplicationUser>> members = new LinkedHashMap<>();
+
+        for (final String projectKey : projectKeys) {
+            final Project project = projectManager.getProjectObjByKey(projectKey);
+            if (project == null) {
+                LOG.warn(String.format("Skipping members of unknown project:'%s'", projectKey));
+                continue;
+            }
+            final Collection<ApplicationUser> projectMembers = new HashSet<>();
+            for (final String userKey : membershipCache.getMemberKeys(project)) {
+                final ApplicationUser user = users.computeIfAbsent(userKey, userManager::getUserByKey);
+                if (user != null) {
+                    projectMembers.add(user);
+                }
+            }
+            if (!excludeProjectLead && project.getProjectLead() != null) {
+                projectMembers.add(project.getProjectLead());
+            }
+            members.put(projectKey, projectMembers);
         }
-        return projectMembers;
+        return members;
     }
 
     /**
@@ -143,14 +221,32 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
     public ErrorCollection createProject(final MutableIssue issue, final Map<String, Serializable> environment) {
 
         final ErrorCollection errors = new SimpleErrorCollection();
-        final Collection<ProjectServiceHandler> tasks = getProjectServices(issue.getIssueType());
+        final ProvisioningRequest request = ProvisioningRequest.of(issue, settings);
+        final Collection<ProjectServiceHandler> tasks = getProjectServices(request.getIssueType());
+        final ProvisioningCheckpoint checkpoint = ProvisioningCheckpoint.current(issue.getKey());
+        // keeping successful services relies on the checkpoint to retry only the failed ones //
+        final boolean keepServices = checkpoint != null && settings.isKeepSuccessfulServices();
         for (final ProjectServiceHandler handler : tasks) {
+            if (checkpoint != null && checkpoint.isComplete(handler.getServiceType(), ProvisioningCheckpoint.CREATE)) {
+                if (isServiceAvailable(handler, request.getProjectKey().toString())) {
+                    LOG.info(String.format("Skipping service handler:%s; already created for %s", handler.getServiceType(), issue.getKey()));
+                    continue;
+                }
+                // the resource was removed since it was recorded; e.g. by hand while the request was triaged //
+                LOG.warn(String.format("Service handler:%s was recorded as created for %s but is missing; creating it again", handler.getServiceType(), issue.getKey()));
+                checkpoint.revert(handler.getServiceType(), ProvisioningCheckpoint.CREATE);
+            }
             try {
-                final ErrorCollection serviceErrors = handler.createService(issue, environment);
+                final ErrorCollection serviceErrors = handler.createService(request, environment);
                 if (serviceErrors.hasAnyErrors()) {
                     for (final String serviceMessage : serviceErrors.getErrorMessages()) {
                         errors.addError(handler.getServiceType().name(), serviceMessage);
                     }
+                    if (checkpoint != null) {
+                        checkpoint.fail(handler.getServiceType(), String.join("; ", serviceErrors.getErrorMessages()));
+                    }
+                } else if (checkpoint != null) {
+                    checkpoint.complete(handler.getServiceType(), ProvisioningCheckpoint.CREATE);
                 }
             } catch (RuntimeException error) {
                 final StringWriter sw = new StringWriter();
@@ -159,7 +255,14 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
                 final String errorMessage = String.format("Failed to invoke service handler: *%s*; reason: _%s_\n{noformat}%s{noformat}", handler.getServiceType(), error, st);
                 errors.addError(handler.getServiceType().name(), errorMessage, ErrorCollection.Reason.SERVER_ERROR);
                 LOG.fatal(String.format("Failed to invoke service handler:%s; reason:%s", handler.getClass(), error), error);
-                final String projectKey = settings.getProjectKeyFor(issue);
+                if (checkpoint != null) {
+                    checkpoint.fail(handler.getServiceType(), error.toString());
+                }
+                if (keepServices) {
+                    // leave whatever was created in place; the retry reconciles it instead of starting over //
+                    continue;
+                }
+                final String projectKey = request.getProjectKey().toString();
                 // need to remove it as it could be in an inconsistent or inaccessible state //
                 final ErrorCollection serviceErrors = handler.destroyService(projectKey, environment);
                 if (serviceErrors.hasAnyErrors()) {
@@ -172,6 +275,24 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
         return errors;
     }
 
+    /**
+     * Checks whether the remote resource a service handler recorded as created still exists.
+     * <p>
+     *
+     * @param handler    the service handler that created the resource.
+     * @param projectKey the project key of the request.
+     * @return <code>true</code> if the resource exists, or if the service could not be reached to tell.
+     */
+    private static boolean isServiceAvailable(final ProjectServiceHandler handler, final String projectKey) {
+
+        try {
+            return handler.isServiceAvailable(projectKey);
+        } catch (IllegalStateException ex) {
+            LOG.warn(String.format("Failed to check service handler:%s for %s; trusting the checkpoint", handler.getServiceType(), projectKey), ex);
+            return true;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -193,6 +314,70 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
         return errors;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, ErrorCollection> removeProjects(final Collection<String> projectKeys, final Map<String, Serializable> environment) {
+
+        final Map<String, ErrorCollection> errors = new LinkedHashMap<>();
+        final Map<String, Map<String, Serializable>> environments = new HashMap<>();
+        for (final String projectKey : projectKeys) {
+            errors.put(projectKey, new SimpleErrorCollection());
+            final Map<String, Serializable> projectEnvironment = new HashMap<>(environment);
+            projectEnvironment.put("project-key", projectKey);
+            environments.put(projectKey, projectEnvironment);
+        }
+        final List<ProjectServiceHandler> tasks = getProjectServices();
+        Collections.reverse(tasks);
+        final ApplicationUser user = ComponentAccessor.getJiraAuthenticationContext().getLoggedInUser();
+        try (ProvisioningBatch batch = ProvisioningBatch.open(String.format("remove-%d", System.currentTimeMillis()))) {
+            for (final ProjectServiceHandler handler : tasks) {
+                final ApertureSettings.ProjectService service = handler.getServiceType();
+                final boolean parallel = service != null && service.isApplicationLinkRequired();
+                final Map<String, Future<ErrorCollection>> removals = new LinkedHashMap<>();
+                for (final String projectKey : projectKeys) {
+                    final Callable<ErrorCollection> removal = batch.wrap(() -> {
+                        final JiraAuthenticationContext context = ComponentAccessor.getJiraAuthenticationContext();
+                        final ApplicationUser previous = context.getLoggedInUser();
+                        context.setLoggedInUser(user);
+                        try {
+                            return handler.destroyService(projectKey, environments.get(projectKey));
+                        } finally {
+                            context.setLoggedInUser(previous);
+                        }
+                    });
+                    removals.put(projectKey, parallel ? removalExecutor.submit(removal) : CompletableFuture.completedFuture(callRemoval(removal)));
+                }
+                for (final Map.Entry<String, Future<ErrorCollection>> removal : removals.entrySet()) {
+                    try {
+                        final ErrorCollection serviceErrors = removal.getValue().get();
+                        if (serviceErrors != null) {
+                            errors.get(removal.getKey()).addErrorCollection(serviceErrors);
+                        }
+                    } catch (ExecutionException error) {
+                        LOG.fatal(String.format("Failed to invoke service handler:%s for project:%s", handler.getClass(), removal.getKey()), error.getCause());
+                    } catch (InterruptedException error) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while removing projects.", error);
+                    }
+                }
+                LOG.debug(String.format("Removed %d project(s) from handler:%s", projectKeys.size(), handler.getClass()));
+            }
+        }
+        return errors;
+    }
+
+    private static ErrorCollection callRemoval(final Callable<ErrorCollection> removal) {
+
+        try {
+            return removal.call();
+        } catch (Exception error) {
+            LOG.fatal("Failed to invoke service handler", error);
+            return null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -213,9 +398,12 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
             }
         }
 
-        if (!errors.hasAnyErrors()) {
-            final ProjectManager projectManager = ComponentAccessor.getProjectManager();
-            final Project project = projectManager.getProjectByCurrentKeyIgnoreCase(projectKey);
+        final ProjectManager projectManager = ComponentAccessor.getProjectManager();
+        final Project project = projectManager.getProjectByCurrentKeyIgnoreCase(projectKey);
+        if (project != null) {
+            membershipCache.invalidate(project.getId());
+        }
+        if (!errors.hasAnyErrors() && project != null) {
             final Map<String, Object> overrides = new HashMap<>();
             final JiraAuthenticationContext authContext = ComponentAccessor.getJiraAuthenticationContext();
 
@@ -226,28 +414,23 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
             overrides.put("projectLinks", JiraUtils.getProjectLinks(overrides, project));
             overrides.put("projectLead", project.getProjectLead());
 
-            String subject;
-            for (final ApplicationUser user : users) {
-                overrides.put("i18n", ComponentAccessor.getI18nHelperFactory().getInstance(user));
-                overrides.put("recipient", user);
-                try {
-                    LOG.debug(String.format("Delivering email to:%s <%s>", user.getDisplayName(), user.getEmailAddress()));
-                    switch (mode) {
-                        case ADD:
-                        case REPLACE:
-                            overrides.put("headerTitle", String.format("Welcome to Developer Central Project '%s' / %s", project.getName(), projectKey));
-                            subject = String.format("Welcome to the %s [%s] project from Developer Central", project.getName(), overrides.get("projectKey"));
-                            JiraUtils.deliverEmail(overrides, user.getEmailAddress(), "/gov/pnnl/aperture/templates/email/welcome-inline-project.vm.html", subject);
-                            break;
-                        case REMOVE:
-                            subject = String.format("Confirmation of being removed from the %s [%s] project from Developer Central", project.getName(), overrides.get("projectKey"));
-                            overrides.put("headerTitle", String.format("%s has revoked access from project '%s' / %s", authContext.getLoggedInUser().getDisplayName(), project.getName(), projectKey));
-                            JiraUtils.deliverEmail(overrides, user.getEmailAddress(), "/gov/pnnl/aperture/templates/email/removal-inline-project.vm.html", subject);
-                            break;
-                    }
-                } catch (IOException ex) {
-                    LOG.debug("I/O Error generating permission modification email", ex);
-                }
+            final NotificationBatch batch;
+            switch (mode) {
+                case REMOVE:
+                    overrides.put("headerTitle", String.format("%s has revoked access from project '%s' / %s", authContext.getLoggedInUser().getDisplayName(), project.getName(), projectKey));
+                    batch = new NotificationBatch("/gov/pnnl/aperture/templates/email/removal-inline-project.vm.html", String.format("Confirmation of being removed from the %s [%s] project from Developer Central", project.getName(), projectKey));
+                    break;
+                default:
+                    overrides.put("headerTitle", String.format("Welcome to Developer Central Project '%s' / %s", project.getName(), projectKey));
+                    batch = new NotificationBatch("/gov/pnnl/aperture/templates/email/welcome-inline-project.vm.html", String.format("Welcome to the %s [%s] project from Developer Central", project.getName(), projectKey));
+                    break;
+            }
+            try {
+                batch.addParameters(overrides).addRecipients(users);
+                LOG.debug(String.format("Delivering permission modification email to %d user(s)", batch.size()));
+                batch.deliver();
+            } catch (IOException ex) {
+                LOG.debug("I/O Error generating permission modification email", ex);
             }
         }
         return errors;
@@ -274,6 +457,10 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
                 LOG.fatal(String.format("Failed to invoke service handler:%s", handler.getClass()), error);
             }
         }
+        final Project project = ComponentAccessor.getProjectManager().getProjectByCurrentKeyIgnoreCase(projectKey);
+        if (project != null) {
+            membershipCache.invalidate(project.getId());
+        }
         return errors;
     }
 
@@ -434,32 +621,37 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
      * @param type issue type from the original JIRA issue being a software or business project...or something else.
      * @return collection of service handlers that will create the project spaces in those services.
      */
-    private List<ProjectServiceHandler> getProjectServices(final IssueType type) {
+    protected List<ProjectServiceHandler> getProjectServices(final IssueType type) {
 
         final List<ProjectServiceHandler> projectServiceHandlers = new ArrayList<>();
-        projectServiceHandlers.add(new JiraProjectServiceHandler(this, settings));
+        projectServiceHandlers.add(metered(new JiraProjectServiceHandler(this, settings)));
         ApplicationLink link = settings.getApplicationLink(ApertureSettings.ProjectService.CONFLUENCE);
         LOG.debug(String.format("Initializing task-list with issueType:%s", type));
         if (link != null) {
-            projectServiceHandlers.add(new ConfluenceProjectServiceHandler(this, settings));
+            projectServiceHandlers.add(metered(new ConfluenceProjectServiceHandler(this, settings)));
         }
         if (type == null || ApertureConstants.IT_SOFTWARE_PROJECT_REQUEST.equalsIgnoreCase(type.getName())) {
             link = settings.getApplicationLink(ApertureSettings.ProjectService.BITBUCKET);
             if (link != null) {
-                projectServiceHandlers.add(new BitbucketProjectServiceHandler(this, settings));
+                projectServiceHandlers.add(metered(new BitbucketProjectServiceHandler(this, settings)));
             }
             link = settings.getApplicationLink(ApertureSettings.ProjectService.CRUCIBLE);
             if (link != null) {
-                projectServiceHandlers.add(new CrucibleProjectServiceHandler(this, settings));
+                projectServiceHandlers.add(metered(new CrucibleProjectServiceHandler(this, settings)));
             }
             link = settings.getApplicationLink(ApertureSettings.ProjectService.JENKINS);
             if (link != null) {
-                projectServiceHandlers.add(new JenkinsProjectServiceHandler(this, settings));
+                projectServiceHandlers.add(metered(new JenkinsProjectServiceHandler(this, settings)));
             }
         }
         return projectServiceHandlers;
     }
 
+    private ProjectServiceHandler metered(final ProjectServiceHandler handler) {
+
+        return new MeteredProjectServiceHandler(handler, metrics);
+    }
+
     private void installIssueTypeScheme(final Project project) {
 
         final FieldConfigSchemeManager schemeManager = ComponentAccessor.getFieldConfigSchemeManager();
@@ -542,7 +734,7 @@ public class PnnlAperture extends AbstractAperturePlugin implements Aperture {
         final AvatarManager am = ComponentAccessor.getAvatarManager();
         final ProjectManager projectManager = ComponentAccessor.getProjectManager();
         final IconOwningObjectId ownerId = IconOwningObjectId.from(project.getId());
-        final AvatarImageProvider imageProvider = new AvatarImageProvider("/gov/pnnl/aperture/images/pluginLogo.png");
+        final AvatarImageProvider imageProvider = AvatarImageProvider.forResource("/gov/pnnl/aperture/images/pluginLogo.png");
         final Avatar avatar = am.create(IconType.PROJECT_ICON_TYPE, ownerId, imageProvider);
         projectManager.updateProject(project, "Developer Central Aperture", "", project.getLeadUserKey(), "https://jira.pnnl.gov/request", project.getAssigneeType(), avatar.getId());
     }
@@ -0,0 +1,215 @@
+package gov.pnnl.aperture.project;
+
+import com.atlassian.jira.util.json.JSONException;
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.atlassian.sal.api.pluginsettings.PluginSettings;
+import com.atlassian.sal.api.pluginsettings.PluginSettingsFactory;
+import gov.pnnl.aperture.ApertureCheckpointStore;
+import gov.pnnl.aperture.ProjectKey;
+import gov.pnnl.aperture.ProvisioningCheckpoint;
+import org.apache.log4j.Logger;
+import org.springframework.util.Assert;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default implementation of the provisioning checkpoint store.
+ * <p>
+ * Each checkpoint is a single compact JSON value in the global plug-in settings keyed by its issue; the in-flight runs
+ * are a list of issue keys in a separate setting so that start-up only reads the checkpoints it has to resume, and the
+ * requests with failed services another list so they can be retried in bulk. Checkpoints released but kept, e.g. of a
+ * triaged request, are listed as well so that {@link #prune()} can remove those untouched for more than
+ * <code>aperture.checkpoint.retention</code> days (default 30).
+ *
+ * @author Developer Central @ PNNL
+ */
+@Named("Aperture Checkpoint Store Component")
+@ExportAsService({ApertureCheckpointStore.class})
+public class PnnlApertureCheckpointStore implements ApertureCheckpointStore {
+
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(PnnlApertureCheckpointStore.class);
+    /**
+     * Plug-in setting key format of a checkpoint; e.g. <code>gov.pnnl.aperture/checkpoint/REQ-42</code>.
+     */
+    private static final String CHECKPOINT_KEY_FORMAT = "gov.pnnl.aperture/checkpoint/%s";
+    /**
+     * Plug-in setting key of the list of in-flight issue keys.
+     */
+    private static final String IN_FLIGHT_KEY = "gov.pnnl.aperture/checkpoints";
+    /**
+     * Plug-in setting key of the list of issue keys whose checkpoint records failed project services.
+     */
+    private static final String FAILED_KEY = "gov.pnnl.aperture/checkpoints/failed";
+    /**
+     * Plug-in setting key of the list of issue keys whose checkpoint is kept after its run was released.
+     */
+    private static final String RELEASED_KEY = "gov.pnnl.aperture/checkpoints/released";
+    /**
+     * Time in milliseconds a released checkpoint is kept for after its last recorded step or failure.
+     */
+    private static final long RETENTION = TimeUnit.DAYS.toMillis(Long.getLong("aperture.checkpoint.retention", 30L));
+    /**
+     * Reference to the SAL plug-in settings factory the checkpoints are stored with.
+     */
+    private final PluginSettingsFactory pluginSettingsFactory;
+
+    @Inject
+    public PnnlApertureCheckpointStore(@ComponentImport final PluginSettingsFactory pluginSettingsFactory) {
+
+        Assert.notNull(pluginSettingsFactory, "PluginSettingsFactory reference cannot be null.");
+        this.pluginSettingsFactory = pluginSettingsFactory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProvisioningCheckpoint load(final String issueKey) {
+
+        Assert.hasText(issueKey, "Cannot load a provisioning checkpoint for an empty issue key.");
+        final Object value = getSettings().get(getCheckpointKey(issueKey));
+        if (value instanceof String) {
+            try {
+                return ProvisioningCheckpoint.fromJson((String) value);
+            } catch (JSONException | RuntimeException ex) {
+                LOG.warn(String.format("Discarding unreadable provisioning checkpoint of %s", issueKey), ex);
+            }
+        }
+        return new ProvisioningCheckpoint(issueKey);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void save(final ProvisioningCheckpoint checkpoint) {
+
+        Assert.notNull(checkpoint, "Cannot save a null provisioning checkpoint.");
+        final PluginSettings settings = getSettings();
+        final String issueKey = ProjectKey.normalize(checkpoint.getIssueKey());
+        settings.put(getCheckpointKey(issueKey), checkpoint.toJson());
+        final List<String> inFlight = getIssueKeys(settings, IN_FLIGHT_KEY);
+        if (!inFlight.contains(issueKey)) {
+            inFlight.add(issueKey);
+            settings.put(IN_FLIGHT_KEY, inFlight);
+            removeIssueKey(settings, RELEASED_KEY, issueKey);
+        }
+        final List<String> failed = getIssueKeys(settings, FAILED_KEY);
+        final boolean hasFailures = !checkpoint.getFailures().isEmpty();
+        if (hasFailures != failed.contains(issueKey)) {
+            if (hasFailures) {
+                failed.add(issueKey);
+            } else {
+                failed.remove(issueKey);
+            }
+            settings.put(FAILED_KEY, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void release(final String issueKey) {
+
+        final PluginSettings settings = getSettings();
+        final String key = ProjectKey.normalize(issueKey);
+        if (removeIssueKey(settings, IN_FLIGHT_KEY, key) && settings.get(getCheckpointKey(key)) != null) {
+            final List<String> released = getIssueKeys(settings, RELEASED_KEY);
+            if (!released.contains(key)) {
+                released.add(key);
+                settings.put(RELEASED_KEY, released);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void remove(final String issueKey) {
+
+        final PluginSettings settings = getSettings();
+        final String key = ProjectKey.normalize(issueKey);
+        settings.remove(getCheckpointKey(key));
+        removeIssueKey(settings, IN_FLIGHT_KEY, key);
+        removeIssueKey(settings, FAILED_KEY, key);
+        removeIssueKey(settings, RELEASED_KEY, key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int prune() {
+
+        final long now = System.currentTimeMillis();
+        int pruned = 0;
+        for (final String issueKey : getIssueKeys(getSettings(), RELEASED_KEY)) {
+            final Date updatedAt = load(issueKey).getUpdatedAt();
+            if (updatedAt == null || now - updatedAt.getTime() > RETENTION) {
+                remove(issueKey);
+                pruned++;
+            }
+        }
+        if (pruned > 0) {
+            LOG.info(String.format("Removed %d provisioning checkpoint(s) untouched for more than %d day(s)", pruned, TimeUnit.MILLISECONDS.toDays(RETENTION)));
+        }
+        return pruned;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Collection<String> getInFlightIssueKeys() {
+
+        return getIssueKeys(getSettings(), IN_FLIGHT_KEY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Collection<String> getFailedIssueKeys() {
+
+        return getIssueKeys(getSettings(), FAILED_KEY);
+    }
+
+    private PluginSettings getSettings() {
+
+        return pluginSettingsFactory.createGlobalSettings();
+    }
+
+    private static String getCheckpointKey(final String issueKey) {
+
+        return String.format(CHECKPOINT_KEY_FORMAT, ProjectKey.normalize(issueKey));
+    }
+
+    private static boolean removeIssueKey(final PluginSettings settings, final String settingKey, final String issueKey) {
+
+        final List<String> issueKeys = getIssueKeys(settings, settingKey);
+        if (issueKeys.remove(issueKey)) {
+            settings.put(settingKey, issueKeys);
+            return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> getIssueKeys(final PluginSettings settings, final String settingKey) {
+
+        final Object value = settings.get(settingKey);
+        return value instanceof List ? new ArrayList<>((List<String>) value) : new ArrayList<>();
+    }
+}
@@ -0,0 +1,510 @@
+package gov.pnnl.aperture.project;
+
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.event.ProjectCreatedEvent;
+import com.atlassian.jira.event.ProjectDeletedEvent;
+import com.atlassian.jira.project.ProjectManager;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.atlassian.sal.api.lifecycle.LifecycleAware;
+import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureKeyAvailability;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProjectKey;
+import gov.pnnl.aperture.ProjectServiceHandler;
+import org.apache.log4j.Logger;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default implementation of the remote project key availability lookups.
+ * <p>
+ * Each service is asked through its {@link ProjectServiceHandler#isServiceAvailable(String)} on a small pool of named
+ * worker threads, as the user asking; concurrent checks of the same key share a single lookup per service. A key found in use is remembered for
+ * <code>aperture.key.cache.in-use</code> seconds (default 3600) and a key found available for
+ * <code>aperture.key.cache.available</code> seconds (default 60); the caller waits at most
+ * <code>aperture.key.lookup.timeout</code> milliseconds (default 1500) for all services together. Answers for a key are
+ * discarded when a JIRA project with that key is created or deleted.
+ * <p>
+ * The index holds one sorted array of keys per service, replaced as a whole on each refresh so that readers never
+ * lock; it is trusted for twice the <code>aperture.key.index.interval</code> (default 30 minutes) it is refreshed at,
+ * after which the services are asked again. Keys of JIRA projects deleted since the last refresh are ignored in the
+ * JIRA index only; the same key in the index of a remote service still counts as in use.
+ *
+ * @author Developer Central @ PNNL
+ */
+@Named("Aperture Key Availability Component")
+@ExportAsService({ApertureKeyAvailability.class, LifecycleAware.class})
+public class PnnlApertureKeyAvailability implements ApertureKeyAvailability, LifecycleAware {
+
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(PnnlApertureKeyAvailability.class);
+    /**
+     * Remote services that project keys are looked up in.
+     */
+    private static final List<ApertureSettings.ProjectService> REMOTE_SERVICES = Collections.unmodifiableList(Arrays.asList(
+        ApertureSettings.ProjectService.CONFLUENCE, ApertureSettings.ProjectService.BITBUCKET,
+        ApertureSettings.ProjectService.CRUCIBLE, ApertureSettings.ProjectService.JENKINS));
+    /**
+     * Services whose project keys are indexed.
+     */
+    private static final List<ApertureSettings.ProjectService> INDEXED_SERVICES = Collections.unmodifiableList(Arrays.asList(
+        ApertureSettings.ProjectService.JIRA, ApertureSettings.ProjectService.CONFLUENCE, ApertureSettings.ProjectService.BITBUCKET,
+        ApertureSettings.ProjectService.CRUCIBLE, ApertureSettings.ProjectService.JENKINS));
+    /**
+     * Time in milliseconds between refreshes of the key index.
+     */
+    static final long INDEX_INTERVAL = TimeUnit.MINUTES.toMillis(Long.getLong("aperture.key.index.interval", 30L));
+    /**
+     * Longest project key suggested.
+     */
+    private static final int MAX_KEY_LENGTH = 10;
+    private static final String[] NO_KEYS = new String[0];
+    /**
+     * Maximum time in milliseconds a caller waits for the remote services to answer.
+     */
+    private static final long LOOKUP_TIMEOUT = Long.getLong("aperture.key.lookup.timeout", 1500L);
+    /**
+     * Time in milliseconds a key found in use by a service is remembered.
+     */
+    private static final long IN_USE_TTL = TimeUnit.SECONDS.toMillis(Long.getLong("aperture.key.cache.in-use", 3600L));
+    /**
+     * Time in milliseconds a key found available in a service is remembered.
+     */
+    private static final long AVAILABLE_TTL = TimeUnit.SECONDS.toMillis(Long.getLong("aperture.key.cache.available", 60L));
+    /**
+     * Reference to the JIRA event publisher the component listens for project events on.
+     */
+    private final EventPublisher eventPublisher;
+    /**
+     * Reference to the aperture service providing the project service handlers.
+     */
+    private final Aperture aperture;
+    /**
+     * Reference to the aperture settings providing the application links.
+     */
+    private final ApertureSettings apertureSettings;
+    /**
+     * Remembered answers keyed by service and project key.
+     */
+    private final ConcurrentMap<String, Answer> answers = new ConcurrentHashMap<>();
+    /**
+     * Lookups in progress keyed by service and project key.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> lookups = new ConcurrentHashMap<>();
+    /**
+     * Index of the keys in use keyed by service.
+     */
+    private final ConcurrentMap<ApertureSettings.ProjectService, Index> indexes = new ConcurrentHashMap<>();
+    /**
+     * Sorted keys in use by any indexed service.
+     */
+    private volatile String[] indexedKeys = NO_KEYS;
+    /**
+     * Sorted keys in use by any indexed remote service.
+     */
+    private volatile String[] remoteKeys = NO_KEYS;
+    /**
+     * Keys of JIRA projects deleted since the index was built, with the time they were deleted.
+     */
+    private final ConcurrentMap<String, Long> released = new ConcurrentHashMap<>();
+    /**
+     * Worker threads the remote lookups run on.
+     */
+    private final ExecutorService executor = Executors.newFixedThreadPool(REMOTE_SERVICES.size(), new ThreadFactory() {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+
+            final Thread thread = new Thread(runnable, String.format("aperture-key-lookup-%d", count.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    @Inject
+    public PnnlApertureKeyAvailability(@ComponentImport final EventPublisher eventPublisher, final Aperture aperture, final ApertureSettings apertureSettings) {
+
+        Assert.notNull(eventPublisher, "EventPublisher reference cannot be null.");
+        Assert.notNull(aperture, "Aperture reference cannot be null.");
+        Assert.notNull(apertureSettings, "ApertureSettings reference cannot be null.");
+        this.eventPublisher = eventPublisher;
+        this.aperture = aperture;
+        this.apertureSettings = apertureSettings;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStart() {
+
+        eventPublisher.register(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStop() {
+
+        eventPublisher.unregister(this);
+        executor.shutdownNow();
+        answers.clear();
+        lookups.clear();
+        indexes.clear();
+        indexedKeys = NO_KEYS;
+        remoteKeys = NO_KEYS;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<ApertureSettings.ProjectService> getServicesUsing(final String projectKey) {
+
+        return getServicesUsing(projectKey, Collections.emptySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<ApertureSettings.ProjectService> getServicesUsing(final String projectKey, final Collection<ApertureSettings.ProjectService> checked) {
+
+        Assert.hasText(projectKey, "Cannot look up an empty project key.");
+        final String key = ProjectKey.normalize(projectKey);
+        final long now = System.currentTimeMillis();
+        final Set<ApertureSettings.ProjectService> inUse = EnumSet.noneOf(ApertureSettings.ProjectService.class);
+        final Map<ApertureSettings.ProjectService, CompletableFuture<Boolean>> pending = new EnumMap<>(ApertureSettings.ProjectService.class);
+        for (final ApertureSettings.ProjectService service : REMOTE_SERVICES) {
+            if (checked.contains(service) || apertureSettings.getApplicationLink(service) == null) {
+                continue;
+            }
+            final Answer answer = answers.get(getCacheKey(service, key));
+            final Index index = indexes.get(service);
+            if (answer != null && answer.expiresAt > now) {
+                if (answer.inUse) {
+                    inUse.add(service);
+                }
+            } else if (index != null && now - index.builtAt < 2 * INDEX_INTERVAL) {
+                if (index.contains(key)) {
+                    inUse.add(service);
+                }
+            } else {
+                pending.put(service, getLookup(service, key));
+            }
+        }
+        final long deadline = now + LOOKUP_TIMEOUT;
+        for (final Map.Entry<ApertureSettings.ProjectService, CompletableFuture<Boolean>> lookup : pending.entrySet()) {
+            try {
+                if (lookup.getValue().get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                    inUse.add(lookup.getKey());
+                }
+            } catch (TimeoutException ex) {
+                LOG.warn(String.format("%s did not answer within %dms whether key:[%s] is in use", lookup.getKey(), LOOKUP_TIMEOUT, key));
+            } catch (ExecutionException ex) {
+                LOG.warn(String.format("Failed to check whether key:[%s] is in use in %s", key, lookup.getKey()), ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return inUse;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidate(final String projectKey) {
+
+        if (StringUtils.hasText(projectKey)) {
+            final String key = ProjectKey.normalize(projectKey);
+            for (final ApertureSettings.ProjectService service : REMOTE_SERVICES) {
+                answers.remove(getCacheKey(service, key));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void refreshIndex() {
+
+        final long started = System.currentTimeMillis();
+        for (final ApertureSettings.ProjectService service : INDEXED_SERVICES) {
+            if (service.isApplicationLinkRequired() && apertureSettings.getApplicationLink(service) == null) {
+                indexes.remove(service);
+                continue;
+            }
+            final Set<String> keys = new TreeSet<>();
+            try {
+                aperture.getServiceHandler(service).collectProjectKeys(projectKey -> {
+                    if (StringUtils.hasText(projectKey)) {
+                        keys.add(ProjectKey.normalize(projectKey.trim()));
+                    }
+                });
+                indexes.put(service, new Index(keys.toArray(NO_KEYS), started));
+                LOG.info(String.format("Indexed %d project key(s) of %s", keys.size(), service));
+            } catch (RuntimeException ex) {
+                LOG.warn(String.format("Failed to index the project keys of %s; keeping its previous index", service), ex);
+            }
+        }
+        final Set<String> merged = new TreeSet<>();
+        final Set<String> remote = new TreeSet<>();
+        for (final Map.Entry<ApertureSettings.ProjectService, Index> index : indexes.entrySet()) {
+            merged.addAll(Arrays.asList(index.getValue().keys));
+            if (index.getKey() != ApertureSettings.ProjectService.JIRA) {
+                remote.addAll(Arrays.asList(index.getValue().keys));
+            }
+        }
+        remoteKeys = remote.toArray(NO_KEYS);
+        indexedKeys = merged.toArray(NO_KEYS);
+        released.values().removeIf(deletedAt -> deletedAt < started);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getKeysStartingWith(final String prefix, final int limit) {
+
+        final List<String> keys = new ArrayList<>();
+        if (!StringUtils.hasText(prefix)) {
+            return keys;
+        }
+        final String from = ProjectKey.normalize(prefix.trim());
+        final String[] sorted = indexedKeys;
+        int i = Arrays.binarySearch(sorted, from);
+        for (i = i < 0 ? -i - 1 : i; i < sorted.length && keys.size() < limit && sorted[i].startsWith(from); i++) {
+            if (!isReleased(sorted[i])) {
+                keys.add(sorted[i]);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<ApertureSettings.ProjectService> getIndexedServicesUsing(final String projectKey) {
+
+        final Set<ApertureSettings.ProjectService> inUse = EnumSet.noneOf(ApertureSettings.ProjectService.class);
+        if (!StringUtils.hasText(projectKey)) {
+            return inUse;
+        }
+        final String key = ProjectKey.normalize(projectKey.trim());
+        for (final Map.Entry<ApertureSettings.ProjectService, Index> index : indexes.entrySet()) {
+            final boolean deleted = index.getKey() == ApertureSettings.ProjectService.JIRA && released.containsKey(key);
+            if (!deleted && index.getValue().contains(key)) {
+                inUse.add(index.getKey());
+            }
+        }
+        return inUse;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> suggestKeys(final String projectKey, final String projectName, final int limit) {
+
+        final Set<String> candidates = new LinkedHashSet<>();
+        addCandidate(candidates, getLetters(projectKey));
+        final List<String> words = new ArrayList<>();
+        if (StringUtils.hasText(projectName)) {
+            for (final String word : projectName.split("[^A-Za-z]+")) {
+                if (!word.isEmpty()) {
+                    words.add(word.toUpperCase(Locale.ENGLISH));
+                }
+            }
+        }
+        if (!words.isEmpty()) {
+            final StringBuilder initials = new StringBuilder();
+            for (final String word : words) {
+                initials.append(word.charAt(0));
+            }
+            addCandidate(candidates, initials.toString());
+            for (int length = 3; length <= Math.min(words.get(0).length(), MAX_KEY_LENGTH); length++) {
+                addCandidate(candidates, words.get(0).substring(0, length));
+            }
+        }
+        for (final String base : new ArrayList<>(candidates)) {
+            for (char letter = 'A'; letter <= 'Z'; letter++) {
+                addCandidate(candidates, base + letter);
+            }
+        }
+        final ProjectManager projectManager = ComponentAccessor.getProjectManager();
+        final String[] sorted = indexedKeys;
+        final List<String> suggestions = new ArrayList<>();
+        for (final String candidate : candidates) {
+            if (suggestions.size() >= limit) {
+                break;
+            }
+            final boolean indexed = Arrays.binarySearch(sorted, candidate) >= 0 && !isReleased(candidate);
+            if (!indexed && projectManager.getProjectByCurrentKeyIgnoreCase(candidate) == null) {
+                suggestions.add(candidate);
+            }
+        }
+        return suggestions;
+    }
+
+    @EventListener
+    public void onProjectCreated(final ProjectCreatedEvent event) {
+
+        if (event.getProject() != null) {
+            invalidate(event.getProject().getKey());
+        }
+    }
+
+    @EventListener
+    public void onProjectDeleted(final ProjectDeletedEvent event) {
+
+        invalidate(event.getKey());
+        if (StringUtils.hasText(event.getKey())) {
+            released.put(ProjectKey.normalize(event.getKey()), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Gets the lookup in progress for a key in a service, starting one if there is none.
+     * <p>
+     *
+     * @param service the service to look the key up in.
+     * @param key     the upper case project key.
+     * @return future answering whether the key is in use in the service.
+     */
+    private CompletableFuture<Boolean> getLookup(final ApertureSettings.ProjectService service, final String key) {
+
+        final String cacheKey = getCacheKey(service, key);
+        final CompletableFuture<Boolean> created = new CompletableFuture<>();
+        final CompletableFuture<Boolean> existing = lookups.putIfAbsent(cacheKey, created);
+        if (existing != null) {
+            return existing;
+        }
+        final ApplicationUser user = ComponentAccessor.getJiraAuthenticationContext().getLoggedInUser();
+        try {
+            executor.execute(() -> {
+                final JiraAuthenticationContext context = ComponentAccessor.getJiraAuthenticationContext();
+                try {
+                    context.setLoggedInUser(user);
+                    final ProjectServiceHandler handler = aperture.getServiceHandler(service);
+                    final boolean inUse = handler.isServiceAvailable(key);
+                    answers.put(cacheKey, new Answer(inUse, System.currentTimeMillis() + (inUse ? IN_USE_TTL : AVAILABLE_TTL)));
+                    created.complete(inUse);
+                } catch (RuntimeException ex) {
+                    created.completeExceptionally(ex);
+                } finally {
+                    // pooled threads must not keep the identity of the user that asked //
+                    context.setLoggedInUser(null);
+                    lookups.remove(cacheKey, created);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            lookups.remove(cacheKey, created);
+            created.completeExceptionally(ex);
+        }
+        return created;
+    }
+
+    /**
+     * Checks whether an indexed key is only in use by a JIRA project that has since been deleted.
+     * <p>
+     *
+     * @param key the upper case project key.
+     * @return <code>true</code> if the JIRA project of the key was deleted and no remote service indexes the key.
+     */
+    private boolean isReleased(final String key) {
+
+        return released.containsKey(key) && Arrays.binarySearch(remoteKeys, key) < 0;
+    }
+
+    private static void addCandidate(final Set<String> candidates, final String candidate) {
+
+        if (candidate.length() >= 2 && candidate.length() <= MAX_KEY_LENGTH) {
+            candidates.add(candidate);
+        }
+    }
+
+    private static String getLetters(final String value) {
+
+        return value == null ? "" : value.replaceAll("[^A-Za-z]", "").toUpperCase(Locale.ENGLISH);
+    }
+
+    private static String getCacheKey(final ApertureSettings.ProjectService service, final String key) {
+
+        return String.format("%s:%s", service, key);
+    }
+
+    /**
+     * Sorted project keys of a single service.
+     */
+    private static final class Index {
+
+        private final String[] keys;
+        private final long builtAt;
+
+        Index(final String[] keys, final long builtAt) {
+
+            this.keys = keys;
+            this.builtAt = builtAt;
+        }
+
+        boolean contains(final String key) {
+
+            return Arrays.binarySearch(keys, key) >= 0;
+        }
+    }
+
+    /**
+     * Remembered answer of a single service for a single project key.
+     */
+    private static final class Answer {
+
+        private final boolean inUse;
+        private final long expiresAt;
+
+        Answer(final boolean inUse, final long expiresAt) {
+
+            this.inUse = inUse;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
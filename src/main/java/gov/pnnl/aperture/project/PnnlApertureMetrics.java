@@ -0,0 +1,293 @@
+package gov.pnnl.aperture.project;
+
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.atlassian.sal.api.lifecycle.LifecycleAware;
+import gov.pnnl.aperture.ApertureMetrics;
+import gov.pnnl.aperture.ApertureSettings;
+import org.apache.log4j.Logger;
+import org.springframework.util.Assert;
+
+import javax.inject.Named;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default implementation of the Aperture metrics registry.
+ * <p>
+ * Timers and counters for every project service and operation are allocated up front, so recording never allocates or
+ * locks; each counter is a {@link LongAdder} and maximums are a {@link LongAccumulator}. The registry is published over
+ * JMX as an {@link ApertureMetricsMXBean} while the plug-in is running.
+ *
+ * @author Developer Central @ PNNL
+ */
+@Named("Aperture Metrics Component")
+@ExportAsService({ApertureMetrics.class, LifecycleAware.class})
+public class PnnlApertureMetrics implements ApertureMetrics, ApertureMetricsMXBean, LifecycleAware {
+
+    /**
+     * JMX object name the registry is published under.
+     */
+    public static final String OBJECT_NAME = "gov.pnnl.aperture:type=Metrics";
+    /**
+     * Labels of the HTTP status classes; index zero counts requests that did not receive a response.
+     */
+    private static final String[] STATUS_CLASSES = {"failed", "1xx", "2xx", "3xx", "4xx", "5xx"};
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(PnnlApertureMetrics.class);
+
+    /**
+     * Timers keyed by project service and operation.
+     */
+    private final Map<ApertureSettings.ProjectService, Map<Operation, OperationTimer>> timers = new EnumMap<>(ApertureSettings.ProjectService.class);
+    /**
+     * HTTP counters keyed by project service.
+     */
+    private final Map<ApertureSettings.ProjectService, LinkCounters> links = new EnumMap<>(ApertureSettings.ProjectService.class);
+    /**
+     * Epoch milliseconds of the last reset.
+     */
+    private volatile long since = System.currentTimeMillis();
+
+    /**
+     * Default constructor for this class.
+     * <p>
+     * Allocates a timer for every project service and operation and a set of HTTP counters for every project service.
+     */
+    public PnnlApertureMetrics() {
+
+        for (final ApertureSettings.ProjectService service : ApertureSettings.ProjectService.values()) {
+            final Map<Operation, OperationTimer> serviceTimers = new EnumMap<>(Operation.class);
+            for (final Operation operation : Operation.values()) {
+                serviceTimers.put(operation, new OperationTimer());
+            }
+            timers.put(service, serviceTimers);
+            links.put(service, new LinkCounters());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStart() {
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            // a previous instance is left behind when the plug-in is reloaded without a clean stop //
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException ex) {
+            LOG.warn(String.format("Failed to register Aperture metrics with JMX as '%s'", OBJECT_NAME), ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStop() {
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException ex) {
+            LOG.warn(String.format("Failed to unregister Aperture metrics from JMX as '%s'", OBJECT_NAME), ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordOperation(final ApertureSettings.ProjectService service, final Operation operation, final long elapsedNanos, final boolean failed) {
+
+        Assert.notNull(service, "Cannot record an operation against a null service.");
+        Assert.notNull(operation, "Cannot record a null operation.");
+        timers.get(service).get(operation).record(elapsedNanos, failed);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordResponse(final ApertureSettings.ProjectService service, final int statusCode, final long bytes) {
+
+        Assert.notNull(service, "Cannot record a response against a null service.");
+        links.get(service).record(statusCode, bytes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getSnapshot() {
+
+        final Map<String, Object> services = new LinkedHashMap<>();
+        for (final ApertureSettings.ProjectService service : ApertureSettings.ProjectService.values()) {
+            final Map<String, Object> operations = new LinkedHashMap<>();
+            for (final Map.Entry<Operation, OperationTimer> entry : timers.get(service).entrySet()) {
+                operations.put(entry.getKey().getMetricName(), entry.getValue().snapshot());
+            }
+            final Map<String, Object> serviceMetrics = new LinkedHashMap<>();
+            serviceMetrics.put("operations", operations);
+            serviceMetrics.put("http", links.get(service).snapshot());
+            services.put(service.name(), serviceMetrics);
+        }
+        final Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("since", since);
+        snapshot.put("timestamp", System.currentTimeMillis());
+        snapshot.put("services", services);
+        return snapshot;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getCounters() {
+
+        final Map<String, Long> counters = new TreeMap<>();
+        for (final ApertureSettings.ProjectService service : ApertureSettings.ProjectService.values()) {
+            for (final Map.Entry<Operation, OperationTimer> entry : timers.get(service).entrySet()) {
+                for (final Map.Entry<String, Object> value : entry.getValue().snapshot().entrySet()) {
+                    if (value.getValue() instanceof Long) {
+                        counters.put(String.format("%s.%s.%s", service, entry.getKey().getMetricName(), value.getKey()), (Long) value.getValue());
+                    }
+                }
+            }
+            for (final Map.Entry<String, Long> value : links.get(service).snapshot().entrySet()) {
+                counters.put(String.format("%s.http.%s", service, value.getKey()), value.getValue());
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSince() {
+
+        return since;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+
+        for (final Map<Operation, OperationTimer> serviceTimers : timers.values()) {
+            for (final OperationTimer timer : serviceTimers.values()) {
+                timer.reset();
+            }
+        }
+        for (final LinkCounters counters : links.values()) {
+            counters.reset();
+        }
+        since = System.currentTimeMillis();
+    }
+
+    /**
+     * Call count, failure count, total and maximum time of a single operation.
+     */
+    private static final class OperationTimer {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        void record(final long elapsedNanos, final boolean failed) {
+
+            count.increment();
+            if (failed) {
+                failures.increment();
+            }
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+        }
+
+        void reset() {
+
+            count.reset();
+            failures.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+        }
+
+        Map<String, Object> snapshot() {
+
+            final long calls = count.sum();
+            final long total = TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+            final Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("count", calls);
+            snapshot.put("failures", failures.sum());
+            snapshot.put("totalMillis", total);
+            snapshot.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+            snapshot.put("meanMillis", calls == 0 ? 0D : (double) total / calls);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Response counts by HTTP status class and bytes received over a single application link.
+     */
+    private static final class LinkCounters {
+
+        private final LongAdder[] statusClasses = new LongAdder[STATUS_CLASSES.length];
+        private final LongAdder bytes = new LongAdder();
+
+        LinkCounters() {
+
+            for (int i = 0; i < statusClasses.length; i++) {
+                statusClasses[i] = new LongAdder();
+            }
+        }
+
+        void record(final int statusCode, final long length) {
+
+            final int statusClass = statusCode / 100;
+            statusClasses[statusClass > 0 && statusClass < statusClasses.length ? statusClass : 0].increment();
+            if (length > 0) {
+                bytes.add(length);
+            }
+        }
+
+        void reset() {
+
+            for (final LongAdder statusClass : statusClasses) {
+                statusClass.reset();
+            }
+            bytes.reset();
+        }
+
+        Map<String, Long> snapshot() {
+
+            final Map<String, Long> snapshot = new LinkedHashMap<>();
+            long requests = 0;
+            for (int i = 0; i < statusClasses.length; i++) {
+                final long value = statusClasses[i].sum();
+                snapshot.put(STATUS_CLASSES[i], value);
+                requests += value;
+            }
+            snapshot.put("requests", requests);
+            snapshot.put("bytes", bytes.sum());
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package gov.pnnl.aperture.project;
+
+import com.atlassian.applinks.api.ApplicationLink;
+import com.atlassian.applinks.api.event.ApplicationLinkEvent;
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.event.ProjectDeletedEvent;
+import com.atlassian.jira.event.ProjectUpdatedEvent;
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.atlassian.sal.api.lifecycle.LifecycleAware;
+import gov.pnnl.aperture.ApertureProjectLinks;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProjectKey;
+import org.apache.log4j.Logger;
+import org.springframework.util.Assert;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Default implementation of the project links.
+ * <p>
+ * The application links are resolved together into a single immutable map the first time they are needed; the links
+ * of each project are rendered from that map and kept by project key. Everything is discarded when any application
+ * link is added, changed or removed, or when {@link #invalidate()} is called after the link of a service is changed;
+ * the links of a project are discarded when its key changes or it is deleted.
+ *
+ * @author Developer Central @ PNNL
+ */
+@Named("Aperture Project Links Component")
+@ExportAsService({ApertureProjectLinks.class, LifecycleAware.class})
+public class PnnlApertureProjectLinks implements ApertureProjectLinks, LifecycleAware {
+
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(PnnlApertureProjectLinks.class);
+    /**
+     * Reference to the JIRA event publisher the component listens for application link and project events on.
+     */
+    private final EventPublisher eventPublisher;
+    /**
+     * Reference to the aperture settings providing the application links.
+     */
+    private final ApertureSettings apertureSettings;
+    /**
+     * Rendered project links keyed by upper case project key.
+     */
+    private final ConcurrentMap<String, Map<ApertureSettings.ProjectService, String>> projectLinks = new ConcurrentHashMap<>();
+    /**
+     * Resolved application links; <code>null</code> until they are first needed.
+     */
+    private volatile Map<ApertureSettings.ProjectService, ApplicationLink> applicationLinks;
+
+    @Inject
+    public PnnlApertureProjectLinks(@ComponentImport final EventPublisher eventPublisher, final ApertureSettings apertureSettings) {
+
+        Assert.notNull(eventPublisher, "EventPublisher reference cannot be null.");
+        Assert.notNull(apertureSettings, "ApertureSettings reference cannot be null.");
+        this.eventPublisher = eventPublisher;
+        this.apertureSettings = apertureSettings;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStart() {
+
+        eventPublisher.register(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStop() {
+
+        eventPublisher.unregister(this);
+        invalidate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<ApertureSettings.ProjectService, String> getProjectLinks(final Map<String, Object> params, final String projectKey) {
+
+        final Map<ApertureSettings.ProjectService, ApplicationLink> links = getApplicationLinks();
+        if (params != null) {
+            for (final Map.Entry<ApertureSettings.ProjectService, ApplicationLink> link : links.entrySet()) {
+                params.put(String.format("%s_lnk", link.getKey().name()), link.getValue());
+            }
+        }
+        if (projectKey == null) {
+            return Collections.emptyMap();
+        }
+        return projectLinks.computeIfAbsent(ProjectKey.normalize(projectKey), key -> renderLinks(links, key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<ApertureSettings.ProjectService, ApplicationLink> getApplicationLinks() {
+
+        Map<ApertureSettings.ProjectService, ApplicationLink> links = applicationLinks;
+        if (links == null) {
+            final Map<ApertureSettings.ProjectService, ApplicationLink> resolved = new EnumMap<>(ApertureSettings.ProjectService.class);
+            for (final ApertureSettings.ProjectService service : ApertureSettings.ProjectService.values()) {
+                try {
+                    final ApplicationLink applicationLink = apertureSettings.getApplicationLink(service);
+                    if (applicationLink != null) {
+                        resolved.put(service, applicationLink);
+                    }
+                } catch (IllegalStateException ex) {
+                    LOG.warn(String.format("Application link for service:%s is not available", service), ex);
+                }
+            }
+            links = Collections.unmodifiableMap(resolved);
+            applicationLinks = links;
+        }
+        return links;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidate() {
+
+        applicationLinks = null;
+        projectLinks.clear();
+    }
+
+    @EventListener
+    public void onApplicationLinkEvent(final ApplicationLinkEvent event) {
+
+        LOG.debug(String.format("Discarding project links; application link:'%s' changed", event.getApplicationId()));
+        invalidate();
+    }
+
+    @EventListener
+    public void onProjectUpdated(final ProjectUpdatedEvent event) {
+
+        if (event.getOldProject() != null) {
+            projectLinks.remove(ProjectKey.normalize(event.getOldProject().getKey()));
+        }
+    }
+
+    @EventListener
+    public void onProjectDeleted(final ProjectDeletedEvent event) {
+
+        if (event.getKey() != null) {
+            projectLinks.remove(ProjectKey.normalize(event.getKey()));
+        }
+    }
+
+    private static Map<ApertureSettings.ProjectService, String> renderLinks(final Map<ApertureSettings.ProjectService, ApplicationLink> links, final String projectKey) {
+
+        final Map<ApertureSettings.ProjectService, String> linkList = new EnumMap<>(ApertureSettings.ProjectService.class);
+        for (final Map.Entry<ApertureSettings.ProjectService, ApplicationLink> link : links.entrySet()) {
+            final ApertureSettings.ProjectService service = link.getKey();
+            final ApplicationLink applicationLink = link.getValue();
+            switch (service) {
+                case CONFLUENCE:
+                    linkList.put(service, String.format("%s/display/%s", applicationLink.getRpcUrl(), projectKey));
+                    break;
+                case CRUCIBLE:
+                    linkList.put(service, String.format("%s/project/%s", applicationLink.getRpcUrl(), projectKey));
+                    break;
+                case JENKINS:
+                    linkList.put(service, String.format("%s/job/%s", applicationLink.getRpcUrl(), projectKey));
+                    break;
+                case JIRA:
+                    linkList.put(service, String.format("%s/browse/%s", applicationLink.getRpcUrl(), projectKey));
+                    break;
+                case BITBUCKET:
+                    linkList.put(service, String.format("%s/projects/%s", applicationLink.getRpcUrl(), projectKey));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return Collections.unmodifiableMap(linkList);
+    }
+}
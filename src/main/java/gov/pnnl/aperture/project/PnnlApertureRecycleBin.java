@@ -0,0 +1,120 @@
+package gov.pnnl.aperture.project;
+
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.project.Project;
+import com.atlassian.jira.project.ProjectManager;
+import com.atlassian.jira.project.type.ProjectType;
+import com.atlassian.jira.project.type.ProjectTypeKey;
+import com.atlassian.jira.project.type.ProjectTypeManager;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.user.util.UserManager;
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.atlassian.scheduler.SchedulerService;
+import com.atlassian.scheduler.config.JobRunnerKey;
+import com.atlassian.scheduler.status.JobDetails;
+import gov.pnnl.aperture.ApertureRecycleBin;
+import gov.pnnl.aperture.ApertureScheduler;
+import gov.pnnl.aperture.RecycleBinEntry;
+import gov.pnnl.aperture.RecycleBinPage;
+import org.apache.log4j.Logger;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Default implementation of the Aperture project recycle bin.
+ * <p>
+ * All rows are built from a single {@link SchedulerService#getJobsByJobRunnerKey(JobRunnerKey)} scan of the removal
+ * jobs; projects, project types and initiating users are each resolved once per distinct value for the whole table.
+ *
+ * @author Developer Central @ PNNL
+ */
+@Named("Aperture Recycle Bin Component")
+@ExportAsService({ApertureRecycleBin.class})
+public class PnnlApertureRecycleBin implements ApertureRecycleBin {
+
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(PnnlApertureRecycleBin.class);
+    /**
+     * Reference to the JIRA scheduler service holding the pending removal jobs.
+     */
+    private final SchedulerService schedulerService;
+
+    @Inject
+    public PnnlApertureRecycleBin(@ComponentImport final SchedulerService schedulerService) {
+
+        Assert.notNull(schedulerService, "SchedulerService reference cannot be null.");
+        this.schedulerService = schedulerService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RecycleBinPage getPendingRemovals(final SortField sortField, final boolean ascending, final int startIndex, final int maxResults) {
+
+        final SortField sort = sortField == null ? SortField.PURGE_DATE : sortField;
+        final int pageSize = maxResults > 0 ? maxResults : DEFAULT_PAGE_SIZE;
+        final List<RecycleBinEntry> entries = getAllPendingRemovals();
+
+        final Comparator<RecycleBinEntry> comparator = sort.getComparator();
+        entries.sort(ascending ? comparator : comparator.reversed());
+
+        final int total = entries.size();
+        final int fromIndex = Math.min(Math.max(0, startIndex), total);
+        final int toIndex = Math.min(fromIndex + pageSize, total);
+        LOG.debug(String.format("Recycle bin page [%d, %d) of %d sorted by:%s ascending:%s", fromIndex, toIndex, total, sort, ascending));
+        return new RecycleBinPage(new ArrayList<>(entries.subList(fromIndex, toIndex)), sort, ascending, fromIndex, pageSize, total);
+    }
+
+    private List<RecycleBinEntry> getAllPendingRemovals() {
+
+        final ProjectManager projectManager = ComponentAccessor.getProjectManager();
+        final UserManager userManager = ComponentAccessor.getUserManager();
+        final ProjectTypeManager projectTypeManager = ComponentAccessor.getComponent(ProjectTypeManager.class);
+
+        final Map<String, Project> projects = new HashMap<>();
+        final Map<String, ApplicationUser> users = new HashMap<>();
+        final Map<ProjectTypeKey, ProjectType> projectTypes = new HashMap<>();
+        final List<RecycleBinEntry> entries = new ArrayList<>();
+
+        final JobRunnerKey jobRunnerKey = JobRunnerKey.of(ApertureScheduler.PROJECT_REMOVAL_JOB_RUNNER_KEY);
+        for (final JobDetails jobDetails : schedulerService.getJobsByJobRunnerKey(jobRunnerKey)) {
+            final Map<String, Serializable> environment = jobDetails.getParameters();
+            final String projectKey = (String) environment.getOrDefault("project-key", null);
+            if (!StringUtils.hasText(projectKey)) {
+                continue;
+            }
+            final Project project = projects.computeIfAbsent(projectKey, projectManager::getProjectByCurrentKey);
+            if (project == null) {
+                LOG.warn(String.format("Removal job:'%s' references unknown project:'%s'", jobDetails.getJobId(), projectKey));
+                continue;
+            }
+            final String username = (String) environment.getOrDefault("username", null);
+            final ApplicationUser initiatedBy = StringUtils.hasText(username) ? users.computeIfAbsent(username, userManager::getUserByName) : null;
+            final ProjectType projectType = projectTypes.computeIfAbsent(project.getProjectTypeKey(), key -> projectTypeManager.getAccessibleProjectType(key).getOrNull());
+            entries.add(new RecycleBinEntry(project, projectType, jobDetails, initiatedBy, username, getInitiatedOn(environment)));
+        }
+        return entries;
+    }
+
+    private static Date getInitiatedOn(final Map<String, Serializable> environment) {
+
+        final String initiatedOn = (String) environment.getOrDefault("initiatedOn", null);
+        if (StringUtils.hasText(initiatedOn)) {
+            try {
+                return new Date(Long.parseLong(initiatedOn));
+            } catch (NumberFormatException error) {
+                LOG.warn(String.format("Invalid initiatedOn value:'%s' for removal job", initiatedOn));
+            }
+        }
+        return null;
+    }
+}
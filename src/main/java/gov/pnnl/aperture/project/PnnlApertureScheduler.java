@@ -5,6 +5,7 @@ import com.atlassian.core.util.DateUtils;
 import com.atlassian.core.util.InvalidDurationException;
 import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.IssueManager;
 import com.atlassian.jira.project.Project;
 import com.atlassian.jira.project.ProjectManager;
 import com.atlassian.jira.security.JiraAuthenticationContext;
@@ -20,12 +21,19 @@ import com.atlassian.scheduler.SchedulerService;
 import com.atlassian.scheduler.SchedulerServiceException;
 import com.atlassian.scheduler.config.*;
 import com.atlassian.scheduler.status.JobDetails;
+import gov.pnnl.aperture.AclChange;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureCheckpointStore;
+import gov.pnnl.aperture.ApertureKeyAvailability;
 import gov.pnnl.aperture.ApertureScheduler;
 import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProjectKey;
+import gov.pnnl.aperture.ProvisioningBatch;
 import gov.pnnl.aperture.project.tasks.ApertureProjectCreatorTask;
 import gov.pnnl.aperture.project.tasks.ApertureProjectRemovalTask;
 import gov.pnnl.aperture.project.tasks.IdleProjectDetectorTask;
+import gov.pnnl.aperture.project.tasks.KeyIndexTask;
+import gov.pnnl.aperture.project.tasks.ProjectAclTask;
 import org.apache.log4j.Logger;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -46,20 +54,35 @@ import java.util.concurrent.TimeUnit;
 public class PnnlApertureScheduler extends AbstractAperturePlugin implements ApertureScheduler {
 
     private static final transient Logger LOG = Logger.getLogger(PnnlApertureScheduler.class);
+    /**
+     * Format for deterministic job identifiers; e.g. <code>gov.pnnl.aperture:APR-REMOVE-KEY</code>.
+     */
+    private static final String JOB_ID_FORMAT = "gov.pnnl.aperture:APR-%s-%s";
     private final ApertureSettings apertureSettings;
     private final Aperture aperture;
     private final SchedulerService schedulerService;
+    private final ApertureCheckpointStore checkpointStore;
+    private final ApertureKeyAvailability keyAvailability;
+    /**
+     * Job runner applying the access control changes, holding the changes queued per project.
+     */
+    private final ProjectAclTask aclTask;
 
     @Inject
-    public PnnlApertureScheduler(@ComponentImport final PluginSettingsFactory settingsFactory, @ComponentImport final SchedulerService schedulerService, final Aperture aperture, final ApertureSettings apertureSettings) {
+    public PnnlApertureScheduler(@ComponentImport final PluginSettingsFactory settingsFactory, @ComponentImport final SchedulerService schedulerService, final Aperture aperture, final ApertureSettings apertureSettings, final ApertureCheckpointStore checkpointStore, final ApertureKeyAvailability keyAvailability) {
 
         super(settingsFactory);
         Assert.notNull(aperture, "Aperture reference cannot be null.");
         Assert.notNull(apertureSettings, "ApertureSettings reference cannot be null.");
         Assert.notNull(schedulerService, "SchedulerService reference cannot be null.");
+        Assert.notNull(checkpointStore, "ApertureCheckpointStore reference cannot be null.");
+        Assert.notNull(keyAvailability, "ApertureKeyAvailability reference cannot be null.");
         this.aperture = aperture;
         this.apertureSettings = apertureSettings;
         this.schedulerService = schedulerService;
+        this.checkpointStore = checkpointStore;
+        this.keyAvailability = keyAvailability;
+        this.aclTask = new ProjectAclTask(aperture);
     }
 
     /**
@@ -68,16 +91,26 @@ public class PnnlApertureScheduler extends AbstractAperturePlugin implements Ape
     @Override
     public void onStart() {
 
-        JobRunner jobRunner = new ApertureProjectCreatorTask(aperture, apertureSettings);
+        JobRunner jobRunner = new ApertureProjectCreatorTask(aperture, apertureSettings, checkpointStore, this);
         schedulerService.registerJobRunner(JobRunnerKey.of(PROJECT_CREATOR_JOB_RUNNER_KEY), jobRunner);
 
-        jobRunner = new ApertureProjectRemovalTask();
+        jobRunner = new ApertureProjectRemovalTask(schedulerService);
         schedulerService.registerJobRunner(JobRunnerKey.of(PROJECT_REMOVAL_JOB_RUNNER_KEY), jobRunner);
 
         jobRunner = new IdleProjectDetectorTask(aperture, apertureSettings);
         schedulerService.registerJobRunner(JobRunnerKey.of(PROJECT_IDLE_DETECTION_JOB_RUNNER_KEY), jobRunner);
 
+        jobRunner = new KeyIndexTask(keyAvailability, apertureSettings);
+        schedulerService.registerJobRunner(JobRunnerKey.of(KEY_INDEX_JOB_RUNNER_KEY), jobRunner);
+
+        schedulerService.registerJobRunner(JobRunnerKey.of(PROJECT_ACL_JOB_RUNNER_KEY), aclTask);
+
+        migrateLegacyJobs(Operation.ADD);
+        migrateLegacyJobs(Operation.REMOVE);
+        resumeInterruptedProjects();
+        checkpointStore.prune();
         startIdleProjectDetection();
+        startKeyIndexing();
     }
 
     /**
@@ -89,6 +122,8 @@ public class PnnlApertureScheduler extends AbstractAperturePlugin implements Ape
         schedulerService.unregisterJobRunner(JobRunnerKey.of(PROJECT_CREATOR_JOB_RUNNER_KEY));
         schedulerService.unregisterJobRunner(JobRunnerKey.of(PROJECT_REMOVAL_JOB_RUNNER_KEY));
         schedulerService.unregisterJobRunner(JobRunnerKey.of(PROJECT_IDLE_DETECTION_JOB_RUNNER_KEY));
+        schedulerService.unregisterJobRunner(JobRunnerKey.of(KEY_INDEX_JOB_RUNNER_KEY));
+        schedulerService.unregisterJobRunner(JobRunnerKey.of(PROJECT_ACL_JOB_RUNNER_KEY));
     }
 
 
@@ -98,20 +133,73 @@ public class PnnlApertureScheduler extends AbstractAperturePlugin implements Ape
     @Override
     public void scheduleNewProject(@NotNull final Issue issue) {
 
+        final ProvisioningBatch batch = ProvisioningBatch.current();
+        if (batch != null) {
+            Assert.notNull(issue, "Cannot Schedule a new project creation task with a null JIRA issue.");
+            LOG.debug(String.format("Adding project request:'%s' to batch:'%s'", issue.getKey(), batch.getId()));
+            batch.addIssueKey(issue.getKey());
+            return;
+        }
+        scheduleProjectRetry(issue, new Date());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scheduleProjectBatch(@NotNull final ProvisioningBatch batch) {
+
+        Assert.notNull(batch, "Cannot Schedule a project batch creation task with a null batch.");
+        if (batch.getIssueKeys().isEmpty()) {
+            return;
+        }
+        // every request is in flight from now on so a restart before the batch finishes resumes them individually //
+        for (final String issueKey : batch.getIssueKeys()) {
+            checkpointStore.save(checkpointStore.load(issueKey));
+        }
+        final Map<String, Serializable> environment = new HashMap<>();
+        environment.put("batch-id", batch.getId());
+        environment.put("issue-keys", String.join(",", batch.getIssueKeys()));
+
+        JobConfig jobConfig = JobConfig.forJobRunnerKey(JobRunnerKey.of(PROJECT_CREATOR_JOB_RUNNER_KEY));
+        jobConfig = jobConfig.withParameters(environment);
+        jobConfig = jobConfig.withRunMode(RunMode.RUN_LOCALLY);
+        jobConfig = jobConfig.withSchedule(Schedule.runOnce(new Date()));
+        try {
+            LOG.info(String.format("Scheduling batch:'%s' of %d project request(s)", batch.getId(), batch.getIssueKeys().size()));
+            schedulerService.scheduleJob(JobId.of(String.format(JOB_ID_FORMAT, "BATCH", batch.getId())), jobConfig);
+        } catch (SchedulerServiceException e) {
+            LOG.error(String.format("Failed to schedule project batch:'%s'", batch.getId()), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scheduleProjectRetry(@NotNull final Issue issue, @NotNull final Date runTime) {
+
         Assert.notNull(issue, "Cannot Schedule a new project creation task with a null JIRA issue.");
+        Assert.notNull(runTime, "Cannot Schedule a new project creation task without a run time.");
         final JobRunnerKey jrk = JobRunnerKey.of(PROJECT_CREATOR_JOB_RUNNER_KEY);
         final Map<String, Serializable> environment = new HashMap<>();
+        final String projectKey = apertureSettings.getProjectKeyFor(issue);
         environment.put("issue-key", issue.getKey());
+        if (StringUtils.hasText(projectKey)) {
+            environment.put("project-key", projectKey);
+        }
 
         JobConfig jobConfig = JobConfig.forJobRunnerKey(jrk);
         jobConfig = jobConfig.withParameters(environment);
         jobConfig = jobConfig.withRunMode(RunMode.RUN_LOCALLY);
-        jobConfig = jobConfig.withSchedule(Schedule.runOnce(new Date()));
+        jobConfig = jobConfig.withSchedule(Schedule.runOnce(runTime));
         try {
-            LOG.debug(String.format("Scheduling new project creation: %s", new JSONObject(jobConfig.getParameters())));
-            schedulerService.scheduleJobWithGeneratedId(jobConfig);
+            LOG.debug(String.format("Scheduling new project creation at %s: %s", runTime, new JSONObject(jobConfig.getParameters())));
+            // keyed by issue so requests sharing a project key never replace each other's job //
+            schedulerService.scheduleJob(getCreatorJobIdFor(issue.getKey()), jobConfig);
         } catch (SchedulerServiceException e) {
-            LOG.error("Failed to schedule new project job with generated ID", e);
+            LOG.error(String.format("Failed to schedule new project job for issue:'%s'", issue.getKey()), e);
             throw new RuntimeException(e);
         }
     }
@@ -123,16 +211,21 @@ public class PnnlApertureScheduler extends AbstractAperturePlugin implements Ape
     public void scheduleProjectRemoval(@NotNull final Project project) {
 
         Assert.notNull(project, "Cannot Schedule project removal task with a null JIRA project.");
-        final JobRunnerKey jrk = JobRunnerKey.of(PROJECT_REMOVAL_JOB_RUNNER_KEY);
-        final Map<String, Serializable> environment = new HashMap<>();
+        scheduleProjectRemovals(Collections.singletonList(project));
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scheduleProjectRemovals(@NotNull final Collection<Project> projects) {
+
+        Assert.notEmpty(projects, "Cannot Schedule project removal tasks without any JIRA projects.");
+        final JobRunnerKey jrk = JobRunnerKey.of(PROJECT_REMOVAL_JOB_RUNNER_KEY);
         final JiraAuthenticationContext context = ComponentAccessor.getJiraAuthenticationContext();
         final ApplicationUser user = context.getLoggedInUser();
-
-        environment.put("project-key", project.getKey());
-        environment.put("username", user.getUsername());
-        environment.put("initiatedOn", Long.toString(System.currentTimeMillis()));
-        LOG.info(String.format("Scheduling project removal for key:'%s' by user:'%s'", project.getKey(), user));
+        final String initiatedOn = Long.toString(System.currentTimeMillis());
+        final String batchId = projects.size() > 1 ? UUID.randomUUID().toString() : null;
 
         final String deleteDuration = apertureSettings.getDeleteDuration();
         long delayInSeconds;
@@ -148,15 +241,27 @@ public class PnnlApertureScheduler extends AbstractAperturePlugin implements Ape
         final Calendar c = Calendar.getInstance();
         c.setTimeInMillis(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(delayInSeconds));
 
-        JobConfig jobConfig = JobConfig.forJobRunnerKey(jrk);
-        jobConfig = jobConfig.withParameters(environment);
-        jobConfig = jobConfig.withRunMode(RunMode.RUN_LOCALLY);
-        jobConfig = jobConfig.withSchedule(Schedule.runOnce(c.getTime()));
-        try {
-            schedulerService.scheduleJobWithGeneratedId(jobConfig);
-        } catch (SchedulerServiceException e) {
-            LOG.error("Failed to schedule new project job with generated ID", e);
-            throw new RuntimeException(e);
+        for (final Project project : projects) {
+            final Map<String, Serializable> environment = new HashMap<>();
+            environment.put("project-key", project.getKey());
+            environment.put("username", user.getUsername());
+            environment.put("initiatedOn", initiatedOn);
+            if (batchId != null) {
+                // jobs of the same batch are coalesced into a single removal when the first of them runs //
+                environment.put("batch-id", batchId);
+            }
+            LOG.info(String.format("Scheduling project removal for key:'%s' by user:'%s'", project.getKey(), user));
+
+            JobConfig jobConfig = JobConfig.forJobRunnerKey(jrk);
+            jobConfig = jobConfig.withParameters(environment);
+            jobConfig = jobConfig.withRunMode(RunMode.RUN_LOCALLY);
+            jobConfig = jobConfig.withSchedule(Schedule.runOnce(c.getTime()));
+            try {
+                schedulerService.scheduleJob(getJobIdFor(Operation.REMOVE, project.getKey()), jobConfig);
+            } catch (SchedulerServiceException e) {
+                LOG.error(String.format("Failed to schedule project removal job for key:'%s'", project.getKey()), e);
+                throw new RuntimeException(e);
+            }
         }
     }
 
@@ -177,6 +282,48 @@ public class PnnlApertureScheduler extends AbstractAperturePlugin implements Ape
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AclChange scheduleAclChange(@NotNull final String projectKey, @NotNull final Aperture.PermissionMode mode, @NotNull final Aperture.Role role, final Collection<String> userNames, final Collection<String> groupNames) {
+
+        Assert.hasText(projectKey, "Cannot schedule an access control change for an empty project key.");
+        Assert.notNull(mode, "Cannot schedule an access control change without a permission mode.");
+        Assert.notNull(role, "Cannot schedule an access control change without a project role.");
+        final ApplicationUser user = ComponentAccessor.getJiraAuthenticationContext().getLoggedInUser();
+        final String operationId = UUID.randomUUID().toString();
+        final AclChange change = new AclChange(operationId, projectKey, user == null ? null : user.getUsername(), mode, role,
+            userNames == null ? Collections.emptyList() : userNames, groupNames == null ? Collections.emptyList() : groupNames);
+        if (!aclTask.submit(change)) {
+            return change;
+        }
+        final Map<String, Serializable> environment = new HashMap<>();
+        environment.put("project-key", projectKey);
+
+        JobConfig jobConfig = JobConfig.forJobRunnerKey(JobRunnerKey.of(PROJECT_ACL_JOB_RUNNER_KEY));
+        jobConfig = jobConfig.withParameters(environment);
+        jobConfig = jobConfig.withRunMode(RunMode.RUN_LOCALLY);
+        jobConfig = jobConfig.withSchedule(Schedule.runOnce(new Date()));
+        try {
+            LOG.info(String.format("Scheduling access control change:'%s' for project:'%s'", operationId, projectKey));
+            schedulerService.scheduleJob(JobId.of(String.format(JOB_ID_FORMAT, "ACL", ProjectKey.normalize(projectKey))), jobConfig);
+        } catch (SchedulerServiceException e) {
+            LOG.error(String.format("Failed to schedule access control change:'%s' for project:'%s'", operationId, projectKey), e);
+            aclTask.abandon(projectKey, String.format("Failed to schedule the access control change: %s", e.getMessage()));
+        }
+        return change;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AclChange getAclChange(final String operationId) {
+
+        return aclTask.getChange(operationId);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -185,29 +332,137 @@ public class PnnlApertureScheduler extends AbstractAperturePlugin implements Ape
 
         Assert.hasText(projectKey, "Cannot query project job details with an empty project key.");
         Assert.notNull(operation, "Cannot query project job details with a null operation value.");
-        final JobRunnerKey jobKey;
-        switch (operation) {
-            case ADD:
-                jobKey = JobRunnerKey.of(PROJECT_CREATOR_JOB_RUNNER_KEY);
-                break;
-            case REMOVE:
-                jobKey = JobRunnerKey.of(PROJECT_REMOVAL_JOB_RUNNER_KEY);
-                break;
-            default:
-                jobKey = null;
-                break;
+        JobDetails jobDetails = null;
+        if (operation == Operation.ADD) {
+            // creator jobs are keyed by issue; the project key is only known from their parameters //
+            final String key = ProjectKey.normalize(projectKey);
+            for (final JobDetails details : schedulerService.getJobsByJobRunnerKey(JobRunnerKey.of(PROJECT_CREATOR_JOB_RUNNER_KEY))) {
+                final String pk = (String) details.getParameters().getOrDefault("project-key", null);
+                if (pk != null && key.equals(ProjectKey.normalize(pk))) {
+                    jobDetails = details;
+                    break;
+                }
+            }
+        } else {
+            jobDetails = schedulerService.getJobDetails(getJobIdFor(operation, projectKey));
+        }
+        if (jobDetails != null) {
+            LOG.debug(String.format("Found existing %s task for project:'%s'", operation, projectKey));
         }
+        return jobDetails;
+    }
 
-        final List<JobDetails> jobsByJobRunnerKey = schedulerService.getJobsByJobRunnerKey(jobKey);
-        for (final JobDetails jobDetails : jobsByJobRunnerKey) {
+    /**
+     * Gets the deterministic scheduler job identifier for a given operation on a project.
+     * <p>
+     * Jobs scheduled under these identifiers can be looked up directly via {@link SchedulerService#getJobDetails(JobId)}
+     * instead of scanning every job registered for a job runner; scheduling the same operation for a project again
+     * will replace the existing job rather than queue a duplicate.
+     *
+     * @param operation  the operation being performed on the project.
+     * @param projectKey unique project key the job is performed against.
+     * @return job identifier in the form <code>gov.pnnl.aperture:APR-REMOVE-KEY</code>.
+     * @see #getCreatorJobIdFor(String)
+     */
+    public static JobId getJobIdFor(final Operation operation, final String projectKey) {
+
+        return JobId.of(String.format(JOB_ID_FORMAT, operation.name(), ProjectKey.normalize(projectKey)));
+    }
+
+    /**
+     * Gets the deterministic scheduler job identifier for the project creation of an issue request.
+     * <p>
+     * Creator jobs are keyed by issue rather than by project key; two pending requests for the same project key each
+     * keep their own job, while scheduling a retry of a request replaces that request's pending job.
+     *
+     * @param issueKey key of the issue requesting the project.
+     * @return job identifier in the form <code>gov.pnnl.aperture:APR-ADD-ISSUE-123</code>.
+     */
+    public static JobId getCreatorJobIdFor(final String issueKey) {
+
+        return JobId.of(String.format(JOB_ID_FORMAT, Operation.ADD.name(), ProjectKey.normalize(issueKey)));
+    }
+
+    /**
+     * Re-schedules jobs created before deterministic job identifiers were in use.
+     * <p>
+     * Older versions of Aperture scheduled jobs with generated identifiers, or creator jobs keyed by project; those jobs
+     * are re-scheduled once at start-up under {@link #getJobIdFor(Operation, String)}, or
+     * {@link #getCreatorJobIdFor(String)} for creator jobs, with the same parameters and schedule.
+     *
+     * @param operation the operation whose job runner should be checked for legacy jobs.
+     */
+    private void migrateLegacyJobs(final Operation operation) {
+
+        final JobRunnerKey jobRunnerKey = getJobRunnerKeyFor(operation);
+        for (final JobDetails jobDetails : schedulerService.getJobsByJobRunnerKey(jobRunnerKey)) {
             final Map<String, Serializable> environment = jobDetails.getParameters();
-            final String pk = String.valueOf(environment.getOrDefault("project-key", null));
-            if (projectKey.equals(pk)) {
-                LOG.debug(String.format("Found existing removal task for project:'%s'", projectKey));
-                return jobDetails;
+            // creator jobs are identified by their issue, removal jobs by their project //
+            final String parameter = operation == Operation.ADD ? "issue-key" : "project-key";
+            final String pk = (String) environment.getOrDefault(parameter, null);
+            if (!StringUtils.hasText(pk)) {
+                continue;
+            }
+            final JobId jobId = operation == Operation.ADD ? getCreatorJobIdFor(pk) : getJobIdFor(operation, pk);
+            if (jobId.equals(jobDetails.getJobId())) {
+                continue;
+            }
+            JobConfig jobConfig = JobConfig.forJobRunnerKey(jobRunnerKey);
+            jobConfig = jobConfig.withParameters(environment);
+            jobConfig = jobConfig.withRunMode(jobDetails.getRunMode());
+            jobConfig = jobConfig.withSchedule(jobDetails.getSchedule());
+            try {
+                LOG.info(String.format("Migrating job:'%s' to job-id:'%s'", jobDetails.getJobId(), jobId));
+                schedulerService.scheduleJob(jobId, jobConfig);
+                schedulerService.unscheduleJob(jobDetails.getJobId());
+            } catch (SchedulerServiceException e) {
+                LOG.error(String.format("Failed to migrate job:'%s' for project:'%s'", jobDetails.getJobId(), pk), e);
+            }
+        }
+    }
+
+    /**
+     * Re-schedules the project creation of requests whose provisioning run was still in flight when JIRA stopped.
+     * <p>
+     * Project creator jobs run locally and are not persisted by the scheduler, so a run interrupted by a restart would
+     * otherwise be lost; the re-scheduled job resumes from the last step recorded in the request's checkpoint. A pending
+     * retry of failed services keeps its original time.
+     */
+    private void resumeInterruptedProjects() {
+
+        final IssueManager issueManager = ComponentAccessor.getIssueManager();
+        for (final String issueKey : checkpointStore.getInFlightIssueKeys()) {
+            final Issue issue = issueManager.getIssueByKeyIgnoreCase(issueKey);
+            if (issue == null) {
+                LOG.warn(String.format("Discarding provisioning checkpoint of missing issue:'%s'", issueKey));
+                checkpointStore.remove(issueKey);
+                continue;
+            }
+            try {
+                final Date retryAt = checkpointStore.load(issueKey).getRetryAt();
+                if (retryAt != null) {
+                    LOG.info(String.format("Re-scheduling retry of failed services for issue:'%s' at %s", issueKey, retryAt));
+                    scheduleProjectRetry(issue, retryAt.after(new Date()) ? retryAt : new Date());
+                    continue;
+                }
+                LOG.info(String.format("Resuming interrupted project creation for issue:'%s'", issueKey));
+                scheduleNewProject(issue);
+            } catch (RuntimeException e) {
+                LOG.error(String.format("Failed to resume project creation for issue:'%s'", issueKey), e);
             }
         }
-        return null;
+    }
+
+    private static JobRunnerKey getJobRunnerKeyFor(final Operation operation) {
+
+        switch (operation) {
+            case ADD:
+                return JobRunnerKey.of(PROJECT_CREATOR_JOB_RUNNER_KEY);
+            case REMOVE:
+                return JobRunnerKey.of(PROJECT_REMOVAL_JOB_RUNNER_KEY);
+            default:
+                throw new IllegalArgumentException(String.format("Unsupported scheduler operation:%s", operation));
+        }
     }
 
     /**
@@ -256,4 +511,21 @@ public class PnnlApertureScheduler extends AbstractAperturePlugin implements Ape
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Schedules the key index to be built right away and refreshed periodically after that.
+     * <p>
+     * The job has a fixed identifier so that starting the plug-in again replaces the schedule instead of adding one.
+     */
+    private void startKeyIndexing() {
+
+        JobConfig jobConfig = JobConfig.forJobRunnerKey(JobRunnerKey.of(KEY_INDEX_JOB_RUNNER_KEY));
+        jobConfig = jobConfig.withRunMode(RunMode.RUN_LOCALLY);
+        jobConfig = jobConfig.withSchedule(Schedule.forInterval(PnnlApertureKeyAvailability.INDEX_INTERVAL, new Date()));
+        try {
+            schedulerService.scheduleJob(JobId.of("gov.pnnl.aperture:KEY-INDEX"), jobConfig);
+        } catch (SchedulerServiceException e) {
+            LOG.error("Failed to schedule the project key index job", e);
+        }
+    }
 }
@@ -0,0 +1,295 @@
+package gov.pnnl.aperture.project;
+
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.event.ClearCacheEvent;
+import com.atlassian.jira.event.issue.field.CustomFieldCreatedEvent;
+import com.atlassian.jira.event.issue.field.CustomFieldDeletedEvent;
+import com.atlassian.jira.event.issue.field.CustomFieldUpdatedEvent;
+import com.atlassian.jira.event.scheme.AbstractSchemeEvent;
+import com.atlassian.jira.event.workflow.WorkflowCreatedEvent;
+import com.atlassian.jira.event.workflow.WorkflowDeletedEvent;
+import com.atlassian.jira.event.workflow.WorkflowUpdatedEvent;
+import com.atlassian.jira.issue.fields.CustomField;
+import com.atlassian.jira.issue.fields.config.FieldConfigScheme;
+import com.atlassian.jira.issue.fields.layout.field.FieldLayoutScheme;
+import com.atlassian.jira.issue.fields.screen.issuetype.IssueTypeScreenScheme;
+import com.atlassian.jira.scheme.Scheme;
+import com.atlassian.jira.workflow.AssignableWorkflowScheme;
+import com.atlassian.jira.workflow.JiraWorkflow;
+import com.atlassian.jira.workflow.WorkflowSchemeManager;
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.atlassian.sal.api.lifecycle.LifecycleAware;
+import gov.pnnl.aperture.ApertureSchemeCatalogue;
+import org.apache.log4j.Logger;
+import org.springframework.util.Assert;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default implementation of the scheme catalogue.
+ * <p>
+ * Every list is read once on a single background thread when the plug-in starts; lists are re-read on that thread when
+ * JIRA publishes a scheme, workflow or custom field event, when JIRA caches are cleared, or when a list is found older
+ * than <code>aperture.catalogue.max-age</code> seconds (default 600). Changes JIRA publishes no event for, e.g. to
+ * screen schemes, are therefore picked up within that age. A list that has never been read is read on the calling
+ * thread.
+ *
+ * @author Developer Central @ PNNL
+ */
+@Named("Aperture Scheme Catalogue Component")
+@ExportAsService({ApertureSchemeCatalogue.class, LifecycleAware.class})
+public class PnnlApertureSchemeCatalogue implements ApertureSchemeCatalogue, LifecycleAware {
+
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(PnnlApertureSchemeCatalogue.class);
+    /**
+     * Time in milliseconds after which a list is re-read.
+     */
+    private static final long MAX_AGE = TimeUnit.SECONDS.toMillis(Long.getLong("aperture.catalogue.max-age", 600L));
+    /**
+     * Reference to the JIRA event publisher the component listens for scheme events on.
+     */
+    private final EventPublisher eventPublisher;
+    /**
+     * Lists read so far keyed by kind.
+     */
+    private final ConcurrentMap<Kind, Listing> listings = new ConcurrentHashMap<>();
+    /**
+     * Kinds waiting to be re-read.
+     */
+    private final Set<Kind> pending = ConcurrentHashMap.newKeySet();
+    /**
+     * Single worker thread the lists are re-read on.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Inject
+    public PnnlApertureSchemeCatalogue(@ComponentImport final EventPublisher eventPublisher) {
+
+        Assert.notNull(eventPublisher, "EventPublisher reference cannot be null.");
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStart() {
+
+        eventPublisher.register(this);
+        for (final Kind kind : Kind.values()) {
+            refresh(kind);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStop() {
+
+        eventPublisher.unregister(this);
+        executor.shutdownNow();
+        pending.clear();
+        listings.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> getEntries(final Kind kind) {
+
+        Assert.notNull(kind, "Cannot get the entries of a null kind.");
+        final Listing listing = listings.get(kind);
+        if (listing == null) {
+            return load(kind);
+        }
+        if (System.currentTimeMillis() - listing.loadedAt > MAX_AGE) {
+            refresh(kind);
+        }
+        return listing.entries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void refresh(final Kind kind) {
+
+        if (kind == null || !pending.add(kind)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                pending.remove(kind);
+                try {
+                    load(kind);
+                } catch (RuntimeException ex) {
+                    LOG.warn(String.format("Failed to read the %s list; keeping the previous list", kind), ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pending.remove(kind);
+        }
+    }
+
+    @EventListener
+    public void onSchemeEvent(final AbstractSchemeEvent event) {
+
+        refresh(Kind.PERMISSION_SCHEME);
+        refresh(Kind.NOTIFICATION_SCHEME);
+        refresh(Kind.WORKFLOW_SCHEME);
+        refresh(Kind.ACTIVE_WORKFLOW);
+    }
+
+    @EventListener
+    public void onWorkflowCreated(final WorkflowCreatedEvent event) {
+
+        refresh(Kind.WORKFLOW);
+    }
+
+    @EventListener
+    public void onWorkflowUpdated(final WorkflowUpdatedEvent event) {
+
+        refresh(Kind.WORKFLOW);
+        refresh(Kind.ACTIVE_WORKFLOW);
+    }
+
+    @EventListener
+    public void onWorkflowDeleted(final WorkflowDeletedEvent event) {
+
+        refresh(Kind.WORKFLOW);
+    }
+
+    @EventListener
+    public void onCustomFieldCreated(final CustomFieldCreatedEvent event) {
+
+        refresh(Kind.CUSTOM_FIELD);
+    }
+
+    @EventListener
+    public void onCustomFieldUpdated(final CustomFieldUpdatedEvent event) {
+
+        refresh(Kind.CUSTOM_FIELD);
+    }
+
+    @EventListener
+    public void onCustomFieldDeleted(final CustomFieldDeletedEvent event) {
+
+        refresh(Kind.CUSTOM_FIELD);
+    }
+
+    @EventListener
+    public void onClearCache(final ClearCacheEvent event) {
+
+        for (final Kind kind : Kind.values()) {
+            refresh(kind);
+        }
+    }
+
+    /**
+     * Reads a list from its JIRA manager and keeps it.
+     * <p>
+     *
+     * @param kind the list to read.
+     * @return the entries read.
+     */
+    private List<Entry> load(final Kind kind) {
+
+        final long started = System.currentTimeMillis();
+        final List<Entry> entries = Collections.unmodifiableList(read(kind));
+        listings.put(kind, new Listing(entries, started));
+        LOG.debug(String.format("Read %d %s entries in %dms", entries.size(), kind, System.currentTimeMillis() - started));
+        return entries;
+    }
+
+    private static List<Entry> read(final Kind kind) {
+
+        final List<Entry> entries = new ArrayList<>();
+        switch (kind) {
+            case PERMISSION_SCHEME:
+                for (final Scheme scheme : ComponentAccessor.getPermissionSchemeManager().getSchemeObjects()) {
+                    entries.add(new Entry(scheme.getId(), scheme.getName(), null));
+                }
+                break;
+            case NOTIFICATION_SCHEME:
+                for (final Scheme scheme : ComponentAccessor.getNotificationSchemeManager().getSchemeObjects()) {
+                    entries.add(new Entry(scheme.getId(), scheme.getName(), null));
+                }
+                break;
+            case SCREEN_SCHEME:
+                for (final IssueTypeScreenScheme scheme : ComponentAccessor.getIssueTypeScreenSchemeManager().getIssueTypeScreenSchemes()) {
+                    entries.add(new Entry(scheme.getId(), scheme.getName(), null));
+                }
+                break;
+            case WORKFLOW:
+                for (final JiraWorkflow workflow : ComponentAccessor.getWorkflowManager().getWorkflows()) {
+                    entries.add(new Entry(null, workflow.getName(), workflow.getDisplayName()));
+                }
+                break;
+            case ACTIVE_WORKFLOW:
+                for (final JiraWorkflow workflow : ComponentAccessor.getWorkflowManager().getActiveWorkflows()) {
+                    entries.add(new Entry(null, workflow.getName(), workflow.getDisplayName()));
+                }
+                break;
+            case WORKFLOW_SCHEME:
+                final WorkflowSchemeManager workflowSchemeManager = ComponentAccessor.getComponent(WorkflowSchemeManager.class);
+                final AssignableWorkflowScheme defaultScheme = workflowSchemeManager.getDefaultWorkflowScheme();
+                entries.add(new Entry(defaultScheme.getId(), defaultScheme.getName(), null));
+                for (final AssignableWorkflowScheme scheme : workflowSchemeManager.getAssignableSchemes()) {
+                    entries.add(new Entry(scheme.getId(), scheme.getName(), null));
+                }
+                break;
+            case ISSUE_TYPE_SCHEME:
+                for (final FieldConfigScheme scheme : ComponentAccessor.getIssueTypeSchemeManager().getAllSchemes()) {
+                    entries.add(new Entry(scheme.getId(), scheme.getName(), null));
+                }
+                break;
+            case FIELD_LAYOUT_SCHEME:
+                for (final FieldLayoutScheme scheme : ComponentAccessor.getFieldLayoutManager().getFieldLayoutSchemes()) {
+                    entries.add(new Entry(scheme.getId(), scheme.getName(), null));
+                }
+                break;
+            case CUSTOM_FIELD:
+                for (final CustomField field : ComponentAccessor.getCustomFieldManager().getCustomFieldObjects()) {
+                    entries.add(new Entry(field.getIdAsLong(), field.getName(), null));
+                }
+                break;
+            default:
+                break;
+        }
+        return entries;
+    }
+
+    /**
+     * A list as it was last read.
+     */
+    private static final class Listing {
+
+        private final List<Entry> entries;
+        private final long loadedAt;
+
+        Listing(final List<Entry> entries, final long loadedAt) {
+
+            this.entries = entries;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -16,7 +16,6 @@ import com.atlassian.jira.issue.resolution.Resolution;
 import com.atlassian.jira.project.type.ProjectType;
 import com.atlassian.jira.project.type.ProjectTypeKey;
 import com.atlassian.jira.project.type.ProjectTypeManager;
-import com.atlassian.jira.security.groups.GroupManager;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.util.UserManager;
 import com.atlassian.jira.workflow.JiraWorkflow;
@@ -32,6 +31,9 @@ import com.opensymphony.workflow.loader.ActionDescriptor;
 import gov.pnnl.aperture.Aperture;
 import gov.pnnl.aperture.ApertureProjectSettings;
 import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.MembershipResolver;
+import gov.pnnl.aperture.ProjectKey;
+import gov.pnnl.aperture.ProvisioningCheckpoint;
 import gov.pnnl.aperture.WorkflowConfiguration;
 import org.apache.log4j.Logger;
 
@@ -82,6 +84,10 @@ public class PnnlApertureSettings extends AbstractAperturePlugin implements Aper
      * Constant for the setting of interval at which idle project detection runs at via Aperture.
      */
     private static final String SETTING_PROJECT_IDLE_INTERVAL = "project-idle-interval";
+    /**
+     * Constant for the setting of whether successful project services are kept when others fail via Aperture.
+     */
+    private static final String SETTING_KEEP_SUCCESSFUL_SERVICES = "keep-successful-services";
     /**
      * Constant for the work flow action when Aperture finishes a new project creation work flow.
      */
@@ -200,9 +206,22 @@ public class PnnlApertureSettings extends AbstractAperturePlugin implements Aper
     public String getProjectKeyFor(final Issue issue) {
 
         Assertions.notNull("issue", issue);
+        final ProvisioningCheckpoint checkpoint = ProvisioningCheckpoint.current(issue.getKey());
+        if (checkpoint != null && checkpoint.getProjectKey() != null) {
+            return checkpoint.getProjectKey().toString();
+        }
+        final String value = getRawProjectKey(issue);
+        if (checkpoint != null && ProjectKey.isValid(value)) {
+            checkpoint.setProjectKey(ProjectKey.of(value));
+        }
+        return ProjectKey.normalize(value);
+    }
+
+    private String getRawProjectKey(final Issue issue) {
+
         final com.atlassian.jira.issue.fields.CustomField keyCustomField = getCustomField(CustomField.PROJECT_KEY);
         final Object customFieldValue = issue.getCustomFieldValue(keyCustomField);
-        return customFieldValue == null ? null : customFieldValue.toString().toUpperCase();
+        return customFieldValue == null ? null : customFieldValue.toString();
     }
 
     /**
@@ -238,20 +257,11 @@ public class PnnlApertureSettings extends AbstractAperturePlugin implements Aper
     @Override
     public Collection<ApplicationUser> getProjectMembersFor(final Issue issue) {
 
-        final UserManager userManager = ComponentAccessor.getUserManager();
-        final GroupManager groupManager = ComponentAccessor.getGroupManager();
-        final Set<ApplicationUser> projectMembers = new HashSet<>();
-        for (final Group group : getGroupsFor(issue)) {
-            for (final ApplicationUser user : groupManager.getUsersInGroup(group)) {
-                projectMembers.add(userManager.getUserByName(user.getName()));
-            }
-        }
-        projectMembers.addAll(getUsersFor(issue));
-
-        final ApplicationUser reporter = issue.getReporter();
-        final ApplicationUser projectOwner = userManager.getUserByName(reporter.getName());
-        projectMembers.add(projectOwner);
-        return projectMembers;
+        Assertions.notNull("issue", issue);
+        final List<ApplicationUser> users = new ArrayList<>();
+        users.add(issue.getReporter());
+        users.addAll(getUsersFor(issue));
+        return MembershipResolver.current().resolve(users, getGroupsFor(issue));
     }
 
     /**
@@ -430,6 +440,28 @@ public class PnnlApertureSettings extends AbstractAperturePlugin implements Aper
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isKeepSuccessfulServices() {
+
+        return Boolean.parseBoolean(getPluginSetting(SETTING_KEEP_SUCCESSFUL_SERVICES));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setKeepSuccessfulServices(final boolean keepSuccessfulServices) {
+
+        if (keepSuccessfulServices) {
+            putPluginSetting(SETTING_KEEP_SUCCESSFUL_SERVICES, Boolean.TRUE.toString());
+        } else {
+            removePluginSetting(SETTING_KEEP_SUCCESSFUL_SERVICES);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,178 @@
+package gov.pnnl.aperture.project;
+
+import com.atlassian.crowd.event.group.GroupMembershipCreatedEvent;
+import com.atlassian.crowd.event.group.GroupMembershipDeletedEvent;
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.event.ProjectDeletedEvent;
+import com.atlassian.jira.event.role.ProjectRoleDeletedEvent;
+import com.atlassian.jira.event.role.ProjectRoleUpdatedEvent;
+import com.atlassian.jira.project.Project;
+import com.atlassian.jira.security.roles.ProjectRole;
+import com.atlassian.jira.security.roles.ProjectRoleActors;
+import com.atlassian.jira.security.roles.ProjectRoleManager;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.atlassian.sal.api.lifecycle.LifecycleAware;
+import org.apache.log4j.Logger;
+import org.springframework.util.Assert;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of project role membership snapshots keyed by project.
+ * <p>
+ * Each snapshot is the set of user keys in every project role for a single project, resolved once with
+ * {@link ProjectRoleManager#getProjectRoleActors(ProjectRole, Project)} and kept until a project role, project or group
+ * membership change event is published that could make it stale.
+ *
+ * @author Developer Central @ PNNL
+ */
+@Named("Aperture Project Membership Cache")
+@ExportAsService({LifecycleAware.class})
+public class ProjectMembershipCache implements LifecycleAware {
+
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(ProjectMembershipCache.class);
+    /**
+     * Reference to the JIRA event publisher the cache listens for invalidation events on.
+     */
+    private final EventPublisher eventPublisher;
+    /**
+     * Snapshots of user keys by project role name keyed by project id.
+     */
+    private final ConcurrentMap<Long, Map<String, Set<String>>> snapshots = new ConcurrentHashMap<>();
+
+    @Inject
+    public ProjectMembershipCache(@ComponentImport final EventPublisher eventPublisher) {
+
+        Assert.notNull(eventPublisher, "EventPublisher reference cannot be null.");
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStart() {
+
+        eventPublisher.register(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStop() {
+
+        eventPublisher.unregister(this);
+        snapshots.clear();
+    }
+
+    /**
+     * Gets the membership snapshot for a project.
+     * <p>
+     *
+     * @param project the project to get the role membership for.
+     * @return unmodifiable mapping of project role names to the keys of the users in that role.
+     */
+    public Map<String, Set<String>> getSnapshot(final Project project) {
+
+        Assert.notNull(project, "Cannot get a membership snapshot for a null project.");
+        return snapshots.computeIfAbsent(project.getId(), id -> createSnapshot(project));
+    }
+
+    /**
+     * Gets the keys of every user in any project role for a project.
+     * <p>
+     *
+     * @param project the project to get the role membership for.
+     * @return distinct user keys across all project roles.
+     */
+    public Set<String> getMemberKeys(final Project project) {
+
+        final Set<String> userKeys = new HashSet<>();
+        for (final Set<String> roleMembers : getSnapshot(project).values()) {
+            userKeys.addAll(roleMembers);
+        }
+        return userKeys;
+    }
+
+    /**
+     * Discards the membership snapshot for a single project.
+     * <p>
+     *
+     * @param projectId the id of the project whose snapshot is stale.
+     */
+    public void invalidate(final Long projectId) {
+
+        if (projectId != null && snapshots.remove(projectId) != null) {
+            LOG.debug(String.format("Invalidated membership snapshot for project-id:%d", projectId));
+        }
+    }
+
+    /**
+     * Discards every membership snapshot.
+     */
+    public void invalidateAll() {
+
+        snapshots.clear();
+    }
+
+    @EventListener
+    public void onProjectRoleUpdated(final ProjectRoleUpdatedEvent event) {
+
+        final Project project = event.getProject();
+        if (project != null) {
+            invalidate(project.getId());
+        }
+    }
+
+    @EventListener
+    public void onProjectRoleDeleted(final ProjectRoleDeletedEvent event) {
+
+        invalidateAll();
+    }
+
+    @EventListener
+    public void onProjectDeleted(final ProjectDeletedEvent event) {
+
+        invalidate(event.getId());
+    }
+
+    @EventListener
+    public void onGroupMembershipCreated(final GroupMembershipCreatedEvent event) {
+
+        invalidateAll();
+    }
+
+    @EventListener
+    public void onGroupMembershipDeleted(final GroupMembershipDeletedEvent event) {
+
+        invalidateAll();
+    }
+
+    private static Map<String, Set<String>> createSnapshot(final Project project) {
+
+        final ProjectRoleManager manager = ComponentAccessor.getComponentOfType(ProjectRoleManager.class);
+        final Map<String, Set<String>> snapshot = new HashMap<>();
+        for (final ProjectRole projectRole : manager.getProjectRoles()) {
+            final ProjectRoleActors actors = manager.getProjectRoleActors(projectRole, project);
+            final Set<String> userKeys = new HashSet<>();
+            for (final ApplicationUser user : actors.getApplicationUsers()) {
+                userKeys.add(user.getKey());
+            }
+            snapshot.put(projectRole.getName(), Collections.unmodifiableSet(userKeys));
+        }
+        LOG.debug(String.format("Created membership snapshot for project:'%s' across %d role(s)", project.getKey(), snapshot.size()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+}
@@ -17,10 +17,11 @@ import com.atlassian.jira.util.I18nHelper;
 import com.atlassian.jira.util.SimpleErrorCollection;
 import com.atlassian.plugin.util.Assertions;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureLogger;
 import gov.pnnl.aperture.ApertureSettings;
 import gov.pnnl.aperture.JiraUtils;
 import gov.pnnl.aperture.ProjectServiceHandler;
-import org.apache.log4j.Logger;
+import gov.pnnl.aperture.ProvisioningCheckpoint;
 
 import java.net.MalformedURLException;
 import java.net.URI;
@@ -37,7 +38,7 @@ public abstract class AbstractProjectServiceHandler implements ProjectServiceHan
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(AbstractProjectServiceHandler.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(AbstractProjectServiceHandler.class);
     /**
      * Reference to the current aperture service in the current application context.
      */
@@ -94,6 +95,21 @@ public abstract class AbstractProjectServiceHandler implements ProjectServiceHan
         return apertureSettings;
     }
 
+    /**
+     * Records the identifier of a remote resource this handler created on the provisioning checkpoint of the current
+     * run, if any.
+     * <p>
+     *
+     * @param name  name of the identifier; e.g. <code>projectId</code>.
+     * @param value value of the identifier; ignored if <code>null</code> or empty.
+     */
+    protected void recordRemoteId(final String name, final Object value) {
+
+        if (value != null && StringUtils.hasText(String.valueOf(value))) {
+            ProvisioningCheckpoint.putRemoteId(getServiceType(), name, String.valueOf(value));
+        }
+    }
+
     protected void addComponentTo(final MutableIssue issue) {
 
         final I18nHelper helper = ComponentAccessor.getI18nHelperFactory().getInstance(Locale.getDefault());
@@ -157,7 +173,7 @@ public abstract class AbstractProjectServiceHandler implements ProjectServiceHan
                     builder.url(url);
                     final RemoteIssueLinkService.UpdateValidationResult updated = linkService.validateUpdate(apertureUser, builder.build());
                     if (updated.isValid()) {
-                        LOG.info(String.format("Remote issue link is valid: updating link:'%s'", updated.getRemoteIssueLink()));
+                        LOG.info("Remote issue link is valid: updating link:'%s'", updated.getRemoteIssueLink());
                         linkService.update(apertureUser, updated);
                         return errorCollection;
                     }
@@ -177,7 +193,7 @@ public abstract class AbstractProjectServiceHandler implements ProjectServiceHan
                     try {
                         builder.iconUrl(String.valueOf(iconUri.toURL().toExternalForm()));
                     } catch (MalformedURLException e) {
-                        LOG.debug(String.format("Malformed URL in iconURI for service (%s)", getServiceType()),e);
+                        LOG.debug(e, "Malformed URL in iconURI for service (%s)", getServiceType());
                     }
                 }
             }
@@ -187,11 +203,11 @@ public abstract class AbstractProjectServiceHandler implements ProjectServiceHan
         }
         final RemoteIssueLinkService.CreateValidationResult vc = linkService.validateCreate(apertureUser, builder.build());
         if (vc.isValid()) {
-            LOG.info(String.format("Remote issue link is valid: creating link:'%s'", vc.getRemoteIssueLink()));
+            LOG.info("Remote issue link is valid: creating link:'%s'", vc.getRemoteIssueLink());
             linkService.create(apertureUser, vc);
             return errorCollection;
         }
-        LOG.warn(String.format("Remote issue link is not valid for issue:'%s'", issue.getKey()));
+        LOG.warn("Remote issue link is not valid for issue:'%s'", issue.getKey());
         JiraUtils.addErrorCollectionAsComments(issue, String.format("addServiceLinkTo(%s):invalid", linkText), vc.getErrorCollection());
         errorCollection.addErrorCollection(vc.getErrorCollection());
         return errorCollection;
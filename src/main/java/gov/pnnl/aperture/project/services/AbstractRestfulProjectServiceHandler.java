@@ -5,15 +5,16 @@ import com.atlassian.applinks.api.ApplicationLinkRequestFactory;
 import com.atlassian.applinks.api.ApplicationLinkResponseHandler;
 import com.atlassian.applinks.api.CredentialsRequiredException;
 import com.atlassian.crowd.embedded.api.Group;
-import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.util.ErrorCollection;
 import com.atlassian.jira.util.SimpleErrorCollection;
 import com.atlassian.sal.api.net.Response;
 import com.atlassian.sal.api.net.ResponseException;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureLogger;
 import gov.pnnl.aperture.ApertureSettings;
-import org.apache.log4j.Logger;
+import gov.pnnl.aperture.ProvisioningBatch;
+import gov.pnnl.aperture.ProvisioningRequest;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.node.ArrayNode;
@@ -30,6 +31,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * Abstract project service handler that uses RESTful calls to perform it's work.
@@ -42,7 +44,11 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(AbstractRestfulProjectServiceHandler.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(AbstractRestfulProjectServiceHandler.class);
+    /**
+     * Number of project keys read per page when listing the projects of a service.
+     */
+    protected static final int KEY_PAGE_SIZE = 100;
 
     /**
      * Default constructor for this class.
@@ -67,8 +73,8 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
         final ApertureSettings settings = getApertureSettings();
         if (serviceType != null) {
             final ApplicationLink link = settings.getApplicationLink(serviceType);
-            LOG.debug(String.format("isServiceAvailable: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType));
-            final ApplicationLinkRequestFactory factory = link.createAuthenticatedRequestFactory();
+            LOG.debug("isServiceAvailable: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType);
+            final ApplicationLinkRequestFactory factory = getRequestFactory(link, serviceType);
             try {
                 return isServiceAvailable(projectKey, factory);
             } catch (ResponseException | CredentialsRequiredException ex) {
@@ -79,6 +85,26 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void collectProjectKeys(final Consumer<String> projectKeys) {
+
+        final ApertureSettings.ProjectService serviceType = getServiceType();
+        final ApplicationLink link = serviceType == null ? null : getApertureSettings().getApplicationLink(serviceType);
+        if (link != null) {
+            LOG.debug("collectProjectKeys: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType);
+            final ApplicationLinkRequestFactory factory = getRequestFactory(link, serviceType);
+            try {
+                collectProjectKeys(projectKeys, factory);
+            } catch (ResponseException | CredentialsRequiredException ex) {
+                LOG.fatal("Failed to list project keys of service due to error", ex);
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -90,8 +116,8 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
         final ErrorCollection errors = new SimpleErrorCollection();
         if (serviceType != null) {
             final ApplicationLink link = settings.getApplicationLink(serviceType);
-            LOG.debug(String.format("modifyUsers: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType));
-            final ApplicationLinkRequestFactory factory = link.createAuthenticatedRequestFactory();
+            LOG.debug("modifyUsers: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType);
+            final ApplicationLinkRequestFactory factory = getRequestFactory(link, serviceType);
             try {
                 modifyUsers(projectKey, mode, role, userList, factory, errors);
             } catch (ResponseException | IOException | CredentialsRequiredException ex) {
@@ -113,8 +139,8 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
         final ErrorCollection errors = new SimpleErrorCollection();
         if (serviceType != null) {
             final ApplicationLink link = settings.getApplicationLink(serviceType);
-            LOG.debug(String.format("modifyGroups: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType));
-            final ApplicationLinkRequestFactory factory = link.createAuthenticatedRequestFactory();
+            LOG.debug("modifyGroups: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType);
+            final ApplicationLinkRequestFactory factory = getRequestFactory(link, serviceType);
             try {
                 modifyGroups(projectKey, mode, role, groupList, factory, errors);
             } catch (ResponseException | IOException | CredentialsRequiredException ex) {
@@ -130,17 +156,24 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
      * {@inheritDoc}
      */
     @Override
-    public ErrorCollection createService(final MutableIssue issue, final Map<String, Serializable> environment) {
+    public ErrorCollection createService(final ProvisioningRequest projectRequest, final Map<String, Serializable> environment) {
 
         final ApertureSettings.ProjectService serviceType = getServiceType();
         final ApertureSettings settings = getApertureSettings();
         final ErrorCollection errors = new SimpleErrorCollection();
         if (serviceType != null) {
             final ApplicationLink link = settings.getApplicationLink(serviceType);
-            LOG.debug(String.format("createService: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType));
-            final ApplicationLinkRequestFactory factory = link.createAuthenticatedRequestFactory();
+            LOG.debug("createService: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType);
+            final ApplicationLinkRequestFactory factory = getRequestFactory(link, serviceType);
+            final String projectKey = projectRequest.getProjectKey().toString();
             try {
-                createService(issue, factory, environment, errors);
+                // a retried request may have created the remote resource already; converge it rather than POST again //
+                if (isServiceAvailable(projectKey, factory)) {
+                    LOG.info("createService: %s resource for project:%s already exists; reconciling it", serviceType, projectKey);
+                    reconcileService(projectRequest, factory, environment, errors);
+                } else {
+                    createService(projectRequest, factory, environment, errors);
+                }
             } catch (ResponseException | IOException | CredentialsRequiredException ex) {
                 LOG.fatal("Failed to create service due to error", ex);
                 throw new RuntimeException(ex);
@@ -160,8 +193,8 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
         final ErrorCollection errors = new SimpleErrorCollection();
         if (serviceType != null) {
             final ApplicationLink link = settings.getApplicationLink(serviceType);
-            final ApplicationLinkRequestFactory factory = link.createAuthenticatedRequestFactory();
-            LOG.debug(String.format("destroyService: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType));
+            final ApplicationLinkRequestFactory factory = getRequestFactory(link, serviceType);
+            LOG.debug("destroyService: communicating to URL:%s for service:%s", link.getRpcUrl(), serviceType);
             try {
                 rollbackService(projectKey, factory, environment, errors);
             } catch (ResponseException | CredentialsRequiredException ex) {
@@ -172,6 +205,43 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
         return errors;
     }
 
+    /**
+     * Creates an authenticated request factory for an application link whose responses are counted in the Aperture
+     * metrics registry.
+     * <p>
+     * Within a {@link ProvisioningBatch} the factory of each link is created once per thread and shared by every
+     * request of the batch run on that thread; worker threads of a batch each authenticate with their own factory.
+     *
+     * @param link    the application link to create the request factory for.
+     * @param service the project service the application link belongs to.
+     * @return metered request factory for the link.
+     */
+    protected ApplicationLinkRequestFactory getRequestFactory(final ApplicationLink link, final ApertureSettings.ProjectService service) {
+
+        final String name = String.format("request-factory:%s:%s:%d", service, link.getId(), Thread.currentThread().getId());
+        return ProvisioningBatch.shared(name, () -> new MeteredRequestFactory(link.createAuthenticatedRequestFactory(), service, getAperture().getMetrics()));
+    }
+
+    /**
+     * Checks whether an existing remote resource belongs to a project request by comparing its name to the request
+     * summary, the name every handler creates its resource with.
+     * <p>
+     *
+     * @param projectRequest the project request.
+     * @param remoteName     name of the existing remote resource.
+     * @param errors         collection the conflict is reported to if the resource belongs to something else.
+     * @return <code>true</code> if the resource was created for the request and can be reconciled.
+     */
+    protected boolean isCreatedFor(final ProvisioningRequest projectRequest, final String remoteName, final ErrorCollection errors) {
+
+        final String summary = projectRequest.getName();
+        if (summary != null && remoteName != null && summary.trim().equalsIgnoreCase(remoteName.trim())) {
+            return true;
+        }
+        errors.addErrorMessage(String.format("The %s key %s is already in use by '%s' which was not created for %s; it has been left untouched.", getServiceType(), projectRequest.getProjectKey(), remoteName, projectRequest.getIssueKey()));
+        return false;
+    }
+
     protected ApplicationLink getApplicationLink() {
 
         final ApertureSettings.ProjectService linkKey = getServiceType();
@@ -179,7 +249,23 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
         return settings.getApplicationLink(linkKey);
     }
 
-    protected abstract void createService(final MutableIssue issue, ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException;
+    protected abstract void createService(final ProvisioningRequest projectRequest, ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException;
+
+    /**
+     * Converges an existing remote resource for a project request instead of creating it again.
+     * <p>
+     * Called by {@link #createService(ProvisioningRequest, Map)} in place of
+     * {@link #createService(ProvisioningRequest, ApplicationLinkRequestFactory, Map, ErrorCollection)} when
+     * {@link #isServiceAvailable(String, ApplicationLinkRequestFactory)} reports the resource exists; e.g. when a failed
+     * or interrupted request is run again. Implementations verify the resource belongs to the request, reporting an
+     * error if it does not, and bring its settings and the links on the issue up to date.
+     *
+     * @param projectRequest the project request.
+     * @param factory        authenticated request factory for the service.
+     * @param environment    the provisioning job environment.
+     * @param errors         collection to add any errors to.
+     */
+    protected abstract void reconcileService(final ProvisioningRequest projectRequest, ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException;
 
     protected abstract void rollbackService(final String projectKey, ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, CredentialsRequiredException;
 
@@ -189,6 +275,8 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
 
     protected abstract boolean isServiceAvailable(final String projectKey, final ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException;
 
+    protected abstract void collectProjectKeys(final Consumer<String> projectKeys, final ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException;
+
     protected static class JSONApplicationLinkResponder implements ApplicationLinkResponseHandler<JsonNode> {
 
         private final boolean lienent;
@@ -236,7 +324,7 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
         /**
          *
          */
-        private static final transient Logger LOG = Logger.getLogger(AbstractRestfulProjectServiceHandler.class);
+        private static final transient ApertureLogger LOG = ApertureLogger.getLogger(AbstractRestfulProjectServiceHandler.class);
         /**
          *
          */
@@ -261,10 +349,12 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
         @Override
         public R handle(final Response response) throws ResponseException {
 
-            LOG.debug(String.format("< %s %s", response.getStatusText(), response.getStatusCode()));
-            final Map<String, String> headers = response.getHeaders();
-            for (final Map.Entry<String, String> entry : headers.entrySet()) {
-                LOG.debug(String.format("< %s: %s", entry.getKey(), entry.getValue()));
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("< %s %s", response.getStatusText(), response.getStatusCode());
+                final Map<String, String> headers = response.getHeaders();
+                for (final Map.Entry<String, String> entry : headers.entrySet()) {
+                    LOG.debug("< %s: %s", entry.getKey(), entry.getValue());
+                }
             }
             return handler.handle(response);
         }
@@ -274,7 +364,7 @@ public abstract class AbstractRestfulProjectServiceHandler extends AbstractProje
     public static class XmlRpcJsonResponder implements ApplicationLinkResponseHandler<JsonNode> {
 
         final static Map<String, Boolean> booleanMappings;
-        private static final transient Logger LOG = Logger.getLogger(XmlRpcJsonResponder.class);
+        private static final transient ApertureLogger LOG = ApertureLogger.getLogger(XmlRpcJsonResponder.class);
 
         static {
             final Map<String, Boolean> m = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
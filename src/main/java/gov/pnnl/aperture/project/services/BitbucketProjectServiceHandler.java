@@ -7,7 +7,6 @@ import com.atlassian.applinks.api.ApplicationLinkRequestFactory;
 import com.atlassian.applinks.api.CredentialsRequiredException;
 import com.atlassian.crowd.embedded.api.Group;
 import com.atlassian.extras.common.org.springframework.util.StringUtils;
-import com.atlassian.jira.avatar.Avatar;
 import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.util.ErrorCollection;
@@ -15,16 +14,17 @@ import com.atlassian.sal.api.net.Request;
 import com.atlassian.sal.api.net.ResponseException;
 import com.atlassian.streams.api.common.uri.UriBuilder;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureLogger;
 import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProvisioningRequest;
 import gov.pnnl.aperture.updates.AvatarImageProvider;
-import org.apache.log4j.Logger;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.ObjectMapper;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Project service handler for creating and configuring Bitbucket projects as part of Aperture.
@@ -39,7 +39,7 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(BitbucketProjectServiceHandler.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(BitbucketProjectServiceHandler.class);
 
     /**
      * Default constructor for this class.
@@ -63,18 +63,40 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
         return ApertureSettings.ProjectService.BITBUCKET;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void collectProjectKeys(final Consumer<String> projectKeys, final ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException {
+
+        LOG.info("Listing Bitbucket Server project keys");
+        int start = 0;
+        boolean lastPage = false;
+        while (!lastPage) {
+            final String uri = String.format("/rest/api/1.0/projects?start=%d&limit=%d", start, KEY_PAGE_SIZE);
+            final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, uri);
+            request.addHeader("Content-Type", "application/json");
+            final JsonNode response = request.execute(new JSONApplicationLinkResponder());
+            for (final JsonNode project : response.path("values")) {
+                projectKeys.accept(project.path("key").asText());
+            }
+            lastPage = response.path("isLastPage").asBoolean(true);
+            start = response.path("nextPageStart").asInt(start + KEY_PAGE_SIZE);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     protected boolean isServiceAvailable(final String projectKey, final ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException {
 
-        LOG.info(String.format("Checking Bitbucket Server project availability for %s", projectKey));
+        LOG.info("Checking Bitbucket Server project availability for %s", projectKey);
         final String uri = String.format("/rest/api/1.0/projects/%s", projectKey);
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, uri);
         request.addHeader("Content-Type", "application/json");
         final JsonNode response = request.execute(new JSONApplicationLinkResponder(true));
-        LOG.debug(String.format("Bitbucket server project response:%s", response));
+        LOG.debug("Bitbucket server project response:%s", response);
         return response != null && !response.has("errors");
     }
 
@@ -84,27 +106,27 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
     @Override
     protected void rollbackService(final String projectKey, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, CredentialsRequiredException {
 
-        LOG.info(String.format("Rolling back Bitbucket service for issue [%s]", projectKey));
+        LOG.info("Rolling back Bitbucket service for issue [%s]", projectKey);
         final String reposURL = String.format("/rest/api/1.0/projects/%s/repos", projectKey);
         boolean done = false;
         while (!done) {
             final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, reposURL);
             request.addHeader("Content-Type", "application/json");
             final JsonNode response = request.execute(new JSONApplicationLinkResponder());
-            LOG.debug(String.format("Removing Bitbucket Repositories:%s", response));
+            LOG.debug("Removing Bitbucket Repositories:%s", response);
             int count = 0;
             if (response.has("values")) {
                 final JsonNode repositoriesValues = response.get("values");
                 if (repositoriesValues.isArray()) {
                     for (final JsonNode jsonRepository : repositoriesValues) {
                         final String slug = jsonRepository.get("slug").asText();
-                        LOG.info(String.format("Removing Bitbucket repository:[%s/%s]", projectKey, slug));
+                        LOG.info("Removing Bitbucket repository:[%s/%s]", projectKey, slug);
                         final String slugURL = String.format("/rest/api/1.0/projects/%s/repos/%s", projectKey, slug);
                         final ApplicationLinkRequest slugRequest = factory.createRequest(Request.MethodType.DELETE, slugURL);
                         request.addHeader("Content-Type", "application/json");
                         final JsonNode result = slugRequest.execute(new JSONApplicationLinkResponder());
                         if (result.has("errors")) {
-                            LOG.warn(String.format("Failed to remove repository:[%s/%s]", projectKey, slug));
+                            LOG.warn("Failed to remove repository:[%s/%s]", projectKey, slug);
                             return;
                         }
                         removeFisheyeRepositoryLink(projectKey, slug);
@@ -119,10 +141,10 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.DELETE, restURL);
         request.addHeader("Content-Type", "application/json");
         final String response = request.execute();
-        LOG.debug(String.format("Removed Bitbucket project:%s => %s", projectKey, response));
+        LOG.debug("Removed Bitbucket project:%s => %s", projectKey, response);
         if (StringUtils.hasText(response)) {
             if (response.contains("errors")) {
-                LOG.warn(String.format("Failed to remove Bitbucket service:[%s]", response));
+                LOG.warn("Failed to remove Bitbucket service:[%s]", response);
             }
         }
     }
@@ -131,19 +153,19 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
      * {@inheritDoc}
      */
     @Override
-    protected void createService(final MutableIssue issue, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
+    protected void createService(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
 
-        LOG.info(String.format("Creating Bitbucket service for issue [%s]", issue.getKey()));
-        final ApertureSettings settings = getApertureSettings();
+        LOG.info("Creating Bitbucket service for issue [%s]", projectRequest.getIssueKey());
+        final MutableIssue issue = projectRequest.getIssue();
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.POST, "/rest/api/1.0/projects");
-        final String projectKey = settings.getProjectKeyFor(issue);
-        final String bbProjectModel = createBitbucketProject(projectKey, issue);
-        LOG.debug(String.format("createService:request:'%s'", bbProjectModel));
+        final String projectKey = projectRequest.getProjectKey().toString();
+        final String bbProjectModel = createBitbucketProject(projectKey, projectRequest);
+        LOG.debug("createService:request:'%s'", bbProjectModel);
 
         request.addHeader("Content-Type", "application/json");
         request.setRequestBody(bbProjectModel);
         final JsonNode response = request.execute(new JSONApplicationLinkResponder());
-        LOG.debug(String.format("createService:response:'%s'", response));
+        LOG.debug("createService:response:'%s'", response);
 
         if (response != null) {
             if (response.get("errors") == null) {
@@ -154,10 +176,11 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
                     final JsonNode firstLink = linkAttributes.next();
                     final JsonNode bbURL = firstLink.get("href");
                     if (projectKey.equals(response.get("key").asText())) {
+                        recordRemoteId("projectId", response.path("id").asText());
                         addServiceLinkTo(issue, "Bitbucket Server Project", bbURL.asText());
                         addComponentTo(issue);
-                        createInitialRepository(issue, factory);
-                        setAdminPermission(issue, factory);
+                        createInitialRepository(projectRequest, factory);
+                        setAdminPermission(projectRequest, factory);
                     }
                 }
                 return;
@@ -167,6 +190,44 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
         throw new IOException("/rest/api/1.0/projects:POST returned a null response.");
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void reconcileService(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
+
+        final MutableIssue issue = projectRequest.getIssue();
+        final String projectKey = projectRequest.getProjectKey().toString();
+        LOG.info("Reconciling existing Bitbucket project:[%s] for issue [%s]", projectKey, projectRequest.getIssueKey());
+        final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, String.format("/rest/api/1.0/projects/%s", projectKey));
+        request.addHeader("Content-Type", "application/json");
+        final JsonNode project = request.execute(new JSONApplicationLinkResponder());
+        if (!isCreatedFor(projectRequest, project.path("name").asText(), errors)) {
+            return;
+        }
+        recordRemoteId("projectId", project.path("id").asText());
+        final JsonNode projectURL = project.path("links").path("self").path(0).path("href");
+        if (!projectURL.isMissingNode()) {
+            addServiceLinkTo(issue, "Bitbucket Server Project", projectURL.asText());
+        }
+        addComponentTo(issue);
+
+        final String uri = String.format("/rest/api/1.0/projects/%s/repos/default", projectKey);
+        final ApplicationLinkRequest repositoryRequest = factory.createRequest(Request.MethodType.GET, uri);
+        repositoryRequest.addHeader("Content-Type", "application/json");
+        final JsonNode repository = repositoryRequest.execute(new JSONApplicationLinkResponder(true));
+        if (repository == null || repository.has("errors")) {
+            createInitialRepository(projectRequest, factory);
+        } else {
+            final JsonNode gitURL = repository.path("links").path("self").path(0).path("href");
+            if (!gitURL.isMissingNode()) {
+                addServiceLinkTo(issue, "Git Repository", gitURL.asText());
+            }
+            recordRemoteId("repositorySlug", repository.path("slug").asText());
+        }
+        setAdminPermission(projectRequest, factory);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -184,7 +245,7 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
                 final ApplicationLinkRequest linkRequest = getApplicationLink(restURI, permission, mode, factory, requestParameters);
                 linkRequest.addHeader("Content-Type", "application/json");
                 final String permissionResponse = linkRequest.execute();
-                LOG.debug(String.format("modifyGroups(%s, %s) => %s", projectGroup.getName(), permission, permissionResponse));
+                LOG.debug("modifyGroups(%s, %s) => %s", projectGroup.getName(), permission, permissionResponse);
             }
         }
     }
@@ -207,7 +268,7 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
                 final ApplicationLinkRequest linkRequest = getApplicationLink(restURI, permission, mode, factory, requestParameters);
                 linkRequest.addHeader("Content-Type", "application/json");
                 final String permissionResponse = linkRequest.execute();
-                LOG.debug(String.format("modifyUsers(%s, %s) => %s", projectMember.getName(), permission, permissionResponse));
+                LOG.debug("modifyUsers(%s, %s) => %s", projectMember.getName(), permission, permissionResponse);
             }
         }
     }
@@ -250,59 +311,54 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
         return permission;
     }
 
-    private void setAdminPermission(final MutableIssue issue, final ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException {
+    private void setAdminPermission(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException {
 
-        final ApertureSettings settings = getApertureSettings();
-        final ApplicationUser projectLead = issue.getReporter();
+        final ApplicationUser projectLead = projectRequest.getReporter();
         final Map<String, List<String>> requestParameters = new HashMap<>();
         requestParameters.put("permission", Collections.singletonList("PROJECT_ADMIN"));
         requestParameters.put("name", Collections.singletonList(projectLead.getName()));
         final String queryString = UriBuilder.joinParameters(requestParameters);
-        final String projectKey = settings.getProjectKeyFor(issue);
+        final String projectKey = projectRequest.getProjectKey().toString();
         final String uri = String.format("/rest/api/1.0/projects/%s/permissions/users?%s", projectKey, queryString);
 
         ApplicationLinkRequest request = factory.createRequest(Request.MethodType.PUT, uri);
         request.addHeader("Content-Type", "application/json");
         final String response = request.execute();
-        LOG.debug(String.format("setUserPermissions(%s, %s):%s", projectLead.getName(), response, uri));
+        LOG.debug("setUserPermissions(%s, %s):%s", projectLead.getName(), response, uri);
     }
 
-    private void createInitialRepository(final MutableIssue issue, final ApplicationLinkRequestFactory factory) throws ResponseException, IOException, CredentialsRequiredException {
+    private void createInitialRepository(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory) throws ResponseException, IOException, CredentialsRequiredException {
 
-        final ApertureSettings settings = getApertureSettings();
-        final String projectKey = settings.getProjectKeyFor(issue);
+        final String projectKey = projectRequest.getProjectKey().toString();
         final String uri = String.format("/rest/api/1.0/projects/%s/repos", projectKey);
         ApplicationLinkRequest request = factory.createRequest(Request.MethodType.POST, uri);
         request.addHeader("Content-Type", "application/json");
-        request.setRequestBody(createRepository(issue));
+        request.setRequestBody(createRepository());
 
         final JsonNode result = request.execute(new JSONApplicationLinkResponder());
         try {
             final JsonNode repositoryLinks = result.get("links");
             final JsonNode gitWebView = repositoryLinks.get("self");
             final String gitURL = gitWebView.get(0).get("href").asText();
-            addServiceLinkTo(issue, "Git Repository", gitURL);
+            addServiceLinkTo(projectRequest.getIssue(), "Git Repository", gitURL);
+            recordRemoteId("repositorySlug", result.path("slug").asText());
         } catch (RuntimeException rte){
-            LOG.warn(String.format("failed to extract git URL from response: %s", result), rte);
+            LOG.warn(rte, "failed to extract git URL from response: %s", result);
         }
     }
 
-    private String createBitbucketProject(final String spaceKey, final MutableIssue issue) throws IOException {
+    private String createBitbucketProject(final String spaceKey, final ProvisioningRequest projectRequest) throws IOException {
 
         final ObjectMapper om = new ObjectMapper();
         final Map<String, Object> bbProjectModel = new HashMap<>();
         bbProjectModel.put("key", spaceKey);
-        bbProjectModel.put("name", issue.getSummary());
-        bbProjectModel.put("description", issue.getDescription());
-
-        final ByteArrayOutputStream b64os = new ByteArrayOutputStream();
-        new AvatarImageProvider("/gov/pnnl/aperture/images/new-project-avatar.png").storeImage(Avatar.Size.SMALL, b64os);
-        final String avatarData = Base64.getEncoder().encodeToString(b64os.toByteArray());
-        bbProjectModel.put("avatar", String.format("data:image/png;base64,%s", avatarData));
+        bbProjectModel.put("name", projectRequest.getName());
+        bbProjectModel.put("description", projectRequest.getDescription());
+        bbProjectModel.put("avatar", AvatarImageProvider.forResource("/gov/pnnl/aperture/images/new-project-avatar.png").getDataUri());
         return om.writeValueAsString(bbProjectModel);
     }
 
-    private String createRepository(final MutableIssue issue) throws IOException {
+    private String createRepository() throws IOException {
 
         final ObjectMapper om = new ObjectMapper();
         final Map<String, Object> gitRepo = new HashMap<>();
@@ -336,18 +392,18 @@ public class BitbucketProjectServiceHandler extends AbstractRestfulProjectServic
             return null;
         }
 
-        final ApplicationLinkRequestFactory factory = link.createAuthenticatedRequestFactory();
+        final ApplicationLinkRequestFactory factory = getRequestFactory(link, ApertureSettings.ProjectService.CRUCIBLE);
         String url = String.format("/rest-service-fecru/admin/repositories/%s-%s/stop", projectKey.toLowerCase(), repository);
         ApplicationLinkRequest request = factory.createRequest(Request.MethodType.PUT, url);
         request.addHeader("Content-Type", "application/json");
-        LOG.info(String.format("Stopping FishEye repository:[%s-%s]", projectKey, repository));
+        LOG.info("Stopping FishEye repository:[%s-%s]", projectKey, repository);
         final String response = request.execute();
-        LOG.info(String.format("Stopped FishEye repository:[%s-%s] %s", projectKey, repository, response));
+        LOG.info("Stopped FishEye repository:[%s-%s] %s", projectKey, repository, response);
 
         url = String.format("/rest-service-fecru/admin/repositories/%s-%s", projectKey.toLowerCase(), repository);
         request = factory.createRequest(Request.MethodType.DELETE, url);
         request.addHeader("Content-Type", "application/json");
-        LOG.info(String.format("Removing FishEye repository:[%s-%s]", projectKey, repository));
+        LOG.info("Removing FishEye repository:[%s-%s]", projectKey, repository);
         return request.execute();
     }
 
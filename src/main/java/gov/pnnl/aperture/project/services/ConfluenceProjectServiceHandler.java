@@ -10,15 +10,16 @@ import com.atlassian.jira.config.properties.APKeys;
 import com.atlassian.jira.config.properties.ApplicationProperties;
 import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.user.ApplicationUser;
-import com.atlassian.jira.user.util.UserManager;
 import com.atlassian.jira.util.ErrorCollection;
 import com.atlassian.sal.api.net.Request;
 import com.atlassian.sal.api.net.ResponseException;
 import com.atlassian.velocity.VelocityManager;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureLogger;
 import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProvisioningRequest;
 import gov.pnnl.aperture.JiraUtils;
-import org.apache.log4j.Logger;
+import gov.pnnl.aperture.ProvisioningBatch;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.ObjectMapper;
 
@@ -28,6 +29,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Project service handler for creating and configuring confluence spaces as part of Aperture.
@@ -38,6 +40,10 @@ import java.util.Map;
  */
 public class ConfluenceProjectServiceHandler extends AbstractRestfulProjectServiceHandler {
 
+    /**
+     * Name of the XML-RPC session shared by the requests of a {@link ProvisioningBatch}.
+     */
+    private static final String BATCH_SESSION = "confluence-xmlrpc-session";
     /**
      * Collection of Confluence space permissions required to remove a user from accessing a space.
      * <p>
@@ -63,7 +69,7 @@ public class ConfluenceProjectServiceHandler extends AbstractRestfulProjectServi
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(ConfluenceProjectServiceHandler.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(ConfluenceProjectServiceHandler.class);
 
     /**
      * Default constructor for this class.
@@ -87,19 +93,44 @@ public class ConfluenceProjectServiceHandler extends AbstractRestfulProjectServi
         return ApertureSettings.ProjectService.CONFLUENCE;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void collectProjectKeys(final Consumer<String> projectKeys, final ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException {
+
+        LOG.info("Listing Confluence space keys");
+        int start = 0;
+        boolean lastPage = false;
+        while (!lastPage) {
+            final String restURL = String.format("/rest/api/space?start=%d&limit=%d", start, KEY_PAGE_SIZE);
+            final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, restURL);
+            request.addHeader("Content-Type", "application/json");
+            final JsonNode response = request.execute(new JSONApplicationLinkResponder());
+            int count = 0;
+            for (final JsonNode space : response.path("results")) {
+                projectKeys.accept(space.path("key").asText());
+                count++;
+            }
+            lastPage = count == 0 || response.path("_links").path("next").isMissingNode();
+            start += count;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     protected boolean isServiceAvailable(final String projectKey, final ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException {
 
-        LOG.info(String.format("Checking service availability for Confluence service for project [%s]", projectKey));
+        LOG.info("Checking service availability for Confluence service for project [%s]", projectKey);
         final String restURL = String.format("/rest/api/space/%s", projectKey);
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, restURL);
         request.addHeader("Content-Type", "application/json");
         final JsonNode response = request.execute(new JSONApplicationLinkResponder(true));
-        LOG.debug(String.format("Confluence space response : [%s]", response));
-        return response != null;
+        LOG.debug("Confluence space response : [%s]", response);
+        // a missing space still answers with a JSON error body //
+        return response != null && response.has("key");
     }
 
     /**
@@ -108,42 +139,62 @@ public class ConfluenceProjectServiceHandler extends AbstractRestfulProjectServi
     @Override
     protected void rollbackService(final String projectKey, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, CredentialsRequiredException {
 
-        LOG.info(String.format("Rolling back Confluence servuice for key [%s]", projectKey));
+        LOG.info("Rolling back Confluence servuice for key [%s]", projectKey);
         final String restURL = String.format("/rest/api/space/%s", projectKey);
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.DELETE, restURL);
         request.addHeader("Content-Type", "application/json");
         final JsonNode response = request.execute(new JSONApplicationLinkResponder());
-        LOG.info(String.format("Confluence response:rollbackService('%s')", response));
+        LOG.info("Confluence response:rollbackService('%s')", response);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    protected void createService(final MutableIssue issue, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
+    protected void createService(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
 
-        final ApertureSettings settings = getApertureSettings();
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.POST, "/rest/api/space");
-        final String spaceKey = settings.getProjectKeyFor(issue);
-        final String spaceEntity = createBasicSpace(spaceKey, issue);
+        final String spaceKey = projectRequest.getProjectKey().toString();
+        final String spaceEntity = createBasicSpace(spaceKey, projectRequest);
 
         request.addHeader("Content-Type", "application/json");
         request.setRequestBody(spaceEntity);
-        LOG.debug(String.format("Creating Confluence Space:'%s'", spaceEntity));
+        LOG.debug("Creating Confluence Space:'%s'", spaceEntity);
 
         final JsonNode response = request.execute(new JSONApplicationLinkResponder());
-        LOG.debug(String.format("Confluence Space creation response:'%s'", spaceEntity));
+        LOG.debug("Confluence Space creation response:'%s'", spaceEntity);
+        configureSpace(projectRequest, factory, spaceKey, response, errors);
+    }
 
-        final String base = response.get("_links").get("base").asText();
-        final String path = response.get("homepage").get("_links").get("tinyui").asText();
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void reconcileService(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
 
-        final String categoryFor = settings.getCategoryFor(issue);
+        final String spaceKey = projectRequest.getProjectKey().toString();
+        LOG.info("Reconciling existing Confluence space:[%s] for issue [%s]", spaceKey, projectRequest.getIssueKey());
+        final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, String.format("/rest/api/space/%s?expand=homepage", spaceKey));
+        request.addHeader("Content-Type", "application/json");
+        final JsonNode space = request.execute(new JSONApplicationLinkResponder());
+        if (isCreatedFor(projectRequest, space.path("name").asText(), errors)) {
+            configureSpace(projectRequest, factory, spaceKey, space, errors);
+        }
+    }
+
+    private void configureSpace(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory, final String spaceKey, final JsonNode space, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
+
+        final MutableIssue issue = projectRequest.getIssue();
+        final String base = space.get("_links").get("base").asText();
+        final String path = space.get("homepage").get("_links").get("tinyui").asText();
+        recordRemoteId("spaceKey", spaceKey);
+
+        final String categoryFor = projectRequest.getCategory();
         if (StringUtils.hasText(categoryFor)) {
             assignProjectCategory(factory, spaceKey, categoryFor);
         }
 
-        final UserManager userManager = ComponentAccessor.getUserManager();
-        final Collection<ApplicationUser> owner = Collections.singleton(userManager.getUserByName(issue.getReporterId()));
+        final Collection<ApplicationUser> owner = Collections.singleton(projectRequest.getReporter());
         modifyUsers(spaceKey, Aperture.PermissionMode.ADD, Aperture.Role.ADMIN, owner, factory, errors);
 
         JiraUtils.addErrorCollectionAsComments(issue, "Confluence Remote Link", addServiceLinkTo(issue, "Confluence Space", String.format("%s/%s", base, path)));
@@ -168,21 +219,21 @@ public class ConfluenceProjectServiceHandler extends AbstractRestfulProjectServi
 
         request.setRequestBody(velocityManager.getEncodedBody(basePath, "addLabelByNameToSpace.vm.xml", baseUrl, webworkEncoding, context));
         final JsonNode response = request.execute(new XmlRpcJsonResponder());
-        LOG.debug(String.format("assignProjectCategory:response => %s", response));
+        LOG.debug("assignProjectCategory:response => %s", response);
     }
 
-    private String createBasicSpace(final String spaceKey, final MutableIssue issue) throws IOException {
+    private String createBasicSpace(final String spaceKey, final ProvisioningRequest projectRequest) throws IOException {
 
         // https://docs.atlassian.com/atlassian-confluence/REST/latest-server/#space-createSpace //
         final ObjectMapper om = new ObjectMapper();
         final Map<String, Object> confluenceSpace = new HashMap<>();
 
         final Map<String, Object> plainDescription = new HashMap<>();
-        plainDescription.put("value", issue.getDescription());
+        plainDescription.put("value", projectRequest.getDescription());
         plainDescription.put("representation", "plain");
 
         confluenceSpace.put("key", spaceKey);
-        confluenceSpace.put("name", issue.getSummary());
+        confluenceSpace.put("name", projectRequest.getName());
         confluenceSpace.put("description", Collections.singletonMap("plain", plainDescription));
         confluenceSpace.put("metadata", Collections.emptyMap());
 
@@ -224,7 +275,7 @@ public class ConfluenceProjectServiceHandler extends AbstractRestfulProjectServi
                     context.put("spaceKey", projectKey);
                     request.setRequestBody(velocityManager.getEncodedBody(basePath, permissionFile, baseUrl, webworkEncoding, context));
                     final JsonNode response = request.execute(new XmlRpcJsonResponder());
-                    LOG.debug(String.format("group:set-permissions => %s", response));
+                    LOG.debug("group:set-permissions => %s", response);
                     break;
                 case REMOVE:
                     for (final String permission : CONF_PERMISSIONS) {
@@ -236,7 +287,7 @@ public class ConfluenceProjectServiceHandler extends AbstractRestfulProjectServi
                         context.put("permissionValue", permission);
                         req.setRequestBody(velocityManager.getEncodedBody(basePath, "removePermissionFromSpace.vm.xml", baseUrl, webworkEncoding, context));
                         final JsonNode resp = req.execute(new XmlRpcJsonResponder());
-                        LOG.debug(String.format("group:remove-permissions => %s", resp));
+                        LOG.debug("group:remove-permissions => %s", resp);
                     }
                     break;
                 default:
@@ -279,7 +330,7 @@ public class ConfluenceProjectServiceHandler extends AbstractRestfulProjectServi
                     context.put("spaceKey", projectKey);
                     request.setRequestBody(velocityManager.getEncodedBody(basePath, permissionFile, baseUrl, webworkEncoding, context));
                     final JsonNode response = request.execute(new XmlRpcJsonResponder());
-                    LOG.debug(String.format("user:set-permissions => %s", response));
+                    LOG.debug("user:set-permissions => %s", response);
                     break;
                 case REMOVE:
                     for (final String permission : CONF_PERMISSIONS) {
@@ -291,7 +342,7 @@ public class ConfluenceProjectServiceHandler extends AbstractRestfulProjectServi
                         context.put("permissionValue", permission);
                         req.setRequestBody(velocityManager.getEncodedBody(basePath, "removePermissionFromSpace.vm.xml", baseUrl, webworkEncoding, context));
                         final JsonNode resp = req.execute(new XmlRpcJsonResponder());
-                        LOG.debug(String.format("user:remove-permissions => %s", resp));
+                        LOG.debug("user:remove-permissions => %s", resp);
                     }
                     break;
                 default:
@@ -300,28 +351,45 @@ public class ConfluenceProjectServiceHandler extends AbstractRestfulProjectServi
         }
     }
 
+    /**
+     * Logs into Confluence over XML-RPC; within a {@link ProvisioningBatch} the session is shared by every request of
+     * the batch.
+     * <p>
+     *
+     * @param factory request factory of the Confluence application link.
+     * @param context velocity context the login configuration is added to.
+     * @return the XML-RPC session identifier; or <code>null</code> if the login response has none.
+     */
     private String doXmlRpcLogin(final ApplicationLinkRequestFactory factory, final Map<String, Object> context) throws ResponseException, CredentialsRequiredException {
 
+        final ApertureSettings settings = getApertureSettings();
+        final Map<String, Object> configuration = settings.getServiceConfiguration(ApertureSettings.ProjectService.CONFLUENCE, "");
+        context.putAll(configuration);
+        final ProvisioningBatch batch = ProvisioningBatch.current();
+        final String sharedSessionId = batch == null ? null : batch.getResource(BATCH_SESSION);
+        if (sharedSessionId != null) {
+            return sharedSessionId;
+        }
+
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.POST, "/rpc/xmlrpc");
         final VelocityManager velocityManager = ComponentAccessor.getVelocityManager();
         final ApplicationProperties applicationProperties = ComponentAccessor.getApplicationProperties();
         final String baseUrl = applicationProperties.getString(APKeys.JIRA_BASEURL);
         final String webworkEncoding = applicationProperties.getString(APKeys.JIRA_WEBWORK_ENCODING);
-
         final String basePath = "/gov/pnnl/aperture/xmlrpc/confluence/";
-        final ApertureSettings settings = getApertureSettings();
-        final Map<String, Object> configuration = settings.getServiceConfiguration(ApertureSettings.ProjectService.CONFLUENCE, "");
-        context.putAll(configuration);
 
         request.addHeader("Content-Type", "text/xml");
         request.setRequestBody(velocityManager.getEncodedBody(basePath, "login.vm.xml", baseUrl, webworkEncoding, context));
         final JsonNode response = request.execute(new XmlRpcJsonResponder());
-        LOG.debug(String.format("login-response => %s", response));
+        LOG.debug("login-response => %s", response);
         if (response.has("params")) {
             final JsonNode parameters = response.get("params");
             if (parameters.isArray()) {
-                final JsonNode sessionIdNode = parameters.get(0);
-                return sessionIdNode.asText();
+                final String sessionId = parameters.get(0).asText();
+                if (batch != null && StringUtils.hasText(sessionId)) {
+                    batch.putResource(BATCH_SESSION, sessionId);
+                }
+                return sessionId;
             }
         }
         return null;
@@ -6,14 +6,14 @@ import com.atlassian.applinks.api.ApplicationLinkRequestFactory;
 import com.atlassian.applinks.api.CredentialsRequiredException;
 import com.atlassian.crowd.embedded.api.Group;
 import com.atlassian.extras.common.org.springframework.util.StringUtils;
-import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.util.ErrorCollection;
 import com.atlassian.sal.api.net.Request;
 import com.atlassian.sal.api.net.ResponseException;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureLogger;
 import gov.pnnl.aperture.ApertureSettings;
-import org.apache.log4j.Logger;
+import gov.pnnl.aperture.ProvisioningRequest;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.ObjectMapper;
 
@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Project service handler for creating and configuring Crucible projects as part of Aperture.
@@ -38,7 +39,7 @@ public class CrucibleProjectServiceHandler extends AbstractRestfulProjectService
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(CrucibleProjectServiceHandler.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(CrucibleProjectServiceHandler.class);
 
     /**
      * Default constructor for this class.
@@ -62,19 +63,44 @@ public class CrucibleProjectServiceHandler extends AbstractRestfulProjectService
         return ApertureSettings.ProjectService.CRUCIBLE;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void collectProjectKeys(final Consumer<String> projectKeys, final ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException {
+
+        LOG.info("Listing Crucible project keys");
+        int start = 0;
+        boolean lastPage = false;
+        while (!lastPage) {
+            final String uri = String.format("/rest-service-fecru/admin/projects?start=%d&limit=%d", start, KEY_PAGE_SIZE);
+            final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, uri);
+            request.addHeader("Content-Type", "application/json");
+            final JsonNode response = request.execute(new JSONApplicationLinkResponder());
+            int count = 0;
+            for (final JsonNode project : response.path("values")) {
+                projectKeys.accept(project.path("key").asText());
+                count++;
+            }
+            lastPage = response.path("lastPage").asBoolean(count < KEY_PAGE_SIZE);
+            start += count;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     protected boolean isServiceAvailable(String projectKey, ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException {
 
-        LOG.info(String.format("Checking Crucible project availability for %s", projectKey));
+        LOG.info("Checking Crucible project availability for %s", projectKey);
         final String uri = String.format("/rest-service-fecru/admin/projects/%s", projectKey);
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, uri);
         request.addHeader("Content-Type", "application/json");
         final JsonNode response = request.execute(new JSONApplicationLinkResponder(true));
-        LOG.debug(String.format("Removed crucible project:%s", response));
-        return response != null;
+        LOG.debug("Crucible project response:%s", response);
+        // a missing project still answers with a JSON error body //
+        return response != null && response.has("key");
     }
 
     /**
@@ -83,37 +109,57 @@ public class CrucibleProjectServiceHandler extends AbstractRestfulProjectService
     @Override
     protected void rollbackService(final String projectKey, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, CredentialsRequiredException {
 
-        LOG.info(String.format("Rolling back Crucible service for project [%s]", projectKey));
+        LOG.info("Rolling back Crucible service for project [%s]", projectKey);
         final String uri = String.format("/rest-service-fecru/admin/projects/%s?deleteProjectReviews=true", projectKey);
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.DELETE, uri);
         request.addHeader("Content-Type", "application/json");
         final String response = request.execute();
-        LOG.debug(String.format("Removed crucible project:%s", response));
+        LOG.debug("Removed crucible project:%s", response);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    protected void createService(final MutableIssue issue, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
+    protected void createService(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
 
-        LOG.info(String.format("Creating Crucible service for issue [%s]", issue.getKey()));
+        LOG.info("Creating Crucible service for issue [%s]", projectRequest.getIssueKey());
         final String stashAppId = getStashLinkId(factory);
-        final ApertureSettings settings = getApertureSettings();
-        final String projectKey = settings.getProjectKeyFor(issue);
-        LOG.debug(String.format("Got Stash Application ID from Crucible:%s", stashAppId));
+        final String projectKey = projectRequest.getProjectKey().toString();
+        LOG.debug("Got Stash Application ID from Crucible:%s", stashAppId);
         if (StringUtils.hasLength(stashAppId)) {
             createFishEyeRepository(projectKey, factory, stashAppId);
             final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.POST, "/rest-service-fecru/admin/projects");
-            final String crucibleProject = createCrucibleProject(projectKey, issue);
+            final String crucibleProject = createCrucibleProject(projectKey, projectRequest);
             request.addHeader("Content-Type", "application/json");
             request.setRequestBody(crucibleProject);
             final URI base = getApplicationLink().getRpcUrl();
             final String path = String.format("project/%s", projectKey);
             final JsonNode response = request.execute(new JSONApplicationLinkResponder());
-            LOG.debug(String.format("Created crucible project:%s", response));
-            addServiceLinkTo(issue, "Crucible Project", String.format("%s/%s", base, path));
-            addComponentTo(issue);
+            LOG.debug("Created crucible project:%s", response);
+            recordRemoteId("projectKey", projectKey);
+            recordRemoteId("stashApplicationId", stashAppId);
+            addServiceLinkTo(projectRequest.getIssue(), "Crucible Project", String.format("%s/%s", base, path));
+            addComponentTo(projectRequest.getIssue());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void reconcileService(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
+
+        final String projectKey = projectRequest.getProjectKey().toString();
+        LOG.info("Reconciling existing Crucible project:[%s] for issue [%s]", projectKey, projectRequest.getIssueKey());
+        final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, String.format("/rest-service-fecru/admin/projects/%s", projectKey));
+        request.addHeader("Content-Type", "application/json");
+        final JsonNode project = request.execute(new JSONApplicationLinkResponder());
+        if (isCreatedFor(projectRequest, project.path("name").asText(), errors)) {
+            recordRemoteId("projectKey", projectKey);
+            final URI base = getApplicationLink().getRpcUrl();
+            addServiceLinkTo(projectRequest.getIssue(), "Crucible Project", String.format("%s/project/%s", base, projectKey));
+            addComponentTo(projectRequest.getIssue());
         }
     }
 
@@ -144,7 +190,7 @@ public class CrucibleProjectServiceHandler extends AbstractRestfulProjectService
             linkRequest.addHeader("Content-Type", "application/json");
             linkRequest.setRequestBody(om.writeValueAsString(nameMap));
             final String permissionResponse = linkRequest.execute();
-            LOG.debug(String.format("modifyGroups(%s, %s)", projectGroup.getName(), permissionResponse));
+            LOG.debug("modifyGroups(%s, %s)", projectGroup.getName(), permissionResponse);
         }
     }
 
@@ -175,7 +221,7 @@ public class CrucibleProjectServiceHandler extends AbstractRestfulProjectService
             linkRequest.addHeader("Content-Type", "application/json");
             linkRequest.setRequestBody(om.writeValueAsString(nameMap));
             final String permissionResponse = linkRequest.execute();
-            LOG.debug(String.format("modifyUsers(%s, %s)", user.getName(), permissionResponse));
+            LOG.debug("modifyUsers(%s, %s)", user.getName(), permissionResponse);
         }
     }
 
@@ -185,7 +231,7 @@ public class CrucibleProjectServiceHandler extends AbstractRestfulProjectService
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, "/rest/applinks/1.0/applicationlink.json");
         request.addHeader("Content-Type", "application/json");
         final JsonNode response = request.execute(new JSONApplicationLinkResponder());
-        LOG.debug(String.format("getStashLinkId():'%s'", response));
+        LOG.debug("getStashLinkId():'%s'", response);
         final JsonNode applicationLinks = response.get("applicationLinks");
         if (applicationLinks != null && applicationLinks.isArray()) {
             for (final JsonNode link : applicationLinks) {
@@ -202,17 +248,17 @@ public class CrucibleProjectServiceHandler extends AbstractRestfulProjectService
      * https://docs.atlassian.com/fisheye-crucible/latest/wadl/fecru.html#rest-service-fecru:admin:projects
      * <p>
      *
-     * @param projectKey project key for the new crucible project to be made.
-     * @param issue      the issue containing other project request properties.
+     * @param projectKey     project key for the new crucible project to be made.
+     * @param projectRequest the project request containing other project properties.
      * @return JSON string for the new crucible project to be created.
      * @throws IOException if there is an error creating the JSON string.
      */
-    private String createCrucibleProject(final String projectKey, final MutableIssue issue) throws IOException {
+    private String createCrucibleProject(final String projectKey, final ProvisioningRequest projectRequest) throws IOException {
 
         final ObjectMapper om = new ObjectMapper();
         final Map<String, Object> crucible = new HashMap<>();
         crucible.put("key", projectKey);
-        crucible.put("name", issue.getSummary());
+        crucible.put("name", projectRequest.getName());
         crucible.put("defaultRepositoryName", String.format("%s-default", projectKey));
         crucible.put("storeFileContentInReview", Boolean.TRUE);
         crucible.put("permissionSchemeName", "agile");
@@ -250,7 +296,7 @@ public class CrucibleProjectServiceHandler extends AbstractRestfulProjectService
         request.addHeader("Content-Type", "application/json");
         request.setRequestBody(om.writeValueAsString(fisheye));
         final JsonNode response = request.execute(new JSONApplicationLinkResponder());
-        LOG.debug(String.format("Created fisheye repository:%s", response));
+        LOG.debug("Created fisheye repository:%s", response);
     }
 
     /**
@@ -267,7 +313,7 @@ public class CrucibleProjectServiceHandler extends AbstractRestfulProjectService
 
         final ApertureSettings settings = getApertureSettings();
         final ApplicationLink link = settings.getApplicationLink(ApertureSettings.ProjectService.BITBUCKET);
-        final ApplicationLinkRequestFactory factory = link.createAuthenticatedRequestFactory();
+        final ApplicationLinkRequestFactory factory = getRequestFactory(link, ApertureSettings.ProjectService.BITBUCKET);
         final String url = String.format("/rest/api/1.0/projects/%s/repos/default", projectKey);
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, url);
         request.addHeader("Content-Type", "application/json");
@@ -279,7 +325,7 @@ public class CrucibleProjectServiceHandler extends AbstractRestfulProjectService
             for (final JsonNode cloneLink : clone) {
                 final String linkName = cloneLink.get("name").asText();
                 if ("ssh".equals(linkName)) {
-                    LOG.debug(String.format("Found cloneURL for:%s => %s", projectKey, cloneLink));
+                    LOG.debug("Found cloneURL for:%s => %s", projectKey, cloneLink);
                     return cloneLink.get("href").asText();
                 }
             }
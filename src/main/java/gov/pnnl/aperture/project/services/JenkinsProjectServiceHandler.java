@@ -8,7 +8,6 @@ import com.atlassian.extras.common.org.springframework.util.StringUtils;
 import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.config.properties.APKeys;
 import com.atlassian.jira.config.properties.ApplicationProperties;
-import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.project.Project;
 import com.atlassian.jira.security.roles.ProjectRole;
 import com.atlassian.jira.security.roles.ProjectRoleActors;
@@ -20,13 +19,15 @@ import com.atlassian.sal.api.net.ResponseException;
 import com.atlassian.streams.api.common.uri.UriBuilder;
 import com.atlassian.velocity.VelocityManager;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureLogger;
 import gov.pnnl.aperture.ApertureSettings;
-import org.apache.log4j.Logger;
+import gov.pnnl.aperture.ProvisioningRequest;
 import org.codehaus.jackson.JsonNode;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Project service handler for creating and configuring Jenkins projects as part of Aperture.
@@ -39,7 +40,7 @@ public class JenkinsProjectServiceHandler extends AbstractRestfulProjectServiceH
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(JenkinsProjectServiceHandler.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(JenkinsProjectServiceHandler.class);
 
     /**
      * Default constructor for this class.
@@ -63,6 +64,29 @@ public class JenkinsProjectServiceHandler extends AbstractRestfulProjectServiceH
         return ApertureSettings.ProjectService.JENKINS;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void collectProjectKeys(final Consumer<String> projectKeys, final ApplicationLinkRequestFactory factory) throws ResponseException, CredentialsRequiredException {
+
+        LOG.info("Listing Jenkins job folder names");
+        int start = 0;
+        int count = KEY_PAGE_SIZE;
+        while (count == KEY_PAGE_SIZE) {
+            // the encoded tree range jobs[name]{start,end} selects a single page of the top level jobs //
+            final String uri = String.format("/api/json?tree=jobs%%5Bname%%5D%%7B%d,%d%%7D", start, start + KEY_PAGE_SIZE);
+            final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, uri);
+            final JsonNode response = request.execute(new JSONApplicationLinkResponder());
+            count = 0;
+            for (final JsonNode job : response.path("jobs")) {
+                projectKeys.accept(job.path("name").asText());
+                count++;
+            }
+            start += count;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -78,44 +102,72 @@ public class JenkinsProjectServiceHandler extends AbstractRestfulProjectServiceH
     @Override
     protected void rollbackService(final String projectKey, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, CredentialsRequiredException {
 
-        LOG.info(String.format("Rolling back Jenkins service for issue [%s]", projectKey));
+        LOG.info("Rolling back Jenkins service for issue [%s]", projectKey);
         final String serviceURI = String.format("/job/%s/doDelete", projectKey);
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.POST, serviceURI);
         request.addHeader("Content-Type", "text/xml");
         final String response = request.execute();
-        LOG.debug(String.format("rollbackService() => [%s]", response));
+        LOG.debug("rollbackService() => [%s]", response);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    protected void createService(final MutableIssue issue, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
+    protected void createService(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
 
-        LOG.info(String.format("Creating Jenkins service for issue [%s]", issue.getKey()));
-        final String basePath = "/gov/pnnl/aperture/xmlrpc/jenkins/";
-        final ApertureSettings settings = getApertureSettings();
-        final Map<String, Object> context = new HashMap<>();
-        final VelocityManager velocityManager = ComponentAccessor.getVelocityManager();
-        final ApplicationProperties applicationProperties = ComponentAccessor.getApplicationProperties();
-        final String baseUrl = applicationProperties.getString(APKeys.JIRA_BASEURL);
-        final String webworkEncoding = applicationProperties.getString(APKeys.JIRA_WEBWORK_ENCODING);
-        context.put("projectLead", issue.getReporter());
-        context.put("projectMembers", settings.getProjectMembersFor(issue));
-        context.put("projectDescription", issue.getDescription());
-        context.put("projectName", issue.getSummary());
-
-        final String projectKey = settings.getProjectKeyFor(issue);
+        LOG.info("Creating Jenkins service for issue [%s]", projectRequest.getIssueKey());
+        final String projectKey = projectRequest.getProjectKey().toString();
         final String serviceURI = String.format("/createItem?name=%s", projectKey);
         final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.POST, serviceURI);
         request.addHeader("Content-Type", "text/xml");
-        request.setRequestBody(velocityManager.getEncodedBody(basePath, "folder.config.vm.xml", baseUrl, webworkEncoding, context));
+        request.setRequestBody(getFolderConfiguration(projectRequest));
         final String response = request.execute();
-        LOG.debug(String.format("createService(%s) => [%s]", projectKey, response));
+        LOG.debug("createService(%s) => [%s]", projectKey, response);
 
         final JsonNode folderData = getProjectData(factory, projectKey);
-        addServiceLinkTo(issue, "Jenkins Job Folder", folderData.get("url").asText());
-        addComponentTo(issue);
+        recordRemoteId("folderUrl", folderData.get("url").asText());
+        addServiceLinkTo(projectRequest.getIssue(), "Jenkins Job Folder", folderData.get("url").asText());
+        addComponentTo(projectRequest.getIssue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void reconcileService(final ProvisioningRequest projectRequest, final ApplicationLinkRequestFactory factory, final Map<String, Serializable> environment, final ErrorCollection errors) throws ResponseException, IOException, CredentialsRequiredException {
+
+        final String projectKey = projectRequest.getProjectKey().toString();
+        LOG.info("Reconciling existing Jenkins folder:[%s] for issue [%s]", projectKey, projectRequest.getIssueKey());
+        final JsonNode folderData = getProjectData(factory, projectKey);
+        if (!isCreatedFor(projectRequest, folderData.path("displayName").asText(), errors)) {
+            return;
+        }
+        // posting the folder configuration back converges its description and role groups with the request //
+        final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.POST, String.format("/job/%s/config.xml", projectKey));
+        request.addHeader("Content-Type", "text/xml");
+        request.setRequestBody(getFolderConfiguration(projectRequest));
+        final String response = request.execute();
+        LOG.debug("reconcileService(%s) => [%s]", projectKey, response);
+
+        recordRemoteId("folderUrl", folderData.get("url").asText());
+        addServiceLinkTo(projectRequest.getIssue(), "Jenkins Job Folder", folderData.get("url").asText());
+        addComponentTo(projectRequest.getIssue());
+    }
+
+    private String getFolderConfiguration(final ProvisioningRequest projectRequest) {
+
+        final String basePath = "/gov/pnnl/aperture/xmlrpc/jenkins/";
+        final Map<String, Object> context = new HashMap<>();
+        final VelocityManager velocityManager = ComponentAccessor.getVelocityManager();
+        final ApplicationProperties applicationProperties = ComponentAccessor.getApplicationProperties();
+        final String baseUrl = applicationProperties.getString(APKeys.JIRA_BASEURL);
+        final String webworkEncoding = applicationProperties.getString(APKeys.JIRA_WEBWORK_ENCODING);
+        context.put("projectLead", projectRequest.getReporter());
+        context.put("projectMembers", projectRequest.getProjectMembers());
+        context.put("projectDescription", projectRequest.getDescription());
+        context.put("projectName", projectRequest.getName());
+        return velocityManager.getEncodedBody(basePath, "folder.config.vm.xml", baseUrl, webworkEncoding, context);
     }
 
     /**
@@ -146,7 +198,7 @@ public class JenkinsProjectServiceHandler extends AbstractRestfulProjectServiceH
                 final ApplicationLinkRequest linkRequest = factory.createRequest(Request.MethodType.POST, restURI);
                 linkRequest.addHeader("Content-Type", "application/json");
                 final String permissionResponse = linkRequest.execute();
-                LOG.debug(String.format("modifyGroups(%s, %s)", projectGroup.getName(), permissionResponse));
+                LOG.debug("modifyGroups(%s, %s)", projectGroup.getName(), permissionResponse);
             }
         }
     }
@@ -179,7 +231,7 @@ public class JenkinsProjectServiceHandler extends AbstractRestfulProjectServiceH
                 final ApplicationLinkRequest linkRequest = factory.createRequest(Request.MethodType.POST, restURI);
                 linkRequest.addHeader("Content-Type", "application/json");
                 final String permissionResponse = linkRequest.execute();
-                LOG.debug(String.format("modifyUsers(%s, %s)", projectMember.getName(), permissionResponse));
+                LOG.debug("modifyUsers(%s, %s)", projectMember.getName(), permissionResponse);
             }
         }
     }
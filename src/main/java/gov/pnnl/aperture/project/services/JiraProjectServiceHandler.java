@@ -55,17 +55,19 @@ import com.atlassian.jira.workflow.WorkflowSchemeManager;
 import com.atlassian.plugin.util.Assertions;
 import com.atlassian.query.Query;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureLogger;
 import gov.pnnl.aperture.ApertureProjectSettings;
 import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProvisioningRequest;
 import gov.pnnl.aperture.JiraUtils;
 import gov.pnnl.aperture.updates.AvatarImageProvider;
-import org.apache.log4j.Logger;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static gov.pnnl.aperture.ApertureConstants.IT_SIMPLE_PROJECT_REQUEST;
 import static gov.pnnl.aperture.ApertureConstants.IT_SOFTWARE_PROJECT_REQUEST;
@@ -81,7 +83,7 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(JiraProjectServiceHandler.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(JiraProjectServiceHandler.class);
     /**
      * Type key for adding user directory groups to project roles.
      *
@@ -134,11 +136,22 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
             final long count = searchService.searchCountOverrideSecurity(settings.getApertureUser(), issueQuery);
             return count <= 0;
         } catch (SearchException e) {
-            LOG.warn(String.format("Failed to execute project issue search for project '%s'", projectKey), e);
+            LOG.warn(e, "Failed to execute project issue search for project '%s'", projectKey);
         }
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void collectProjectKeys(final Consumer<String> projectKeys) {
+
+        for (final Project project : ComponentAccessor.getProjectManager().getProjects()) {
+            projectKeys.accept(project.getKey());
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -152,7 +165,7 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
      * {@inheritDoc}
      */
     @Override
-    public ErrorCollection createService(final MutableIssue issue, final Map<String, Serializable> environment) {
+    public ErrorCollection createService(final ProvisioningRequest projectRequest, final Map<String, Serializable> environment) {
 
         final ErrorCollection errors = new SimpleErrorCollection();
         final JiraAuthenticationContext context = ComponentAccessor.getJiraAuthenticationContext();
@@ -161,21 +174,21 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
 
         final ApertureSettings settings = getApertureSettings();
         final ProjectManager projectManager = ComponentAccessor.getProjectManager();
-        final ApplicationUser projectLead = issue.getReporter();
+        final ApplicationUser projectLead = projectRequest.getReporter();
 
-        final String projectKey = settings.getProjectKeyFor(issue);
+        final String projectKey = projectRequest.getProjectKey().toString();
         final ApplicationProperties applicationProperties = ComponentAccessor.getApplicationProperties();
         final String baseURL = applicationProperties.getString(APKeys.JIRA_BASEURL);
         final String url = String.format("%s/browse/%s", baseURL, projectKey);
 
-        LOG.info(String.format("Provisioning JIRA project:'%s' as user:'%s'", projectKey, currentUser));
+        LOG.info("Provisioning JIRA project:'%s' as user:'%s'", projectKey, currentUser);
 
         ProjectCreationData.Builder builder = new ProjectCreationData.Builder();
         builder.withKey(projectKey);
         builder.withLead(projectLead);
-        builder.withDescription(issue.getDescription());
+        builder.withDescription(projectRequest.getDescription());
         builder.withUrl(url);
-        builder.withName(issue.getSummary());
+        builder.withName(projectRequest.getName());
         //  builder.withType(settings.getProjectTypeFor(issue).getKey() );
         builder.withType(getSoftwareProjectType().getKey());
 
@@ -187,7 +200,7 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
             LOG.warn("Failed to install custom project avatar;using default", error);
         }
 
-        final String categoryFor = settings.getCategoryFor(issue);
+        final String categoryFor = projectRequest.getCategory();
         if (StringUtils.hasText(categoryFor)) {
             ProjectCategory category = projectManager.getProjectCategoryObjectByNameIgnoreCase(categoryFor);
             if (category == null) {
@@ -217,10 +230,12 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
             LOG.warn("Failed to create initial version", ex);
         }
 
+        final MutableIssue issue = projectRequest.getIssue();
         JiraUtils.addErrorCollectionAsComments(issue, "JIRA Remote Link", addServiceLinkTo(issue, "JIRA Project", url));
         addComponentTo(issue);
         final ApertureProjectSettings projectSettings = settings.getProjectSettings(projectKey);
         projectSettings.setCreatedAt(new Date());
+        recordRemoteId("projectId", prj.getId());
         return errors;
     }
 
@@ -228,7 +243,7 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
 
         final AvatarManager am = ComponentAccessor.getAvatarManager();
         final IconOwningObjectId ownerId = IconOwningObjectId.from(prj.getId());
-        final Avatar avatar = am.create(IconType.PROJECT_ICON_TYPE, ownerId, new AvatarImageProvider("/gov/pnnl/aperture/images/new-project-avatar.png"));
+        final Avatar avatar = am.create(IconType.PROJECT_ICON_TYPE, ownerId, AvatarImageProvider.forResource("/gov/pnnl/aperture/images/new-project-avatar.png"));
         projectManager.updateProject(prj, prj.getName(), prj.getDescription(), prj.getLeadUserKey(), prj.getUrl(), prj.getAssigneeType(), avatar.getId());
     }
 
@@ -249,7 +264,7 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
             final ApplicationUser apertureUser = apertureSettings.getApertureUser();
             final ProjectService.DeleteProjectValidationResult validationResult = projectService.validateDeleteProject(apertureUser, projectKey);
             if (validationResult.isValid()) {
-                LOG.info(String.format("Removing project by key [%s] from JIRA", projectKey));
+                LOG.info("Removing project by key [%s] from JIRA", projectKey);
                 final ProjectService.DeleteProjectResult deleteProjectResult = projectService.deleteProject(apertureUser, validationResult);
                 errors.addErrorCollection(deleteProjectResult.getErrorCollection());
             } else {
@@ -271,7 +286,7 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
         final ProjectRole jiraRole = role.getProjectRole();
 
         for (final ApplicationUser user : projectUsers) {
-            LOG.debug(String.format("Adding user:'%s' to project:'%s' under role:'%s'", user.getName(), projectKey, jiraRole.getName()));
+            LOG.debug("Adding user:'%s' to project:'%s' under role:'%s'", user.getName(), projectKey, jiraRole.getName());
             final Set<String> actor = Collections.singleton(user.getKey());
             errors.addErrorCollection(modifyActors(mode, project, actor, jiraRole, USER_ROLE_ACTOR_TYPE, errors));
         }
@@ -290,7 +305,7 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
         final ProjectRole jiraRole = role.getProjectRole();
 
         for (final Group group : projectGroups) {
-            LOG.debug(String.format("Adding group:'%s' to project:'%s' under role:'%s'", group.getName(), projectKey, jiraRole.getName()));
+            LOG.debug("Adding group:'%s' to project:'%s' under role:'%s'", group.getName(), projectKey, jiraRole.getName());
             final Set<String> actor = Collections.singleton(group.getName());
             errors.addErrorCollection(modifyActors(mode, project, actor, jiraRole, GROUP_ROLE_ACTOR_TYPE, errors));
         }
@@ -303,10 +318,10 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
         final PermissionSchemeManager permissionSchemeManager = ComponentAccessor.getPermissionSchemeManager();
         final Scheme scheme = schemeId == null ? null : permissionSchemeManager.getSchemeObject(schemeId);
         if (scheme == null) {
-            LOG.debug(String.format("Assigning default permission scheme to project:'%s'", project.getKey()));
+            LOG.debug("Assigning default permission scheme to project:'%s'", project.getKey());
             permissionSchemeManager.addSchemeToProject(project, permissionSchemeManager.getDefaultSchemeObject());
         } else {
-            LOG.debug(String.format("Assigning permission scheme:'%s' to project:'%s'", scheme.getName(), project.getKey()));
+            LOG.debug("Assigning permission scheme:'%s' to project:'%s'", scheme.getName(), project.getKey());
             permissionSchemeManager.addSchemeToProject(project, scheme);
         }
     }
@@ -326,10 +341,10 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
         final FieldConfigScheme scheme = schemeId == null ? null : fcSchemeManager.getFieldConfigScheme(schemeId);
         if (scheme == null) {
             final FieldConfigScheme defaultScheme = schemeManager.getDefaultIssueTypeScheme();
-            LOG.debug(String.format("Assigning default issue type scheme to project:'%s'", project.getKey()));
+            LOG.debug("Assigning default issue type scheme to project:'%s'", project.getKey());
             fcSchemeManager.updateFieldConfigScheme(defaultScheme, contexts, defaultScheme.getField());
         } else {
-            LOG.debug(String.format("Assigning issue type scheme:'%s' to project:'%s'", scheme.getName(), project.getKey()));
+            LOG.debug("Assigning issue type scheme:'%s' to project:'%s'", scheme.getName(), project.getKey());
             fcSchemeManager.updateFieldConfigScheme(scheme, contexts, scheme.getField());
         }
     }
@@ -339,10 +354,10 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
         final IssueTypeScreenSchemeManager schemeManager = ComponentAccessor.getIssueTypeScreenSchemeManager();
         final IssueTypeScreenScheme scheme = schemeId == null ? null : schemeManager.getIssueTypeScreenScheme(schemeId);
         if (scheme == null) {
-            LOG.debug(String.format("Assigning default issue type screen scheme to project:'%s'", project.getKey()));
+            LOG.debug("Assigning default issue type screen scheme to project:'%s'", project.getKey());
             schemeManager.associateWithDefaultScheme(project);
         } else {
-            LOG.debug(String.format("Assigning issue type screen scheme:'%s' to project:'%s'", scheme.getName(), project.getKey()));
+            LOG.debug("Assigning issue type screen scheme:'%s' to project:'%s'", scheme.getName(), project.getKey());
             schemeManager.addSchemeAssociation(project, scheme);
         }
     }
@@ -352,10 +367,10 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
         final NotificationSchemeManager notificationSchemeManager = ComponentAccessor.getNotificationSchemeManager();
         final Scheme scheme = schemeId == null ? null : notificationSchemeManager.getSchemeObject(schemeId);
         if (scheme == null) {
-            LOG.debug(String.format("Assigning default notification scheme to project:'%s'", project.getKey()));
+            LOG.debug("Assigning default notification scheme to project:'%s'", project.getKey());
             notificationSchemeManager.addDefaultSchemeToProject(project);
         } else {
-            LOG.debug(String.format("Assigning notification scheme:'%s' to project:'%s'", scheme.getName(), project.getKey()));
+            LOG.debug("Assigning notification scheme:'%s' to project:'%s'", scheme.getName(), project.getKey());
             notificationSchemeManager.addSchemeToProject(project, scheme);
         }
     }
@@ -366,7 +381,7 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
         final FieldLayoutScheme scheme = schemeId == null ? null : layoutManager.getMutableFieldLayoutScheme(schemeId);
         // we don't have to assign the field configuration if it is the 'default' one
         if (scheme != null) {
-            LOG.debug(String.format("Assigning field configuration scheme:'%s' to project:'%s'", scheme.getName(), project.getKey()));
+            LOG.debug("Assigning field configuration scheme:'%s' to project:'%s'", scheme.getName(), project.getKey());
             layoutManager.addSchemeAssociation(project, schemeId);
         }
     }
@@ -376,10 +391,10 @@ public class JiraProjectServiceHandler extends AbstractProjectServiceHandler {
         final WorkflowSchemeManager schemeManager = ComponentAccessor.getWorkflowSchemeManager();
         final Scheme scheme = StringUtils.hasText(workflowSchemeName) ? schemeManager.getSchemeObject(workflowSchemeName) : null;
         if (scheme == null) {
-            LOG.debug(String.format("Assigning default workflow scheme to project:'%s'", project.getKey()));
+            LOG.debug("Assigning default workflow scheme to project:'%s'", project.getKey());
             schemeManager.addDefaultSchemeToProject(project);
         } else {
-            LOG.debug(String.format("Assigning workflow scheme:'%s' to project:'%s'", scheme.getName(), project.getKey()));
+            LOG.debug("Assigning workflow scheme:'%s' to project:'%s'", scheme.getName(), project.getKey());
             schemeManager.addSchemeToProject(project, scheme);
         }
     }
@@ -0,0 +1,222 @@
+package gov.pnnl.aperture.project.services;
+
+import com.atlassian.crowd.embedded.api.Group;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.util.ErrorCollection;
+import com.atlassian.plugin.util.Assertions;
+import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureMetrics;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProjectServiceHandler;
+import gov.pnnl.aperture.ProvisioningRequest;
+import gov.pnnl.aperture.ProvisioningTrace;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Project service handler decorator that times every call of the handler it wraps.
+ * <p>
+ * A call counts as failed if it throws or if the error collection it returns has any errors. Each call is also recorded
+ * as a {@link ProvisioningTrace#HANDLER} span of the provisioning trace bound to the current thread, if any.
+ *
+ * @author Developer Central @ PNNL
+ * @see ApertureMetrics#recordOperation(ApertureSettings.ProjectService, ApertureMetrics.Operation, long, boolean)
+ */
+public class MeteredProjectServiceHandler implements ProjectServiceHandler {
+
+    /**
+     * The handler doing the actual work.
+     */
+    private final ProjectServiceHandler handler;
+    /**
+     * Registry the call timings are recorded in.
+     */
+    private final ApertureMetrics metrics;
+
+    /**
+     * Default constructor for this class.
+     * <p>
+     *
+     * @param handler the handler to time.
+     * @param metrics registry to record the call timings in.
+     * @throws IllegalArgumentException if either parameter is <code>null</code>.
+     */
+    public MeteredProjectServiceHandler(final ProjectServiceHandler handler, final ApertureMetrics metrics) {
+
+        Assertions.notNull("ProjectServiceHandler", handler);
+        Assertions.notNull("ApertureMetrics", metrics);
+        this.handler = handler;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the handler this decorator times.
+     * <p>
+     *
+     * @return the wrapped handler.
+     */
+    public ProjectServiceHandler getDelegate() {
+
+        return handler;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ApertureSettings.ProjectService getServiceType() {
+
+        return handler.getServiceType();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ErrorCollection createService(final ProvisioningRequest projectRequest, final Map<String, Serializable> environment) {
+
+        final long started = System.nanoTime();
+        final ProvisioningTrace.Span span = start(ApertureMetrics.Operation.CREATE);
+        boolean failed = true;
+        try {
+            final ErrorCollection errors = handler.createService(projectRequest, environment);
+            failed = errors != null && errors.hasAnyErrors();
+            return errors;
+        } finally {
+            finish(ApertureMetrics.Operation.CREATE, started, span, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ErrorCollection modifyUsers(final String projectKey, final Aperture.PermissionMode mode, final Aperture.Role role, final Collection<ApplicationUser> userList) {
+
+        final long started = System.nanoTime();
+        final ProvisioningTrace.Span span = start(ApertureMetrics.Operation.MODIFY_USERS);
+        boolean failed = true;
+        try {
+            final ErrorCollection errors = handler.modifyUsers(projectKey, mode, role, userList);
+            failed = errors != null && errors.hasAnyErrors();
+            return errors;
+        } finally {
+            finish(ApertureMetrics.Operation.MODIFY_USERS, started, span, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ErrorCollection modifyGroups(final String projectKey, final Aperture.PermissionMode mode, final Aperture.Role role, final Collection<Group> groupList) {
+
+        final long started = System.nanoTime();
+        final ProvisioningTrace.Span span = start(ApertureMetrics.Operation.MODIFY_GROUPS);
+        boolean failed = true;
+        try {
+            final ErrorCollection errors = handler.modifyGroups(projectKey, mode, role, groupList);
+            failed = errors != null && errors.hasAnyErrors();
+            return errors;
+        } finally {
+            finish(ApertureMetrics.Operation.MODIFY_GROUPS, started, span, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ErrorCollection destroyService(final String projectKey, final Map<String, Serializable> environment) {
+
+        final long started = System.nanoTime();
+        final ProvisioningTrace.Span span = start(ApertureMetrics.Operation.DESTROY);
+        boolean failed = true;
+        try {
+            final ErrorCollection errors = handler.destroyService(projectKey, environment);
+            failed = errors != null && errors.hasAnyErrors();
+            return errors;
+        } finally {
+            finish(ApertureMetrics.Operation.DESTROY, started, span, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isServiceAvailable(final String projectKey) {
+
+        final long started = System.nanoTime();
+        final ProvisioningTrace.Span span = start(ApertureMetrics.Operation.IS_SERVICE_AVAILABLE);
+        boolean failed = true;
+        try {
+            final boolean available = handler.isServiceAvailable(projectKey);
+            failed = false;
+            return available;
+        } finally {
+            finish(ApertureMetrics.Operation.IS_SERVICE_AVAILABLE, started, span, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isIdle(final String projectKey) {
+
+        final long started = System.nanoTime();
+        final ProvisioningTrace.Span span = start(ApertureMetrics.Operation.IS_IDLE);
+        boolean failed = true;
+        try {
+            final boolean idle = handler.isIdle(projectKey);
+            failed = false;
+            return idle;
+        } finally {
+            finish(ApertureMetrics.Operation.IS_IDLE, started, span, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void collectProjectKeys(final Consumer<String> projectKeys) {
+
+        final long started = System.nanoTime();
+        final ProvisioningTrace.Span span = start(ApertureMetrics.Operation.COLLECT_PROJECT_KEYS);
+        boolean failed = true;
+        try {
+            handler.collectProjectKeys(projectKeys);
+            failed = false;
+        } finally {
+            finish(ApertureMetrics.Operation.COLLECT_PROJECT_KEYS, started, span, failed);
+        }
+    }
+
+    private ProvisioningTrace.Span start(final ApertureMetrics.Operation operation) {
+
+        return ProvisioningTrace.start(ProvisioningTrace.HANDLER, () -> getServiceType() + "." + operation.getMetricName());
+    }
+
+    private void finish(final ApertureMetrics.Operation operation, final long started, final ProvisioningTrace.Span span, final boolean failed) {
+
+        if (failed) {
+            span.failed();
+        }
+        span.close();
+        metrics.recordOperation(getServiceType(), operation, System.nanoTime() - started, failed);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+
+        return String.format("Metered(%s)", handler.getClass().getName());
+    }
+}
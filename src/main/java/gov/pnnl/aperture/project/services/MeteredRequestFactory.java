@@ -0,0 +1,330 @@
+package gov.pnnl.aperture.project.services;
+
+import com.atlassian.applinks.api.ApplicationLinkRequest;
+import com.atlassian.applinks.api.ApplicationLinkRequestFactory;
+import com.atlassian.applinks.api.ApplicationLinkResponseHandler;
+import com.atlassian.applinks.api.CredentialsRequiredException;
+import com.atlassian.plugin.util.Assertions;
+import com.atlassian.sal.api.net.Request;
+import com.atlassian.sal.api.net.Response;
+import com.atlassian.sal.api.net.ResponseException;
+import com.atlassian.sal.api.net.ResponseHandler;
+import com.atlassian.sal.api.net.ResponseStatusException;
+import com.atlassian.sal.api.net.ReturningResponseHandler;
+import gov.pnnl.aperture.ApertureMetrics;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProvisioningTrace;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Application link request factory decorator that counts every response by HTTP status class and size.
+ * <p>
+ * Requests are wrapped so that the response handler given to any of the <code>execute</code> methods sees the response
+ * after it has been recorded; the size of a response is taken from its <code>Content-Length</code> header, or counted
+ * from the body returned by {@link ApplicationLinkRequest#execute()}. An execution that fails with a
+ * {@link ResponseException} before a response is recorded is recorded with its status, or as status <code>0</code>
+ * when there is no response. Each execution is also recorded as a {@link ProvisioningTrace#REMOTE} span of the
+ * provisioning trace bound to the current thread, if any.
+ *
+ * @author Developer Central @ PNNL
+ * @see ApertureMetrics#recordResponse(ApertureSettings.ProjectService, int, long)
+ */
+public class MeteredRequestFactory implements ApplicationLinkRequestFactory {
+
+    /**
+     * The request factory of the application link.
+     */
+    private final ApplicationLinkRequestFactory factory;
+    /**
+     * The project service the application link belongs to.
+     */
+    private final ApertureSettings.ProjectService service;
+    /**
+     * Registry the responses are recorded in.
+     */
+    private final ApertureMetrics metrics;
+
+    /**
+     * Default constructor for this class.
+     * <p>
+     *
+     * @param factory the request factory to decorate.
+     * @param service the project service the application link belongs to.
+     * @param metrics registry to record the responses in.
+     * @throws IllegalArgumentException if any of the parameters are <code>null</code>.
+     */
+    public MeteredRequestFactory(final ApplicationLinkRequestFactory factory, final ApertureSettings.ProjectService service, final ApertureMetrics metrics) {
+
+        Assertions.notNull("ApplicationLinkRequestFactory", factory);
+        Assertions.notNull("ProjectService", service);
+        Assertions.notNull("ApertureMetrics", metrics);
+        this.factory = factory;
+        this.service = service;
+        this.metrics = metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ApplicationLinkRequest createRequest(final Request.MethodType methodType, final String url) throws CredentialsRequiredException {
+
+        final ApplicationLinkRequest request = factory.createRequest(methodType, url);
+        return ApplicationLinkRequest.class.cast(Proxy.newProxyInstance(MeteredRequestFactory.class.getClassLoader(), new Class<?>[]{ApplicationLinkRequest.class}, new MeteredRequest(request, methodType, url)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public URI getAuthorisationURI(final URI callback) {
+
+        return factory.getAuthorisationURI(callback);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public URI getAuthorisationURI() {
+
+        return factory.getAuthorisationURI();
+    }
+
+    /**
+     * Counts the bytes of the UTF-8 encoding of a body without encoding it.
+     * <p>
+     *
+     * @param body the body of a response.
+     * @return the length of the body in bytes.
+     */
+    public static long utf8Length(final CharSequence body) {
+
+        long length = 0;
+        for (int i = 0; i < body.length(); i++) {
+            final char c = body.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < body.length() && Character.isLowSurrogate(body.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // an unpaired surrogate is encoded as a single '?' //
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static long contentLength(final Response response) {
+
+        long length = -1;
+        final Map<String, String> headers = response.getHeaders();
+        if (headers != null) {
+            for (final Map.Entry<String, String> header : headers.entrySet()) {
+                if ("Content-Length".equalsIgnoreCase(header.getKey())) {
+                    try {
+                        length = Long.parseLong(header.getValue().trim());
+                    } catch (NumberFormatException ex) {
+                        length = -1;
+                    }
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Invocation handler that routes the <code>execute</code> methods of a request through the metered handlers.
+     */
+    private final class MeteredRequest implements InvocationHandler {
+
+        private final ApplicationLinkRequest request;
+        private final Request.MethodType methodType;
+        private final String url;
+
+        MeteredRequest(final ApplicationLinkRequest request, final Request.MethodType methodType, final String url) {
+
+            this.request = request;
+            this.methodType = methodType;
+            this.url = url;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+
+            final String name = method.getName();
+            if ("execute".equals(name) && (args == null || args.length == 0)) {
+                return executeForBody();
+            }
+            if (args != null && args.length == 1) {
+                if ("execute".equals(name) && args[0] instanceof ApplicationLinkResponseHandler) {
+                    try (Exchange exchange = new Exchange(this::spanName)) {
+                        try {
+                            return request.execute(new MeteredResponseHandler<>((ApplicationLinkResponseHandler<Object>) args[0], exchange));
+                        } catch (ResponseException ex) {
+                            exchange.failed(ex);
+                            throw ex;
+                        }
+                    }
+                } else if ("execute".equals(name) && args[0] instanceof ResponseHandler) {
+                    final ResponseHandler<Response> handler = (ResponseHandler<Response>) args[0];
+                    try (Exchange exchange = new Exchange(this::spanName)) {
+                        try {
+                            request.execute(response -> {
+                                exchange.record(response);
+                                handler.handle(response);
+                            });
+                        } catch (ResponseException ex) {
+                            exchange.failed(ex);
+                            throw ex;
+                        }
+                    }
+                    return null;
+                } else if ("executeAndReturn".equals(name) && args[0] instanceof ReturningResponseHandler) {
+                    final ReturningResponseHandler<Response, Object> handler = (ReturningResponseHandler<Response, Object>) args[0];
+                    try (Exchange exchange = new Exchange(this::spanName)) {
+                        try {
+                            return request.executeAndReturn(response -> {
+                                exchange.record(response);
+                                return handler.handle(response);
+                            });
+                        } catch (ResponseException ex) {
+                            exchange.failed(ex);
+                            throw ex;
+                        }
+                    }
+                }
+            }
+            try {
+                final Object result = method.invoke(request, args);
+                // keep fluent calls on the metered request rather than leaking the undecorated one //
+                return result == request ? proxy : result;
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        private String executeForBody() throws ResponseException {
+
+            try (Exchange exchange = new Exchange(this::spanName)) {
+                try {
+                    final String body = request.execute();
+                    exchange.record(200, body == null ? 0 : utf8Length(body));
+                    return body;
+                } catch (ResponseException ex) {
+                    exchange.failed(ex);
+                    throw ex;
+                }
+            }
+        }
+
+        private String spanName() {
+
+            final int query = url == null ? -1 : url.indexOf('?');
+            return methodType + " " + (query < 0 ? url : url.substring(0, query));
+        }
+    }
+
+    /**
+     * A single execution of a request; records its response, or the exception it failed with, exactly once.
+     */
+    private final class Exchange implements AutoCloseable {
+
+        private final ProvisioningTrace.Span span;
+        private boolean recorded = false;
+
+        Exchange(final Supplier<String> name) {
+
+            this.span = ProvisioningTrace.start(ProvisioningTrace.REMOTE, name);
+        }
+
+        void record(final Response response) {
+
+            record(response.getStatusCode(), contentLength(response));
+        }
+
+        void record(final int statusCode, final long length) {
+
+            if (recorded) {
+                return;
+            }
+            recorded = true;
+            metrics.recordResponse(service, statusCode, length);
+            span.setStatus(Integer.toString(statusCode));
+            if (statusCode >= 400) {
+                span.failed();
+            }
+        }
+
+        void failed(final ResponseException ex) {
+
+            if (ex instanceof ResponseStatusException && ((ResponseStatusException) ex).getResponse() != null) {
+                record(((ResponseStatusException) ex).getResponse());
+            } else if (!recorded) {
+                recorded = true;
+                metrics.recordResponse(service, 0, -1);
+            }
+            span.failed();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+
+            span.close();
+        }
+    }
+
+    /**
+     * Application link response handler that records the response before delegating.
+     */
+    private final class MeteredResponseHandler<R> implements ApplicationLinkResponseHandler<R> {
+
+        private final ApplicationLinkResponseHandler<R> handler;
+        private final Exchange exchange;
+
+        MeteredResponseHandler(final ApplicationLinkResponseHandler<R> handler, final Exchange exchange) {
+
+            this.handler = handler;
+            this.exchange = exchange;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public R credentialsRequired(final Response response) throws ResponseException {
+
+            exchange.record(response);
+            return handler.credentialsRequired(response);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public R handle(final Response response) throws ResponseException {
+
+            exchange.record(response);
+            return handler.handle(response);
+        }
+    }
+}
@@ -10,8 +10,8 @@ import com.atlassian.jira.util.ErrorCollection;
 import com.atlassian.plugin.util.Assertions;
 import com.atlassian.scheduler.JobRunner;
 import com.opensymphony.workflow.loader.ActionDescriptor;
+import gov.pnnl.aperture.ApertureLogger;
 import gov.pnnl.aperture.JiraUtils;
-import org.apache.log4j.Logger;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
@@ -28,7 +28,7 @@ public abstract class AbstractAperturePluginJob implements JobRunner {
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(AbstractAperturePluginJob.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(AbstractAperturePluginJob.class);
 
     /**
      * Get issue parameters when a background task is automating an existing JIRA workflow.
@@ -59,10 +59,10 @@ public abstract class AbstractAperturePluginJob implements JobRunner {
     boolean deliverEmail(final Map<String, Object> parameters, final String to, final String body, final String subject) throws IOException {
 
         if (StringUtils.hasText(to)) {
-            LOG.debug(String.format("Sending email notification to:'%s'", to));
+            LOG.debug("Sending email notification to:'%s'", to);
             return JiraUtils.deliverEmail(parameters, to, body, subject);
         }
-        LOG.debug(String.format("Skipping email notification:'%s' due to an empty to: parameter", subject));
+        LOG.debug("Skipping email notification:'%s' due to an empty to: parameter", subject);
         return false;
     }
 
@@ -86,14 +86,14 @@ public abstract class AbstractAperturePluginJob implements JobRunner {
         final IssueService.TransitionValidationResult tvr = issueService.validateTransition(user, issue.getId(), workflowActionId, transitionDetails);
 
         if (!tvr.isValid()) {
-            LOG.error(String.format("Failed to transition issue [%s] using action [%s (%s)]", issue.getKey(), workflowAction.getName(), workflowActionId));
+            LOG.error("Failed to transition issue [%s] using action [%s (%s)]", issue.getKey(), workflowAction.getName(), workflowActionId);
             final ErrorCollection errorCollection = tvr.getErrorCollection();
             for (final String error : errorCollection.getErrorMessages()) {
-                LOG.error(String.format("Transition error -- %s", error));
+                LOG.error("Transition error -- %s", error);
             }
             return false;
         }
-        LOG.debug(String.format("Transitioning issue for action [%s (%s)]", workflowAction.getName(), workflowActionId));
+        LOG.debug("Transitioning issue for action [%s (%s)]", workflowAction.getName(), workflowActionId);
         issueService.transition(user, tvr);
         return true;
     }
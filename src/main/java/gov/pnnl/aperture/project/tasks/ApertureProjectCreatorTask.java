@@ -20,23 +20,44 @@ import com.atlassian.scheduler.JobRunnerRequest;
 import com.atlassian.scheduler.JobRunnerResponse;
 import com.atlassian.scheduler.config.JobConfig;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureCheckpointStore;
+import gov.pnnl.aperture.ApertureLogger;
+import gov.pnnl.aperture.ApertureScheduler;
 import gov.pnnl.aperture.ApertureSettings;
 import gov.pnnl.aperture.JiraUtils;
+import gov.pnnl.aperture.MembershipResolver;
+import gov.pnnl.aperture.ProvisioningBatch;
+import gov.pnnl.aperture.ProvisioningCheckpoint;
+import gov.pnnl.aperture.ProvisioningRequest;
+import gov.pnnl.aperture.ProvisioningTrace;
 import gov.pnnl.aperture.WorkflowConfiguration;
-import org.apache.log4j.Logger;
 
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Background task that creates a new project in JIRA as well as other connected services.
  * <p>
+ * Each run is recorded as a {@link ProvisioningTrace} and stored on the request issue. Every completed step is persisted
+ * as a {@link ProvisioningCheckpoint}, so a run that was interrupted (or that failed and is run again) resumes from the
+ * last completed step rather than repeating the remote calls of the steps before it.
+ * <p>
+ * When {@link ApertureSettings#isKeepSuccessfulServices()} is enabled a run whose project services partly failed is
+ * retried in the background instead of being triaged; the delay doubles with every attempt from
+ * <code>aperture.retry.delay</code> minutes (default 5) up to 4 hours, and the request is triaged once
+ * <code>aperture.retry.attempts</code> attempts (default 5) have failed.
+ * <p>
+ * A job scheduled for a {@link ProvisioningBatch} creates the projects of all its requests in one run, sharing remote
+ * resources between them. At most <code>aperture.membership.max-members</code> members (default unlimited) are
+ * resolved for the project of a request.
  *
  * @author Developer Central @ PNNL
  */
@@ -45,7 +66,23 @@ public class ApertureProjectCreatorTask extends AbstractAperturePluginJob {
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(ApertureProjectCreatorTask.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(ApertureProjectCreatorTask.class);
+    /**
+     * Number of attempts at a failed project service before the request is triaged.
+     */
+    private static final int RETRY_ATTEMPTS = Math.max(1, Integer.getInteger("aperture.retry.attempts", 5));
+    /**
+     * Delay before the first retry of failed project services.
+     */
+    private static final long RETRY_DELAY = TimeUnit.MINUTES.toMillis(Math.max(1, Integer.getInteger("aperture.retry.delay", 5)));
+    /**
+     * Longest delay between retries of failed project services.
+     */
+    private static final long MAX_RETRY_DELAY = TimeUnit.HOURS.toMillis(4);
+    /**
+     * Maximum number of members resolved for the project of a request.
+     */
+    private static final int MAX_MEMBERS = Integer.getInteger("aperture.membership.max-members", MembershipResolver.UNLIMITED);
     /**
      * Reference to the installed OSGI instance of {@link ApertureSettings} in this JIRA instance.
      */
@@ -54,12 +91,22 @@ public class ApertureProjectCreatorTask extends AbstractAperturePluginJob {
      * Reference to the installed OSGI instance of {@link Aperture} in this JIRA instance.
      */
     private final Aperture aperture;
+    /**
+     * Reference to the installed OSGI instance of {@link ApertureCheckpointStore} in this JIRA instance.
+     */
+    private final ApertureCheckpointStore checkpointStore;
+    /**
+     * Reference to the installed OSGI instance of {@link ApertureScheduler} in this JIRA instance.
+     */
+    private final ApertureScheduler scheduler;
 
     @Inject
-    public ApertureProjectCreatorTask(@NotNull final Aperture aperture, @NotNull final ApertureSettings apertureSettings) {
+    public ApertureProjectCreatorTask(@NotNull final Aperture aperture, @NotNull final ApertureSettings apertureSettings, @NotNull final ApertureCheckpointStore checkpointStore, @NotNull final ApertureScheduler scheduler) {
 
         this.apertureSettings = apertureSettings;
         this.aperture = aperture;
+        this.checkpointStore = checkpointStore;
+        this.scheduler = scheduler;
     }
 
     /**
@@ -71,20 +118,26 @@ public class ApertureProjectCreatorTask extends AbstractAperturePluginJob {
         final JobConfig jobConfig = jobRunnerRequest.getJobConfig();
         final Map<String, Serializable> environment = jobConfig.getParameters();
         LOG.info("Running Aperture Project Creator Task.");
-        LOG.debug(String.format("Project Creator Task Environment: %s", new JSONObject(environment)));
+        LOG.debug(() -> String.format("Project Creator Task Environment: %s", new JSONObject(environment)));
 
         final String issueKey = (String) environment.get("issue-key");
+        final String batchIssueKeys = (String) environment.get("issue-keys");
+        final MembershipResolver membershipResolver = MembershipResolver.open(MAX_MEMBERS);
         try {
+            if (StringUtils.hasText(batchIssueKeys)) {
+                return createBatchProjects((String) environment.get("batch-id"), batchIssueKeys.split(","));
+            }
             if (StringUtils.hasText(issueKey)) {
-                createApertureProject(issueKey, environment);
+                final Exception error = createTracedProject(issueKey, environment);
+                if (error != null) {
+                    return JobRunnerResponse.failed(error);
+                }
                 return JobRunnerResponse.success(String.format("Successfully created project from JIRA-Issue:'%s'", issueKey));
             }
             LOG.error("Failed to create project no issue-key reference in environment.");
             return JobRunnerResponse.failed("Failed to create project no issue-key reference in environment.");
-        } catch (RuntimeException ex) {
-            LOG.error(String.format("Failed to create project from JIRA-Issue:'%s'", issueKey), ex);
-            return JobRunnerResponse.failed(ex);
         } finally {
+            membershipResolver.close();
             LOG.info("Finished executing ApertureProjectCreatorTask");
             final MailQueue emailQueue = ComponentAccessor.getMailQueue();
             if (!emailQueue.isSending()) {
@@ -93,48 +146,151 @@ public class ApertureProjectCreatorTask extends AbstractAperturePluginJob {
         }
     }
 
+    /**
+     * Creates the projects of a batch of requests one after another, sharing remote resources between them.
+     * <p>
+     * A request that fails is triaged as usual and does not stop the rest of the batch.
+     *
+     * @param batchId   identifier of the batch.
+     * @param issueKeys keys of the request issues in the batch.
+     * @return the job response summarizing the batch.
+     */
+    private JobRunnerResponse createBatchProjects(final String batchId, final String[] issueKeys) {
+
+        int failed = 0;
+        try (ProvisioningBatch ignored = ProvisioningBatch.open(batchId)) {
+            for (final String issueKey : issueKeys) {
+                LOG.info("Creating project %s of batch:'%s'", issueKey, batchId);
+                final Map<String, Serializable> environment = new HashMap<>();
+                environment.put("issue-key", issueKey);
+                environment.put("batch-id", batchId);
+                if (createTracedProject(issueKey, environment) != null) {
+                    failed++;
+                }
+            }
+        }
+        if (failed > 0) {
+            LOG.warn("Failed to create %d of %d project(s) of batch:'%s'", failed, issueKeys.length, batchId);
+        }
+        return JobRunnerResponse.success(String.format("Created %d of %d project(s) of batch:'%s'", issueKeys.length - failed, issueKeys.length, batchId));
+    }
+
+    /**
+     * Creates the project of a request issue and stores the trace of the run on the issue.
+     * <p>
+     *
+     * @param issueKey    key of the request issue.
+     * @param environment the job environment of the request.
+     * @return the error that stopped the run; or <code>null</code> if the run did not fail unexpectedly.
+     */
+    private Exception createTracedProject(final String issueKey, final Map<String, Serializable> environment) {
+
+        final ProvisioningTrace trace = ProvisioningTrace.open("create");
+        try {
+            if (!createApertureProject(issueKey, environment)) {
+                trace.failed();
+            }
+            return null;
+        } catch (RuntimeException ex) {
+            trace.failed();
+            LOG.error(ex, "Failed to create project from JIRA-Issue:'%s'", issueKey);
+            return ex;
+        } finally {
+            trace.store(ComponentAccessor.getIssueManager().getIssueByKeyIgnoreCase(issueKey));
+        }
+    }
+
     private boolean createApertureProject(final String issueKey, final Map<String, Serializable> environment) throws DataAccessException {
+
+        try (ProvisioningCheckpoint checkpoint = ProvisioningCheckpoint.open(checkpointStore, issueKey)) {
+            if (!checkpoint.getSteps().isEmpty()) {
+                LOG.info("Resuming project creation for issue-key:[%s] after %d completed step(s)", issueKey, checkpoint.getSteps().size());
+            }
+            final boolean created = createApertureProject(issueKey, environment, checkpoint);
+            if (created) {
+                checkpointStore.remove(issueKey);
+            } else if (checkpoint.getRetryAt() == null && !apertureSettings.isKeepSuccessfulServices()) {
+                // the request has been triaged and its services are not kept; a later run starts over from scratch //
+                checkpointStore.remove(issueKey);
+            } else if (checkpoint.getRetryAt() == null) {
+                // the request has been triaged; a later run has to start the issue over while keeping the services //
+                checkpoint.revert(ProvisioningCheckpoint.START);
+            }
+            return created;
+        }
+    }
+
+    private boolean createApertureProject(final String issueKey, final Map<String, Serializable> environment, final ProvisioningCheckpoint checkpoint) throws DataAccessException {
+
         final JiraAuthenticationContext context = ComponentAccessor.getJiraAuthenticationContext();
         final IssueManager issueManager = ComponentAccessor.getIssueManager();
         final MutableIssue projectIssue = issueManager.getIssueByKeyIgnoreCase(issueKey);
-        final String projectKey = apertureSettings.getProjectKeyFor(projectIssue);
+        final ProvisioningRequest request = ProvisioningRequest.of(projectIssue, apertureSettings);
+        final String projectKey = request.getProjectKey().toString();
         final WorkflowConfiguration wfConfig = apertureSettings.getWorkflowConfiguration();
+        if (checkpoint.recordProjectKey(projectKey)) {
+            LOG.warn("Discarded the checkpoint of issue-key:[%s]; its project key changed to %s", issueKey, projectKey);
+        }
 
         context.setLoggedInUser(apertureSettings.getApertureUser());
         JiraUtils.assignIssue(apertureSettings.getApertureUser(), projectIssue);
 
-        LOG.info(String.format("Creating project by issue-key:[%s] by:'%s'", issueKey, context.getLoggedInUser()));
-        IssueInputParameters inputParameters = getWorkflowParameters();
-        inputParameters.setComment(String.format("Starting work on creating software project resources for %s", projectKey));
-        transitionIssue(apertureSettings.getApertureUser(), projectIssue, wfConfig.getStartAction(), inputParameters);
+        LOG.info("Creating project by issue-key:[%s] by:'%s'", issueKey, context.getLoggedInUser());
+        IssueInputParameters inputParameters;
+        if (!checkpoint.isComplete(ProvisioningCheckpoint.START)) {
+            inputParameters = getWorkflowParameters();
+            inputParameters.setComment(String.format("Starting work on creating software project resources for %s", projectKey));
+            try (ProvisioningTrace.Span ignored = ProvisioningTrace.start(ProvisioningTrace.PHASE, "startTransition")) {
+                transitionIssue(apertureSettings.getApertureUser(), projectIssue, wfConfig.getStartAction(), inputParameters);
+            }
+            checkpoint.complete(ProvisioningCheckpoint.START);
+        }
 
         ErrorCollection actionErrors;
-        actionErrors = aperture.createProject(projectIssue, environment);
-        if (handleActionErrors(actionErrors, projectIssue, projectKey)) {
-            LOG.warn(String.format("Failed to provision project resources for project:%s ", projectKey));
+        try (ProvisioningTrace.Span ignored = ProvisioningTrace.start(ProvisioningTrace.PHASE, "createProject")) {
+            actionErrors = aperture.createProject(projectIssue, environment);
+        }
+        if (actionErrors.hasAnyErrors() && apertureSettings.isKeepSuccessfulServices() && scheduleRetry(projectIssue, projectKey, checkpoint, actionErrors)) {
+            LOG.warn("Failed to provision services %s for project:%s; retrying at %s", checkpoint.getFailures().keySet(), projectKey, checkpoint.getRetryAt());
             return false;
         }
-
-        final Collection<ApplicationUser> users = apertureSettings.getUsersFor(projectIssue);
-        actionErrors = aperture.modifyProjectUserPermissions(projectKey, Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER, users);
         if (handleActionErrors(actionErrors, projectIssue, projectKey)) {
-            LOG.warn(String.format("Failed to modify user permissions for project:%s ", projectKey));
+            LOG.warn("Failed to provision project resources for project:%s ", projectKey);
             return false;
         }
 
-        final Collection<Group> groups = apertureSettings.getGroupsFor(projectIssue);
-        actionErrors = aperture.modifyProjectGroupPermissions(projectKey, Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER, groups);
-        if (handleActionErrors(actionErrors, projectIssue, projectKey)) {
-            LOG.warn(String.format("Failed to modify group permissions for project:%s ", projectKey));
-            return false;
+        if (!checkpoint.isComplete(ProvisioningCheckpoint.USERS)) {
+            final Collection<ApplicationUser> users = request.getUsers();
+            try (ProvisioningTrace.Span ignored = ProvisioningTrace.start(ProvisioningTrace.PHASE, "modifyProjectUserPermissions")) {
+                actionErrors = aperture.modifyProjectUserPermissions(projectKey, Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER, users);
+            }
+            if (handleActionErrors(actionErrors, projectIssue, projectKey)) {
+                LOG.warn("Failed to modify user permissions for project:%s ", projectKey);
+                return false;
+            }
+            checkpoint.complete(ProvisioningCheckpoint.USERS);
         }
 
-        LOG.info(String.format("finishing project provisioning on [%s/%s]", issueKey, projectKey));
+        if (!checkpoint.isComplete(ProvisioningCheckpoint.GROUPS)) {
+            final Collection<Group> groups = request.getGroups();
+            try (ProvisioningTrace.Span ignored = ProvisioningTrace.start(ProvisioningTrace.PHASE, "modifyProjectGroupPermissions")) {
+                actionErrors = aperture.modifyProjectGroupPermissions(projectKey, Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER, groups);
+            }
+            if (handleActionErrors(actionErrors, projectIssue, projectKey)) {
+                LOG.warn("Failed to modify group permissions for project:%s ", projectKey);
+                return false;
+            }
+            checkpoint.complete(ProvisioningCheckpoint.GROUPS);
+        }
+
+        LOG.info("finishing project provisioning on [%s/%s]", issueKey, projectKey);
         inputParameters = getWorkflowParameters();
         inputParameters.setComment(String.format("All software resources have been successfully provisioned for %s.", projectKey));
         inputParameters.setResolutionId(getResolutionStatus(wfConfig));
         inputParameters.setSkipScreenCheck(true);
-        transitionIssue(apertureSettings.getApertureUser(), projectIssue, wfConfig.getFinishAction(), inputParameters);
+        try (ProvisioningTrace.Span ignored = ProvisioningTrace.start(ProvisioningTrace.PHASE, "finishTransition")) {
+            transitionIssue(apertureSettings.getApertureUser(), projectIssue, wfConfig.getFinishAction(), inputParameters);
+        }
         return true;
     }
 
@@ -158,7 +314,7 @@ public class ApertureProjectCreatorTask extends AbstractAperturePluginJob {
                 if (Objects.nonNull(serviceLead)) {
                     inputParameters.setAssigneeId(serviceLead.getName());
                 } else {
-                    LOG.warn(String.format("Cannot auto-assign issue due to invalid component (no lead most likely?) for service %s", failedServiceKey));
+                    LOG.warn("Cannot auto-assign issue due to invalid component (no lead most likely?) for service %s", failedServiceKey);
                 }
             }
 
@@ -173,13 +329,48 @@ public class ApertureProjectCreatorTask extends AbstractAperturePluginJob {
         return false;
     }
 
+    /**
+     * Schedules another run of a request whose project services partly failed, keeping the services that succeeded.
+     * <p>
+     *
+     * @param issue      the project request issue.
+     * @param projectKey the project key of the request.
+     * @param checkpoint the checkpoint the failed services are recorded on.
+     * @param errors     the errors of the failed services.
+     * @return <code>true</code> if a retry was scheduled; <code>false</code> if the retries are exhausted.
+     */
+    private boolean scheduleRetry(final MutableIssue issue, final String projectKey, final ProvisioningCheckpoint checkpoint, final ErrorCollection errors) {
+
+        final int attempts = checkpoint.getAttempts();
+        if (checkpoint.getFailures().isEmpty() || attempts >= RETRY_ATTEMPTS) {
+            return false;
+        }
+        final Date retryAt = new Date(System.currentTimeMillis() + getRetryDelay(attempts));
+        checkpoint.retryAt(retryAt);
+        JiraUtils.addErrorCollectionAsComments(issue, String.format("%s (attempt %d of %d; retrying %s at %s)", projectKey, attempts, RETRY_ATTEMPTS, checkpoint.getFailures().keySet(), retryAt), errors);
+        scheduler.scheduleProjectRetry(issue, retryAt);
+        return true;
+    }
+
+    /**
+     * Gets the delay before the next attempt at the failed project services of a request.
+     * <p>
+     * The delay doubles with every attempt from <code>aperture.retry.delay</code> minutes up to 4 hours.
+     *
+     * @param attempts the number of attempts made so far; at least <code>1</code>.
+     * @return the delay in milliseconds.
+     */
+    public static long getRetryDelay(final int attempts) {
+
+        return Math.min(MAX_RETRY_DELAY, RETRY_DELAY << Math.min(Math.max(attempts, 1) - 1, 16));
+    }
+
     private boolean deliverCreationErrors(final Issue issue, final String projectKey, final ErrorCollection errors) throws IOException {
 
         final JiraAuthenticationContext context = ComponentAccessor.getJiraAuthenticationContext();
         final String subject = String.format("[Aperture] %s - provisioning failed for project : %s", issue.getKey(), projectKey);
         final Map<String, Object> overrides = new HashMap<>();
-        final ApertureSettings settings = ComponentAccessor.getOSGiComponentInstanceOfType(ApertureSettings.class);
-        final String emailAddress = settings.getApertureEmailAddress();
+        final String emailAddress = apertureSettings.getApertureEmailAddress();
         if (StringUtils.hasText(emailAddress)) {
             overrides.put("projectKey", projectKey);
             overrides.put("i18n", ComponentAccessor.getI18nHelperFactory().getInstance(context.getLoggedInUser()));
@@ -6,23 +6,51 @@ import com.atlassian.jira.security.JiraAuthenticationContext;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.util.UserManager;
 import com.atlassian.jira.util.ErrorCollection;
+import com.atlassian.jira.util.SimpleErrorCollection;
 import com.atlassian.mail.queue.MailQueue;
 import com.atlassian.scheduler.JobRunnerRequest;
 import com.atlassian.scheduler.JobRunnerResponse;
+import com.atlassian.scheduler.SchedulerService;
+import com.atlassian.scheduler.SchedulerServiceException;
 import com.atlassian.scheduler.config.JobConfig;
+import com.atlassian.scheduler.config.JobId;
+import com.atlassian.scheduler.config.JobRunnerKey;
+import com.atlassian.scheduler.config.Schedule;
+import com.atlassian.scheduler.status.JobDetails;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureLogger;
+import gov.pnnl.aperture.ApertureScheduler;
 import gov.pnnl.aperture.ApertureSettings;
-import org.apache.log4j.Logger;
+import gov.pnnl.aperture.NotificationBatch;
+import org.springframework.util.Assert;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Background task that removes a project from JIRA as well as other connected services.
+ * <p>
+ * Removal jobs scheduled together by {@link ApertureScheduler#scheduleProjectRemovals(Collection)} share a
+ * <code>batch-id</code>; the first of them to run claims the other jobs of its batch that are still scheduled, removes
+ * all of their projects with {@link Aperture#removeProjects(Collection, Map)} and sends one digest email per recipient
+ * listing every project of the batch they were a member of, instead of one email per project. Should the removal fail
+ * before a claimed project was removed, the job of that project is scheduled again to run
+ * <code>aperture.removal.reschedule-delay</code> minutes (default 15) later. Removal jobs run locally, so claims are
+ * only tracked on the node running the task.
+ *
  * @author Developer Central @ PNNL
  */
 public class ApertureProjectRemovalTask extends AbstractAperturePluginJob {
@@ -30,7 +58,25 @@ public class ApertureProjectRemovalTask extends AbstractAperturePluginJob {
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(ApertureProjectRemovalTask.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(ApertureProjectRemovalTask.class);
+    /**
+     * Time in milliseconds after which the job of a claimed project that was not removed runs again.
+     */
+    private static final long RESCHEDULE_DELAY = TimeUnit.MINUTES.toMillis(Math.max(1, Integer.getInteger("aperture.removal.reschedule-delay", 15)));
+    /**
+     * Keys of the projects claimed by a batch removal that is running on this node.
+     */
+    private final Set<String> claimed = new HashSet<>();
+    /**
+     * Reference to the JIRA scheduler service the removal jobs are scheduled with.
+     */
+    private final SchedulerService schedulerService;
+
+    public ApertureProjectRemovalTask(final SchedulerService schedulerService) {
+
+        Assert.notNull(schedulerService, "SchedulerService reference cannot be null.");
+        this.schedulerService = schedulerService;
+    }
 
     /**
      * {@inheritDoc}
@@ -45,7 +91,11 @@ public class ApertureProjectRemovalTask extends AbstractAperturePluginJob {
         final Aperture aperture = ComponentAccessor.getOSGiComponentInstanceOfType(Aperture.class);
         final String requestor = (String) environment.get("username");
         final String projectKey = (String) environment.get("project-key");
-        LOG.info(String.format("Beginning project removal for key:[%s]; requested by:%s", projectKey, requestor));
+        final String batchId = (String) environment.get("batch-id");
+        if (StringUtils.hasText(batchId)) {
+            return removeBatch(aperture, jobRunnerRequest.getJobId(), batchId, environment);
+        }
+        LOG.info("Beginning project removal for key:[%s]; requested by:%s", projectKey, requestor);
         try {
             final UserManager userManager = ComponentAccessor.getUserManager();
             final JiraAuthenticationContext context = ComponentAccessor.getJiraAuthenticationContext();
@@ -59,10 +109,10 @@ public class ApertureProjectRemovalTask extends AbstractAperturePluginJob {
             sendEmailNotification(environment, projectMembers);
             return JobRunnerResponse.success("");
         } catch (IOException ex) {
-            LOG.error(ex);
+            LOG.error(ex, "Failed to remove project:[%s]", projectKey);
             return JobRunnerResponse.failed(ex);
         } finally {
-            LOG.info(String.format("Finished executing project removal:[%s]", projectKey));
+            LOG.info("Finished executing project removal:[%s]", projectKey);
             final MailQueue emailQueue = ComponentAccessor.getMailQueue();
             if (!emailQueue.isSending()) {
                 emailQueue.sendBuffer();
@@ -70,29 +120,195 @@ public class ApertureProjectRemovalTask extends AbstractAperturePluginJob {
         }
     }
 
-    private void sendEmailNotification(final Map<String, Serializable> environment, final Collection<ApplicationUser> projectMembers) throws IOException {
+    /**
+     * Removes the projects of every job of a batch that is still scheduled together with the project of this job.
+     * <p>
+     *
+     * @param aperture    reference to the current aperture service.
+     * @param jobId       identifier of the running job.
+     * @param batchId     identifier of the batch the job belongs to.
+     * @param environment parameters of the running job.
+     * @return the job response summarizing the batch removal.
+     */
+    private JobRunnerResponse removeBatch(final Aperture aperture, final JobId jobId, final String batchId, final Map<String, Serializable> environment) {
+
+        final Map<String, JobDetails> claimedJobs = claimBatch(jobId, batchId, (String) environment.get("project-key"));
+        final Collection<String> projectKeys = claimedJobs.keySet();
+        if (projectKeys.isEmpty()) {
+            LOG.info("Project:[%s] is already being removed by batch:'%s'", environment.get("project-key"), batchId);
+            return JobRunnerResponse.success("");
+        }
+        final String requestor = (String) environment.get("username");
+        LOG.info("Beginning removal of %d project(s) of batch:'%s'; requested by:%s", projectKeys.size(), batchId, requestor);
+        Map<String, ErrorCollection> removals = Collections.emptyMap();
+        try {
+            final UserManager userManager = ComponentAccessor.getUserManager();
+            final JiraAuthenticationContext context = ComponentAccessor.getJiraAuthenticationContext();
+            context.setLoggedInUser(userManager.getUserByName("admin"));
+
+            // members have to be read before the projects, and their roles, are gone //
+            final Map<String, Collection<ApplicationUser>> projectMembers = aperture.getProjectMembers(projectKeys, false);
+            final Map<String, Serializable> batchEnvironment = new HashMap<>(environment);
+            batchEnvironment.remove("project-key");
+            removals = aperture.removeProjects(projectKeys, batchEnvironment);
+            final ErrorCollection errors = new SimpleErrorCollection();
+            for (final Map.Entry<String, ErrorCollection> removal : removals.entrySet()) {
+                final List<String> messages = new ArrayList<>(removal.getValue().getErrorMessages());
+                messages.addAll(removal.getValue().getErrors().values());
+                for (final String message : messages) {
+                    errors.addErrorMessage(String.format("[%s] %s", removal.getKey(), message));
+                }
+            }
+            if (errors.hasAnyErrors()) {
+                deliverRemovalErrors(userManager.getUserByName(requestor), String.join(", ", projectKeys), errors);
+            }
+            sendDigestNotification(environment, projectMembers);
+            return JobRunnerResponse.success(String.format("Removed %d project(s) of batch:'%s'", projectKeys.size(), batchId));
+        } catch (IOException ex) {
+            LOG.error(ex, "Failed to remove projects of batch:'%s'", batchId);
+            return JobRunnerResponse.failed(ex);
+        } finally {
+            rescheduleUnremoved(claimedJobs, removals.keySet());
+            synchronized (claimed) {
+                claimed.removeAll(projectKeys);
+            }
+            LOG.info("Finished executing removal of batch:'%s'", batchId);
+            final MailQueue emailQueue = ComponentAccessor.getMailQueue();
+            if (!emailQueue.isSending()) {
+                emailQueue.sendBuffer();
+            }
+        }
+    }
+
+    /**
+     * Claims the project of a running job together with the projects of the other jobs of its batch that are still
+     * scheduled; the claimed jobs are unscheduled so they do not run at the same time.
+     * <p>
+     *
+     * @param jobId      identifier of the running job.
+     * @param batchId    identifier of the batch.
+     * @param projectKey key of the project of the running job.
+     * @return the claimed project keys mapped to the details of their unscheduled job, or to <code>null</code> for the
+     * project of the running job; empty if the project is already claimed by another running job of the batch.
+     */
+    private Map<String, JobDetails> claimBatch(final JobId jobId, final String batchId, final String projectKey) {
+
+        final Map<String, JobDetails> projectKeys = new TreeMap<>();
+        synchronized (claimed) {
+            if (!claimed.add(projectKey)) {
+                return projectKeys;
+            }
+            projectKeys.put(projectKey, null);
+            for (final JobDetails jobDetails : schedulerService.getJobsByJobRunnerKey(JobRunnerKey.of(ApertureScheduler.PROJECT_REMOVAL_JOB_RUNNER_KEY))) {
+                final Map<String, Serializable> parameters = jobDetails.getParameters();
+                final String pk = (String) parameters.get("project-key");
+                if (jobDetails.getJobId().equals(jobId) || !batchId.equals(parameters.get("batch-id")) || !StringUtils.hasText(pk)) {
+                    continue;
+                }
+                if (claimed.add(pk)) {
+                    schedulerService.unscheduleJob(jobDetails.getJobId());
+                    projectKeys.put(pk, jobDetails);
+                }
+            }
+        }
+        return projectKeys;
+    }
+
+    /**
+     * Schedules the unscheduled jobs of claimed projects that were not removed to run again later.
+     * <p>
+     *
+     * @param claimedJobs the claimed project keys mapped to the details of their unscheduled job.
+     * @param removed     the keys of the projects the removal was attempted for.
+     */
+    private void rescheduleUnremoved(final Map<String, JobDetails> claimedJobs, final Collection<String> removed) {
+
+        final Date runAt = new Date(System.currentTimeMillis() + RESCHEDULE_DELAY);
+        for (final Map.Entry<String, JobDetails> claim : claimedJobs.entrySet()) {
+            final JobDetails jobDetails = claim.getValue();
+            if (jobDetails == null || removed.contains(claim.getKey())) {
+                continue;
+            }
+            JobConfig jobConfig = JobConfig.forJobRunnerKey(jobDetails.getJobRunnerKey());
+            jobConfig = jobConfig.withParameters(jobDetails.getParameters());
+            jobConfig = jobConfig.withRunMode(jobDetails.getRunMode());
+            jobConfig = jobConfig.withSchedule(Schedule.runOnce(runAt));
+            try {
+                LOG.warn("Project:[%s] was not removed; rescheduling its job:'%s' at %s", claim.getKey(), jobDetails.getJobId(), runAt);
+                schedulerService.scheduleJob(jobDetails.getJobId(), jobConfig);
+            } catch (SchedulerServiceException ex) {
+                LOG.error(ex, "Failed to reschedule removal of project:[%s]", claim.getKey());
+            }
+        }
+    }
+
+    /**
+     * Sends every member, and the requester, of the projects of a batch a single email listing the removed projects.
+     * <p>
+     * Recipients with the same list of projects share one {@link NotificationBatch}.
+     *
+     * @param environment    parameters of the running job.
+     * @param projectMembers members of each removed project keyed by project key.
+     * @throws IOException if the email templates cannot be read.
+     */
+    private void sendDigestNotification(final Map<String, Serializable> environment, final Map<String, Collection<ApplicationUser>> projectMembers) throws IOException {
 
-        final String projectKey = (String) environment.get("project-key");
         final UserManager userManager = ComponentAccessor.getUserManager();
         final ApplicationUser requestor = userManager.getUserByName((String) environment.get("username"));
-
-        for (final ApplicationUser user : projectMembers) {
-            final Map<String, Object> overrides = new HashMap<>();
-            overrides.put("projectKey", projectKey);
-            overrides.put("i18n", ComponentAccessor.getI18nHelperFactory().getInstance(user));
-            overrides.put("recipient", user);
-            final String initialDateString = (String) environment.get("initiatedOn");
+        final Map<String, ApplicationUser> recipients = new HashMap<>();
+        final Map<String, Set<String>> recipientProjects = new HashMap<>();
+        for (final Map.Entry<String, Collection<ApplicationUser>> members : projectMembers.entrySet()) {
+            final List<ApplicationUser> users = new ArrayList<>(members.getValue());
+            if (requestor != null) {
+                users.add(requestor);
+            }
+            for (final ApplicationUser user : users) {
+                recipients.put(user.getKey(), user);
+                recipientProjects.computeIfAbsent(user.getKey(), key -> new TreeSet<>()).add(members.getKey());
+            }
+        }
+        final Map<Set<String>, List<ApplicationUser>> digests = new HashMap<>();
+        for (final Map.Entry<String, Set<String>> entry : recipientProjects.entrySet()) {
+            digests.computeIfAbsent(entry.getValue(), keys -> new ArrayList<>()).add(recipients.get(entry.getKey()));
+        }
+        final String initialDateString = (String) environment.get("initiatedOn");
+        for (final Map.Entry<Set<String>, List<ApplicationUser>> digest : digests.entrySet()) {
+            final NotificationBatch batch = new NotificationBatch("/gov/pnnl/aperture/templates/email/projects-removed-digest.vm.html", String.format("Confirmation of the removal of %d project(s) from Developer Central", digest.getKey().size()));
+            batch.addParameter("projectKeys", new ArrayList<>(digest.getKey()));
+            batch.addParameter("actionUser", requestor);
             if (StringUtils.hasText(initialDateString)) {
                 try {
-                    overrides.put("initiatedOn", new Date(Long.valueOf(initialDateString)));
+                    batch.addParameter("initiatedOn", new Date(Long.valueOf(initialDateString)));
                 } catch (NumberFormatException nfe) {
-                    LOG.warn(String.format("Failed to put initiated date:'%s' in the email context", initialDateString), nfe);
+                    LOG.warn(nfe, "Failed to put initiated date:'%s' in the email context", initialDateString);
                 }
             }
-            overrides.put("actionUser", requestor);
-            final String subject = String.format("Confirmation of Project [%s] removal from Developer Central", overrides.get("projectKey"));
-            deliverEmail(overrides, user.getEmailAddress(), "/gov/pnnl/aperture/templates/email/project-removed.vm.html", subject);
+            batch.addRecipients(digest.getValue());
+            LOG.debug("Sending project removal digest of %d project(s) to %d recipient(s)", digest.getKey().size(), batch.size());
+            batch.deliver();
+        }
+    }
+
+    private void sendEmailNotification(final Map<String, Serializable> environment, final Collection<ApplicationUser> projectMembers) throws IOException {
+
+        final String projectKey = (String) environment.get("project-key");
+        final UserManager userManager = ComponentAccessor.getUserManager();
+        final ApplicationUser requestor = userManager.getUserByName((String) environment.get("username"));
+
+        final NotificationBatch batch = new NotificationBatch("/gov/pnnl/aperture/templates/email/project-removed.vm.html", String.format("Confirmation of Project [%s] removal from Developer Central", projectKey));
+        batch.addParameter("projectKey", projectKey);
+        batch.addParameter("actionUser", requestor);
+        final String initialDateString = (String) environment.get("initiatedOn");
+        if (StringUtils.hasText(initialDateString)) {
+            try {
+                batch.addParameter("initiatedOn", new Date(Long.valueOf(initialDateString)));
+            } catch (NumberFormatException nfe) {
+                LOG.warn(nfe, "Failed to put initiated date:'%s' in the email context", initialDateString);
+            }
         }
+        batch.addRecipients(projectMembers);
+        LOG.debug("Sending project removal notification to %d member(s)", batch.size());
+        batch.deliver();
     }
 
     private boolean deliverRemovalErrors(final ApplicationUser who, final String projectKey, final ErrorCollection errors) throws IOException {
@@ -4,19 +4,25 @@ import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.project.Project;
 import com.atlassian.jira.project.ProjectManager;
 import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.scheduler.JobRunnerRequest;
 import com.atlassian.scheduler.JobRunnerResponse;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureLogger;
 import gov.pnnl.aperture.ApertureSettings;
-import org.apache.log4j.Logger;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * JIRA scheduler task for detecting and notifying when projects are deemed <em>idle</em>.
  * <p>
+ * The members of the idle projects found by a scan are read with a single bulk look up once the scan completes.
  *
  * @author Developer Central @ PNNL
  */
@@ -25,7 +31,7 @@ public class IdleProjectDetectorTask extends AbstractAperturePluginJob {
     /**
      * Logger reference for this class.
      */
-    private static final transient Logger LOG = Logger.getLogger(IdleProjectDetectorTask.class);
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(IdleProjectDetectorTask.class);
     /**
      * Reference to the installed OSGI instance of {@link ApertureSettings} in this JIRA instance.
      */
@@ -53,10 +59,20 @@ public class IdleProjectDetectorTask extends AbstractAperturePluginJob {
         final JiraAuthenticationContext context = ComponentAccessor.getJiraAuthenticationContext();
         final ProjectManager projectManager = ComponentAccessor.getProjectManager();
         context.setLoggedInUser(apertureSettings.getApertureUser());
+        final List<String> idleProjects = new ArrayList<>();
         for (final Project project : projectManager.getProjects()) {
             aperture.detectProjectActivity(project.getKey());
+            if (aperture.isProjectIdle(project.getKey())) {
+                idleProjects.add(project.getKey());
+            }
         }
-        return JobRunnerResponse.success();
+        if (!idleProjects.isEmpty()) {
+            final Map<String, Collection<ApplicationUser>> projectMembers = aperture.getProjectMembers(idleProjects, false);
+            for (final Map.Entry<String, Collection<ApplicationUser>> members : projectMembers.entrySet()) {
+                LOG.info("Project:[%s] is idle; members:%s", members.getKey(), members.getValue());
+            }
+        }
+        return JobRunnerResponse.success(String.format("Found %d idle project(s)", idleProjects.size()));
     }
 
 }
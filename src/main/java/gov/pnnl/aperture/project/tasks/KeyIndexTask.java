@@ -0,0 +1,53 @@
+package gov.pnnl.aperture.project.tasks;
+
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.scheduler.JobRunnerRequest;
+import com.atlassian.scheduler.JobRunnerResponse;
+import gov.pnnl.aperture.ApertureKeyAvailability;
+import gov.pnnl.aperture.ApertureLogger;
+import gov.pnnl.aperture.ApertureSettings;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * JIRA scheduler task that periodically re-reads the project keys in use by JIRA and the linked services.
+ * <p>
+ *
+ * @author Developer Central @ PNNL
+ * @see ApertureKeyAvailability#refreshIndex()
+ */
+public class KeyIndexTask extends AbstractAperturePluginJob {
+
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(KeyIndexTask.class);
+    /**
+     * Reference to the installed OSGI instance of {@link ApertureKeyAvailability} in this JIRA instance.
+     */
+    private final ApertureKeyAvailability keyAvailability;
+    /**
+     * Reference to the installed OSGI instance of {@link ApertureSettings} in this JIRA instance.
+     */
+    private final ApertureSettings apertureSettings;
+
+    public KeyIndexTask(@NotNull final ApertureKeyAvailability keyAvailability, @NotNull final ApertureSettings apertureSettings) {
+
+        this.keyAvailability = keyAvailability;
+        this.apertureSettings = apertureSettings;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public JobRunnerResponse runJob(final JobRunnerRequest jobRunnerRequest) {
+
+        LOG.info("Refreshing the index of project keys in use.");
+        ComponentAccessor.getJiraAuthenticationContext().setLoggedInUser(apertureSettings.getApertureUser());
+        keyAvailability.refreshIndex();
+        return JobRunnerResponse.success();
+    }
+}
@@ -0,0 +1,283 @@
+package gov.pnnl.aperture.project.tasks;
+
+import com.atlassian.crowd.embedded.api.Group;
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.user.util.UserManager;
+import com.atlassian.jira.util.ErrorCollection;
+import com.atlassian.jira.util.SimpleErrorCollection;
+import com.atlassian.scheduler.JobRunnerRequest;
+import com.atlassian.scheduler.JobRunnerResponse;
+import gov.pnnl.aperture.AclChange;
+import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureLogger;
+import gov.pnnl.aperture.ProjectKey;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JIRA scheduler task that applies the access control changes submitted for a project.
+ * <p>
+ * Changes are queued per project by {@link #submit(AclChange)}; a project has at most one job scheduled or running at
+ * a time, and that job applies every change queued for the project, including changes queued while it runs, before it
+ * completes. Adjacent changes made by the same user with the same mode and role are applied with a single call per
+ * service. The queue of a project is dropped once its job finds it empty. Completed changes are kept for
+ * <code>aperture.acl.retention</code> minutes (default 60) so their progress can still be read.
+ *
+ * @author Developer Central @ PNNL
+ * @see gov.pnnl.aperture.ApertureScheduler#scheduleAclChange(String, Aperture.PermissionMode, Aperture.Role, Collection, Collection)
+ */
+public class ProjectAclTask extends AbstractAperturePluginJob {
+
+    /**
+     * Logger reference for this class.
+     */
+    private static final transient ApertureLogger LOG = ApertureLogger.getLogger(ProjectAclTask.class);
+    /**
+     * Time in milliseconds completed changes are kept for.
+     */
+    private static final long RETENTION = TimeUnit.MINUTES.toMillis(Long.getLong("aperture.acl.retention", 60L));
+    /**
+     * Reference to the installed OSGI instance of {@link Aperture} in this JIRA instance.
+     */
+    private final Aperture aperture;
+    /**
+     * Changes keyed by operation id.
+     */
+    private final ConcurrentMap<String, AclChange> changes = new ConcurrentHashMap<>();
+    /**
+     * Changes waiting to be applied keyed by upper case project key; only projects with a job scheduled or running.
+     */
+    private final ConcurrentMap<String, Queue> queues = new ConcurrentHashMap<>();
+
+    public ProjectAclTask(final Aperture aperture) {
+
+        Assert.notNull(aperture, "Aperture reference cannot be null.");
+        this.aperture = aperture;
+    }
+
+    /**
+     * Queues a change to be applied by the job of its project.
+     * <p>
+     *
+     * @param change the change to queue.
+     * @return <code>true</code> if the project has no job scheduled or running and one must be scheduled.
+     */
+    public boolean submit(final AclChange change) {
+
+        final long now = System.currentTimeMillis();
+        changes.values().removeIf(c -> c.isComplete() && now - c.getCompletedAt() > RETENTION);
+        changes.put(change.getId(), change);
+        final String projectKey = ProjectKey.normalize(change.getProjectKey());
+        while (true) {
+            final Queue queue = queues.computeIfAbsent(projectKey, key -> new Queue());
+            synchronized (queue) {
+                if (queue.retired) {
+                    // the queue was dropped after it was looked up; queue the change in its replacement //
+                    continue;
+                }
+                queue.pending.add(change);
+                if (queue.scheduled) {
+                    LOG.debug("Queued %s behind the job already scheduled for its project", change);
+                    return false;
+                }
+                queue.scheduled = true;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Fails every change queued for a project whose job could not be scheduled, and marks the project as having no job.
+     * <p>
+     *
+     * @param projectKey the project key of the changes.
+     * @param reason     message recorded as the error of each change.
+     */
+    public void abandon(final String projectKey, final String reason) {
+
+        final String key = ProjectKey.normalize(projectKey);
+        final Queue queue = queues.get(key);
+        if (queue == null) {
+            return;
+        }
+        final List<AclChange> pending;
+        synchronized (queue) {
+            pending = new ArrayList<>(queue.pending);
+            retire(key, queue);
+        }
+        for (final AclChange change : pending) {
+            change.completed(Collections.singletonList(reason));
+        }
+    }
+
+    /**
+     * Gets a change by its operation id.
+     * <p>
+     *
+     * @param operationId the operation id of the change.
+     * @return the change; or <code>null</code> if it is unknown or completed too long ago.
+     */
+    public AclChange getChange(final String operationId) {
+
+        return StringUtils.hasText(operationId) ? changes.get(operationId) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public JobRunnerResponse runJob(final JobRunnerRequest jobRunnerRequest) {
+
+        final Map<String, Serializable> environment = jobRunnerRequest.getJobConfig().getParameters();
+        final String projectKey = (String) environment.get("project-key");
+        if (!StringUtils.hasText(projectKey)) {
+            return JobRunnerResponse.failed("No project key given for the access control changes.");
+        }
+        int applied = 0;
+        for (List<AclChange> pending = drain(projectKey); !pending.isEmpty(); pending = drain(projectKey)) {
+            final List<AclChange> merged = new ArrayList<>();
+            for (final AclChange change : pending) {
+                if (!merged.isEmpty() && !merged.get(0).isMergeableWith(change)) {
+                    apply(projectKey, merged);
+                    merged.clear();
+                }
+                merged.add(change);
+            }
+            apply(projectKey, merged);
+            applied += pending.size();
+        }
+        LOG.info("Applied %d access control change(s) to project:'%s'", applied, projectKey);
+        return JobRunnerResponse.success();
+    }
+
+    /**
+     * Takes every change queued for a project; drops the queue, marking the project as having no job, when there are
+     * none.
+     * <p>
+     *
+     * @param projectKey the project key to take the queued changes of.
+     * @return the queued changes in the order they were submitted; empty if there are none.
+     */
+    private List<AclChange> drain(final String projectKey) {
+
+        final String key = ProjectKey.normalize(projectKey);
+        final Queue queue = queues.get(key);
+        if (queue == null) {
+            return Collections.emptyList();
+        }
+        synchronized (queue) {
+            final List<AclChange> pending = new ArrayList<>(queue.pending);
+            queue.pending.clear();
+            if (pending.isEmpty()) {
+                retire(key, queue);
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * Drops the queue of a project; changes submitted afterwards start a new queue and schedule a new job.
+     * <p>
+     * Must be called while holding the lock of the queue.
+     *
+     * @param key   upper case project key of the queue.
+     * @param queue the queue to drop.
+     */
+    private void retire(final String key, final Queue queue) {
+
+        queue.pending.clear();
+        queue.scheduled = false;
+        queue.retired = true;
+        queues.remove(key, queue);
+    }
+
+    /**
+     * Applies changes made by the same user with the same mode and role with a single call per service.
+     * <p>
+     *
+     * @param projectKey the project key of the changes.
+     * @param merged     the changes to apply together.
+     */
+    private void apply(final String projectKey, final List<AclChange> merged) {
+
+        final AclChange first = merged.get(0);
+        final Set<String> userNames = new LinkedHashSet<>();
+        final Set<String> groupNames = new LinkedHashSet<>();
+        for (final AclChange change : merged) {
+            change.started();
+            userNames.addAll(change.getUserNames());
+            groupNames.addAll(change.getGroupNames());
+        }
+        final UserManager userManager = ComponentAccessor.getUserManager();
+        final ErrorCollection errors = new SimpleErrorCollection();
+        final JiraAuthenticationContext context = ComponentAccessor.getJiraAuthenticationContext();
+        final ApplicationUser previous = context.getLoggedInUser();
+        try {
+            context.setLoggedInUser(userManager.getUserByName(first.getUsername()));
+            final Collection<ApplicationUser> users = new ArrayList<>();
+            for (final String userName : userNames) {
+                final ApplicationUser user = userManager.getUserByName(userName);
+                if (user == null) {
+                    LOG.warn("Failed to find user by name:'%s'", userName);
+                    continue;
+                }
+                users.add(user);
+            }
+            final Collection<Group> groups = new ArrayList<>();
+            for (final String groupName : groupNames) {
+                final Group group = userManager.getGroup(groupName);
+                if (group != null) {
+                    groups.add(group);
+                }
+            }
+            if (!users.isEmpty()) {
+                LOG.debug("modifyProjectUserPermissions(project=%s, role=%s, mode=%s, users=%s);", projectKey, first.getRole(), first.getMode(), users);
+                errors.addErrorCollection(aperture.modifyProjectUserPermissions(projectKey, first.getMode(), first.getRole(), users));
+            }
+            if (!groups.isEmpty()) {
+                LOG.debug("modifyProjectGroupPermissions(project=%s, role=%s, mode=%s, groups=%s);", projectKey, first.getRole(), first.getMode(), groups);
+                errors.addErrorCollection(aperture.modifyProjectGroupPermissions(projectKey, first.getMode(), first.getRole(), groups));
+            }
+        } catch (RuntimeException ex) {
+            LOG.error(ex, "Failed to apply access control changes to project:'%s'", projectKey);
+            errors.addErrorMessage(String.format("Failed to apply access control changes: %s", ex.getMessage()));
+        } finally {
+            // the scheduler thread runs other jobs afterwards; do not leave them running as the submitter //
+            context.setLoggedInUser(previous);
+        }
+        final List<String> errorMessages = new ArrayList<>(errors.getErrorMessages());
+        errorMessages.addAll(errors.getErrors().values());
+        for (final String errorMessage : errorMessages) {
+            LOG.error(errorMessage);
+        }
+        for (final AclChange change : merged) {
+            change.completed(errorMessages);
+        }
+    }
+
+    /**
+     * Changes queued for a single project.
+     */
+    private static final class Queue {
+
+        private final List<AclChange> pending = new ArrayList<>();
+        private boolean scheduled = false;
+        private boolean retired = false;
+    }
+}
@@ -9,13 +9,30 @@ import org.springframework.util.Assert;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URLConnection;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Avatar image data read from a class-path resource of the plug-in.
+ * <p>
+ * The resource is read into memory once, the first time it is needed, and every later {@link #storeImage} writes the
+ * same bytes straight to the output stream. Providers obtained from {@link #forResource(String)} are shared, so an
+ * image used for every new project is only read, and encoded as a {@link #getDataUri() data URI}, once.
+ *
  * @author Developer Central @ PNNL
  */
 public class AvatarImageProvider implements AvatarImageDataProvider {
 
+    /**
+     * Shared providers keyed by resource path.
+     */
+    private static final ConcurrentMap<String, AvatarImageProvider> PROVIDERS = new ConcurrentHashMap<>();
+
     private final String resourceURL;
+    private volatile byte[] image;
+    private volatile String dataUri;
 
     public AvatarImageProvider(final String resourceURL) {
 
@@ -23,17 +40,62 @@ public class AvatarImageProvider implements AvatarImageDataProvider {
         this.resourceURL = resourceURL;
     }
 
+    /**
+     * Gets the shared provider of a class-path image.
+     * <p>
+     *
+     * @param resourceURL class-path of the image; e.g. <code>/gov/pnnl/aperture/images/new-project-avatar.png</code>.
+     * @return the provider, holding the image once it has been read.
+     * @throws IllegalArgumentException if the resourceURL is an <em>empty</em> value.
+     */
+    public static AvatarImageProvider forResource(final String resourceURL) {
+
+        Assert.hasText(resourceURL, "Cannot create an AvatarImageProvider with an empty image path.");
+        return PROVIDERS.computeIfAbsent(resourceURL, AvatarImageProvider::new);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void storeImage(final Avatar.Size size, final OutputStream out) throws IOException {
 
-        final InputStream is = ClassLoaderUtils.getResourceAsStream(resourceURL, ApertureJiraInstallTask.class);
-        try {
-            IOUtils.copy(is, out);
-        } finally {
-            IOUtils.closeQuietly(is);
+        out.write(getImage());
+    }
+
+    /**
+     * Gets the image encoded as a <code>data:</code> URI; e.g. for the avatar of a Bitbucket project.
+     * <p>
+     *
+     * @return the base 64 encoded image with its content type.
+     * @throws IOException if the image resource cannot be read.
+     */
+    public String getDataUri() throws IOException {
+
+        String uri = dataUri;
+        if (uri == null) {
+            final String contentType = URLConnection.guessContentTypeFromName(resourceURL);
+            uri = String.format("data:%s;base64,%s", contentType == null ? "image/png" : contentType, Base64.getEncoder().encodeToString(getImage()));
+            dataUri = uri;
+        }
+        return uri;
+    }
+
+    private byte[] getImage() throws IOException {
+
+        byte[] bytes = image;
+        if (bytes == null) {
+            final InputStream is = ClassLoaderUtils.getResourceAsStream(resourceURL, ApertureJiraInstallTask.class);
+            if (is == null) {
+                throw new IOException(String.format("Avatar image resource:'%s' not found", resourceURL));
+            }
+            try {
+                bytes = IOUtils.toByteArray(is);
+            } finally {
+                IOUtils.closeQuietly(is);
+            }
+            image = bytes;
         }
+        return bytes;
     }
 }
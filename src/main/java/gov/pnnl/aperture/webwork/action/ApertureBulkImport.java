@@ -0,0 +1,487 @@
+package gov.pnnl.aperture.webwork.action;
+
+import com.atlassian.crowd.embedded.api.Group;
+import com.atlassian.jira.bc.issue.IssueService;
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.IssueInputParameters;
+import com.atlassian.jira.issue.IssueManager;
+import com.atlassian.jira.issue.issuetype.IssueType;
+import com.atlassian.jira.permission.GlobalPermissionKey;
+import com.atlassian.jira.project.Project;
+import com.atlassian.jira.security.groups.GroupManager;
+import com.atlassian.jira.user.util.UserManager;
+import com.atlassian.jira.util.ErrorCollection;
+import com.atlassian.jira.web.action.JiraWebActionSupport;
+import com.atlassian.plugin.PluginInformation;
+import gov.pnnl.aperture.ApertureCheckpointStore;
+import gov.pnnl.aperture.ApertureConstants;
+import gov.pnnl.aperture.ApertureKeyAvailability;
+import gov.pnnl.aperture.ApertureScheduler;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProjectManifest;
+import gov.pnnl.aperture.ProvisioningBatch;
+import gov.pnnl.aperture.ProvisioningCheckpoint;
+import gov.pnnl.aperture.workflow.validator.ProjectKeyValidator;
+import org.apache.log4j.Logger;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Administrative action that provisions the projects of a CSV or JSON {@link ProjectManifest} in bulk.
+ * <p>
+ * Every project key of the manifest is validated against JIRA and Confluence at once, a request issue is created in
+ * the Aperture project for each valid entry and all of them are provisioned by a single batch job; see
+ * {@link ApertureScheduler#scheduleProjectBatch(ProvisioningBatch)}. The progress of a batch is shown by
+ * <code>ApertureBulkImport!progress.jspa?batch=ID</code> for <code>aperture.bulk-import.retention</code> days (default
+ * 30); older batches are forgotten when the next import is made.
+ *
+ * @author Developer Central @ PNNL
+ */
+public class ApertureBulkImport extends JiraWebActionSupport {
+
+    /**
+     * Reference to the current logger instance for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(ApertureBulkImport.class);
+    /**
+     * Plug-in setting key format of the import time and request issue keys of a batch.
+     */
+    private static final String BATCH_SETTING_FORMAT = "bulk-import.%s";
+    /**
+     * Plug-in setting key of the identifiers of the batches that are remembered.
+     */
+    private static final String BATCHES_SETTING = "bulk-import.batches";
+    /**
+     * Time in milliseconds the request issue keys of a batch are remembered for.
+     */
+    private static final long RETENTION = TimeUnit.DAYS.toMillis(Long.getLong("aperture.bulk-import.retention", 30L));
+
+    private final ApertureSettings apertureSettings;
+    private final ApertureScheduler apertureScheduler;
+    private final ApertureCheckpointStore checkpointStore;
+    private final ApertureKeyAvailability keyAvailability;
+
+    private String manifest = null;
+    private String requestType = ApertureConstants.IT_SOFTWARE_PROJECT_REQUEST;
+    private String batch = null;
+    private final List<ImportResult> results = new ArrayList<>();
+    private List<BatchProgress> progress = null;
+
+    public ApertureBulkImport(final ApertureSettings apertureSettings, final ApertureScheduler apertureScheduler, final ApertureCheckpointStore checkpointStore, final ApertureKeyAvailability keyAvailability) {
+
+        this.apertureSettings = apertureSettings;
+        this.apertureScheduler = apertureScheduler;
+        this.checkpointStore = checkpointStore;
+        this.keyAvailability = keyAvailability;
+    }
+
+    public PluginInformation getPluginInfo() {
+
+        return apertureSettings.getPluginInfo();
+    }
+
+    public String getManifest() {
+
+        return manifest;
+    }
+
+    public void setManifest(final String manifest) {
+
+        this.manifest = manifest;
+    }
+
+    public String getRequestType() {
+
+        return requestType;
+    }
+
+    public void setRequestType(final String requestType) {
+
+        this.requestType = requestType;
+    }
+
+    public List<String> getRequestTypes() {
+
+        return Arrays.asList(ApertureConstants.IT_SOFTWARE_PROJECT_REQUEST, ApertureConstants.IT_SIMPLE_PROJECT_REQUEST);
+    }
+
+    public String getBatch() {
+
+        return batch;
+    }
+
+    public void setBatch(final String batch) {
+
+        this.batch = batch;
+    }
+
+    public List<ImportResult> getResults() {
+
+        return results;
+    }
+
+    /**
+     * Gets the progress of every request of the current batch; computed once per request.
+     * <p>
+     *
+     * @return progress of the requests of the batch; empty if no batch is selected.
+     */
+    public List<BatchProgress> getProgress() {
+
+        if (progress == null) {
+            progress = new ArrayList<>();
+            final IssueManager issueManager = ComponentAccessor.getIssueManager();
+            for (final String issueKey : getBatchIssueKeys()) {
+                final Issue issue = issueManager.getIssueByKeyIgnoreCase(issueKey);
+                if (issue != null) {
+                    progress.add(new BatchProgress(issue, apertureSettings.getProjectKeyFor(issue), checkpointStore.load(issue.getKey())));
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Checks whether every request of the current batch has been resolved.
+     * <p>
+     *
+     * @return <code>true</code> if no request of the batch is still being provisioned.
+     */
+    public boolean isBatchComplete() {
+
+        for (final BatchProgress request : getProgress()) {
+            if (!request.isResolved()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String doExecute() throws Exception {
+
+        if (!hasGlobalPermission(GlobalPermissionKey.ADMINISTER)) {
+            addErrorMessage("Only JIRA administrators can import projects in bulk.");
+            return ERROR;
+        }
+        final ProjectManifest projects;
+        try {
+            projects = ProjectManifest.parse(manifest);
+        } catch (IllegalArgumentException ex) {
+            addErrorMessage(ex.getMessage());
+            return ERROR;
+        }
+        final Project apertureProject = ComponentAccessor.getProjectManager().getProjectByCurrentKey(apertureSettings.getApertureProjectKey());
+        final IssueType issueType = getIssueType(apertureProject);
+        if (issueType == null) {
+            addErrorMessage(String.format("The Aperture project has no '%s' issue type to create the requests with.", requestType));
+            return ERROR;
+        }
+        final Map<String, String> keyProblems;
+        try {
+            keyProblems = new ProjectKeyValidator(apertureSettings, keyAvailability).validate(projects.getProjectKeys());
+        } catch (IllegalStateException ex) {
+            LOG.error("Failed to validate the project keys of a bulk import.", ex);
+            addErrorMessage(String.format("Failed to validate the project keys; %s", ex.getMessage()));
+            return ERROR;
+        }
+
+        final List<ProjectManifest.Entry> accepted = new ArrayList<>();
+        final List<String> acceptedKeys = new ArrayList<>();
+        for (final ProjectManifest.Entry entry : projects.getEntries()) {
+            final String problem = keyProblems.containsKey(entry.getKey()) ? keyProblems.get(entry.getKey()) : getEntryProblem(entry);
+            if (problem == null) {
+                accepted.add(entry);
+                acceptedKeys.add(entry.getKey());
+            } else {
+                results.add(new ImportResult(entry, null, problem));
+            }
+        }
+
+        pruneBatches();
+        batch = UUID.randomUUID().toString();
+        final IssueService issueService = ComponentAccessor.getIssueService();
+        try (ProvisioningBatch provisioningBatch = ProvisioningBatch.open(batch, acceptedKeys, ProjectKeyValidator.BULK_VERIFIED_SERVICES)) {
+            try {
+                createRequests(issueService, apertureProject, issueType, accepted);
+            } finally {
+                // requests created before a failure are provisioned all the same //
+                scheduleBatch(provisioningBatch);
+            }
+        }
+        results.sort(Comparator.comparingInt(result -> result.getEntry().getLine()));
+        LOG.info(String.format("Bulk import of %d project(s) by %s; batch:%s", projects.getEntries().size(), getLoggedInUser(), batch));
+        return SUCCESS;
+    }
+
+    /**
+     * Creates a request issue for every accepted manifest entry; the current batch collects the created issues.
+     * <p>
+     *
+     * @param issueService    the JIRA issue service to create the requests with.
+     * @param apertureProject the Aperture project the requests are created in.
+     * @param issueType       the issue type of the requests.
+     * @param accepted        the manifest entries that passed validation.
+     */
+    private void createRequests(final IssueService issueService, final Project apertureProject, final IssueType issueType, final List<ProjectManifest.Entry> accepted) {
+
+        for (final ProjectManifest.Entry entry : accepted) {
+            final IssueService.CreateValidationResult validation = issueService.validateCreate(getLoggedInUser(), getIssueParameters(issueService, apertureProject, issueType, entry));
+            if (!validation.isValid()) {
+                results.add(new ImportResult(entry, null, describe(validation.getErrorCollection())));
+                continue;
+            }
+            final IssueService.IssueResult created = issueService.create(getLoggedInUser(), validation);
+            if (created.isValid()) {
+                results.add(new ImportResult(entry, created.getIssue().getKey(), null));
+            } else {
+                results.add(new ImportResult(entry, null, describe(created.getErrorCollection())));
+            }
+        }
+    }
+
+    /**
+     * Remembers the request issues of a batch and schedules the batch job; forgets the batch if it has no requests.
+     * <p>
+     *
+     * @param provisioningBatch the batch the request issues were collected in.
+     */
+    private void scheduleBatch(final ProvisioningBatch provisioningBatch) {
+
+        if (provisioningBatch.getIssueKeys().isEmpty()) {
+            batch = null;
+            return;
+        }
+        apertureSettings.putPluginSetting(String.format(BATCH_SETTING_FORMAT, batch), String.format("%d:%s", System.currentTimeMillis(), String.join(",", provisioningBatch.getIssueKeys())));
+        final String batches = apertureSettings.getPluginSetting(BATCHES_SETTING);
+        apertureSettings.putPluginSetting(BATCHES_SETTING, StringUtils.hasText(batches) ? String.format("%s,%s", batches, batch) : batch);
+        apertureScheduler.scheduleProjectBatch(provisioningBatch);
+    }
+
+    /**
+     * Forgets the request issue keys of batches imported longer ago than the retention period.
+     */
+    private void pruneBatches() {
+
+        final String batches = apertureSettings.getPluginSetting(BATCHES_SETTING);
+        if (!StringUtils.hasText(batches)) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final List<String> remembered = new ArrayList<>();
+        for (final String batchId : batches.split(",")) {
+            final String value = apertureSettings.getPluginSetting(String.format(BATCH_SETTING_FORMAT, batchId));
+            final int separator = value == null ? -1 : value.indexOf(':');
+            long importedAt = 0L;
+            try {
+                importedAt = separator < 0 ? 0L : Long.parseLong(value.substring(0, separator));
+            } catch (NumberFormatException ex) {
+                LOG.debug(String.format("Bulk import batch:%s has no import time", batchId));
+            }
+            if (now - importedAt > RETENTION) {
+                apertureSettings.removePluginSetting(String.format(BATCH_SETTING_FORMAT, batchId));
+            } else {
+                remembered.add(batchId);
+            }
+        }
+        if (remembered.isEmpty()) {
+            apertureSettings.removePluginSetting(BATCHES_SETTING);
+        } else {
+            apertureSettings.putPluginSetting(BATCHES_SETTING, String.join(",", remembered));
+        }
+    }
+
+    /**
+     * Shows the progress of a previously imported batch.
+     * <p>
+     *
+     * @return the success view showing {@link #getProgress()}.
+     */
+    public String doProgress() {
+
+        if (!hasGlobalPermission(GlobalPermissionKey.ADMINISTER)) {
+            addErrorMessage("Only JIRA administrators can view bulk imports.");
+            return ERROR;
+        }
+        if (getBatchIssueKeys().isEmpty()) {
+            addErrorMessage(String.format("There is no bulk import batch '%s'.", batch));
+            return ERROR;
+        }
+        return SUCCESS;
+    }
+
+    private Collection<String> getBatchIssueKeys() {
+
+        if (!StringUtils.hasText(batch)) {
+            return Collections.emptyList();
+        }
+        final String value = apertureSettings.getPluginSetting(String.format(BATCH_SETTING_FORMAT, batch));
+        final String issueKeys = value == null ? null : value.substring(value.indexOf(':') + 1);
+        return StringUtils.hasText(issueKeys) ? Arrays.asList(issueKeys.split(",")) : Collections.emptyList();
+    }
+
+    private IssueType getIssueType(final Project project) {
+
+        if (project != null) {
+            for (final IssueType issueType : project.getIssueTypes()) {
+                if (issueType.getName().equals(requestType)) {
+                    return issueType;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks that the lead, users and groups of a manifest entry exist.
+     * <p>
+     *
+     * @param entry the manifest entry to check.
+     * @return description of the problem with the entry; or <code>null</code> if it can be imported.
+     */
+    private String getEntryProblem(final ProjectManifest.Entry entry) {
+
+        final UserManager userManager = ComponentAccessor.getUserManager();
+        final GroupManager groupManager = ComponentAccessor.getGroupManager();
+        if (!StringUtils.hasText(entry.getLead()) || userManager.getUserByName(entry.getLead()) == null) {
+            return String.format("The project lead '%s' is not a JIRA user.", entry.getLead());
+        }
+        for (final String username : entry.getUsers()) {
+            if (userManager.getUserByName(username) == null) {
+                return String.format("The user '%s' is not a JIRA user.", username);
+            }
+        }
+        for (final String groupName : entry.getGroups()) {
+            final Group group = groupManager.getGroup(groupName);
+            if (group == null) {
+                return String.format("The group '%s' is not a JIRA group.", groupName);
+            }
+        }
+        return null;
+    }
+
+    private IssueInputParameters getIssueParameters(final IssueService issueService, final Project project, final IssueType issueType, final ProjectManifest.Entry entry) {
+
+        final IssueInputParameters parameters = issueService.newIssueInputParameters();
+        parameters.setProjectId(project.getId());
+        parameters.setIssueTypeId(issueType.getId());
+        parameters.setSummary(entry.getName());
+        parameters.setReporterId(entry.getLead());
+        parameters.setSkipScreenCheck(true);
+        parameters.addCustomFieldValue(getCustomFieldId(ApertureSettings.CustomField.PROJECT_KEY), entry.getKey());
+        if (!entry.getUsers().isEmpty()) {
+            parameters.addCustomFieldValue(getCustomFieldId(ApertureSettings.CustomField.USERS), entry.getUsers().toArray(new String[0]));
+        }
+        if (!entry.getGroups().isEmpty()) {
+            parameters.addCustomFieldValue(getCustomFieldId(ApertureSettings.CustomField.GROUPS), entry.getGroups().toArray(new String[0]));
+        }
+        if (StringUtils.hasText(entry.getCategory())) {
+            parameters.addCustomFieldValue(getCustomFieldId(ApertureSettings.CustomField.CATEGORY), entry.getCategory());
+        }
+        return parameters;
+    }
+
+    private static String describe(final ErrorCollection errors) {
+
+        final List<String> messages = new ArrayList<>(errors.getErrorMessages());
+        messages.addAll(errors.getErrors().values());
+        return String.join("; ", messages);
+    }
+
+    private Long getCustomFieldId(final ApertureSettings.CustomField customField) {
+
+        return apertureSettings.getCustomField(customField).getIdAsLong();
+    }
+
+    /**
+     * Outcome of importing a single manifest entry.
+     */
+    public static final class ImportResult {
+
+        private final ProjectManifest.Entry entry;
+        private final String issueKey;
+        private final String problem;
+
+        ImportResult(final ProjectManifest.Entry entry, final String issueKey, final String problem) {
+
+            this.entry = entry;
+            this.issueKey = issueKey;
+            this.problem = problem;
+        }
+
+        public ProjectManifest.Entry getEntry() {
+
+            return entry;
+        }
+
+        public String getIssueKey() {
+
+            return issueKey;
+        }
+
+        public String getProblem() {
+
+            return problem;
+        }
+    }
+
+    /**
+     * Provisioning progress of a single request of a batch.
+     */
+    public static final class BatchProgress {
+
+        private final Issue issue;
+        private final String projectKey;
+        private final ProvisioningCheckpoint checkpoint;
+
+        BatchProgress(final Issue issue, final String projectKey, final ProvisioningCheckpoint checkpoint) {
+
+            this.issue = issue;
+            this.projectKey = projectKey;
+            this.checkpoint = checkpoint;
+        }
+
+        public Issue getIssue() {
+
+            return issue;
+        }
+
+        public String getProjectKey() {
+
+            return projectKey;
+        }
+
+        public String getStatus() {
+
+            return issue.getStatus() == null ? "" : issue.getStatus().getName();
+        }
+
+        public boolean isResolved() {
+
+            return issue.getResolution() != null;
+        }
+
+        public int getCompletedSteps() {
+
+            return checkpoint.getSteps().size();
+        }
+
+        public Collection<ApertureSettings.ProjectService> getFailedServices() {
+
+            return checkpoint.getFailures().keySet();
+        }
+    }
+}
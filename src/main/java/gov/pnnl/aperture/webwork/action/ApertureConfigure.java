@@ -8,14 +8,7 @@ import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.config.ResolutionManager;
 import com.atlassian.jira.issue.CustomFieldManager;
 import com.atlassian.jira.issue.fields.CustomField;
-import com.atlassian.jira.issue.fields.config.FieldConfigScheme;
-import com.atlassian.jira.issue.fields.config.manager.IssueTypeSchemeManager;
-import com.atlassian.jira.issue.fields.screen.issuetype.IssueTypeScreenScheme;
-import com.atlassian.jira.issue.fields.screen.issuetype.IssueTypeScreenSchemeManager;
 import com.atlassian.jira.issue.resolution.Resolution;
-import com.atlassian.jira.notification.NotificationSchemeManager;
-import com.atlassian.jira.permission.PermissionSchemeManager;
-import com.atlassian.jira.scheme.Scheme;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.util.UserManager;
 import com.atlassian.jira.web.action.JiraWebActionSupport;
@@ -24,6 +17,8 @@ import com.atlassian.jira.workflow.WorkflowManager;
 import com.atlassian.plugin.PluginInformation;
 import com.opensymphony.workflow.loader.ActionDescriptor;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureProjectLinks;
+import gov.pnnl.aperture.ApertureSchemeCatalogue;
 import gov.pnnl.aperture.ApertureSettings;
 import gov.pnnl.aperture.WorkflowConfiguration;
 import org.apache.log4j.Logger;
@@ -51,11 +46,15 @@ public class ApertureConfigure extends JiraWebActionSupport {
 
     private final Aperture aperture;
     private final ApertureSettings apertureSettings;
+    private final ApertureProjectLinks projectLinks;
+    private final ApertureSchemeCatalogue schemeCatalogue;
 
-    public ApertureConfigure(final Aperture aperture, final ApertureSettings apertureSettings) {
+    public ApertureConfigure(final Aperture aperture, final ApertureSettings apertureSettings, final ApertureProjectLinks projectLinks, final ApertureSchemeCatalogue schemeCatalogue) {
 
         this.apertureSettings = apertureSettings;
         this.aperture = aperture;
+        this.projectLinks = projectLinks;
+        this.schemeCatalogue = schemeCatalogue;
     }
 
     public ApertureSettings getSettings() {
@@ -75,16 +74,14 @@ public class ApertureConfigure extends JiraWebActionSupport {
     }
 
 
-    public List<Scheme> getPermissionSchemes() {
+    public List<ApertureSchemeCatalogue.Entry> getPermissionSchemes() {
 
-        final PermissionSchemeManager permissionSchemeManager = ComponentAccessor.getPermissionSchemeManager();
-        return permissionSchemeManager.getSchemeObjects();
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.PERMISSION_SCHEME);
     }
 
-    public List<Scheme> getNotificationSchemes() {
+    public List<ApertureSchemeCatalogue.Entry> getNotificationSchemes() {
 
-        final NotificationSchemeManager notificationSchemeManager = ComponentAccessor.getNotificationSchemeManager();
-        return notificationSchemeManager.getSchemeObjects();
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.NOTIFICATION_SCHEME);
     }
 
     public List<Resolution> getResolutions() {
@@ -93,28 +90,24 @@ public class ApertureConfigure extends JiraWebActionSupport {
         return resolutionManager.getResolutions();
     }
 
-    public List<IssueTypeScreenScheme> getScreenSchemes() {
+    public List<ApertureSchemeCatalogue.Entry> getScreenSchemes() {
 
-        IssueTypeScreenSchemeManager issueTypeScreenSchemeManager = ComponentAccessor.getIssueTypeScreenSchemeManager();
-        return new ArrayList<>(issueTypeScreenSchemeManager.getIssueTypeScreenSchemes());
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.SCREEN_SCHEME);
     }
 
-    public List<JiraWorkflow> getWorkflows() {
+    public List<ApertureSchemeCatalogue.Entry> getWorkflows() {
 
-        final WorkflowManager workflowManager = ComponentAccessor.getWorkflowManager();
-        return new ArrayList<>(workflowManager.getWorkflows());
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.WORKFLOW);
     }
 
-    public List<FieldConfigScheme> getIssueTypeSchemes() {
+    public List<ApertureSchemeCatalogue.Entry> getIssueTypeSchemes() {
 
-        final IssueTypeSchemeManager issueTypeSchemeManager = ComponentAccessor.getIssueTypeSchemeManager();
-        return issueTypeSchemeManager.getAllSchemes();
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.ISSUE_TYPE_SCHEME);
     }
 
-    public List<CustomField> getCustomFields() {
+    public List<ApertureSchemeCatalogue.Entry> getCustomFields() {
 
-        final CustomFieldManager cfm = ComponentAccessor.getCustomFieldManager();
-        return cfm.getCustomFieldObjects();
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.CUSTOM_FIELD);
     }
 
     public PluginInformation getPluginInfo() {
@@ -214,6 +207,7 @@ public class ApertureConfigure extends JiraWebActionSupport {
                 apertureSettings.setApplicationLink(projectService, null);
             }
         }
+        projectLinks.invalidate();
         return getRedirect("/secure/admin/ConfigureAperture.jspa");
     }
 
@@ -226,6 +220,7 @@ public class ApertureConfigure extends JiraWebActionSupport {
         apertureSettings.setApertureEmailAddress(httpRequest.getParameter("emailAddress"));
         apertureSettings.setDeleteDuration(httpRequest.getParameter("deleteDuration"));
         apertureSettings.setProjectIdleDuration(httpRequest.getParameter("idleDuration"));
+        apertureSettings.setKeepSuccessfulServices(Boolean.parseBoolean(httpRequest.getParameter("keepServices")));
         return getRedirect("/secure/admin/ConfigureAperture.jspa");
     }
 
@@ -0,0 +1,114 @@
+package gov.pnnl.aperture.webwork.action;
+
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.permission.GlobalPermissionKey;
+import com.atlassian.jira.web.action.JiraWebActionSupport;
+import gov.pnnl.aperture.ApertureKeyAvailability;
+import gov.pnnl.aperture.ApertureSettings;
+import org.apache.log4j.Logger;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Action answering the project key suggestions of the request create screen as JSON.
+ * <p>
+ * Served at <code>/secure/ApertureKeySuggestions.jspa?key=ABC&amp;name=Project+Name</code> to logged in users; the
+ * answer lists the services already using the key and available keys to use instead, and for JIRA administrators the
+ * indexed keys starting with it. Every check is made against JIRA and the in-memory key index, never against the remote
+ * services, so the endpoint can be called as the user types.
+ *
+ * @author Developer Central @ PNNL
+ */
+public class ApertureKeySuggestions extends JiraWebActionSupport {
+
+    /**
+     * Reference to the current logger instance for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(ApertureKeySuggestions.class);
+    /**
+     * Maximum number of taken keys and of suggestions in an answer.
+     */
+    private static final int LIMIT = 10;
+
+    private final ApertureKeyAvailability keyAvailability;
+
+    private String key = null;
+    private String name = null;
+
+    public ApertureKeySuggestions(final ApertureKeyAvailability keyAvailability) {
+
+        this.keyAvailability = keyAvailability;
+    }
+
+    public String getKey() {
+
+        return key;
+    }
+
+    public void setKey(final String key) {
+
+        this.key = key;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+    public void setName(final String name) {
+
+        this.name = name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String doExecute() throws Exception {
+
+        final HttpServletResponse response = getHttpResponse();
+        if (getLoggedInUser() == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return NONE;
+        }
+        final String projectKey = StringUtils.hasText(key) ? key.trim().toUpperCase(Locale.ENGLISH) : "";
+        // other keys may belong to projects the user cannot see; only administrators are told about them //
+        final List<String> taken = hasGlobalPermission(GlobalPermissionKey.ADMINISTER) ? keyAvailability.getKeysStartingWith(projectKey, LIMIT) : Collections.emptyList();
+        final List<String> suggestions = keyAvailability.suggestKeys(projectKey, name, LIMIT);
+        final boolean available = StringUtils.hasText(projectKey) && suggestions.contains(projectKey);
+        final List<String> usedBy = new ArrayList<>();
+        if (StringUtils.hasText(projectKey) && !available) {
+            if (ComponentAccessor.getProjectManager().getProjectByCurrentKeyIgnoreCase(projectKey) != null) {
+                usedBy.add(ApertureSettings.ProjectService.JIRA.name());
+            }
+            for (final ApertureSettings.ProjectService service : keyAvailability.getIndexedServicesUsing(projectKey)) {
+                if (service != ApertureSettings.ProjectService.JIRA) {
+                    usedBy.add(service.name());
+                }
+            }
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("key", projectKey);
+        result.put("available", available);
+        result.put("usedBy", usedBy);
+        result.put("taken", taken);
+        result.put("suggestions", suggestions);
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache, no-store");
+        try {
+            response.getWriter().write(new ObjectMapper().writeValueAsString(result));
+        } catch (IOException ex) {
+            LOG.warn("Failed to write the project key suggestions.", ex);
+        }
+        return NONE;
+    }
+}
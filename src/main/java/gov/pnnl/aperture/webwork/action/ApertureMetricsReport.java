@@ -0,0 +1,89 @@
+package gov.pnnl.aperture.webwork.action;
+
+import com.atlassian.jira.permission.GlobalPermissionKey;
+import com.atlassian.jira.security.xsrf.RequiresXsrfCheck;
+import com.atlassian.jira.web.action.JiraWebActionSupport;
+import gov.pnnl.aperture.ApertureMetrics;
+import org.apache.log4j.Logger;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Administrative action that renders the Aperture metrics registry as JSON.
+ * <p>
+ * Served at <code>/secure/admin/ApertureMetrics.jspa</code>. A <code>POST</code> to
+ * <code>/secure/admin/ApertureMetrics!reset.jspa</code> with a valid XSRF token renders the snapshot and then clears
+ * every timer and counter.
+ *
+ * @author Developer Central @ PNNL
+ */
+public class ApertureMetricsReport extends JiraWebActionSupport {
+
+    /**
+     * Reference to the current logger instance for this class.
+     */
+    private static final transient Logger LOG = Logger.getLogger(ApertureMetricsReport.class);
+
+    private final ApertureMetrics apertureMetrics;
+
+    public ApertureMetricsReport(final ApertureMetrics apertureMetrics) {
+
+        this.apertureMetrics = apertureMetrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String doExecute() throws Exception {
+
+        final HttpServletResponse response = getHttpResponse();
+        if (!hasGlobalPermission(GlobalPermissionKey.ADMINISTER)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return NONE;
+        }
+        writeSnapshot(response, false);
+        return NONE;
+    }
+
+    /**
+     * Renders the metrics registry as JSON and clears it afterwards.
+     * <p>
+     *
+     * @return always {@link #NONE}; the response has been written.
+     * @throws Exception if the response cannot be sent.
+     */
+    @RequiresXsrfCheck
+    public String doReset() throws Exception {
+
+        final HttpServletResponse response = getHttpResponse();
+        if (!hasGlobalPermission(GlobalPermissionKey.ADMINISTER)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return NONE;
+        }
+        if (!"POST".equals(getHttpRequest().getMethod())) {
+            response.setHeader("Allow", "POST");
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return NONE;
+        }
+        writeSnapshot(response, true);
+        return NONE;
+    }
+
+    private void writeSnapshot(final HttpServletResponse response, final boolean reset) throws IOException {
+
+        final String json = new ObjectMapper().writeValueAsString(apertureMetrics.getSnapshot());
+        if (reset) {
+            apertureMetrics.reset();
+        }
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache, no-store");
+        try {
+            response.getWriter().write(json);
+        } catch (IOException ex) {
+            LOG.warn("Failed to write the Aperture metrics snapshot.", ex);
+        }
+    }
+}
@@ -1,18 +1,14 @@
 package gov.pnnl.aperture.webwork.action;
 
 import com.atlassian.core.util.DateUtils;
-import com.atlassian.crowd.embedded.api.Group;
 import com.atlassian.extras.common.org.springframework.util.StringUtils;
 import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.permission.GlobalPermissionKey;
+import com.atlassian.jira.permission.ProjectPermissions;
 import com.atlassian.jira.project.Project;
 import com.atlassian.jira.project.ProjectManager;
 import com.atlassian.jira.security.GlobalPermissionManager;
-import com.atlassian.jira.user.ApplicationUser;
-import com.atlassian.jira.user.util.UserManager;
-import com.atlassian.jira.util.ErrorCollection;
-import com.atlassian.jira.util.SimpleErrorCollection;
 import com.atlassian.jira.web.action.JiraWebActionSupport;
 import com.atlassian.plugin.Plugin;
 import com.atlassian.plugin.PluginAccessor;
@@ -21,9 +17,12 @@ import com.atlassian.sal.api.websudo.WebSudoRequired;
 import com.atlassian.scheduler.status.JobDetails;
 import gov.pnnl.aperture.*;
 import org.apache.log4j.Logger;
+import org.codehaus.jackson.map.ObjectMapper;
 import org.springframework.util.Assert;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.text.DateFormat;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -57,20 +56,38 @@ public class ApertureProjectConfigure extends JiraWebActionSupport {
      *
      */
     private final ApertureScheduler apertureScheduler;
+    /**
+     * Reference to the cached project links in this application context.
+     */
+    private final ApertureProjectLinks projectLinks;
     /**
      *
      */
     private String projectKey = null;
+    /**
+     * Operation id of the access control change the page follows; <code>null</code> if there is none.
+     */
+    private String aclOperation = null;
+    /**
+     * Removal job details memoized for the duration of this request.
+     */
+    private JobDetails removalDetails = null;
+    /**
+     * Whether {@link #removalDetails} has been looked up during this request.
+     */
+    private boolean removalDetailsResolved = false;
 
-    public ApertureProjectConfigure(final Aperture aperture, final ApertureSettings apertureSettings, final ApertureScheduler apertureScheduler) {
+    public ApertureProjectConfigure(final Aperture aperture, final ApertureSettings apertureSettings, final ApertureScheduler apertureScheduler, final ApertureProjectLinks projectLinks) {
 
         Assert.notNull(aperture, "Invalid Aperture service reference.");
         Assert.notNull(apertureSettings, "Invalid Aperture Settings service reference.");
         Assert.notNull(apertureScheduler, "Invalid Aperture Scheduler service reference.");
+        Assert.notNull(projectLinks, "Invalid Aperture Project Links service reference.");
 
         this.aperture = aperture;
         this.apertureScheduler = apertureScheduler;
         this.apertureSettings = apertureSettings;
+        this.projectLinks = projectLinks;
     }
 
     public ApertureSettings getApertureSettings() {
@@ -124,12 +141,16 @@ public class ApertureProjectConfigure extends JiraWebActionSupport {
 
     public Map<ApertureSettings.ProjectService, String> getProjectLinks() {
 
-        return JiraUtils.getProjectLinks(new HashMap<>(), getProject());
+        return projectLinks.getProjectLinks(null, getProjectKey());
     }
 
     public JobDetails getRemovalDetails() {
 
-        return apertureScheduler.getJobDetailsForProject(ApertureScheduler.Operation.REMOVE, getProjectKey());
+        if (!removalDetailsResolved) {
+            removalDetails = apertureScheduler.getJobDetailsForProject(ApertureScheduler.Operation.REMOVE, getProjectKey());
+            removalDetailsResolved = true;
+        }
+        return removalDetails;
     }
 
     public MutableIssue getOriginalRequest() {
@@ -145,6 +166,29 @@ public class ApertureProjectConfigure extends JiraWebActionSupport {
     public void setProjectKey(final String projectKey) {
 
         this.projectKey = projectKey;
+        this.removalDetails = null;
+        this.removalDetailsResolved = false;
+    }
+
+    public String getAclOperation() {
+
+        return aclOperation;
+    }
+
+    public void setAclOperation(final String aclOperation) {
+
+        this.aclOperation = aclOperation;
+    }
+
+    /**
+     * Gets the access control change the page follows.
+     * <p>
+     *
+     * @return the change; or <code>null</code> if there is none or it completed too long ago.
+     */
+    public AclChange getAclChange() {
+
+        return apertureScheduler.getAclChange(aclOperation);
     }
 
     public Project getProject() {
@@ -157,6 +201,21 @@ public class ApertureProjectConfigure extends JiraWebActionSupport {
         return null;
     }
 
+    /**
+     * Checks whether the logged in user may change the access control of the project and follow those changes.
+     * <p>
+     *
+     * @return <code>true</code> if the project exists and the user is a JIRA administrator or may administer it.
+     */
+    public boolean isProjectAdmin() {
+
+        final Project project = getProject();
+        if (project == null) {
+            return false;
+        }
+        return hasGlobalPermission(GlobalPermissionKey.ADMINISTER) || ComponentAccessor.getPermissionManager().hasPermission(ProjectPermissions.ADMINISTER_PROJECTS, project, getLoggedInUser());
+    }
+
     public boolean isSystemAdmin() {
 
         final GlobalPermissionManager globalPermissionManager = ComponentAccessor.getGlobalPermissionManager();
@@ -188,6 +247,14 @@ public class ApertureProjectConfigure extends JiraWebActionSupport {
         return getRedirect(String.format("/secure/admin/ProjectConfigureAperture.jspa?projectKey=%s", getProjectKey()));
     }
 
+    /**
+     * Submits a change to the access control of the project across every service.
+     * <p>
+     * The change is applied in the background by the scheduler; the page is shown again right away with the operation
+     * id of the change, and polls {@link #doAclProgress()} until the change completes.
+     *
+     * @return redirect to the project configuration page following the submitted change.
+     */
     @WebSudoRequired
     public String doAcl() {
 
@@ -196,34 +263,63 @@ public class ApertureProjectConfigure extends JiraWebActionSupport {
         final String pk = getProjectKey();
         final Aperture.Role role = Aperture.Role.valueOf(httpRequest.getParameter("role").toUpperCase());
         final Aperture.PermissionMode mode = Aperture.PermissionMode.valueOf(httpRequest.getParameter("mode").toUpperCase());
-        final Collection<ApplicationUser> projectUsers = constructUserList(httpRequest.getParameter("projectUsers"));
-        final Collection<Group> projectGroups = constructGroupList(httpRequest.getParameter("projectGroups"));
-
-        final ErrorCollection errors = new SimpleErrorCollection();
-        if (!projectUsers.isEmpty()) {
-            LOG.debug(String.format("doAcl(project=%s, role=%s, mode=%s, users=%s);", pk, role, mode, Arrays.toString(projectUsers.toArray())));
-            errors.addErrorCollection(this.aperture.modifyProjectUserPermissions(pk, mode, role, projectUsers));
+        final Collection<String> userNames = constructNameList(httpRequest.getParameter("projectUsers"));
+        final Collection<String> groupNames = constructNameList(httpRequest.getParameter("projectGroups"));
+        if (!isProjectAdmin()) {
+            LOG.warn(String.format("Rejected access control change of project:%s by:%s; not a project administrator", pk, getLoggedInUser()));
+            return getRedirect(String.format("/secure/admin/ProjectConfigureAperture.jspa?projectKey=%s", pk));
         }
-
-        if (!projectGroups.isEmpty()) {
-            LOG.debug(String.format("doAcl(project=%s, role=%s, mode=%s, groups=%s);", pk, role, mode, Arrays.toString(projectGroups.toArray())));
-            errors.addErrorCollection(this.aperture.modifyProjectGroupPermissions(pk, mode, role, projectGroups));
+        if (userNames.isEmpty() && groupNames.isEmpty()) {
+            return getRedirect(String.format("/secure/admin/ProjectConfigureAperture.jspa?projectKey=%s", pk));
         }
 
-        if (errors.hasAnyErrors()) {
-            for (final String errorMessage : errors.getErrorMessages()) {
-                LOG.error(errorMessage);
+        LOG.debug(String.format("doAcl(project=%s, role=%s, mode=%s, users=%s, groups=%s);", pk, role, mode, userNames, groupNames));
+        final AclChange change = apertureScheduler.scheduleAclChange(pk, mode, role, userNames, groupNames);
+        return getRedirect(String.format("/secure/admin/ProjectConfigureAperture.jspa?projectKey=%s&aclOperation=%s", pk, change.getId()));
+    }
+
+    /**
+     * Answers the progress of an access control change as JSON.
+     * <p>
+     * Served at <code>ProjectConfigureAperture!aclProgress.jspa?projectKey=KEY&amp;aclOperation=ID</code>; the answer
+     * holds the status of the change, whether it completed and the errors the services reported. Only users that may
+     * submit changes to the project, see {@link #isProjectAdmin()}, can follow them.
+     *
+     * @return {@link #NONE} as the answer is written directly to the response.
+     */
+    public String doAclProgress() {
+
+        final HttpServletResponse response = getHttpResponse();
+        final AclChange change = getAclChange();
+        try {
+            if (!isProjectAdmin()) {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN);
+                return NONE;
             }
+            if (change == null || !change.getProjectKey().equalsIgnoreCase(getProjectKey())) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return NONE;
+            }
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("operation", change.getId());
+            result.put("projectKey", change.getProjectKey());
+            result.put("status", change.getStatus().name());
+            result.put("complete", change.isComplete());
+            result.put("errors", change.getErrors());
+            response.setContentType("application/json;charset=UTF-8");
+            response.setHeader("Cache-Control", "no-cache, no-store");
+            response.getWriter().write(new ObjectMapper().writeValueAsString(result));
+        } catch (IOException ex) {
+            LOG.warn("Failed to write the access control change progress.", ex);
         }
-        return getRedirect(String.format("/secure/admin/ProjectConfigureAperture.jspa?projectKey=%s", getProjectKey()));
+        return NONE;
     }
 
     @WebSudoRequired
     public String doUndelete() {
 
         LOG.debug("processing:doUndelete();");
-        final String jobKey = String.format("gov.pnnl.aperture:APR-REMOVE-%s", getProjectKey());
-        LOG.debug(String.format("Un-scheduling project removal:%s", jobKey));
+        LOG.debug(String.format("Un-scheduling project removal:%s", getProjectKey()));
         apertureScheduler.cancelProjectDeletion(getProjectKey());
         return getRedirect(String.format("/secure/admin/ProjectConfigureAperture.jspa?projectKey=%s", getProjectKey()));
     }
@@ -247,39 +343,16 @@ public class ApertureProjectConfigure extends JiraWebActionSupport {
         return getRedirect(String.format("/secure/admin/ProjectConfigureAperture.jspa?projectKey=%s", getProjectKey()));
     }
 
-    private Collection<Group> constructGroupList(final String groupList) {
-
-        if (StringUtils.hasText(groupList)) {
-            final UserManager userManager = getUserManager();
-            final List<Group> projectGroups = new ArrayList<>();
-            final String[] groupNames = StringUtils.delimitedListToStringArray(groupList, ",");
-            for (final String groupName : groupNames) {
-                final Group group = userManager.getGroup(groupName);
-                if (group == null) {
-                    continue;
-                }
-                projectGroups.add(group);
-            }
-            return projectGroups;
-        }
-        return Collections.emptyList();
-    }
+    private static Collection<String> constructNameList(final String nameList) {
 
-    private Collection<ApplicationUser> constructUserList(final String userList) {
-
-        if (StringUtils.hasText(userList)) {
-            final UserManager userManager = getUserManager();
-            final List<ApplicationUser> projectUsers = new ArrayList<>();
-            final String[] userNames = StringUtils.delimitedListToStringArray(userList, ",");
-            for (final String userName : userNames) {
-                final ApplicationUser applicationUser = userManager.getUserByName(userName.trim());
-                if (applicationUser == null) {
-                    LOG.warn(String.format("Failed to find user by name:'%s'", userName));
-                    continue;
+        if (StringUtils.hasText(nameList)) {
+            final Set<String> names = new LinkedHashSet<>();
+            for (final String name : StringUtils.delimitedListToStringArray(nameList, ",")) {
+                if (StringUtils.hasText(name)) {
+                    names.add(name.trim());
                 }
-                projectUsers.add(applicationUser);
             }
-            return projectUsers;
+            return names;
         }
         return Collections.emptyList();
     }
@@ -2,23 +2,11 @@ package gov.pnnl.aperture.webwork.action;
 
 import com.atlassian.extras.common.org.springframework.util.StringUtils;
 import com.atlassian.jira.component.ComponentAccessor;
-import com.atlassian.jira.issue.fields.config.FieldConfigScheme;
-import com.atlassian.jira.issue.fields.config.manager.IssueTypeSchemeManager;
-import com.atlassian.jira.issue.fields.layout.field.FieldLayoutManager;
-import com.atlassian.jira.issue.fields.layout.field.FieldLayoutScheme;
-import com.atlassian.jira.issue.fields.screen.issuetype.IssueTypeScreenScheme;
-import com.atlassian.jira.issue.fields.screen.issuetype.IssueTypeScreenSchemeManager;
-import com.atlassian.jira.notification.NotificationSchemeManager;
-import com.atlassian.jira.permission.PermissionSchemeManager;
 import com.atlassian.jira.project.type.ProjectType;
 import com.atlassian.jira.project.type.ProjectTypeManager;
-import com.atlassian.jira.scheme.Scheme;
 import com.atlassian.jira.web.action.JiraWebActionSupport;
-import com.atlassian.jira.workflow.AssignableWorkflowScheme;
-import com.atlassian.jira.workflow.JiraWorkflow;
-import com.atlassian.jira.workflow.WorkflowManager;
-import com.atlassian.jira.workflow.WorkflowSchemeManager;
 import com.atlassian.plugin.PluginInformation;
+import gov.pnnl.aperture.ApertureSchemeCatalogue;
 import gov.pnnl.aperture.ApertureSettings;
 
 import javax.servlet.http.HttpServletRequest;
@@ -36,10 +24,15 @@ public class ApertureProjectDefaults extends JiraWebActionSupport {
      * Reference to the current Aperture Settings service in the current application context.
      */
     private final ApertureSettings apertureSettings;
+    /**
+     * Reference to the catalogue of schemes and workflows offered as defaults.
+     */
+    private final ApertureSchemeCatalogue schemeCatalogue;
 
-    public ApertureProjectDefaults(final ApertureSettings apertureSettings) {
+    public ApertureProjectDefaults(final ApertureSettings apertureSettings, final ApertureSchemeCatalogue schemeCatalogue) {
 
         this.apertureSettings = apertureSettings;
+        this.schemeCatalogue = schemeCatalogue;
     }
 
     public List<ProjectType> getProjectTypes() {
@@ -49,51 +42,39 @@ public class ApertureProjectDefaults extends JiraWebActionSupport {
     }
 
 
-    public List<Scheme> getPermissionSchemes() {
+    public List<ApertureSchemeCatalogue.Entry> getPermissionSchemes() {
 
-        final PermissionSchemeManager permissionSchemeManager = ComponentAccessor.getPermissionSchemeManager();
-        return permissionSchemeManager.getSchemeObjects();
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.PERMISSION_SCHEME);
     }
 
-    public List<Scheme> getNotificationSchemes() {
+    public List<ApertureSchemeCatalogue.Entry> getNotificationSchemes() {
 
-        final NotificationSchemeManager notificationSchemeManager = ComponentAccessor.getNotificationSchemeManager();
-        return notificationSchemeManager.getSchemeObjects();
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.NOTIFICATION_SCHEME);
     }
 
-    public List<IssueTypeScreenScheme> getScreenSchemes() {
+    public List<ApertureSchemeCatalogue.Entry> getScreenSchemes() {
 
-        IssueTypeScreenSchemeManager issueTypeScreenSchemeManager = ComponentAccessor.getIssueTypeScreenSchemeManager();
-        return new ArrayList<>(issueTypeScreenSchemeManager.getIssueTypeScreenSchemes());
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.SCREEN_SCHEME);
     }
 
-    public List<JiraWorkflow> getWorkflows() {
+    public List<ApertureSchemeCatalogue.Entry> getWorkflows() {
 
-        final WorkflowManager workflowManager = ComponentAccessor.getWorkflowManager();
-        return new ArrayList<>(workflowManager.getActiveWorkflows());
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.ACTIVE_WORKFLOW);
     }
 
-    public List<AssignableWorkflowScheme> getWorkflowSchemes() {
+    public List<ApertureSchemeCatalogue.Entry> getWorkflowSchemes() {
 
-        final WorkflowSchemeManager workflowManager = ComponentAccessor.getComponent(WorkflowSchemeManager.class);
-        final List<AssignableWorkflowScheme> schemes = new ArrayList<>();
-        schemes.add(workflowManager.getDefaultWorkflowScheme());
-        for (AssignableWorkflowScheme awfs : workflowManager.getAssignableSchemes()) {
-            schemes.add(awfs);
-        }
-        return schemes;
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.WORKFLOW_SCHEME);
     }
 
-    public List<FieldLayoutScheme> getFieldConfigurationSchemes() {
+    public List<ApertureSchemeCatalogue.Entry> getFieldConfigurationSchemes() {
 
-        final FieldLayoutManager layoutManager = ComponentAccessor.getFieldLayoutManager();
-        return layoutManager.getFieldLayoutSchemes();
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.FIELD_LAYOUT_SCHEME);
     }
 
-    public List<FieldConfigScheme> getIssueTypeSchemes() {
+    public List<ApertureSchemeCatalogue.Entry> getIssueTypeSchemes() {
 
-        final IssueTypeSchemeManager issueTypeSchemeManager = ComponentAccessor.getIssueTypeSchemeManager();
-        return issueTypeSchemeManager.getAllSchemes();
+        return schemeCatalogue.getEntries(ApertureSchemeCatalogue.Kind.ISSUE_TYPE_SCHEME);
     }
 
     public PluginInformation getPluginInfo() {
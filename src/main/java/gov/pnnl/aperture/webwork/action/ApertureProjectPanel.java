@@ -8,9 +8,9 @@ import com.atlassian.jira.security.PermissionManager;
 import com.atlassian.jira.security.plugin.ProjectPermissionKey;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.util.UserManager;
+import gov.pnnl.aperture.ApertureProjectLinks;
 import gov.pnnl.aperture.ApertureProjectSettings;
 import gov.pnnl.aperture.ApertureSettings;
-import gov.pnnl.aperture.JiraUtils;
 import org.springframework.util.Assert;
 
 import java.util.Map;
@@ -24,11 +24,14 @@ import java.util.Map;
 public class ApertureProjectPanel extends AbstractProjectTabPanel {
 
     private final ApertureSettings apertureSettings;
+    private final ApertureProjectLinks projectLinks;
 
-    public ApertureProjectPanel(final ApertureSettings apertureSettings) {
+    public ApertureProjectPanel(final ApertureSettings apertureSettings, final ApertureProjectLinks projectLinks) {
 
         Assert.notNull(apertureSettings, "Invalid Aperture Settings service reference.");
+        Assert.notNull(projectLinks, "Invalid Aperture Project Links service reference.");
         this.apertureSettings = apertureSettings;
+        this.projectLinks = projectLinks;
     }
 
     /**
@@ -41,7 +44,7 @@ public class ApertureProjectPanel extends AbstractProjectTabPanel {
         final boolean projectApertureCapable = projectSettings.isEnabled();
         params.put("apertureEnabled", projectApertureCapable);
         if (projectApertureCapable) {
-            params.put("projectLinks", JiraUtils.getProjectLinks(params, ctx.getProject()));
+            params.put("projectLinks", projectLinks.getProjectLinks(params, ctx.getProject().getKey()));
         }
         return params;
     }
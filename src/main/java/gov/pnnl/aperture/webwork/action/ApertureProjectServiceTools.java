@@ -3,25 +3,51 @@ package gov.pnnl.aperture.webwork.action;
 import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.issue.IssueManager;
 import com.atlassian.jira.issue.MutableIssue;
+import com.atlassian.jira.permission.GlobalPermissionKey;
 import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.security.xsrf.RequiresXsrfCheck;
 import com.atlassian.jira.util.ErrorCollection;
 import com.atlassian.jira.util.SimpleErrorCollection;
 import com.atlassian.jira.web.action.JiraWebActionSupport;
 import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.ApertureCheckpointStore;
+import gov.pnnl.aperture.ApertureScheduler;
 import gov.pnnl.aperture.ApertureSettings;
 import gov.pnnl.aperture.JiraUtils;
+import gov.pnnl.aperture.ProjectKey;
 import gov.pnnl.aperture.ProjectServiceHandler;
+import gov.pnnl.aperture.ProvisioningCheckpoint;
+import gov.pnnl.aperture.ProvisioningRequest;
+import gov.pnnl.aperture.ProvisioningTrace;
 import org.apache.log4j.Logger;
+import org.codehaus.jackson.map.ObjectMapper;
 import org.springframework.util.Assert;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
+ * Administrative tools for re-creating a single project service of a request and for retrying the requests whose
+ * project services failed.
+ * <p>
+ * <code>ApertureServiceTools!retryFailed.jspa</code> re-schedules every request with failed services, or only those of
+ * the requests given as <code>issue</code> parameters, and renders the issue keys it scheduled as JSON; it only accepts
+ * a <code>POST</code> with a valid XSRF token.
+ *
  * @author Developer Central @ PNNL
  */
 public class ApertureProjectServiceTools extends JiraWebActionSupport {
@@ -38,17 +64,29 @@ public class ApertureProjectServiceTools extends JiraWebActionSupport {
      * Reference to the current ApertureSettings service in this server context.
      */
     private final ApertureSettings apertureSettings;
+    /**
+     * Reference to the current ApertureCheckpointStore service in this server context.
+     */
+    private final ApertureCheckpointStore checkpointStore;
+    /**
+     * Reference to the current ApertureScheduler service in this server context.
+     */
+    private final ApertureScheduler apertureScheduler;
     /**
      * Reference to the working project key this web action is operating on; can be 'invalid' if services are created.
      */
     private String projectKey = null;
 
-    public ApertureProjectServiceTools(final Aperture aperture, final ApertureSettings apertureSettings) {
+    public ApertureProjectServiceTools(final Aperture aperture, final ApertureSettings apertureSettings, final ApertureCheckpointStore checkpointStore, final ApertureScheduler apertureScheduler) {
 
         Assert.notNull(aperture, "Invalid Aperture service reference.");
         Assert.notNull(apertureSettings, "Invalid Aperture Settings service reference.");
+        Assert.notNull(checkpointStore, "Invalid Aperture Checkpoint Store service reference.");
+        Assert.notNull(apertureScheduler, "Invalid Aperture Scheduler service reference.");
         this.aperture = aperture;
         this.apertureSettings = apertureSettings;
+        this.checkpointStore = checkpointStore;
+        this.apertureScheduler = apertureScheduler;
     }
 
     public String getProjectKey() {
@@ -84,6 +122,7 @@ public class ApertureProjectServiceTools extends JiraWebActionSupport {
         final ProjectServiceHandler handler = aperture.getServiceHandler(service);
         final Map<String, Serializable> environment = new HashMap<>();
         final ErrorCollection errors = new SimpleErrorCollection();
+        final ProvisioningTrace trace = ProvisioningTrace.open(String.format("recreate %s", service));
         try {
             if (removeFirst) {
                 final ErrorCollection removeErrors = handler.destroyService(projectKey, environment);
@@ -94,7 +133,7 @@ public class ApertureProjectServiceTools extends JiraWebActionSupport {
                 }
             }
 
-            final ErrorCollection serviceErrors = handler.createService(issue, environment);
+            final ErrorCollection serviceErrors = handler.createService(ProvisioningRequest.of(issue, apertureSettings), environment);
             if (serviceErrors.hasAnyErrors()) {
                 for (Map.Entry<String, String> entry : serviceErrors.getErrors().entrySet()) {
                     errors.addError(entry.getKey(), entry.getValue());
@@ -114,6 +153,11 @@ public class ApertureProjectServiceTools extends JiraWebActionSupport {
                     errors.addError(entry.getKey(), entry.getValue());
                 }
             }
+        } finally {
+            if (errors.hasAnyErrors()) {
+                trace.failed();
+            }
+            trace.store(issue);
         }
         if (errors.hasAnyErrors()) {
             JiraUtils.addErrorCollectionAsComments(issue, String.format("%s (_single_)", serviceName), errors);
@@ -121,4 +165,71 @@ public class ApertureProjectServiceTools extends JiraWebActionSupport {
         return getRedirect(String.format("/browse/%s", issue.getKey()));
     }
 
+    /**
+     * Clears the recorded failures of requests with failed project services and schedules them to run again now.
+     * <p>
+     * Requested issues without failed services are not scheduled and are reported as <code>ignored</code>.
+     *
+     * @return {@link #NONE} as the scheduled issue keys are written to the response.
+     * @throws Exception if the action fails.
+     */
+    @RequiresXsrfCheck
+    public String doRetryFailed() throws Exception {
+
+        final HttpServletResponse response = getHttpResponse();
+        if (!"POST".equals(getHttpRequest().getMethod())) {
+            response.setHeader("Allow", "POST");
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return NONE;
+        }
+        if (!hasGlobalPermission(GlobalPermissionKey.ADMINISTER)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return NONE;
+        }
+        final Collection<String> issueKeys = new LinkedHashSet<>(checkpointStore.getFailedIssueKeys());
+        final List<String> ignored = new ArrayList<>();
+        final String[] requested = getHttpRequest().getParameterValues("issue");
+        if (requested != null) {
+            // only requests the store records failed services for may be retried //
+            final Set<String> failed = new HashSet<>(issueKeys);
+            issueKeys.clear();
+            for (final String issueKey : requested) {
+                if (failed.contains(ProjectKey.normalize(issueKey))) {
+                    issueKeys.add(ProjectKey.normalize(issueKey));
+                } else {
+                    ignored.add(issueKey);
+                }
+            }
+        }
+        final IssueManager issueManager = ComponentAccessor.getIssueManager();
+        final List<String> scheduled = new ArrayList<>();
+        final List<String> missing = new ArrayList<>();
+        for (final String issueKey : issueKeys) {
+            final MutableIssue issue = issueManager.getIssueByKeyIgnoreCase(issueKey);
+            if (issue == null) {
+                checkpointStore.remove(issueKey);
+                missing.add(issueKey);
+                continue;
+            }
+            final ProvisioningCheckpoint checkpoint = checkpointStore.load(issue.getKey());
+            checkpoint.clearFailures();
+            checkpointStore.save(checkpoint);
+            apertureScheduler.scheduleProjectRetry(issue, new Date());
+            scheduled.add(issue.getKey());
+        }
+        LOG.info(String.format("Scheduled %d request(s) with failed services for retry; %d missing, %d ignored.", scheduled.size(), missing.size(), ignored.size()));
+
+        final Map<String, List<String>> result = new LinkedHashMap<>();
+        result.put("scheduled", scheduled);
+        result.put("missing", missing);
+        result.put("ignored", ignored);
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache, no-store");
+        try {
+            response.getWriter().write(new ObjectMapper().writeValueAsString(result));
+        } catch (IOException ex) {
+            LOG.warn("Failed to write the retried request keys.", ex);
+        }
+        return NONE;
+    }
 }
@@ -43,35 +43,52 @@ public class InlineServiceCreateIssueAction implements IssueAction {
         return epoch;
     }
 
+    /**
+     * Creates the template context shared by every action rendered for an issue.
+     * <p>
+     * The context holds the helpers the templates use, resolved for the logged in user; the panel builds it once and
+     * hands it to each of its actions.
+     *
+     * @param issue the issue the actions are rendered for.
+     * @return the shared template context.
+     */
+    public static Map<String, Object> createContext(final Issue issue) {
+
+        final JiraAuthenticationContext authContext = ComponentAccessor.getJiraAuthenticationContext();
+        final I18nHelper.BeanFactory i18nHelperFactory = ComponentAccessor.getI18nHelperFactory();
+        final I18nHelper i18n = i18nHelperFactory.getInstance(authContext.getLoggedInUser());
+        final Map<String, Object> context = new HashMap<>();
+
+        context.put("i18n", i18n);
+        context.put("textutils", new TextUtils());
+        context.put("jirautils", new JiraUtils());
+        context.put("velocityhelper", new JiraVelocityHelper(ComponentAccessor.getFieldManager()));
+        context.put("dateutils", new DateUtils(i18n.getDefaultResourceBundle()));
+        context.put("applicationProperties", ComponentAccessor.getApplicationProperties());
+        context.put("req", ServletActionContext.getRequest());
+        if (issue != null) {
+            context.put("issue", issue);
+            context.put("assignee", issue.getAssignee());
+            context.put("reported", issue.getReporter());
+        }
+        return context;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public String getHtml() {
 
+        if (!velocityContext.containsKey("i18n")) {
+            final Object obj = velocityContext.get("issue");
+            createContext(obj instanceof Issue ? (Issue) obj : null).forEach(velocityContext::putIfAbsent);
+        }
         final VelocityManager velocityManager = ComponentAccessor.getVelocityManager();
         final ApplicationProperties applicationProperties = ComponentAccessor.getApplicationProperties();
         final String baseUrl = applicationProperties.getString(APKeys.JIRA_BASEURL);
         final String webworkEncoding = applicationProperties.getString(APKeys.JIRA_WEBWORK_ENCODING);
         final String basePath = "/gov/pnnl/aperture/templates/issue_actions/";
-        final JiraAuthenticationContext authContext = ComponentAccessor.getJiraAuthenticationContext();
-        final I18nHelper.BeanFactory i18nHelperFactory = ComponentAccessor.getI18nHelperFactory();
-        final I18nHelper i18n = i18nHelperFactory.getInstance(authContext.getLoggedInUser());
-
-        velocityContext.putIfAbsent("i18n", i18n);
-        velocityContext.putIfAbsent("textutils", new TextUtils());
-        velocityContext.putIfAbsent("jirautils", new JiraUtils());
-        velocityContext.putIfAbsent("velocityhelper", new JiraVelocityHelper(ComponentAccessor.getFieldManager()));
-        velocityContext.putIfAbsent("dateutils", new DateUtils(i18n.getDefaultResourceBundle()));
-        velocityContext.putIfAbsent("applicationProperties", ComponentAccessor.getApplicationProperties());
-        velocityContext.putIfAbsent("req", ServletActionContext.getRequest());
-
-        final Object obj = velocityContext.get("issue");
-        if (obj instanceof Issue) {
-            final Issue issue = (Issue) obj;
-            velocityContext.putIfAbsent("assignee", issue.getAssignee());
-            velocityContext.putIfAbsent("reported", issue.getReporter());
-        }
         return velocityManager.getEncodedBody(basePath, resourceName, baseUrl, webworkEncoding, velocityContext);
     }
 
@@ -2,6 +2,7 @@ package gov.pnnl.aperture.webwork.action;
 
 import com.atlassian.applinks.api.ApplicationLink;
 import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.datetime.DateTimeFormatter;
 import com.atlassian.jira.issue.Issue;
 import com.atlassian.jira.issue.issuetype.IssueType;
 import com.atlassian.jira.permission.GlobalPermissionKey;
@@ -13,7 +14,10 @@ import com.atlassian.jira.security.GlobalPermissionManager;
 import com.atlassian.jira.user.ApplicationUser;
 import gov.pnnl.aperture.Aperture;
 import gov.pnnl.aperture.ApertureConstants;
+import gov.pnnl.aperture.ApertureProjectLinks;
 import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProvisioningTrace;
+import org.springframework.util.Assert;
 
 import java.util.*;
 
@@ -24,11 +28,14 @@ public class IssueAdminTabPanel extends AbstractIssueTabPanel3 {
 
     private final Aperture aperture;
     private final ApertureSettings apertureSettings;
+    private final ApertureProjectLinks projectLinks;
 
-    public IssueAdminTabPanel(final Aperture aperture, final ApertureSettings apertureSettings) {
+    public IssueAdminTabPanel(final Aperture aperture, final ApertureSettings apertureSettings, final ApertureProjectLinks projectLinks) {
 
+        Assert.notNull(projectLinks, "Invalid Aperture Project Links service reference.");
         this.aperture = aperture;
         this.apertureSettings = apertureSettings;
+        this.projectLinks = projectLinks;
     }
 
     /**
@@ -59,22 +66,61 @@ public class IssueAdminTabPanel extends AbstractIssueTabPanel3 {
     public List<IssueAction> getActions(final GetActionsRequest gar) {
 
         final List<IssueAction> actions = new ArrayList<>();
+        final Issue issue = gar.issue();
+        final Map<String, Object> defaultContext = InlineServiceCreateIssueAction.createContext(issue);
+        final List<ProvisioningTrace.Run> runs = ProvisioningTrace.load(issue);
+        if (!runs.isEmpty()) {
+            final Map<String, Object> velocityContext = new HashMap<>(defaultContext);
+            velocityContext.put("runs", runs);
+            velocityContext.put("dateFormatter", ComponentAccessor.getComponent(DateTimeFormatter.class).forLoggedInUser());
+            actions.add(new InlineServiceCreateIssueAction(new Date(), "provisioning_trace.vm.html", velocityContext));
+        }
+
+        // application links come from the shared cache rather than being resolved per service on every view //
+        final Map<ApertureSettings.ProjectService, ApplicationLink> applicationLinks = projectLinks.getApplicationLinks();
+        final List<ServiceAction> serviceActions = new ArrayList<>();
         for (ApertureSettings.ProjectService service : ApertureSettings.ProjectService.values()) {
-            final ApplicationLink applicationLink = apertureSettings.getApplicationLink(service);
+            final ApplicationLink applicationLink = applicationLinks.get(service);
             if (service.isApplicationLinkRequired() && applicationLink == null) {
                 // this service is not properly configured as it requires an application link and doesn't have one yet
                 continue;
             }
-
-            final Map<String, Object> velocityContext = new HashMap<>();
-            final Issue issue = gar.issue();
-            velocityContext.put("service", service);
-            velocityContext.put("applink", applicationLink);
-            velocityContext.put("issue", issue);
+            serviceActions.add(new ServiceAction(service, applicationLink));
+        }
+        if (!serviceActions.isEmpty()) {
+            final Map<String, Object> velocityContext = new HashMap<>(defaultContext);
+            velocityContext.put("serviceActions", serviceActions);
             velocityContext.put("projectKey", apertureSettings.getProjectKeyFor(issue));
-            actions.add(new InlineServiceCreateIssueAction(new Date(), "service_action.vm.html", velocityContext));
+            actions.add(new InlineServiceCreateIssueAction(new Date(), "service_actions.vm.html", velocityContext));
         }
         return actions;
     }
 
+    /**
+     * A service the issue can re-run its create function for, along with the application link of that service.
+     * <p>
+     *
+     * @author Developer Central @ PNNL
+     */
+    public static final class ServiceAction {
+
+        private final ApertureSettings.ProjectService service;
+        private final ApplicationLink applicationLink;
+
+        ServiceAction(final ApertureSettings.ProjectService service, final ApplicationLink applicationLink) {
+
+            this.service = service;
+            this.applicationLink = applicationLink;
+        }
+
+        public ApertureSettings.ProjectService getService() {
+
+            return service;
+        }
+
+        public ApplicationLink getApplicationLink() {
+
+            return applicationLink;
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package gov.pnnl.aperture.webwork.action;
+
+import com.atlassian.jira.issue.fields.CustomField;
+import com.atlassian.json.marshal.Jsonable;
+import com.atlassian.webresource.api.data.WebResourceDataProvider;
+import gov.pnnl.aperture.ApertureSettings;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.springframework.util.Assert;
+
+/**
+ * Web resource data provider handing the id of the project key custom field to the key suggestion script.
+ * <p>
+ *
+ * @author Developer Central @ PNNL
+ * @see ApertureKeySuggestions
+ */
+public class ProjectKeyFieldDataProvider implements WebResourceDataProvider {
+
+    private final ApertureSettings apertureSettings;
+
+    public ProjectKeyFieldDataProvider(final ApertureSettings apertureSettings) {
+
+        Assert.notNull(apertureSettings, "Invalid Aperture Settings service reference.");
+        this.apertureSettings = apertureSettings;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Jsonable get() {
+
+        final CustomField customField = apertureSettings.getCustomField(ApertureSettings.CustomField.PROJECT_KEY);
+        final String fieldId = customField == null ? null : customField.getId();
+        return writer -> writer.write(new ObjectMapper().writeValueAsString(fieldId));
+    }
+}
@@ -1,23 +1,24 @@
 package gov.pnnl.aperture.webwork.action;
 
 import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.permission.GlobalPermissionKey;
 import com.atlassian.jira.project.Project;
-import com.atlassian.jira.project.type.ProjectType;
-import com.atlassian.jira.project.type.ProjectTypeManager;
-import com.atlassian.jira.user.ApplicationUser;
-import com.atlassian.jira.user.util.UserManager;
+import com.atlassian.jira.project.ProjectManager;
+import com.atlassian.jira.security.xsrf.RequiresXsrfCheck;
 import com.atlassian.jira.web.action.JiraWebActionSupport;
 import com.atlassian.plugin.PluginInformation;
-import com.atlassian.scheduler.status.JobDetails;
+import com.atlassian.sal.api.websudo.WebSudoRequired;
+import gov.pnnl.aperture.ApertureRecycleBin;
 import gov.pnnl.aperture.ApertureScheduler;
 import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.RecycleBinPage;
 import org.apache.log4j.Logger;
+import org.springframework.util.StringUtils;
 
 import javax.servlet.http.HttpServletRequest;
-import java.io.Serializable;
-import java.util.Collection;
-import java.util.Date;
-import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ProjectRecycleBin extends JiraWebActionSupport {
     /**
@@ -27,11 +28,18 @@ public class ProjectRecycleBin extends JiraWebActionSupport {
 
     private final ApertureScheduler apertureScheduler;
     private final ApertureSettings apertureSettings;
+    private final ApertureRecycleBin apertureRecycleBin;
 
-    public ProjectRecycleBin(final ApertureScheduler apertureScheduler, final ApertureSettings apertureSettings) {
+    private String sort = null;
+    private String order = null;
+    private int startIndex = 0;
+    private RecycleBinPage page = null;
+
+    public ProjectRecycleBin(final ApertureScheduler apertureScheduler, final ApertureSettings apertureSettings, final ApertureRecycleBin apertureRecycleBin) {
 
         this.apertureScheduler = apertureScheduler;
         this.apertureSettings = apertureSettings;
+        this.apertureRecycleBin = apertureRecycleBin;
     }
 
     public PluginInformation getPluginInfo() {
@@ -39,35 +47,50 @@ public class ProjectRecycleBin extends JiraWebActionSupport {
         return apertureSettings.getPluginInfo();
     }
 
-    public ProjectType getProjectType(final Project project) {
+    /**
+     * Gets the current page of pending project removals for this request.
+     * <p>
+     * The page is computed once per request and reused for every row the view renders.
+     *
+     * @return the current sorted page of the recycle bin.
+     */
+    public RecycleBinPage getPage() {
+
+        if (page == null) {
+            final ApertureRecycleBin.SortField sortField = ApertureRecycleBin.SortField.fromString(sort, ApertureRecycleBin.SortField.PURGE_DATE);
+            page = apertureRecycleBin.getPendingRemovals(sortField, !"desc".equalsIgnoreCase(order), startIndex, ApertureRecycleBin.DEFAULT_PAGE_SIZE);
+        }
+        return page;
+    }
+
+    public String getSort() {
+
+        return sort;
+    }
+
+    public void setSort(final String sort) {
 
-        final ProjectTypeManager projectTypeManager = ComponentAccessor.getComponent(ProjectTypeManager.class);
-        return projectTypeManager.getAccessibleProjectType(project.getProjectTypeKey()).getOrNull();
+        this.sort = sort;
     }
 
-    public Collection<Project> getProjects() {
+    public String getOrder() {
 
-        return apertureScheduler.getPendingProjectDeletions();
+        return order;
     }
 
-    public JobDetails getJobDetailsFor(final String projectKey) {
+    public void setOrder(final String order) {
 
-        return apertureScheduler.getJobDetailsForProject(ApertureScheduler.Operation.REMOVE, projectKey);
+        this.order = order;
     }
 
-    public ApplicationUser getInitiatedBy(final JobDetails jobDetails) {
+    public int getStartIndex() {
 
-        final Map<String, Serializable> jobDetailsParameters = jobDetails.getParameters();
-        final String initiatedBy = (String) jobDetailsParameters.get("username");
-        final UserManager userManager = ComponentAccessor.getUserManager();
-        return userManager.getUserByName(initiatedBy);
+        return startIndex;
     }
 
-    public Date getInitiatedOn(final JobDetails jobDetails) {
+    public void setStartIndex(final int startIndex) {
 
-        final Map<String, Serializable> jobDetailsParameters = jobDetails.getParameters();
-        final String initiatedOn = (String) jobDetailsParameters.get("initiatedOn");
-        return new Date(Long.parseLong(initiatedOn));
+        this.startIndex = startIndex;
     }
 
     public String doCancel() {
@@ -78,4 +101,47 @@ public class ProjectRecycleBin extends JiraWebActionSupport {
         apertureScheduler.cancelProjectDeletion(projectKey);
         return getRedirect("/secure/admin/ApertureProjectRecycleBin.jspa");
     }
+
+    /**
+     * Schedules the removal of every project listed in the <code>projectKeys</code> request parameter as one batch.
+     * <p>
+     * Keys are separated by commas or white space; keys that do not match an existing project are skipped. Only JIRA
+     * administrators may remove projects, with a <code>POST</code> carrying a valid XSRF token.
+     *
+     * @return redirect to the recycle bin listing the scheduled removals.
+     * @throws Exception if the error response cannot be sent.
+     */
+    @WebSudoRequired
+    @RequiresXsrfCheck
+    public String doRemoveBulk() throws Exception {
+
+        final HttpServletResponse response = getHttpResponse();
+        if (!"POST".equals(getHttpRequest().getMethod())) {
+            response.setHeader("Allow", "POST");
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return NONE;
+        }
+        if (!hasGlobalPermission(GlobalPermissionKey.ADMINISTER)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return NONE;
+        }
+        final String projectKeys = getHttpRequest().getParameter("projectKeys");
+        LOG.debug(String.format("processing:doRemoveBulk(%s))", projectKeys));
+        final ProjectManager projectManager = ComponentAccessor.getProjectManager();
+        final List<Project> projects = new ArrayList<>();
+        if (StringUtils.hasText(projectKeys)) {
+            for (final String projectKey : projectKeys.trim().split("[,\\s]+")) {
+                final Project project = projectManager.getProjectByCurrentKeyIgnoreCase(projectKey);
+                if (project == null) {
+                    LOG.warn(String.format("Skipping removal of unknown project:[%s]", projectKey));
+                } else if (!projects.contains(project)) {
+                    projects.add(project);
+                }
+            }
+        }
+        if (!projects.isEmpty()) {
+            apertureScheduler.scheduleProjectRemovals(projects);
+        }
+        return getRedirect("/secure/admin/ApertureProjectRecycleBin.jspa");
+    }
 }
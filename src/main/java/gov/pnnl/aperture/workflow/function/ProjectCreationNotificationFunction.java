@@ -1,20 +1,25 @@
 package gov.pnnl.aperture.workflow.function;
 
-import com.atlassian.jira.bc.issue.link.RemoteIssueLinkService;
 import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.issue.MutableIssue;
+import com.atlassian.jira.issue.link.RemoteIssueLink;
+import com.atlassian.jira.issue.link.RemoteIssueLinkManager;
+import com.atlassian.jira.permission.ProjectPermissions;
+import com.atlassian.jira.security.PermissionManager;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.workflow.function.issue.AbstractJiraFunctionProvider;
 import com.atlassian.plugin.util.Assertions;
 import com.opensymphony.module.propertyset.PropertySet;
 import com.opensymphony.workflow.WorkflowException;
 import gov.pnnl.aperture.ApertureSettings;
-import gov.pnnl.aperture.JiraUtils;
+import gov.pnnl.aperture.NotificationBatch;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,6 +27,9 @@ import java.util.Map;
  * <p>
  * This function should be assigned when a new project services request via JIRA is completed and in the done stage.
  * This function should then be invoked regardless of being done via an automated or manual process.
+ * <p>
+ * The remote links of the issue are read once without a permission check, and are only listed in the messages of
+ * members that can browse the issue; other members receive the notification without them.
  *
  * @author Developer Central @ PNNL
  */
@@ -31,6 +39,10 @@ public class ProjectCreationNotificationFunction extends AbstractJiraFunctionPro
      * Logger reference for this class.
      */
     private static final transient Logger LOG = Logger.getLogger(ProjectCreationNotificationFunction.class);
+    /**
+     * Transient variable key the project membership snapshot is kept under for the current transition.
+     */
+    static final String PROJECT_MEMBERS_KEY = "gov.pnnl.aperture.projectMembers";
     /**
      * Reference to the current instance of ApertureSettings in the current application context.
      */
@@ -56,27 +68,63 @@ public class ProjectCreationNotificationFunction extends AbstractJiraFunctionPro
     public void execute(final Map transientVars, final Map args, final PropertySet ps) throws WorkflowException {
 
         final MutableIssue issue = getIssue(transientVars);
-        final Collection<ApplicationUser> projectMembers = apertureSettings.getProjectMembersFor(issue);
+        final Collection<ApplicationUser> projectMembers = getProjectMembers(transientVars, issue);
+        final List<RemoteIssueLink> issueLinks = ComponentAccessor.getComponent(RemoteIssueLinkManager.class).getRemoteIssueLinksForIssue(issue);
+        final String projectKey = apertureSettings.getProjectKeyFor(issue);
 
-        for (final ApplicationUser user : projectMembers) {
-            final RemoteIssueLinkService linkService = ComponentAccessor.getComponentOfType(RemoteIssueLinkService.class);
-            final Map<String, Object> overrides = new HashMap<>();
-            overrides.put("projectKey", apertureSettings.getProjectKeyFor(issue));
-            overrides.put("i18n", ComponentAccessor.getI18nHelperFactory().getInstance(user));
-            overrides.put("issueLinks", linkService.getRemoteIssueLinksForIssue(user, issue).getRemoteIssueLinks());
-            overrides.put("issue", issue);
-            overrides.put("recipient", user);
-            overrides.put("actionUser", issue.getReporter());
-            overrides.put("headerTitle", String.format("Welcome to Developer Central Project '%s' / %s", issue.getSummary(), overrides.get("projectKey")));
-            overrides.put("projectMembers", apertureSettings.getProjectMembersFor(issue));
-            final String subject = String.format("Welcome to the %s [%s] project from Developer Central", issue.getSummary(), overrides.get("projectKey"));
-            try {
-                LOG.debug(String.format("Delivering email to:%s <%s>", user.getDisplayName(), user.getEmailAddress()));
-                JiraUtils.deliverEmail(overrides, user.getEmailAddress(), "/gov/pnnl/aperture/templates/email/welcome-project.vm.html", subject);
-            } catch (IOException ex) {
-                throw new WorkflowException(ex);
+        final NotificationBatch linked = createBatch(issue, projectKey, projectMembers, issueLinks);
+        final NotificationBatch unlinked = createBatch(issue, projectKey, projectMembers, Collections.emptyList());
+        final PermissionManager permissionManager = ComponentAccessor.getPermissionManager();
+        for (final ApplicationUser member : projectMembers) {
+            if (member != null && permissionManager.hasPermission(ProjectPermissions.BROWSE_PROJECTS, issue, member)) {
+                linked.addRecipient(member);
+            } else {
+                unlinked.addRecipient(member);
+            }
+        }
+        try {
+            LOG.debug(String.format("Delivering project creation notification for:%s to %d member(s); %d without the issue links", projectKey, linked.size() + unlinked.size(), unlinked.size()));
+            for (final NotificationBatch batch : Arrays.asList(linked, unlinked)) {
+                if (batch.size() > 0) {
+                    batch.deliver();
+                }
             }
+        } catch (IOException ex) {
+            throw new WorkflowException(ex);
         }
     }
 
+    private static NotificationBatch createBatch(final MutableIssue issue, final String projectKey, final Collection<ApplicationUser> projectMembers, final List<RemoteIssueLink> issueLinks) {
+
+        final NotificationBatch batch = new NotificationBatch("/gov/pnnl/aperture/templates/email/welcome-project.vm.html", String.format("Welcome to the %s [%s] project from Developer Central", issue.getSummary(), projectKey));
+        batch.addParameter("projectKey", projectKey);
+        batch.addParameter("issueLinks", issueLinks);
+        batch.addParameter("issue", issue);
+        batch.addParameter("actionUser", issue.getReporter());
+        batch.addParameter("headerTitle", String.format("Welcome to Developer Central Project '%s' / %s", issue.getSummary(), projectKey));
+        batch.addParameter("projectMembers", projectMembers);
+        return batch;
+    }
+
+    /**
+     * Gets the project members for an issue once per work-flow transition.
+     * <p>
+     * Membership is expanded from the issue's users and groups the first time it's requested during a transition and
+     * kept in the transient variables so that it is shared by every recipient and by any later post-function in the
+     * same transition.
+     *
+     * @param transientVars the transient variables of the current work-flow transition.
+     * @param issue         the issue to get the project members for.
+     * @return the project members requested by the given issue.
+     */
+    @SuppressWarnings("unchecked")
+    private Collection<ApplicationUser> getProjectMembers(final Map transientVars, final MutableIssue issue) {
+
+        Collection<ApplicationUser> projectMembers = (Collection<ApplicationUser>) transientVars.get(PROJECT_MEMBERS_KEY);
+        if (projectMembers == null) {
+            projectMembers = apertureSettings.getProjectMembersFor(issue);
+            transientVars.put(PROJECT_MEMBERS_KEY, projectMembers);
+        }
+        return projectMembers;
+    }
 }
@@ -7,33 +7,49 @@ import com.atlassian.applinks.api.CredentialsRequiredException;
 import com.atlassian.extras.common.org.springframework.util.StringUtils;
 import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.issue.Issue;
-import com.atlassian.jira.issue.IssueKey;
 import com.atlassian.jira.issue.fields.CustomField;
 import com.atlassian.jira.project.Project;
 import com.atlassian.jira.project.ProjectManager;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.plugin.util.Assertions;
 import com.atlassian.sal.api.net.Request;
-import com.atlassian.sal.api.net.Response;
 import com.atlassian.sal.api.net.ResponseException;
-import com.atlassian.sal.api.net.ResponseStatusException;
 import com.opensymphony.module.propertyset.PropertySet;
 import com.opensymphony.workflow.InvalidInputException;
 import com.opensymphony.workflow.Validator;
 import com.opensymphony.workflow.WorkflowException;
+import gov.pnnl.aperture.ApertureKeyAvailability;
 import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProjectKey;
+import gov.pnnl.aperture.ProvisioningBatch;
 import org.apache.log4j.Logger;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
 
-import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 /**
  * JIRA Work-flow validator for validating the {@link ApertureSettings.CustomField#PROJECT_KEY} custom field is valid.
  * <p>
  * A valid project key is first and foremost a valid JIRA project key. Secondly it's a project key that is not already
- * in use in the current JIRA installation.
+ * in use in the current JIRA installation nor in any of the linked remote services; the remote services are looked up
+ * through the {@link ApertureKeyAvailability} component, so repeated checks of a key are answered from its cache and a
+ * slow or unavailable service no longer blocks the work-flow transition.
+ * <p>
+ * {@link #validate(Collection)} validates the keys of a bulk import at once, checking every key against Confluence in
+ * a few batched requests instead of one request per key; keys validated that way are only checked against the other
+ * remote services when the request issues of the {@link ProvisioningBatch} are created.
  *
  * @author Developer Central @ PNNL
  */
@@ -48,21 +64,32 @@ public class ProjectKeyValidator implements Validator {
      */
     private final ApertureSettings apertureSettings;
     /**
-     * Common regular expression pattern for allowable project keys across all Developer Central services.
+     * Reference to the remote project key availability lookups in this application context.
+     */
+    private final ApertureKeyAvailability keyAvailability;
+    /**
+     * Maximum number of space keys looked up in a single Confluence request.
      */
-    private final Pattern keyPattern = Pattern.compile("[A-Za-z]+", Pattern.CASE_INSENSITIVE);
+    private static final int SPACE_KEYS_PER_REQUEST = 50;
+    /**
+     * Remote services {@link #validate(Collection)} checks the keys of a bulk import against.
+     */
+    public static final Set<ApertureSettings.ProjectService> BULK_VERIFIED_SERVICES = Collections.unmodifiableSet(EnumSet.of(ApertureSettings.ProjectService.CONFLUENCE));
 
     /**
      * Default constructor for this class.
      * <p>
      *
      * @param apertureSettings reference to the current Aperture component implementation in the current context.
-     * @throws IllegalArgumentException if the aperture service provided is null.
+     * @param keyAvailability  reference to the remote project key availability lookups in the current context.
+     * @throws IllegalArgumentException if either component provided is null.
      */
-    public ProjectKeyValidator(final ApertureSettings apertureSettings) {
+    public ProjectKeyValidator(final ApertureSettings apertureSettings, final ApertureKeyAvailability keyAvailability) {
 
         Assertions.notNull("ApertureSettings", apertureSettings);
+        Assertions.notNull("ApertureKeyAvailability", keyAvailability);
         this.apertureSettings = apertureSettings;
+        this.keyAvailability = keyAvailability;
     }
 
     /**
@@ -75,78 +102,131 @@ public class ProjectKeyValidator implements Validator {
         final CustomField customField = apertureSettings.getCustomField(ApertureSettings.CustomField.PROJECT_KEY);
         final String projectKey = (String) issue.getCustomFieldValue(customField);
 
-        final boolean validKey = IssueKey.isValidKey(IssueKey.format(projectKey, 1));
-        if (!validKey) {
-            final String msg = String.format("The project key '%s' is not a valid project key; please check the format.", projectKey);
+        final String problem = getKeyProblem(projectKey);
+        if (problem != null) {
+            throw new InvalidInputException(problem);
+        }
+        final ProvisioningBatch batch = ProvisioningBatch.current();
+        final Collection<ApertureSettings.ProjectService> checked = batch == null ? Collections.emptySet() : batch.getVerifiedServices(projectKey);
+        final Collection<ApertureSettings.ProjectService> services = keyAvailability.getServicesUsing(projectKey, checked);
+        if (!services.isEmpty()) {
+            final List<String> names = new ArrayList<>();
+            for (final ApertureSettings.ProjectService service : services) {
+                names.add(StringUtils.capitalize(service.name().toLowerCase(Locale.ENGLISH)));
+            }
+            final String msg = String.format("The project key '%s' is valid but in use in %s", projectKey, String.join(", ", names));
             throw new InvalidInputException(msg);
         }
+    }
 
-        final Matcher matcher = keyPattern.matcher(projectKey);
-        if (matcher.matches()) {
-            final ProjectManager projectManager = ComponentAccessor.getProjectManager();
-            final Project projectObjByKey = projectManager.getProjectByCurrentKeyIgnoreCase(projectKey);
-            if (projectObjByKey != null) {
-                final ApplicationUser projectLead = projectObjByKey.getProjectLead();
-                final Object[] mArgs = {
-                    projectKey, projectObjByKey.getName(), projectLead.getEmailAddress(), projectLead.getName()
-                };
-                final String msg = String.format("The project key '%s' is already in use by project '%s' please contact project lead <a href=\"mailto:%s\">%s</a>.", mArgs);
-                throw new InvalidInputException(msg);
+    /**
+     * Validates the project keys of a bulk import.
+     * <p>
+     * Besides the checks made for a single request, a key that appears more than once is rejected; the keys that pass
+     * every JIRA check are then looked up in the {@link #BULK_VERIFIED_SERVICES} together. The other remote services
+     * are checked for each key when its request issue is created.
+     *
+     * @param projectKeys the project keys to validate.
+     * @return the problem with each invalid key, in the order given; empty if every key is valid.
+     * @throws IllegalStateException if Confluence cannot be queried.
+     */
+    public Map<String, String> validate(final Collection<String> projectKeys) {
+
+        final Map<String, String> problems = new LinkedHashMap<>();
+        final Set<String> seen = new HashSet<>();
+        final List<String> remaining = new ArrayList<>();
+        for (final String projectKey : projectKeys) {
+            final String problem = getKeyProblem(projectKey);
+            if (problem != null) {
+                problems.put(projectKey, problem);
+            } else if (!seen.add(ProjectKey.normalize(projectKey))) {
+                problems.put(projectKey, String.format("The project key '%s' is listed more than once.", projectKey));
+            } else {
+                remaining.add(projectKey);
             }
-        } else {
-            final String msg = String.format("The project key '%s' is not valid and must consist of letters only (A-Z, a-z)", projectKey);
-            throw new InvalidInputException(msg);
         }
-        if (isConfluenceKeyInUse(projectKey)) {
-            final String msg = String.format("The project key '%s' is valid but in use in Conflunce", projectKey);
-            throw new InvalidInputException(msg);
+        for (final String projectKey : getConfluenceKeysInUse(remaining)) {
+            problems.put(projectKey, String.format("The project key '%s' is valid but in use in Confluence", projectKey));
+        }
+        return problems;
+    }
+
+    /**
+     * Checks a project key against the JIRA key format and the projects in this JIRA installation.
+     * <p>
+     *
+     * @param projectKey the project key to check.
+     * @return description of the problem with the key; or <code>null</code> if it can be used.
+     */
+    private String getKeyProblem(final String projectKey) {
+
+        if (!StringUtils.hasText(projectKey)) {
+            return String.format("The project key '%s' is not a valid project key; please check the format.", projectKey);
         }
+        if (!ProjectKey.isValid(projectKey)) {
+            return String.format("The project key '%s' is not valid and must consist of letters only (A-Z, a-z)", projectKey);
+        }
+
+        final ProjectManager projectManager = ComponentAccessor.getProjectManager();
+        final Project projectObjByKey = projectManager.getProjectByCurrentKeyIgnoreCase(projectKey);
+        if (projectObjByKey != null) {
+            final ApplicationUser projectLead = projectObjByKey.getProjectLead();
+            final Object[] mArgs = {
+                projectKey, projectObjByKey.getName(), projectLead.getEmailAddress(), projectLead.getName()
+            };
+            return String.format("The project key '%s' is already in use by project '%s' please contact project lead <a href=\"mailto:%s\">%s</a>.", mArgs);
+        }
+        return null;
     }
 
     /**
-     * Verifies that the confluence space key for a project key is also not already in use.
+     * Finds which of a number of project keys are already in use as Confluence space keys.
      * <p>
-     * Verifies that the confluence space key is also not already in use using the API call
-     * https://docs.atlassian.com/confluence/REST/latest/#d3e143
+     * Uses the space listing https://docs.atlassian.com/confluence/REST/latest/#space-spaces filtered by up to
+     * {@link #SPACE_KEYS_PER_REQUEST} space keys per request.
      *
-     * @param projectKey the project key to use as the confluence space key to check availability for.
-     * @return <code>true</code> if the confluence key is in use and cannot be used for a new project.
+     * @param projectKeys the project keys to look up.
+     * @return the given project keys that are in use in Confluence.
      */
-    private boolean isConfluenceKeyInUse(final String projectKey) {
+    private Collection<String> getConfluenceKeysInUse(final List<String> projectKeys) {
 
+        final List<String> inUse = new ArrayList<>();
         final ApplicationLink link = apertureSettings.getApplicationLink(ApertureSettings.ProjectService.CONFLUENCE);
-        if (link == null) {
-            LOG.warn("No confluence application link is configured; cannot verify key in use.");
-            return false;
+        if (link == null || projectKeys.isEmpty()) {
+            if (link == null) {
+                LOG.warn("No confluence application link is configured; cannot verify keys in use.");
+            }
+            return inUse;
         }
         final ApplicationLinkRequestFactory factory = link.createAuthenticatedRequestFactory();
-        String url = String.format("/rest/api/space/%s", projectKey);
-        final ApplicationLinkRequest request;
-        try {
-            request = factory.createRequest(Request.MethodType.GET, url);
-            request.addHeader("Content-Type", "application/json");
-            LOG.info(String.format("Checking Confluence Space Key:[%s]", projectKey));
-            final String response = request.execute();
-            LOG.debug(String.format("Confluence space response:[%s] => %s", projectKey, response));
-            if (StringUtils.hasText(response)) {
-                return true;
-            }
-        } catch (ResponseStatusException ex) {
-            final Response response = ex.getResponse();
-            if (response.getStatusCode() == HttpServletResponse.SC_NOT_FOUND) {
-                // the space doesn't exist or we don't have permissions to view the space //
-                return false;
+        for (int start = 0; start < projectKeys.size(); start += SPACE_KEYS_PER_REQUEST) {
+            final List<String> chunk = projectKeys.subList(start, Math.min(projectKeys.size(), start + SPACE_KEYS_PER_REQUEST));
+            final StringBuilder url = new StringBuilder(String.format("/rest/api/space?limit=%d", chunk.size()));
+            try {
+                for (final String projectKey : chunk) {
+                    url.append("&spaceKey=").append(URLEncoder.encode(ProjectKey.normalize(projectKey), "UTF-8"));
+                }
+                final ApplicationLinkRequest request = factory.createRequest(Request.MethodType.GET, url.toString());
+                request.addHeader("Content-Type", "application/json");
+                LOG.info(String.format("Checking %d Confluence Space Key(s)", chunk.size()));
+                final JsonNode response = new ObjectMapper().readTree(request.execute());
+                final Set<String> spaceKeys = new HashSet<>();
+                for (final JsonNode space : response.path("results")) {
+                    spaceKeys.add(ProjectKey.normalize(space.path("key").asText()));
+                }
+                for (final String projectKey : chunk) {
+                    if (spaceKeys.contains(ProjectKey.normalize(projectKey))) {
+                        inUse.add(projectKey);
+                    }
+                }
+            } catch (CredentialsRequiredException ex) {
+                LOG.error("Invalid credentials while checking for existing confluence spaces.", ex);
+                throw new IllegalStateException(ex);
+            } catch (ResponseException | IOException ex) {
+                LOG.error(String.format("General response error checking confluence space keys:%s", chunk), ex);
+                throw new IllegalStateException(ex);
             }
-            // if the response is something other than 200 or 404 i.e. error re-throw the error //
-            LOG.warn(String.format("Response status exception while checking for existing space:'%s'", projectKey), ex);
-            throw new IllegalStateException(ex);
-        } catch (CredentialsRequiredException ex) {
-            LOG.error("Invalid credentials while checking for existing confluence space.", ex);
-            throw new IllegalStateException(ex);
-        } catch (ResponseException ex) {
-            LOG.error(String.format("General response error checking confluence space key:%s", projectKey), ex);
-            throw new IllegalStateException(ex);
         }
-        return false;
+        return inUse;
     }
 }
@@ -0,0 +1,60 @@
+/**
+ * Suggests available project keys while the project key of a request is typed.
+ *
+ * @author Developer Central @ PNNL
+ */
+(function ($) {
+    var fieldId = WRM.data.claim("gov.pnnl.aperture.aperture:pnnl-aperture-key-suggestions.project-key-field");
+    if (!fieldId) {
+        return;
+    }
+
+    function render(hint, input, result) {
+        hint.empty();
+        if (!result.key) {
+            return;
+        }
+        if (result.available) {
+            hint.text(result.key + " is available.");
+            return;
+        }
+        hint.text(result.key + (result.usedBy.length ? " is in use in " + result.usedBy.join(", ") + "." : " cannot be used."));
+        if (result.suggestions.length) {
+            hint.append(" Try ");
+            $.each(result.suggestions, function (i, suggestion) {
+                $("<a href='#'></a>").text(suggestion).on("click", function (e) {
+                    e.preventDefault();
+                    input.val(suggestion).trigger("input");
+                }).appendTo(hint);
+                hint.append(i < result.suggestions.length - 1 ? ", " : ".");
+            });
+        }
+    }
+
+    function bind(context) {
+        $(context).find("#" + fieldId).not(".apr-key-suggestions").addClass("apr-key-suggestions").each(function () {
+            var input = $(this);
+            var form = input.closest("form");
+            var hint = $("<div class='description apr-key-hint'></div>").insertAfter(input);
+            var timer = null;
+            input.on("input", function () {
+                clearTimeout(timer);
+                timer = setTimeout(function () {
+                    $.getJSON(AJS.contextPath() + "/secure/ApertureKeySuggestions.jspa", {
+                        key: $.trim(input.val()),
+                        name: form.find("#summary").val()
+                    }).done(function (result) {
+                        render(hint, input, result);
+                    });
+                }, 300);
+            });
+        });
+    }
+
+    JIRA.bind(JIRA.Events.NEW_CONTENT_ADDED, function (e, context) {
+        bind(context);
+    });
+    $(function () {
+        bind(document);
+    });
+})(AJS.$);
@@ -0,0 +1,73 @@
+package ut.gov.pnnl.aperture;
+
+import gov.pnnl.aperture.AclChange;
+import gov.pnnl.aperture.Aperture;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class AclChangeTest {
+
+    private static AclChange change(final String id, final String username, final Aperture.PermissionMode mode, final Aperture.Role role) {
+
+        return new AclChange(id, "DEVCTR", username, mode, role, Arrays.asList("jdoe", "asmith", "jdoe"), Collections.singletonList("devs"));
+    }
+
+    @Test
+    public void testMergeableWithSameUserModeAndRole() {
+
+        final AclChange first = change("1", "admin", Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER);
+        assertTrue(first.isMergeableWith(change("2", "admin", Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER)));
+        assertTrue(first.isMergeableWith(first));
+    }
+
+    @Test
+    public void testNotMergeableWhenAnythingDiffers() {
+
+        final AclChange first = change("1", "admin", Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER);
+        assertFalse(first.isMergeableWith(change("2", "other", Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER)));
+        assertFalse(first.isMergeableWith(change("3", "admin", Aperture.PermissionMode.REMOVE, Aperture.Role.DEVELOPER)));
+        assertFalse(first.isMergeableWith(change("4", "admin", Aperture.PermissionMode.ADD, Aperture.Role.MANAGER)));
+        assertFalse(first.isMergeableWith(change("5", null, Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER)));
+        assertTrue(change("6", null, Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER).isMergeableWith(change("7", null, Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER)));
+    }
+
+    @Test
+    public void testNamesAreDistinctInOrder() {
+
+        final AclChange change = change("1", "admin", Aperture.PermissionMode.ADD, Aperture.Role.USER);
+        assertEquals(Arrays.asList("jdoe", "asmith"), Arrays.asList(change.getUserNames().toArray()));
+        assertEquals(Collections.singleton("devs"), change.getGroupNames());
+    }
+
+    @Test
+    public void testLifecycle() {
+
+        final AclChange change = change("1", "admin", Aperture.PermissionMode.ADD, Aperture.Role.USER);
+        assertEquals(AclChange.Status.QUEUED, change.getStatus());
+        assertFalse(change.isComplete());
+        assertEquals(0L, change.getCompletedAt());
+        change.started();
+        assertEquals(AclChange.Status.RUNNING, change.getStatus());
+        assertFalse(change.isComplete());
+        change.completed(Collections.emptyList());
+        assertEquals(AclChange.Status.DONE, change.getStatus());
+        assertTrue(change.isComplete());
+        assertTrue(change.getCompletedAt() >= change.getSubmittedAt());
+        assertTrue(change.getErrors().isEmpty());
+    }
+
+    @Test
+    public void testCompletedWithErrorsFails() {
+
+        final AclChange change = change("1", "admin", Aperture.PermissionMode.REMOVE, Aperture.Role.ADMIN);
+        change.started();
+        change.completed(Collections.singletonList("Bitbucket is unavailable"));
+        assertEquals(AclChange.Status.FAILED, change.getStatus());
+        assertTrue(change.isComplete());
+        assertEquals(Collections.singletonList("Bitbucket is unavailable"), change.getErrors());
+    }
+}
@@ -0,0 +1,30 @@
+package ut.gov.pnnl.aperture;
+
+import gov.pnnl.aperture.MembershipResolver;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MembershipResolverTest {
+
+    @Test
+    public void testCloseRestoresEnclosingResolver() {
+
+        try (MembershipResolver outer = MembershipResolver.open(MembershipResolver.UNLIMITED)) {
+            try (MembershipResolver inner = MembershipResolver.open(10)) {
+                assertSame(inner, MembershipResolver.current());
+                assertEquals(10, MembershipResolver.current().getMaxMembers());
+            }
+            assertSame(outer, MembershipResolver.current());
+        }
+        final MembershipResolver unbound = MembershipResolver.current();
+        assertNotSame(unbound, MembershipResolver.current());
+        assertEquals(MembershipResolver.UNLIMITED, unbound.getMaxMembers());
+    }
+
+    @Test
+    public void testNegativeMaximumIsUnlimited() {
+
+        assertEquals(MembershipResolver.UNLIMITED, new MembershipResolver(-1).getMaxMembers());
+    }
+}
@@ -0,0 +1,82 @@
+package ut.gov.pnnl.aperture;
+
+import gov.pnnl.aperture.ProjectKey;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class ProjectKeyTest {
+
+    @Test
+    public void testIsValid() {
+
+        assertTrue(ProjectKey.isValid("DEVCTR"));
+        assertTrue(ProjectKey.isValid("devCtr"));
+        assertTrue(ProjectKey.isValid(new StringBuilder("abc")));
+        assertFalse(ProjectKey.isValid(null));
+        assertFalse(ProjectKey.isValid(""));
+        assertFalse(ProjectKey.isValid("DEV1"));
+        assertFalse(ProjectKey.isValid("DEV CTR"));
+        assertFalse(ProjectKey.isValid("DEV_CTR"));
+        assertFalse(ProjectKey.isValid("ÄBC"));
+    }
+
+    @Test
+    public void testNormalize() {
+
+        assertNull(ProjectKey.normalize(null));
+        assertEquals("", ProjectKey.normalize(""));
+        assertEquals("DEVCTR", ProjectKey.normalize("devctr"));
+        assertEquals("DEVCTR", ProjectKey.normalize("DevCtr"));
+        assertEquals("DEV-1", ProjectKey.normalize("dev-1"));
+    }
+
+    @Test
+    public void testNormalizeKeepsUpperCaseValue() {
+
+        final String value = "DEVCTR";
+        assertSame(value, ProjectKey.normalize(value));
+    }
+
+    @Test
+    public void testNormalizeIgnoresDefaultLocale() {
+
+        final Locale previous = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertEquals("INFRA", ProjectKey.normalize("infra"));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void testOf() {
+
+        final ProjectKey projectKey = ProjectKey.of("devCtr");
+        assertEquals("DEVCTR", projectKey.toString());
+        assertEquals(ProjectKey.of("DEVCTR"), projectKey);
+        assertEquals(ProjectKey.of("DEVCTR").hashCode(), projectKey.hashCode());
+        assertTrue(ProjectKey.of("ABC").compareTo(projectKey) < 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfRejectsDigits() {
+
+        ProjectKey.of("DEV1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfRejectsEmptyValue() {
+
+        ProjectKey.of("");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfRejectsNull() {
+
+        ProjectKey.of(null);
+    }
+}
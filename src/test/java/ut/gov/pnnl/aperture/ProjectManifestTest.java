@@ -0,0 +1,115 @@
+package ut.gov.pnnl.aperture;
+
+import gov.pnnl.aperture.ProjectManifest;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProjectManifestTest {
+
+    @Test
+    public void testCsvInDefaultColumnOrder() {
+
+        final ProjectManifest manifest = ProjectManifest.parse("devctr, Developer Central, jdoe, devs; admins, asmith;bjones, Tools\n");
+        assertEquals(1, manifest.getEntries().size());
+        final ProjectManifest.Entry entry = manifest.getEntries().get(0);
+        assertEquals(1, entry.getLine());
+        assertEquals("DEVCTR", entry.getKey());
+        assertEquals("Developer Central", entry.getName());
+        assertEquals("jdoe", entry.getLead());
+        assertEquals(Arrays.asList("devs", "admins"), entry.getGroups());
+        assertEquals(Arrays.asList("asmith", "bjones"), entry.getUsers());
+        assertEquals("Tools", entry.getCategory());
+    }
+
+    @Test
+    public void testCsvHeaderReordersColumns() {
+
+        final ProjectManifest manifest = ProjectManifest.parse("# projects of the tools group\nKEY,lead,name\nabc,jdoe,Alpha\n\nxyz,asmith,\n");
+        final List<ProjectManifest.Entry> entries = manifest.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("ABC", entries.get(0).getKey());
+        assertEquals("jdoe", entries.get(0).getLead());
+        assertEquals("Alpha", entries.get(0).getName());
+        assertEquals(3, entries.get(0).getLine());
+        assertEquals("The name should default to the key.", "XYZ", entries.get(1).getName());
+        assertEquals(5, entries.get(1).getLine());
+        assertTrue(entries.get(1).getGroups().isEmpty());
+        assertEquals("", entries.get(1).getCategory());
+    }
+
+    @Test
+    public void testCsvQuotedValues() {
+
+        final ProjectManifest manifest = ProjectManifest.parse("abc,\"Alpha, \"\"Beta\"\"\",jdoe");
+        assertEquals("Alpha, \"Beta\"", manifest.getEntries().get(0).getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCsvUnterminatedQuote() {
+
+        ProjectManifest.parse("abc,\"Alpha,jdoe");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCsvHeaderOnly() {
+
+        ProjectManifest.parse("key\n");
+    }
+
+    @Test
+    public void testJsonArray() {
+
+        final ProjectManifest manifest = ProjectManifest.parse("[{\"key\":\"abc\",\"name\":\"Alpha\",\"lead\":\"jdoe\",\"groups\":[\"devs\",\" \"],\"users\":\"asmith;bjones\"},{\"key\":\"xyz\",\"lead\":\"asmith\"}]");
+        final List<ProjectManifest.Entry> entries = manifest.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("ABC", entries.get(0).getKey());
+        assertEquals(Collections.singletonList("devs"), entries.get(0).getGroups());
+        assertEquals(Arrays.asList("asmith", "bjones"), entries.get(0).getUsers());
+        assertEquals(2, entries.get(1).getLine());
+        assertEquals("XYZ", entries.get(1).getName());
+        assertTrue(entries.get(1).getUsers().isEmpty());
+    }
+
+    @Test
+    public void testJsonObjectWithProjects() {
+
+        final ProjectManifest manifest = ProjectManifest.parse("{\"projects\":[{\"key\":\"abc\",\"lead\":\"jdoe\",\"category\":\"Tools\"}]}");
+        assertEquals(Collections.singletonList("ABC"), manifest.getProjectKeys());
+        assertEquals("Tools", manifest.getEntries().get(0).getCategory());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testJsonWithoutProjectsArray() {
+
+        ProjectManifest.parse("{\"key\":\"abc\"}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedJson() {
+
+        ProjectManifest.parse("[{\"key\":");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyManifest() {
+
+        ProjectManifest.parse("  \n ");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testManifestWithoutProjects() {
+
+        ProjectManifest.parse("# nothing to import\n");
+    }
+
+    @Test
+    public void testProjectKeysInManifestOrder() {
+
+        assertEquals(Arrays.asList("CCC", "AAA", "BBB"), ProjectManifest.parse("ccc\naaa\nbbb").getProjectKeys());
+    }
+}
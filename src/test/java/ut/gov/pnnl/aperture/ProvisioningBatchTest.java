@@ -0,0 +1,43 @@
+package ut.gov.pnnl.aperture;
+
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProvisioningBatch;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ProvisioningBatchTest {
+
+    @Test
+    public void testCloseRestoresEnclosingBatch() {
+
+        try (ProvisioningBatch outer = ProvisioningBatch.open("outer")) {
+            try (ProvisioningBatch inner = ProvisioningBatch.open("inner")) {
+                assertSame(inner, ProvisioningBatch.current());
+            }
+            assertSame(outer, ProvisioningBatch.current());
+        }
+        assertNull(ProvisioningBatch.current());
+    }
+
+    @Test
+    public void testSharedResourcesAreReleasedOnClose() {
+
+        try (ProvisioningBatch ignored = ProvisioningBatch.open("batch")) {
+            final Object resource = ProvisioningBatch.shared("resource", Object::new);
+            assertSame(resource, ProvisioningBatch.shared("resource", Object::new));
+        }
+        assertNotSame(ProvisioningBatch.shared("resource", Object::new), ProvisioningBatch.shared("resource", Object::new));
+    }
+
+    @Test
+    public void testVerifiedServicesOfKey() {
+
+        try (ProvisioningBatch batch = ProvisioningBatch.open("batch", Collections.singletonList("devctr"), Collections.singletonList(ApertureSettings.ProjectService.CONFLUENCE))) {
+            assertEquals(Collections.singleton(ApertureSettings.ProjectService.CONFLUENCE), batch.getVerifiedServices("DEVCTR"));
+            assertTrue(batch.getVerifiedServices("OTHER").isEmpty());
+        }
+    }
+}
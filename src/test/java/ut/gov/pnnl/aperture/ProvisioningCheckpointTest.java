@@ -0,0 +1,153 @@
+package ut.gov.pnnl.aperture;
+
+import com.atlassian.jira.util.json.JSONException;
+import gov.pnnl.aperture.ApertureCheckpointStore;
+import gov.pnnl.aperture.ApertureSettings;
+import gov.pnnl.aperture.ProvisioningCheckpoint;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ProvisioningCheckpointTest {
+
+    @Test
+    public void testJsonRoundTrip() throws JSONException {
+
+        final InMemoryStore store = new InMemoryStore();
+        final Date retryAt = new Date(System.currentTimeMillis() + 60000L);
+        try (ProvisioningCheckpoint checkpoint = ProvisioningCheckpoint.open(store, "REQ-42")) {
+            checkpoint.recordProjectKey("devctr");
+            checkpoint.complete(ProvisioningCheckpoint.START);
+            ProvisioningCheckpoint.putRemoteId(ApertureSettings.ProjectService.JIRA, "projectId", "10100");
+            checkpoint.complete(ApertureSettings.ProjectService.JIRA, ProvisioningCheckpoint.CREATE);
+            checkpoint.fail(ApertureSettings.ProjectService.CONFLUENCE, "first line\nsecond line");
+            checkpoint.fail(ApertureSettings.ProjectService.CONFLUENCE, "timed out");
+            checkpoint.retryAt(retryAt);
+        }
+
+        final ProvisioningCheckpoint decoded = ProvisioningCheckpoint.fromJson(store.values.get("REQ-42"));
+        assertEquals("REQ-42", decoded.getIssueKey());
+        assertEquals("DEVCTR", decoded.getRecordedProjectKey());
+        assertEquals(2, decoded.getSteps().size());
+        assertTrue(decoded.isComplete(ProvisioningCheckpoint.START));
+        assertTrue(decoded.isComplete(ApertureSettings.ProjectService.JIRA, ProvisioningCheckpoint.CREATE));
+        assertFalse(decoded.isComplete(ApertureSettings.ProjectService.CONFLUENCE, ProvisioningCheckpoint.CREATE));
+        assertEquals(Collections.singletonMap("projectId", "10100"), decoded.getRemoteIds(ApertureSettings.ProjectService.JIRA));
+        assertEquals(Collections.singleton(ApertureSettings.ProjectService.CONFLUENCE), decoded.getFailures().keySet());
+        final ProvisioningCheckpoint.Failure failure = decoded.getFailures().get(ApertureSettings.ProjectService.CONFLUENCE);
+        assertEquals(2, failure.getAttempts());
+        assertEquals("timed out", failure.getReason());
+        assertEquals(retryAt, decoded.getRetryAt());
+        assertEquals("Encoding the decoded checkpoint should be stable.", store.values.get("REQ-42"), decoded.toJson());
+    }
+
+    @Test
+    public void testFailureReasonKeepsFirstLineOnly() throws JSONException {
+
+        final ProvisioningCheckpoint checkpoint = new ProvisioningCheckpoint("REQ-1");
+        checkpoint.fail(ApertureSettings.ProjectService.BITBUCKET, "refused\n\tat Some.frame()");
+        final ProvisioningCheckpoint decoded = ProvisioningCheckpoint.fromJson(checkpoint.toJson());
+        assertEquals("refused", decoded.getFailures().get(ApertureSettings.ProjectService.BITBUCKET).getReason());
+        assertNull(decoded.getRetryAt());
+        assertNull(decoded.getRecordedProjectKey());
+    }
+
+    @Test
+    public void testEmptyCheckpointRoundTrip() throws JSONException {
+
+        final ProvisioningCheckpoint decoded = ProvisioningCheckpoint.fromJson(new ProvisioningCheckpoint("REQ-7").toJson());
+        assertEquals("REQ-7", decoded.getIssueKey());
+        assertTrue(decoded.getSteps().isEmpty());
+        assertTrue(decoded.getFailures().isEmpty());
+        assertNull(decoded.getUpdatedAt());
+    }
+
+    @Test(expected = JSONException.class)
+    public void testUnreadableJsonIsRejected() throws JSONException {
+
+        ProvisioningCheckpoint.fromJson("[\"not a checkpoint\"]");
+    }
+
+    @Test
+    public void testChangedProjectKeyDiscardsSteps() {
+
+        final ProvisioningCheckpoint checkpoint = new ProvisioningCheckpoint("REQ-42");
+        assertFalse(checkpoint.recordProjectKey("OLD"));
+        checkpoint.complete(ApertureSettings.ProjectService.JIRA, ProvisioningCheckpoint.CREATE);
+        assertFalse("The same key should keep the steps.", checkpoint.recordProjectKey("old"));
+        assertTrue(checkpoint.isComplete(ApertureSettings.ProjectService.JIRA, ProvisioningCheckpoint.CREATE));
+        assertTrue("Another key should discard the steps.", checkpoint.recordProjectKey("NEW"));
+        assertTrue(checkpoint.getSteps().isEmpty());
+        assertEquals("NEW", checkpoint.getRecordedProjectKey());
+    }
+
+    @Test
+    public void testRevertServiceStep() {
+
+        final ProvisioningCheckpoint checkpoint = new ProvisioningCheckpoint("REQ-42");
+        checkpoint.complete(ApertureSettings.ProjectService.JIRA, ProvisioningCheckpoint.CREATE);
+        checkpoint.complete(ApertureSettings.ProjectService.CONFLUENCE, ProvisioningCheckpoint.CREATE);
+        checkpoint.revert(ApertureSettings.ProjectService.JIRA, ProvisioningCheckpoint.CREATE);
+        assertFalse(checkpoint.isComplete(ApertureSettings.ProjectService.JIRA, ProvisioningCheckpoint.CREATE));
+        assertTrue(checkpoint.isComplete(ApertureSettings.ProjectService.CONFLUENCE, ProvisioningCheckpoint.CREATE));
+    }
+
+    /**
+     * Checkpoint store keeping the encoded checkpoints in memory.
+     */
+    private static final class InMemoryStore implements ApertureCheckpointStore {
+
+        private final Map<String, String> values = new HashMap<>();
+
+        @Override
+        public ProvisioningCheckpoint load(final String issueKey) {
+
+            try {
+                return values.containsKey(issueKey) ? ProvisioningCheckpoint.fromJson(values.get(issueKey)) : new ProvisioningCheckpoint(issueKey);
+            } catch (JSONException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public void save(final ProvisioningCheckpoint checkpoint) {
+
+            values.put(checkpoint.getIssueKey(), checkpoint.toJson());
+        }
+
+        @Override
+        public void release(final String issueKey) {
+
+        }
+
+        @Override
+        public void remove(final String issueKey) {
+
+            values.remove(issueKey);
+        }
+
+        @Override
+        public Collection<String> getInFlightIssueKeys() {
+
+            return values.keySet();
+        }
+
+        @Override
+        public Collection<String> getFailedIssueKeys() {
+
+            return Collections.emptyList();
+        }
+
+        @Override
+        public int prune() {
+
+            return 0;
+        }
+    }
+}
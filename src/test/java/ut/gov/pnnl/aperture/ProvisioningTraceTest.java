@@ -0,0 +1,45 @@
+package ut.gov.pnnl.aperture;
+
+import gov.pnnl.aperture.ProvisioningTrace;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ProvisioningTraceTest {
+
+    @Test
+    public void testSpanWithoutTraceIsShared() {
+
+        final ProvisioningTrace.Span first = ProvisioningTrace.start(ProvisioningTrace.PHASE, "first");
+        final ProvisioningTrace.Span second = ProvisioningTrace.start(ProvisioningTrace.REMOTE, "second");
+        assertSame(first, second);
+        first.setStatus("500");
+        first.failed();
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testNameIsNotBuiltWithoutTrace() {
+
+        final AtomicInteger built = new AtomicInteger();
+        try (ProvisioningTrace.Span ignored = ProvisioningTrace.start(ProvisioningTrace.REMOTE, () -> String.valueOf(built.incrementAndGet()))) {
+            assertEquals(0, built.get());
+        }
+    }
+
+    @Test
+    public void testNameIsBuiltWithTrace() {
+
+        final AtomicInteger built = new AtomicInteger();
+        try (ProvisioningTrace ignored = ProvisioningTrace.open("test")) {
+            final ProvisioningTrace.Span span = ProvisioningTrace.start(ProvisioningTrace.REMOTE, () -> String.valueOf(built.incrementAndGet()));
+            assertEquals(1, built.get());
+            assertNotSame(span, ProvisioningTrace.start(ProvisioningTrace.REMOTE, "other"));
+            span.close();
+        }
+        assertSame(ProvisioningTrace.start(ProvisioningTrace.PHASE, "after"), ProvisioningTrace.start(ProvisioningTrace.PHASE, "closed"));
+    }
+}
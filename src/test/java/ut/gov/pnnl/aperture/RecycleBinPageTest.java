@@ -0,0 +1,87 @@
+package ut.gov.pnnl.aperture;
+
+import gov.pnnl.aperture.ApertureRecycleBin;
+import gov.pnnl.aperture.RecycleBinEntry;
+import gov.pnnl.aperture.RecycleBinPage;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RecycleBinPageTest {
+
+    @Test
+    public void testFirstPage() {
+
+        final RecycleBinPage page = page(0, 10, 10, 25);
+        assertFalse(page.isEmpty());
+        assertFalse(page.hasPrevious());
+        assertTrue(page.hasNext());
+        assertEquals(0, page.getPreviousIndex());
+        assertEquals(10, page.getNextIndex());
+        assertEquals(25, page.getTotal());
+    }
+
+    @Test
+    public void testMiddlePage() {
+
+        final RecycleBinPage page = page(10, 10, 10, 25);
+        assertTrue(page.hasPrevious());
+        assertTrue(page.hasNext());
+        assertEquals(0, page.getPreviousIndex());
+        assertEquals(20, page.getNextIndex());
+    }
+
+    @Test
+    public void testLastPartialPage() {
+
+        final RecycleBinPage page = page(20, 10, 5, 25);
+        assertTrue(page.hasPrevious());
+        assertFalse(page.hasNext());
+        assertEquals(10, page.getPreviousIndex());
+        assertEquals(5, page.getEntries().size());
+    }
+
+    @Test
+    public void testPreviousIndexIsNeverNegative() {
+
+        final RecycleBinPage page = page(3, 10, 10, 25);
+        assertTrue(page.hasPrevious());
+        assertEquals(0, page.getPreviousIndex());
+    }
+
+    @Test
+    public void testEmptyPage() {
+
+        final RecycleBinPage page = page(0, 10, 0, 0);
+        assertTrue(page.isEmpty());
+        assertFalse(page.hasPrevious());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    public void testSortingIsKept() {
+
+        final RecycleBinPage page = new RecycleBinPage(Collections.emptyList(), ApertureRecycleBin.SortField.PROJECT_NAME, false, 0, 10, 0);
+        assertEquals(ApertureRecycleBin.SortField.PROJECT_NAME, page.getSortField());
+        assertFalse(page.isAscending());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testEntriesAreUnmodifiable() {
+
+        page(0, 10, 1, 1).getEntries().clear();
+    }
+
+    private static RecycleBinPage page(final int startIndex, final int maxResults, final int size, final int total) {
+
+        final List<RecycleBinEntry> entries = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            entries.add(new RecycleBinEntry(null, null, null, null, "admin", null));
+        }
+        return new RecycleBinPage(entries, ApertureRecycleBin.SortField.PROJECT_NAME, true, startIndex, maxResults, total);
+    }
+}
@@ -0,0 +1,27 @@
+package ut.gov.pnnl.aperture.project.services;
+
+import gov.pnnl.aperture.project.services.MeteredRequestFactory;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class MeteredRequestFactoryTest {
+
+    @Test
+    public void testUtf8LengthMatchesEncoding() {
+
+        final String[] bodies = {"", "{\"key\":\"DEVCTR\"}", "caf\u00e9", "\u20ac 5", "\ud83d\ude80 launch", "\u00df\u4e2d\ud801\udc37"};
+        for (final String body : bodies) {
+            assertEquals(body, body.getBytes(StandardCharsets.UTF_8).length, MeteredRequestFactory.utf8Length(body));
+        }
+    }
+
+    @Test
+    public void testUtf8LengthOfUnpairedSurrogate() {
+
+        final String body = "a\ud83db\udc00";
+        assertEquals(body.getBytes(StandardCharsets.UTF_8).length, MeteredRequestFactory.utf8Length(body));
+    }
+}
@@ -0,0 +1,40 @@
+package ut.gov.pnnl.aperture.project.tasks;
+
+import gov.pnnl.aperture.project.tasks.ApertureProjectCreatorTask;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ApertureProjectCreatorTaskTest {
+
+    /**
+     * Default delay of the first retry, see <code>aperture.retry.delay</code>.
+     */
+    private static final long FIRST_DELAY = TimeUnit.MINUTES.toMillis(Integer.getInteger("aperture.retry.delay", 5));
+
+    @Test
+    public void testRetryDelayDoublesWithEveryAttempt() {
+
+        assertEquals(FIRST_DELAY, ApertureProjectCreatorTask.getRetryDelay(1));
+        assertEquals(FIRST_DELAY * 2, ApertureProjectCreatorTask.getRetryDelay(2));
+        assertEquals(FIRST_DELAY * 4, ApertureProjectCreatorTask.getRetryDelay(3));
+        assertEquals(FIRST_DELAY * 8, ApertureProjectCreatorTask.getRetryDelay(4));
+    }
+
+    @Test
+    public void testRetryDelayIsCappedAtFourHours() {
+
+        final long cap = TimeUnit.HOURS.toMillis(4);
+        assertEquals(cap, ApertureProjectCreatorTask.getRetryDelay(7));
+        assertEquals(cap, ApertureProjectCreatorTask.getRetryDelay(64));
+        assertEquals("Shifting must not overflow for large attempt counts.", cap, ApertureProjectCreatorTask.getRetryDelay(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testRetryDelayOfNoAttemptsIsTheFirstDelay() {
+
+        assertEquals(FIRST_DELAY, ApertureProjectCreatorTask.getRetryDelay(0));
+    }
+}
@@ -0,0 +1,54 @@
+package ut.gov.pnnl.aperture.project.tasks;
+
+import gov.pnnl.aperture.AclChange;
+import gov.pnnl.aperture.Aperture;
+import gov.pnnl.aperture.project.tasks.ProjectAclTask;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ProjectAclTaskTest {
+
+    private static ProjectAclTask newTask() {
+
+        final Aperture aperture = (Aperture) Proxy.newProxyInstance(Aperture.class.getClassLoader(), new Class<?>[]{Aperture.class}, (proxy, method, args) -> {
+            throw new UnsupportedOperationException(method.getName());
+        });
+        return new ProjectAclTask(aperture);
+    }
+
+    private static AclChange change(final String id, final String projectKey) {
+
+        return new AclChange(id, projectKey, "admin", Aperture.PermissionMode.ADD, Aperture.Role.DEVELOPER, Collections.singletonList("jdoe"), Collections.emptyList());
+    }
+
+    @Test
+    public void testOnlyFirstChangeOfProjectSchedulesJob() {
+
+        final ProjectAclTask task = newTask();
+        assertTrue(task.submit(change("1", "DEVCTR")));
+        assertFalse(task.submit(change("2", "devctr")));
+        assertTrue(task.submit(change("3", "OTHER")));
+        assertNotNull(task.getChange("2"));
+        assertNull(task.getChange("unknown"));
+        assertNull(task.getChange(""));
+    }
+
+    @Test
+    public void testAbandonFailsQueuedChanges() {
+
+        final ProjectAclTask task = newTask();
+        final AclChange first = change("1", "DEVCTR");
+        final AclChange second = change("2", "DEVCTR");
+        task.submit(first);
+        task.submit(second);
+        task.abandon("devctr", "Failed to schedule the job");
+        assertEquals(AclChange.Status.FAILED, first.getStatus());
+        assertEquals(Collections.singletonList("Failed to schedule the job"), second.getErrors());
+        // the project has no job any longer, so the next change schedules one again //
+        assertTrue(task.submit(change("3", "DEVCTR")));
+    }
+}